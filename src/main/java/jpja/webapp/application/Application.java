@@ -7,6 +7,7 @@ import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main entry point for the JPJA Web Application.
@@ -29,6 +30,8 @@ import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
  * repositories.</li>
  * <li>{@link EntityScan} - Configures scanning for JPA entities in the
  * specified package.</li>
+ * <li>{@link EnableScheduling} - Enables {@code @Scheduled} background
+ * jobs.</li>
  * </ul>
  * 
  * <p>
@@ -50,6 +53,7 @@ import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 @ComponentScan("jpja.webapp")
 @EnableJpaRepositories(basePackages = "jpja.webapp.repositories")
 @EntityScan(basePackages = "jpja.webapp.model.entities")
+@EnableScheduling
 @SpringBootApplication
 public class Application {
 
@@ -0,0 +1,74 @@
+package jpja.webapp.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import jpja.webapp.model.entities.BookingModifier;
+import jpja.webapp.model.entities.BookingStatus;
+import jpja.webapp.repositories.BookingRepository;
+import jpja.webapp.service.ModifierRegistry;
+
+/**
+ * Startup migration that backfills the {@code bookings.status} column.
+ *
+ * <p>The column and its index are created by
+ * {@code db/changes/booking-status.sql}, applied by hand before the deploy,
+ * which also runs the initial backfill. Rows written by an older build after
+ * the script ran start out with a null status, so on every startup any
+ * booking still missing one is filled in from its STATUS modifier. Once all
+ * rows are backfilled this is a single no-op UPDATE.</p>
+ *
+ * <p>It also creates the STATUS modifier of any {@link BookingStatus} that
+ * does not have one yet, so newly added statuses can be assigned.</p>
+ *
+ * @author James Prial
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class BookingStatusMigration implements ApplicationRunner {
+
+    private final BookingRepository bookingRepository;
+    private final ModifierRegistry modifierRegistry;
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingStatusMigration.class);
+
+    /**
+     * Constructs the migration.
+     *
+     * @param bookingRepository the repository used to run the backfill
+     * @param modifierRegistry the registry used to create missing STATUS modifiers
+     */
+    public BookingStatusMigration(BookingRepository bookingRepository, ModifierRegistry modifierRegistry) {
+        this.bookingRepository = bookingRepository;
+        this.modifierRegistry = modifierRegistry;
+    }
+
+    /**
+     * Creates missing STATUS modifiers and backfills the status column of
+     * bookings that do not have one.
+     *
+     * @param args the application arguments (unused)
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        for (BookingStatus status : BookingStatus.values()) {
+            if (modifierRegistry.findByTypeAndName("STATUS", status.name()).isEmpty()) {
+                BookingModifier modifier = new BookingModifier();
+                modifier.setType("STATUS");
+                modifier.setName(status.name());
+                modifier.setDescription(status.name().charAt(0) + status.name().substring(1).toLowerCase().replace('_', ' '));
+                modifierRegistry.save(modifier);
+                logger.info("Created STATUS modifier {}", status);
+            }
+        }
+        int updated = bookingRepository.backfillStatusColumn();
+        if (updated > 0) {
+            logger.info("Backfilled status column for {} bookings", updated);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package jpja.webapp.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.RegionFactoryTemplate;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Hibernate second-level cache kept in local memory, one map per region.
+ *
+ * <p>A region is an access-ordered map behind a lock. Entity, collection and
+ * query result regions hold at most {@code maxEntries} entries and evict the
+ * least recently used one to make room, so regions that grow with the number
+ * of users or addresses, such as the cached role and address type sets, keep
+ * the entries in use rather than the first ones loaded. An evicted entry only
+ * costs a database read. The update timestamps region is never capped, since
+ * dropping a timestamp could let a stale query result be served.</p>
+ *
+ * <p>Each region publishes {@code hibernate.cache.requests} tagged with
+ * {@code result=hit|miss}, {@code hibernate.cache.evictions},
+ * {@code hibernate.cache.hit.ratio} and {@code hibernate.cache.size}, all
+ * tagged with the region name.</p>
+ *
+ * @author James Prial
+ */
+public class InMemoryRegionFactory extends RegionFactoryTemplate {
+
+    private final MeterRegistry meterRegistry;
+    private final int maxEntries;
+    private final Map<String, MapStorageAccess> regions = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs an InMemoryRegionFactory.
+     *
+     * @param meterRegistry Registry the region meters are published to.
+     * @param maxEntries The most entries a capped region holds.
+     */
+    public InMemoryRegionFactory(MeterRegistry meterRegistry, int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.meterRegistry = meterRegistry;
+        this.maxEntries = maxEntries;
+    }
+
+    @Override
+    protected void prepareForUse(SessionFactoryOptions settings, Map<String, Object> configValues) {
+        // Regions are created on demand.
+    }
+
+    @Override
+    protected void releaseFromUse() {
+        regions.values().forEach(MapStorageAccess::release);
+        regions.clear();
+    }
+
+    @Override
+    protected DomainDataStorageAccess createDomainDataStorageAccess(DomainDataRegionConfig regionConfig,
+            DomainDataRegionBuildingContext buildingContext) {
+        return region(regionConfig.getRegionName(), maxEntries);
+    }
+
+    @Override
+    protected StorageAccess createQueryResultsRegionStorageAccess(String regionName,
+            SessionFactoryImplementor sessionFactory) {
+        return region(regionName, maxEntries);
+    }
+
+    @Override
+    protected StorageAccess createTimestampsRegionStorageAccess(String regionName,
+            SessionFactoryImplementor sessionFactory) {
+        return region(regionName, Integer.MAX_VALUE);
+    }
+
+    private MapStorageAccess region(String name, int capacity) {
+        return regions.computeIfAbsent(name, n -> {
+            MapStorageAccess region = new MapStorageAccess(capacity);
+            FunctionCounter.builder("hibernate.cache.requests", region, r -> r.hits.sum())
+                    .tags("region", n, "result", "hit").register(meterRegistry);
+            FunctionCounter.builder("hibernate.cache.requests", region, r -> r.misses.sum())
+                    .tags("region", n, "result", "miss").register(meterRegistry);
+            FunctionCounter.builder("hibernate.cache.evictions", region, r -> r.evictions.sum())
+                    .tag("region", n).register(meterRegistry);
+            Gauge.builder("hibernate.cache.hit.ratio", region, MapStorageAccess::hitRatio)
+                    .tag("region", n).register(meterRegistry);
+            Gauge.builder("hibernate.cache.size", region, MapStorageAccess::size)
+                    .tag("region", n).register(meterRegistry);
+            return region;
+        });
+    }
+
+    /**
+     * One cache region, with its hit, miss and eviction counts. Reads reorder
+     * the map, so every access takes the region's lock.
+     */
+    static final class MapStorageAccess implements DomainDataStorageAccess {
+        private final Map<Object, Object> entries;
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+
+        MapStorageAccess(int capacity) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Object, Object> eldest) {
+                    if (size() > capacity) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        @Override
+        public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+            Object value;
+            synchronized (entries) {
+                value = entries.get(key);
+            }
+            (value == null ? misses : hits).increment();
+            return value;
+        }
+
+        @Override
+        public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+            synchronized (entries) {
+                if (value == null) {
+                    entries.remove(key);
+                } else {
+                    entries.put(key, value);
+                }
+            }
+        }
+
+        @Override
+        public boolean contains(Object key) {
+            synchronized (entries) {
+                return entries.containsKey(key);
+            }
+        }
+
+        @Override
+        public void evictData() {
+            synchronized (entries) {
+                entries.clear();
+            }
+        }
+
+        @Override
+        public void evictData(Object key) {
+            synchronized (entries) {
+                entries.remove(key);
+            }
+        }
+
+        @Override
+        public void release() {
+            evictData();
+        }
+
+        int size() {
+            synchronized (entries) {
+                return entries.size();
+            }
+        }
+
+        double hitRatio() {
+            long hit = hits.sum();
+            long total = hit + misses.sum();
+            return total == 0 ? 0 : (double) hit / total;
+        }
+    }
+}
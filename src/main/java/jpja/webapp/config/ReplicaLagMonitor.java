@@ -0,0 +1,125 @@
+package jpja.webapp.config;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Measures how far the read replica is behind the primary.
+ *
+ * <p>On every check the current time is written to the one-row
+ * {@code replica_heartbeat} table on the primary and read back from the
+ * replica; the difference is the lag. This works with any database and
+ * replication setup, and measures what readers actually see. Because the
+ * heartbeat is only written once per check, the lag can read up to one
+ * interval ({@code jpja.datasource.replica.heartbeat-ms}) high, so the limit
+ * ({@code jpja.datasource.replica.max-lag-ms}) should be well above it.</p>
+ *
+ * <p>The replica is reported unusable while the lag is over the limit or it
+ * cannot be read. The lag is published as {@code datasource.replica.lag}, in
+ * milliseconds, and the state as {@code datasource.replica.usable}.</p>
+ *
+ * @author James Prial
+ */
+public class ReplicaLagMonitor {
+
+    private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS replica_heartbeat "
+            + "(id INT NOT NULL PRIMARY KEY, beat_at BIGINT NOT NULL)";
+    private static final String UPDATE_BEAT = "UPDATE replica_heartbeat SET beat_at = ? WHERE id = 1";
+    private static final String INSERT_BEAT = "INSERT INTO replica_heartbeat (id, beat_at) VALUES (1, ?)";
+    private static final String SELECT_BEAT = "SELECT beat_at FROM replica_heartbeat WHERE id = 1";
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final long maxLagMillis;
+    private final AtomicLong lagMillis = new AtomicLong(-1);
+    private volatile boolean usable = false;
+    private volatile boolean tableReady = false;
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    /**
+     * Constructs a ReplicaLagMonitor. The replica is considered unusable
+     * until the first check succeeds.
+     *
+     * @param primary The primary data source, written to.
+     * @param replica The replica data source, read from.
+     * @param maxLagMillis The largest lag at which the replica is still read from.
+     * @param meterRegistry Registry the lag meters are published to.
+     */
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, long maxLagMillis, MeterRegistry meterRegistry) {
+        if (maxLagMillis < 1) {
+            throw new IllegalArgumentException("Maximum replica lag must be positive");
+        }
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.maxLagMillis = maxLagMillis;
+        Gauge.builder("datasource.replica.lag", lagMillis, AtomicLong::get).baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("datasource.replica.usable", this, m -> m.usable ? 1 : 0).register(meterRegistry);
+    }
+
+    /**
+     * Writes a heartbeat to the primary and measures how old the replica's copy is.
+     */
+    @Scheduled(fixedRateString = "${jpja.datasource.replica.heartbeat-ms:1000}")
+    public void check() {
+        long now = System.currentTimeMillis();
+        try {
+            if (!tableReady) {
+                primary.execute(CREATE_TABLE);
+                tableReady = true;
+            }
+            if (primary.update(UPDATE_BEAT, now) == 0) {
+                primary.update(INSERT_BEAT, now);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Could not write replica heartbeat", e);
+        }
+        long lag;
+        try {
+            Long beat = replica.query(SELECT_BEAT, rs -> rs.next() ? rs.getLong(1) : null);
+            lag = beat == null ? -1 : Math.max(0, now - beat);
+        } catch (RuntimeException e) {
+            logger.debug("Could not read replica heartbeat", e);
+            lag = -1;
+        }
+        lagMillis.set(lag);
+        boolean nowUsable = lag >= 0 && lag <= maxLagMillis;
+        if (nowUsable != usable) {
+            if (nowUsable) {
+                logger.info("Read replica caught up ({} ms behind); routing read-only transactions to it", lag);
+            } else {
+                logger.warn("Read replica is {}; routing read-only transactions to the primary",
+                        lag < 0 ? "unreachable" : lag + " ms behind");
+            }
+        }
+        usable = nowUsable;
+    }
+
+    /**
+     * Checks whether read-only transactions may use the replica.
+     *
+     * @return true if the last check found the replica within the lag limit.
+     */
+    public boolean isReplicaUsable() {
+        return usable;
+    }
+
+    /**
+     * Gets the lag measured by the last check.
+     *
+     * @return The lag in milliseconds, or -1 if the replica could not be read.
+     */
+    public long getLagMillis() {
+        return lagMillis.get();
+    }
+}
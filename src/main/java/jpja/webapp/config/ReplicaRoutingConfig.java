@@ -0,0 +1,135 @@
+package jpja.webapp.config;
+
+import javax.sql.DataSource;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Configuration class that splits database access between the primary and a
+ * read replica, enabled by setting {@code jpja.datasource.replica.url}.
+ *
+ * <p>The primary pool is built from the usual {@code spring.datasource.*}
+ * properties and the replica pool from {@code jpja.datasource.replica.*}
+ * (falling back to the primary's credentials). Both are Hikari pools named
+ * after their role, so their {@code hikaricp.*} meters are tagged
+ * {@code pool=primary} and {@code pool=replica}. The application's data
+ * source sends {@code @Transactional(readOnly = true)} work to the replica
+ * and everything else to the primary; see {@link ReplicaRoutingDataSource}.
+ * Without a replica URL none of this is created and Spring Boot configures
+ * the single data source as before.</p>
+ *
+ * <p>Hibernate is told to give its connection back after every transaction.
+ * Spring otherwise has it hold the first connection until the
+ * EntityManager closes, which with open-in-view is the end of the request,
+ * so every transaction of a request would run wherever its first one was
+ * routed.</p>
+ *
+ * @author James Prial
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "jpja.datasource.replica", name = "url")
+public class ReplicaRoutingConfig {
+
+    /**
+     * Creates the primary connection pool.
+     *
+     * @param properties The {@code spring.datasource} properties.
+     * @return The primary pool.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName(ReplicaRoutingDataSource.PRIMARY);
+        return dataSource;
+    }
+
+    /**
+     * Creates the replica connection pool.
+     *
+     * @param properties The {@code spring.datasource} properties, for default credentials.
+     * @param url The JDBC URL of the replica.
+     * @param username The replica username, or empty to use the primary's.
+     * @param password The replica password, or empty to use the primary's.
+     * @return The replica pool.
+     */
+    @Bean
+    @ConfigurationProperties("jpja.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+            @Value("${jpja.datasource.replica.url}") String url,
+            @Value("${jpja.datasource.replica.username:}") String username,
+            @Value("${jpja.datasource.replica.password:}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create().type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName()).url(url)
+                .username(username.isEmpty() ? properties.determineUsername() : username)
+                .password(password.isEmpty() ? properties.determinePassword() : password).build();
+        dataSource.setPoolName(ReplicaRoutingDataSource.REPLICA);
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    /**
+     * Creates the monitor of replica lag.
+     *
+     * @param primary The primary pool.
+     * @param replica The replica pool.
+     * @param maxLagMillis The largest lag at which the replica is still read from.
+     * @param meterRegistry Registry the lag meters are published to.
+     * @return The monitor.
+     */
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") DataSource replica,
+            @Value("${jpja.datasource.replica.max-lag-ms:5000}") long maxLagMillis, MeterRegistry meterRegistry) {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(primary, replica, maxLagMillis, meterRegistry);
+        monitor.check();
+        return monitor;
+    }
+
+    /**
+     * Makes Hibernate release its connection at the end of each transaction,
+     * so each transaction is routed on its own.
+     *
+     * @return The customizer of the Hibernate properties.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    /**
+     * Creates the data source used by JPA, JDBC templates and transactions.
+     *
+     * @param primary The primary pool.
+     * @param replica The replica pool.
+     * @param lagMonitor Monitor deciding whether the replica may be read.
+     * @param meterRegistry Registry the routing counters are published to.
+     * @return A lazily connecting proxy over the routing data source.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") DataSource replica, ReplicaLagMonitor lagMonitor,
+            MeterRegistry meterRegistry) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replica, lagMonitor, meterRegistry);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
@@ -0,0 +1,69 @@
+package jpja.webapp.config;
+
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Routes connections of read-only transactions to the read replica and every
+ * other connection to the primary.
+ *
+ * <p>The choice is made when a physical connection is first needed, so this
+ * must be wrapped in a {@code LazyConnectionDataSourceProxy}; otherwise the
+ * transaction manager takes its connection before the transaction is marked
+ * read-only. While the {@link ReplicaLagMonitor} reports the replica as
+ * behind or unreachable, read-only transactions also go to the primary.
+ * Every routing decision is counted in {@code datasource.routing.connections},
+ * tagged with the target pool.</p>
+ *
+ * @author James Prial
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+    public static final String REPLICA = "replica";
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final Counter primaryConnections;
+    private final Counter replicaConnections;
+    private final Counter fallbacks;
+
+    /**
+     * Constructs a ReplicaRoutingDataSource.
+     *
+     * @param primary The data source all writes go to.
+     * @param replica The data source read-only transactions go to.
+     * @param lagMonitor Monitor deciding whether the replica is current enough to read from.
+     * @param meterRegistry Registry the routing counters are published to.
+     */
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor,
+            MeterRegistry meterRegistry) {
+        this.lagMonitor = lagMonitor;
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        this.primaryConnections = Counter.builder("datasource.routing.connections").tag("target", PRIMARY)
+                .register(meterRegistry);
+        this.replicaConnections = Counter.builder("datasource.routing.connections").tag("target", REPLICA)
+                .register(meterRegistry);
+        this.fallbacks = Counter.builder("datasource.routing.fallbacks").register(meterRegistry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (lagMonitor.isReplicaUsable()) {
+                replicaConnections.increment();
+                return REPLICA;
+            }
+            fallbacks.increment();
+        }
+        primaryConnections.increment();
+        return PRIMARY;
+    }
+}
@@ -0,0 +1,47 @@
+package jpja.webapp.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Configuration class enabling the Hibernate second-level and query caches.
+ *
+ * <p>Only entities and collections annotated with
+ * {@link org.hibernate.annotations.Cache} are cached: the {@code Role},
+ * {@code BookingModifier} and {@code AddressType} reference tables, and the
+ * role and address type sets of users and addresses. Repository lookups of
+ * those tables by name are marked cacheable. All of them use the
+ * {@code READ_WRITE} strategy, so edits made through JPA, such as an admin
+ * changing a user's roles, invalidate the cached copy on commit. The cache
+ * can be switched off with {@code jpja.cache.l2.enabled=false}.</p>
+ *
+ * @author James Prial
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "jpja.cache.l2", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SecondLevelCacheConfig {
+
+    /**
+     * Registers the in-memory cache with Hibernate.
+     *
+     * @param meterRegistry Registry the cache meters are published to.
+     * @param maxEntries The most entries a region holds.
+     * @return A customizer adding the cache settings to the Hibernate properties.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCache(MeterRegistry meterRegistry,
+            @Value("${jpja.cache.l2.max-entries:10000}") int maxEntries) {
+        InMemoryRegionFactory regionFactory = new InMemoryRegionFactory(meterRegistry, maxEntries);
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, regionFactory);
+        };
+    }
+}
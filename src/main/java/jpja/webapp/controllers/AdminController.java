@@ -1,11 +1,14 @@
 package jpja.webapp.controllers;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
@@ -16,18 +19,27 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jpja.webapp.exceptions.database.ConflictingDataException;
 import jpja.webapp.factories.UserDTOFactory;
 import jpja.webapp.logging.AppLog;
 import jpja.webapp.logging.Level;
 import jpja.webapp.logging.Log;
+import jpja.webapp.model.dto.BookingSearchDTO;
 import jpja.webapp.model.dto.ModifierDTO;
 import jpja.webapp.model.dto.UserIncomingDTO;
 import jpja.webapp.model.dto.UserOutgoingDTO;
+import jpja.webapp.model.entities.BookingStatus;
 import jpja.webapp.model.entities.Role;
+import jpja.webapp.service.BookingExportService;
+import jpja.webapp.service.BookingImportService;
+import jpja.webapp.service.BookingSearchService;
 import jpja.webapp.service.BookingService;
+import jpja.webapp.service.BulkPricingService;
 import jpja.webapp.service.CustomUserDetailsService;
 import jpja.webapp.service.LogParserService;
 
@@ -43,12 +55,22 @@ public class AdminController {
     private final CustomUserDetailsService userService;
     private final BookingService bookingService;
     private final LogParserService logService;
+    private final BookingSearchService bookingSearchService;
+    private final BookingImportService bookingImportService;
+    private final BookingExportService bookingExportService;
+    private final BulkPricingService bulkPricingService;
 
     public AdminController(CustomUserDetailsService userService, BookingService bookingService,
-            LogParserService logService) {
+            LogParserService logService, BookingSearchService bookingSearchService,
+            BookingImportService bookingImportService, BookingExportService bookingExportService,
+            BulkPricingService bulkPricingService) {
         this.userService = userService;
         this.bookingService = bookingService;
         this.logService = logService;
+        this.bookingSearchService = bookingSearchService;
+        this.bookingImportService = bookingImportService;
+        this.bookingExportService = bookingExportService;
+        this.bulkPricingService = bulkPricingService;
     }
 
     /**
@@ -64,6 +86,83 @@ public class AdminController {
         return "admin/dashboard";
     }
 
+    /**
+     * Searches bookings by date range, status, vendor, customer, ZIP code and
+     * type, one page at a time.
+     *
+     * @param search the search criteria, any of which may be blank
+     * @param after  the cursor returned with the previous page, or null for the first page
+     * @param model  the model object to populate with the results and the filter options
+     * @return the name of the bookings view template
+     */
+    @GetMapping("/bookings")
+    public String searchBookings(@ModelAttribute("search") BookingSearchDTO search,
+            @RequestParam(required = false) String after, Model model) {
+        model.addAttribute("statuses", BookingStatus.values());
+        model.addAttribute("types", bookingService.getModifiersByType("TYPE"));
+        try {
+            model.addAttribute("results", bookingSearchService.search(search, after));
+        } catch (IllegalArgumentException e) {
+            model.addAttribute("error", e.getMessage());
+        }
+        return "admin/bookings";
+    }
+
+    /**
+     * Imports bookings from an uploaded CSV file. Invalid rows are skipped and
+     * reported with their line numbers.
+     *
+     * @param file               the CSV file, with a header line
+     * @param redirectAttributes attributes for redirecting with the import result
+     * @return a redirect URL to the bookings page
+     * @throws IOException if the file cannot be read
+     */
+    @PostMapping("/bookings/import")
+    public String importBookings(@RequestParam("file") MultipartFile file, RedirectAttributes redirectAttributes)
+            throws IOException {
+        try (InputStream input = file.getInputStream()) {
+            redirectAttributes.addFlashAttribute("importResult", bookingImportService.importCsv(input));
+        } catch (IllegalArgumentException e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+        }
+        return "redirect:/admin/bookings";
+    }
+
+    /**
+     * Reloads the pricing rules and re-quotes every upcoming UNCLAIMED and
+     * CLAIMED booking, e.g. after the price list was edited.
+     *
+     * @param redirectAttributes attributes for redirecting with the number of repriced bookings
+     * @return a redirect URL to the bookings page
+     */
+    @PostMapping("/bookings/requote")
+    public String requoteBookings(RedirectAttributes redirectAttributes) {
+        try {
+            redirectAttributes.addFlashAttribute("requoted", bulkPricingService.requote(LocalDate.now()));
+        } catch (IllegalStateException e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+        }
+        return "redirect:/admin/bookings";
+    }
+
+    /**
+     * Streams every booking to the response as a file download. Rows are
+     * written as they are read, so the download starts at once.
+     *
+     * @param format   the output format, CSV or NDJSON
+     * @param response the response the bookings are written to
+     * @throws IOException if the response cannot be written
+     */
+    @GetMapping("/bookings/export")
+    public void exportBookings(@RequestParam(defaultValue = "CSV") BookingExportService.Format format,
+            HttpServletResponse response) throws IOException {
+        response.setContentType(format.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"bookings." + format.getExtension() + "\"");
+        bookingExportService.export(format, response.getWriter());
+    }
+
     /**
      * Displays a list of all users in the system along with their roles.
      *
@@ -2,7 +2,8 @@ package jpja.webapp.controllers;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
-import java.util.Set;
+import java.util.List;
+import java.util.Map;
 
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -13,12 +14,12 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 
 import jakarta.validation.Valid;
+import jpja.webapp.exceptions.SlotUnavailableException;
 import jpja.webapp.factories.BookingDTOFactory;
 import jpja.webapp.factories.DTOMapper;
 import jpja.webapp.factories.UserDTOFactory;
 import jpja.webapp.model.dto.BookingDTO;
 import jpja.webapp.model.dto.CustomerIncomingDTO;
-import jpja.webapp.model.dto.DTOInterface;
 import jpja.webapp.model.dto.NewBookingDTO;
 import jpja.webapp.model.dto.ReviewDTO;
 import jpja.webapp.model.entities.Booking;
@@ -26,6 +27,7 @@ import jpja.webapp.model.entities.Customer;
 import jpja.webapp.service.AuthenticationService;
 import jpja.webapp.service.BookingService;
 import jpja.webapp.service.CustomerService;
+import jpja.webapp.service.DashboardLoader;
 import jpja.webapp.service.LoggingService;
 import jpja.webapp.service.ReviewService;
 
@@ -47,34 +49,38 @@ public class CustomerController {
     private final AuthenticationService authenticationService;
     private final CustomerService customerService;
     private final LoggingService loggingService;
+    private final DashboardLoader dashboardLoader;
 
     public CustomerController(BookingService bookingService, ReviewService reviewService,
             AuthenticationService authenticationService,
-            CustomerService customerService, LoggingService loggingService) {
+            CustomerService customerService, LoggingService loggingService, DashboardLoader dashboardLoader) {
         this.bookingService = bookingService;
         this.reviewService = reviewService;
         this.authenticationService = authenticationService;
         this.customerService = customerService;
         this.loggingService = loggingService;
+        this.dashboardLoader = dashboardLoader;
     }
 
     /**
      * Displays the customer dashboard with upcoming and previous bookings.
+     * Both lists are loaded concurrently by the {@link DashboardLoader}; a
+     * list that does not load in time is shown as unavailable.
      *
      * @param model the model object to populate view attributes
      * @return the name of the dashboard view template
      */
     @GetMapping("/dashboard")
     public String showCustomerDashboard(Model model) {
-        Set<BookingDTO> bookings = BookingDTOFactory
-                .copyBookingSetToDTO(bookingService.getUpcomingBookings(authenticationService.getCurrentUser()));
-        model.addAttribute("bookings", bookings);
-        loggingService.warn("showCustomerDash", "Bookings' size: " + bookings.size());
-        Set<BookingDTO> prevBookings = BookingDTOFactory.copyBookingSetToDTO(
-                bookingService.getBookingsByCustomerAndModifier((Customer) authenticationService.getCurrentUser(),
-                        bookingService.findModifier("STATUS_COMPLETED")
-                                .orElseThrow(() -> new IllegalArgumentException("could not find COMPLETED modifier"))));
-        model.addAttribute("prevBookings", prevBookings);
+        Customer customer = (Customer) authenticationService.getCurrentUser();
+        DashboardLoader.Load load = dashboardLoader.start("customer")
+                .fork("bookings", () -> bookingService.getUpcomingBookings(customer))
+                .fork("prevBookings", () -> bookingService.getRecentBookingsByCustomerAndStatus(customer, "COMPLETED"));
+        Map<String, Object> sections = load.join();
+        model.addAllAttributes(sections);
+        if (sections.get("bookings") instanceof List<?> bookings) {
+            loggingService.warn("showCustomerDash", "Bookings' size: " + bookings.size());
+        }
         return "/customer/customer-dashboard.html";
     }
 
@@ -116,19 +122,34 @@ public class CustomerController {
     }
 
     /**
-     * Displays all bookings associated with the current customer.
+     * Displays one page of the bookings associated with the current customer.
      *
+     * @param after the cursor of the page to show, or null for the first page
      * @param model the model object to populate with bookings
      * @return the name of the bookings view template
      */
     @GetMapping("/bookings")
-    public String showBookings(Model model) {
-        Set<DTOInterface> bookings = DTOMapper
-                .toDTOSet(bookingService.getBookingsByCustomer(customerService.getCurrentCustomer()));
-        model.addAttribute("allBookings", bookings);
+    public String showBookings(@RequestParam(required = false) String after, Model model) {
+        model.addAttribute("allBookings",
+                bookingService.getBookingsByCustomer(customerService.getCurrentCustomer(), after));
         return "/customer/bookings.html";
     }
 
+    /**
+     * Renders one page of the current customer's bookings on its own, for the
+     * "load more" link to append to the list already shown.
+     *
+     * @param after the cursor of the page to show, or null for the first page
+     * @param model the model object to populate with bookings
+     * @return the bookings fragment of the bookings view
+     */
+    @GetMapping("/bookings/page")
+    public String showBookingsPage(@RequestParam(required = false) String after, Model model) {
+        model.addAttribute("allBookings",
+                bookingService.getBookingsByCustomer(customerService.getCurrentCustomer(), after));
+        return "customer/bookings :: bookings-page";
+    }
+
     /**
      * Shows the booking edit page for a specific booking identified by its ID.
      * 
@@ -167,14 +188,18 @@ public class CustomerController {
             model.addAttribute("error", "Not authorized to access this page");
             return "redirect:/error";
         }
-        if (newDate == null || newTime == null) {
-            redirectAttributes.addFlashAttribute("error", "Please enter a date and time");
-        } else if (bookingService.modifyBooking(booking, newDate, newTime)) {
-            redirectAttributes.addFlashAttribute("message",
-                    "booking modified. It will need to be accepted by a vendor again");
-        } else {
-            redirectAttributes.addFlashAttribute("error",
-                    "Please enter a date at least a day away and time between 8AM and 8PM");
+        try {
+            if (newDate == null || newTime == null) {
+                redirectAttributes.addFlashAttribute("error", "Please enter a date and time");
+            } else if (bookingService.modifyBooking(booking, newDate, newTime)) {
+                redirectAttributes.addFlashAttribute("message",
+                        "booking modified. It will need to be accepted by a vendor again");
+            } else {
+                redirectAttributes.addFlashAttribute("error",
+                        "Please enter a date at least a day away and time between 8AM and 8PM");
+            }
+        } catch (SlotUnavailableException e) {
+            redirectAttributes.addFlashAttribute("error", slotUnavailableMessage(e));
         }
         return "redirect:/customer/dashboard";
     }
@@ -235,7 +260,12 @@ public class CustomerController {
 
             return "redirect:/customer/schedule";
         }
-        bookingService.createBooking(newBooking, customerService.getCurrentCustomer());
+        try {
+            bookingService.createBooking(newBooking, customerService.getCurrentCustomer());
+        } catch (SlotUnavailableException e) {
+            redirectAttributes.addFlashAttribute("error", slotUnavailableMessage(e));
+            return "redirect:/customer/schedule";
+        }
         redirectAttributes.addFlashAttribute("message", "Successfully posted booking!");
         return "redirect:/customer/dashboard";
     }
@@ -275,4 +305,16 @@ public class CustomerController {
         return "redirect:/customer/dashboard";
     }
 
+    // Builds the message shown when a time slot is full, listing the nearest open times.
+    private String slotUnavailableMessage(SlotUnavailableException e) {
+        if (e.getAlternatives().isEmpty()) {
+            return "No times are available on " + e.getDate() + ". Please choose another day";
+        }
+        StringBuilder message = new StringBuilder("That time is fully booked. Available times on ")
+                .append(e.getDate()).append(": ");
+        for (int i = 0; i < e.getAlternatives().size(); i++) {
+            message.append(i == 0 ? "" : ", ").append(e.getAlternatives().get(i));
+        }
+        return message.toString();
+    }
 }
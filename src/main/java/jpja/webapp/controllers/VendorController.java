@@ -1,17 +1,23 @@
 package jpja.webapp.controllers;
 
-import java.util.Set;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
 
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import jpja.webapp.factories.BookingDTOFactory;
-import jpja.webapp.model.dto.BookingDTO;
 import jpja.webapp.model.entities.Vendor;
 import jpja.webapp.service.AuthenticationService;
 import jpja.webapp.service.BookingService;
+import jpja.webapp.service.DashboardLoader;
+import jpja.webapp.service.UnclaimedFeedBroadcaster;
+import jpja.webapp.service.VendorCalendarService;
 import jpja.webapp.service.VendorService;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -28,33 +34,121 @@ public class VendorController {
     private final VendorService vendorService;
     private final BookingService bookingService;
     private final AuthenticationService authenticationService;
+    private final UnclaimedFeedBroadcaster unclaimedFeed;
+    private final VendorCalendarService vendorCalendar;
+    private final DashboardLoader dashboardLoader;
 
     public VendorController(VendorService vendorService, BookingService bookingService,
-            AuthenticationService authenticationService) {
+            AuthenticationService authenticationService, UnclaimedFeedBroadcaster unclaimedFeed,
+            VendorCalendarService vendorCalendar, DashboardLoader dashboardLoader) {
         this.vendorService = vendorService;
         this.bookingService = bookingService;
         this.authenticationService = authenticationService;
+        this.unclaimedFeed = unclaimedFeed;
+        this.vendorCalendar = vendorCalendar;
+        this.dashboardLoader = dashboardLoader;
     }
 
     /**
      * Displays the vendor dashboard with bookings and earnings information.
+     * Both booking lists are paginated; each "load more" link appends the
+     * next page of its list, or passes its cursor here when scripts are off.
+     * Above them, the unclaimed bookings that best match the vendor are
+     * recommended. The page then follows the unclaimed feed from the position
+     * it was rendered at.
      *
+     * <p>The sections are loaded concurrently by the {@link DashboardLoader};
+     * a section that does not load in time is left out of the model and the
+     * page shows it as unavailable.</p>
+     *
+     * @param jobsAfter The cursor of the page of jobs to show, or null for the first page.
+     * @param availableAfter The cursor of the page of available bookings to show, or null for the first page.
      * @param model The model to hold attributes for the view.
      * @return The view name for displaying the vendor dashboard.
      */
     @GetMapping("/dashboard")
-    public String showVendorDashboard(Model model) {
+    public String showVendorDashboard(@RequestParam(required = false) String jobsAfter,
+            @RequestParam(required = false) String availableAfter, Model model) {
         Vendor vendor = vendorService.findVendorByUsername(authenticationService.getCurrentUsername());
-        Set<BookingDTO> jobs = BookingDTOFactory.copyBookingSetToDTO(bookingService.getBookingsByVendor(vendor));
-        model.addAttribute("jobs", jobs);
-        Set<BookingDTO> unclaimedBookings = BookingDTOFactory
-                .copyBookingSetToDTO(bookingService.getUnclaimedBookings());
-        model.addAttribute("availableBookings", unclaimedBookings);
-        model.addAttribute("totalEarnings", bookingService.calculateTotalEarnings(vendor));
-        model.addAttribute("pendingPayouts", bookingService.calculatePendingEarnings(vendor));
+        model.addAttribute("feedPosition", unclaimedFeed.getLastEventId());
+        DashboardLoader.Load load = dashboardLoader.start("vendor")
+                .fork("jobs", () -> bookingService.getBookingsByVendor(vendor, jobsAfter))
+                .fork("matchedBookings", () -> bookingService.getMatchedBookings(vendor))
+                .fork("availableBookings", () -> bookingService.getUnclaimedBookings(availableAfter))
+                .fork("totalEarnings", () -> bookingService.calculateTotalEarnings(vendor))
+                .fork("pendingPayouts", () -> bookingService.calculatePendingEarnings(vendor));
+        model.addAllAttributes(load.join());
         return "vendor-dashboard.html";
     }
 
+    /**
+     * Renders one page of the vendor's jobs on its own, for the dashboard's
+     * "load more" link to append to the list already shown.
+     *
+     * @param after The cursor of the page to show, or null for the first page.
+     * @param model The model to hold attributes for the view.
+     * @return The jobs fragment of the vendor dashboard.
+     */
+    @GetMapping("/dashboard/jobs")
+    public String showJobsPage(@RequestParam(required = false) String after, Model model) {
+        Vendor vendor = vendorService.findVendorByUsername(authenticationService.getCurrentUsername());
+        model.addAttribute("jobs", bookingService.getBookingsByVendor(vendor, after));
+        return "vendor/vendor-dashboard :: jobs-page";
+    }
+
+    /**
+     * Renders one page of the available bookings on its own, for the
+     * dashboard's "load more" link to append to the list already shown.
+     *
+     * @param after The cursor of the page to show, or null for the first page.
+     * @param model The model to hold attributes for the view.
+     * @return The available bookings fragment of the vendor dashboard.
+     */
+    @GetMapping("/dashboard/available")
+    public String showAvailablePage(@RequestParam(required = false) String after, Model model) {
+        model.addAttribute("availableBookings", bookingService.getUnclaimedBookings(after));
+        return "vendor/vendor-dashboard :: available-page";
+    }
+
+    /**
+     * Displays the vendor's calendar, either one week or the weeks of one
+     * month. Without parameters the current week is shown.
+     *
+     * @param week Any date in the week to show.
+     * @param month The month to show; takes precedence over the week.
+     * @param model The model to hold attributes for the view.
+     * @return The view name for displaying the calendar.
+     */
+    @GetMapping("/calendar")
+    public String showCalendar(@RequestParam(required = false) LocalDate week,
+            @RequestParam(required = false) YearMonth month, Model model) {
+        Vendor vendor = vendorService.findVendorByUsername(authenticationService.getCurrentUsername());
+        if (month != null) {
+            model.addAttribute("month", month);
+            model.addAttribute("weeks", vendorCalendar.getMonth(vendor.getId(), month));
+        } else {
+            LocalDate start = VendorCalendarService.weekStart(week == null ? LocalDate.now() : week);
+            model.addAttribute("week", start);
+            model.addAttribute("weeks", List.of(vendorCalendar.getWeek(vendor.getId(), start)));
+        }
+        return "vendor/calendar";
+    }
+
+    /**
+     * Streams changes to the unclaimed bookings as server-sent events.
+     * A reconnecting browser sends the ID of the last event it received and
+     * is replayed everything after it.
+     *
+     * @param lastEventId The ID of the last event received, sent by the browser on reconnect.
+     * @param since The feed position the dashboard was rendered at, for the first connection.
+     * @return The event stream.
+     */
+    @GetMapping(path = "/feed/unclaimed", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter unclaimedFeed(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+            @RequestParam(required = false) Long since) {
+        return unclaimedFeed.subscribe(lastEventId != null ? lastEventId : since);
+    }
+
     /**
      * Allows a vendor to claim a booking by its ID.
      *
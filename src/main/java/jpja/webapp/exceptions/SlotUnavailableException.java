@@ -0,0 +1,31 @@
+package jpja.webapp.exceptions;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Exception thrown when a booking is placed in a time slot that is already at capacity.
+ * Carries the nearest slots on the same day that still have room.
+ * Inherits from RuntimeException.
+ *
+ * @author James Prial
+ */
+public class SlotUnavailableException extends RuntimeException {
+    private final LocalDate date;
+    private final List<LocalTime> alternatives;
+
+    public SlotUnavailableException(LocalDate date, List<LocalTime> alternatives) {
+        super("No capacity left on " + date + " at the requested time");
+        this.date = date;
+        this.alternatives = alternatives;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public List<LocalTime> getAlternatives() {
+        return alternatives;
+    }
+}
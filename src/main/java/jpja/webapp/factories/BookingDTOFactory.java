@@ -1,6 +1,9 @@
 package jpja.webapp.factories;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import jpja.webapp.model.dto.AddressDTO;
@@ -10,6 +13,7 @@ import jpja.webapp.model.entities.Booking;
 import jpja.webapp.model.entities.BookingModifier;
 import jpja.webapp.model.entities.Review;
 import jpja.webapp.model.entities.User;
+import jpja.webapp.repositories.BookingRow;
 
 public class BookingDTOFactory {
     /** 
@@ -72,6 +76,62 @@ public class BookingDTOFactory {
         return dtos;
     }
 
+    /** 
+     * Copies data from a BookingRow projection to a BookingDTO.
+     * 
+     * @param row The BookingRow to copy from.
+     * @return A BookingDTO populated with data from the row.
+     * @throws IllegalArgumentException if the provided row is null.
+     */
+    public static BookingDTO copyToBookingDTO(BookingRow row){
+        if(row == null){
+            throw new IllegalArgumentException("No booking given");
+        }
+        BookingDTO dto = new BookingDTO();
+        dto.setId(row.getId());
+        dto.setCustomerIdentifier(row.getCustomerUsername());
+        dto.setVendorIdentifier(row.getVendorUsername());
+        dto.setCreatedAt(row.getCreatedAt());
+        dto.setBookingDate(row.getBookingDate());
+        dto.setBookingTime(row.getBookingTime());
+        dto.setPrice(row.getPrice());
+        Set<String> modifiers = new HashSet<String>();
+        if(row.getModifiers() != null){
+            modifiers.addAll(Arrays.asList(row.getModifiers().split(",")));
+        }
+        dto.setModifiers(modifiers);
+        dto.setStatus(row.getStatus());
+        AddressDTO location = new AddressDTO();
+        location.setId(row.getLocationId());
+        location.setAddress("" + row.getStreetNumber() + " " + row.getStreetName());
+        location.setNickname(row.getNickname());
+        location.setCity(row.getCity());
+        location.setState(row.getState());
+        location.setZip(row.getZip());
+        location.setUnit(row.getUnit());
+        location.setSqft(row.getSqft());
+        location.setTypeId(row.getLocationTypeId());
+        dto.setLocation(location);
+        return dto;
+    }
+
+    /** 
+     * Copies a list of BookingRow projections to a list of BookingDTOs, keeping their order.
+     * 
+     * @param rows The list of BookingRows to copy from.
+     * @return A List of BookingDTOs populated with data from the rows.
+     * @throws IllegalArgumentException if the provided list of rows is null.
+     */
+    public static List<BookingDTO> copyBookingRowsToDTO(List<BookingRow> rows){
+        if(rows == null){
+            throw new IllegalArgumentException("No bookings given");
+        }
+        List<BookingDTO> dtos = new ArrayList<BookingDTO>(rows.size());
+        for(BookingRow row : rows){
+            dtos.add(copyToBookingDTO(row));
+        }
+        return dtos;
+    }
 
     /** 
      * Creates a new, blank, ReviewDTO. 
@@ -64,6 +64,7 @@ public class DTOMapper {
         dto.setState(address.getState());
         dto.setZip(address.getZip());
         dto.setUnit(address.getUnit());
+        dto.setSqft(address.getSqft());
         dto.setTypeId(address.getTypes().iterator().next().getId());
         return dto;
     }
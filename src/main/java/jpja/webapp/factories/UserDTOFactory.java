@@ -138,6 +138,7 @@ public class UserDTOFactory {
         dto.setPhone(vendor.getPhone());
         dto.setSize(vendor.getSize());
         dto.setMax_sqft(vendor.getMax_sqft());
+        dto.setZip(vendor.getZip());
         return dto;
     }
 
@@ -0,0 +1,178 @@
+package jpja.webapp.filter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Principal;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import jpja.webapp.service.IdempotencyStore;
+import jpja.webapp.service.IdempotencyStore.Lease;
+import jpja.webapp.service.IdempotencyStore.StoredResponse;
+
+/**
+ * Executes a POST carrying an idempotency key at most once per key, so a
+ * double-click or a browser retry does not repeat its effect.
+ *
+ * <p>The key is read from the {@value #HEADER} header or, for HTML forms, the
+ * hidden {@value #PARAMETER} field. It is scoped to the signed-in user (or the
+ * session, or the client IP) and the request path, so clients cannot collide.
+ * The first request with a key is executed and its response, if below 500 and
+ * at most {@code jpja.idempotency.max-body-bytes} long, is stored in the
+ * {@link IdempotencyStore}; a repeated request is answered with that response
+ * and the {@value #REPLAYED_HEADER} header instead. A repeated request that
+ * arrives while the first is still running waits for it, and gets a 409 if it
+ * does not finish in time. Requests without a key are not affected.</p>
+ *
+ * <p>Runs after the security filter chain, so unauthenticated and forged
+ * requests are rejected before they can claim a key. Executed, replayed and
+ * conflicting requests are counted by the {@code idempotency.requests}
+ * meter.</p>
+ *
+ * @author James Prial
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 1)
+public class IdempotencyFilter extends OncePerRequestFilter {
+    /**
+     * The request header carrying the key.
+     */
+    public static final String HEADER = "Idempotency-Key";
+
+    /**
+     * The form field carrying the key.
+     */
+    public static final String PARAMETER = "idempotencyKey";
+
+    /**
+     * The response header marking a replayed response.
+     */
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Pattern VALID_KEY = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    private final IdempotencyStore store;
+    private final boolean enabled;
+    private final int maxBodyBytes;
+    private final Counter executed;
+    private final Counter replayed;
+    private final Counter conflicts;
+
+    public IdempotencyFilter(IdempotencyStore store, MeterRegistry meterRegistry,
+            @Value("${jpja.idempotency.enabled:true}") boolean enabled,
+            @Value("${jpja.idempotency.max-body-bytes:65536}") int maxBodyBytes) {
+        this.store = store;
+        this.enabled = enabled;
+        this.maxBodyBytes = maxBodyBytes;
+        this.executed = Counter.builder("idempotency.requests").tag("outcome", "executed").register(meterRegistry);
+        this.replayed = Counter.builder("idempotency.requests").tag("outcome", "replayed").register(meterRegistry);
+        this.conflicts = Counter.builder("idempotency.requests").tag("outcome", "conflict").register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled || !"POST".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain) throws ServletException, IOException {
+        String token = request.getHeader(HEADER);
+        if (token == null) {
+            token = request.getParameter(PARAMETER);
+        }
+        if (token == null || token.isEmpty()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (!VALID_KEY.matcher(token).matches()) {
+            writeText(response, HttpStatus.BAD_REQUEST, "Invalid idempotency key.");
+            return;
+        }
+
+        Lease lease;
+        try {
+            lease = store.acquire(scopedKey(request, token));
+        } catch (IllegalStateException e) {
+            conflicts.increment();
+            writeText(response, HttpStatus.CONFLICT, "This request is already being processed. Please try again shortly.");
+            return;
+        }
+        if (lease.getReplay() != null) {
+            replayed.increment();
+            replay(lease.getReplay(), response);
+            return;
+        }
+
+        executed.increment();
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            filterChain.doFilter(request, wrapper);
+            if (wrapper.getStatus() < 500 && wrapper.getContentSize() <= maxBodyBytes) {
+                lease.complete(new StoredResponse(wrapper.getStatus(), wrapper.getHeader(HttpHeaders.LOCATION),
+                        wrapper.getContentType(), wrapper.getContentAsByteArray()));
+                stored = true;
+            }
+        } finally {
+            if (!stored) {
+                lease.release();
+            }
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    // Hashes the client's key together with who sent it and where.
+    private static String scopedKey(HttpServletRequest request, String token) {
+        Principal principal = request.getUserPrincipal();
+        HttpSession session = request.getSession(false);
+        String scope = principal != null ? "user:" + principal.getName()
+                : session != null ? "session:" + session.getId()
+                : "ip:" + request.getRemoteAddr();
+        String key = scope + '\n' + request.getRequestURI() + '\n' + token;
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(key.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static void replay(StoredResponse stored, HttpServletResponse response) throws IOException {
+        response.setStatus(stored.getStatus());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (stored.getLocation() != null) {
+            response.setHeader(HttpHeaders.LOCATION, stored.getLocation());
+        }
+        if (stored.getContentType() != null) {
+            response.setContentType(stored.getContentType());
+        }
+        byte[] body = stored.getBody();
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static void writeText(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType("text/plain");
+        response.getWriter().write(message);
+    }
+}
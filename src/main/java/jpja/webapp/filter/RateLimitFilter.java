@@ -0,0 +1,99 @@
+package jpja.webapp.filter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Rejects clients that exceed their request budget with a 429 before the
+ * request reaches the security filter chain.
+ *
+ * <p>Each {@link RouteGroup} has its own {@link RateLimiter}, keyed by client
+ * IP, so a flood of logins does not use up a client's budget for browsing.
+ * Allowed, rejected and evicted counts, and the number of tracked clients, are
+ * published as {@code ratelimit.*} meters tagged with the group.</p>
+ *
+ * <p>The filter runs inside {@link RequestLoggingFilter}, so rejected
+ * requests are still logged.</p>
+ *
+ * @author James Prial
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 1)
+public class RateLimitFilter extends OncePerRequestFilter {
+    private final boolean enabled;
+    private final Map<RouteGroup, RateLimiter> limiters;
+
+    public RateLimitFilter(MeterRegistry meterRegistry,
+            @Value("${jpja.ratelimit.enabled:true}") boolean enabled,
+            @Value("${jpja.ratelimit.max-keys:10000}") int maxKeys,
+            @Value("${jpja.ratelimit.auth.capacity:10}") int authCapacity,
+            @Value("${jpja.ratelimit.auth.per-minute:10}") double authPerMinute,
+            @Value("${jpja.ratelimit.registration.capacity:5}") int registrationCapacity,
+            @Value("${jpja.ratelimit.registration.per-minute:5}") double registrationPerMinute,
+            @Value("${jpja.ratelimit.general.capacity:200}") int generalCapacity,
+            @Value("${jpja.ratelimit.general.per-minute:600}") double generalPerMinute) {
+        this.enabled = enabled;
+        this.limiters = new EnumMap<>(RouteGroup.class);
+        limiters.put(RouteGroup.AUTH, new RateLimiter(authCapacity, authPerMinute, maxKeys));
+        limiters.put(RouteGroup.REGISTRATION, new RateLimiter(registrationCapacity, registrationPerMinute, maxKeys));
+        limiters.put(RouteGroup.GENERAL, new RateLimiter(generalCapacity, generalPerMinute, maxKeys));
+        for (Map.Entry<RouteGroup, RateLimiter> entry : limiters.entrySet()) {
+            String group = entry.getKey().name().toLowerCase();
+            RateLimiter limiter = entry.getValue();
+            FunctionCounter.builder("ratelimit.requests", limiter, RateLimiter::getAllowed)
+                    .tags("group", group, "outcome", "allowed").register(meterRegistry);
+            FunctionCounter.builder("ratelimit.requests", limiter, RateLimiter::getRejected)
+                    .tags("group", group, "outcome", "rejected").register(meterRegistry);
+            FunctionCounter.builder("ratelimit.evicted", limiter, RateLimiter::getEvicted)
+                    .tag("group", group).register(meterRegistry);
+            Gauge.builder("ratelimit.tracked.clients", limiter, RateLimiter::getTrackedKeys)
+                    .tag("group", group).register(meterRegistry);
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain) throws ServletException, IOException {
+        if (!enabled) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        RateLimiter limiter = limiters.get(RouteGroup.of(request.getMethod(), request.getRequestURI()));
+        long waitNanos = limiter.tryAcquire(request.getRemoteAddr());
+        if (waitNanos > 0) {
+            long retryAfterSeconds = Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+            response.setContentType("text/plain");
+            response.getWriter().write("Too many requests. Please try again later.");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Gets the rate limiter for a route group.
+     *
+     * @param group the route group
+     * @return the limiter applied to that group
+     */
+    public RateLimiter getLimiter(RouteGroup group) {
+        return limiters.get(group);
+    }
+}
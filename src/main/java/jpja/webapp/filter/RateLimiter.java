@@ -0,0 +1,140 @@
+package jpja.webapp.filter;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token-bucket rate limiter keyed by client.
+ *
+ * <p>Each key's bucket is a single {@link AtomicLong} holding its "theoretical
+ * arrival time" (the generic cell rate algorithm), so acquiring a token is a
+ * lock-free CAS loop and buckets never need locking. A bucket whose arrival
+ * time is in the past is full, so it carries no state and can be dropped
+ * without changing behavior. Idle buckets are swept out periodically, and the
+ * number of tracked keys never exceeds {@code maxKeys}.</p>
+ *
+ * @author James Prial
+ */
+public class RateLimiter {
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final int maxKeys;
+    private final long sweepIntervalNanos;
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets;
+    private final AtomicLong lastSweep;
+
+    private final LongAdder allowed;
+    private final LongAdder rejected;
+    private final LongAdder evicted;
+
+    /**
+     * Creates a rate limiter.
+     *
+     * @param capacity        the number of requests a client can burst
+     * @param refillPerMinute the number of tokens added to a bucket per minute
+     * @param maxKeys         the maximum number of clients tracked at once
+     */
+    public RateLimiter(int capacity, double refillPerMinute, int maxKeys) {
+        if (capacity < 1 || refillPerMinute <= 0 || maxKeys < 1) {
+            throw new IllegalArgumentException("capacity, refill rate and max keys must be positive");
+        }
+        this.intervalNanos = (long) (60_000_000_000L / refillPerMinute);
+        this.burstNanos = intervalNanos * (capacity - 1);
+        this.maxKeys = maxKeys;
+        this.sweepIntervalNanos = 60_000_000_000L;
+        this.buckets = new ConcurrentHashMap<>();
+        this.lastSweep = new AtomicLong(System.nanoTime());
+        this.allowed = new LongAdder();
+        this.rejected = new LongAdder();
+        this.evicted = new LongAdder();
+    }
+
+    /**
+     * Takes a token from the key's bucket if one is available.
+     *
+     * @param key the client key
+     * @return 0 if the request is allowed, otherwise the number of nanoseconds
+     *         until a token becomes available
+     */
+    public long tryAcquire(String key) {
+        long now = System.nanoTime();
+        sweepIfDue(now);
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxKeys) {
+                makeRoom(now);
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+        while (true) {
+            long tat = bucket.get();
+            long start = Math.max(tat, now);
+            long wait = start - now - burstNanos;
+            if (wait > 0) {
+                rejected.increment();
+                return wait;
+            }
+            if (bucket.compareAndSet(tat, start + intervalNanos)) {
+                allowed.increment();
+                return 0;
+            }
+        }
+    }
+
+    public long getAllowed() {
+        return allowed.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getEvicted() {
+        return evicted.sum();
+    }
+
+    public int getTrackedKeys() {
+        return buckets.size();
+    }
+
+    // Once per sweep interval, drop every bucket that has refilled completely.
+    private void sweepIfDue(long now) {
+        long last = lastSweep.get();
+        if (now - last >= sweepIntervalNanos && lastSweep.compareAndSet(last, now)) {
+            removeIdle(now);
+        }
+    }
+
+    private int removeIdle(long now) {
+        int removed = 0;
+        Iterator<AtomicLong> it = buckets.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().get() <= now) {
+                it.remove();
+                removed++;
+            }
+        }
+        evicted.add(removed);
+        return removed;
+    }
+
+    // Called when the map is full. Idle buckets go first; if every bucket is busy,
+    // a tenth of them are dropped so memory stays bounded. Those clients start over
+    // with a full bucket, which only ever errs on the side of allowing requests.
+    private void makeRoom(long now) {
+        if (removeIdle(now) > 0) {
+            return;
+        }
+        int toRemove = Math.max(1, maxKeys / 10);
+        Iterator<AtomicLong> it = buckets.values().iterator();
+        while (it.hasNext() && toRemove > 0) {
+            it.next();
+            it.remove();
+            toRemove--;
+            evicted.increment();
+        }
+    }
+}
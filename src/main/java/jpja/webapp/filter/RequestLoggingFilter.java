@@ -2,6 +2,8 @@ package jpja.webapp.filter;
 
 import java.io.IOException;
 
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -13,6 +15,8 @@ import jakarta.servlet.http.HttpServletResponse;
 import jpja.webapp.service.LoggingService;
 
 @Component
+// Outside the rate limiter, so requests it rejects with a 429 are logged too.
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 2)
 public class RequestLoggingFilter extends OncePerRequestFilter {
     private final LoggingService loggingService;
 
@@ -29,11 +33,17 @@ public class RequestLoggingFilter extends OncePerRequestFilter {
         if(query == null || query.equals("")){
             query = "NA";
         }
-        if(requestUri.equals("/") && !query.equals("NA")){
-            loggingService.logActivityAsWarn(clientIp, httpMethod, requestUri, query);
-        }else{
-            loggingService.logActivity(clientIp, httpMethod, requestUri, query);
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = false;
+        } finally {
+            // logged after the chain so the sampler knows whether the request errored
+            if(requestUri.equals("/") && !query.equals("NA")){
+                loggingService.logActivityAsWarn(clientIp, httpMethod, requestUri, query);
+            }else{
+                loggingService.logActivity(clientIp, httpMethod, requestUri, query, failed || response.getStatus() >= 400);
+            }
         }
-        filterChain.doFilter(request, response);
     }
 }
@@ -0,0 +1,42 @@
+package jpja.webapp.filter;
+
+/**
+ * Groups of routes that share a rate limit.
+ *
+ * <p>{@link #AUTH} and {@link #REGISTRATION} cover the endpoints that hash
+ * passwords or send email, so they get much tighter limits than
+ * {@link #GENERAL}. Only the form submissions count against them; viewing
+ * the login or registration page is {@link #GENERAL}. {@code /verify} only
+ * has a GET, the emailed link, and that request checks the token, so it is
+ * limited whatever the method.</p>
+ *
+ * @author James Prial
+ */
+public enum RouteGroup {
+    AUTH, REGISTRATION, GENERAL;
+
+    /**
+     * Classifies a request into its route group.
+     *
+     * @param method the HTTP method of the request
+     * @param uri the request URI
+     * @return the route group the request belongs to
+     */
+    public static RouteGroup of(String method, String uri) {
+        if (uri == null) {
+            return GENERAL;
+        }
+        boolean post = "POST".equals(method);
+        switch (uri) {
+            case "/login":
+                return post ? AUTH : GENERAL;
+            case "/register":
+            case "/resend-verification":
+                return post ? REGISTRATION : GENERAL;
+            case "/verify":
+                return REGISTRATION;
+            default:
+                return GENERAL;
+        }
+    }
+}
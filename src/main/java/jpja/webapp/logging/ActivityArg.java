@@ -1,5 +1,5 @@
 package jpja.webapp.logging;
 
 public enum ActivityArg {
-    IP, METHOD, URI, QUERY
+    IP, METHOD, URI, QUERY, WEIGHT
 }
@@ -9,20 +9,29 @@ public class ActivityLog extends Log {
     private RequestMethod method;
     private String uri;
     private String query;
+    //number of requests this line stands for when activity logging is sampled
+    private int weight;
 
-    private static final int MESSAGE_VARS = 4;
+    private static final int MESSAGE_VARS = 5;
     
     public ActivityLog(int id, LocalDate date, LocalTime time, Level level, String source, RequestMethod method, String uri,
             String query) {
+        this(id, date, time, level, source, method, uri, query, 1);
+    }
+
+    public ActivityLog(int id, LocalDate date, LocalTime time, Level level, String source, RequestMethod method, String uri,
+            String query, int weight) {
         super(id, date, time, level);
         this.source = source;
         this.method = method;
         this.uri = uri;
         this.query = query;
+        this.weight = weight;
     }
 
     public ActivityLog(int id, LocalDate date, LocalTime time, Level level, String message) {
         super(id, date, time, level);
+        this.weight = 1;
         setMessage(message);
     }
     
@@ -50,8 +59,16 @@ public class ActivityLog extends Log {
         this.query = query;
     }
 
+    public int getWeight() {
+        return weight;
+    }
+
+    public void setWeight(int weight) {
+        this.weight = weight;
+    }
+
     public String getMessage(){
-        String message = "IP: "+ this.getSource() +" - Method: "+ method.name() + " - URI: "+uri+" - Query: "+query+"";
+        String message = "IP: "+ this.getSource() +" - Method: "+ method.name() + " - URI: "+uri+" - Query: "+query+" - Weight: "+weight;
         return message;
     }
 
@@ -103,6 +120,9 @@ public class ActivityLog extends Log {
             case ActivityArg.QUERY:
                 this.setQuery(parsedArg[1]);
                 break;
+            case ActivityArg.WEIGHT:
+                this.setWeight(Integer.parseInt(parsedArg[1]));
+                break;
             default:
                 throw new IllegalArgumentException("improperly formatted arg");
         }
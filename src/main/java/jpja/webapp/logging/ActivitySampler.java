@@ -0,0 +1,93 @@
+package jpja.webapp.logging;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides which activity log lines get written when traffic is high.
+ *
+ * <p>Every request is counted towards a rolling request rate. Requests that must
+ * always be logged get a weight of 1. The rest are sampled 1-in-k, where k is
+ * recalculated once per window so that roughly {@code targetPerSecond} sampled
+ * lines are written per second. A sampled line carries k as its weight, so
+ * summing the weights of the written lines estimates the true request count.</p>
+ *
+ * @author James Prial
+ */
+public class ActivitySampler {
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final boolean enabled;
+    private final double targetPerSecond;
+    private final long windowNanos;
+
+    private final AtomicLong windowStart;
+    private final LongAdder windowCount;
+    private volatile int sampleEvery;
+
+    /**
+     * Creates a sampler.
+     *
+     * @param enabled         {@code false} to log every request with weight 1
+     * @param targetPerSecond the number of sampled lines per second to aim for
+     * @param windowMillis    how often the sampling rate is recalculated
+     */
+    public ActivitySampler(boolean enabled, double targetPerSecond, long windowMillis) {
+        if (targetPerSecond <= 0 || windowMillis <= 0) {
+            throw new IllegalArgumentException("target rate and window must be positive");
+        }
+        this.enabled = enabled;
+        this.targetPerSecond = targetPerSecond;
+        this.windowNanos = windowMillis * 1_000_000L;
+        this.windowStart = new AtomicLong(System.nanoTime());
+        this.windowCount = new LongAdder();
+        this.sampleEvery = 1;
+    }
+
+    /**
+     * Records a request and decides whether it should be logged.
+     *
+     * @param alwaysLog {@code true} if the request must be logged regardless of load
+     * @return the weight to log the line with, or 0 if the line should be dropped
+     */
+    public int weigh(boolean alwaysLog) {
+        if (!enabled) {
+            return 1;
+        }
+        record(System.nanoTime());
+        if (alwaysLog) {
+            return 1;
+        }
+        int every = sampleEvery;
+        if (every <= 1 || ThreadLocalRandom.current().nextInt(every) == 0) {
+            return every;
+        }
+        return 0;
+    }
+
+    /**
+     * Gets the current sampling interval (1-in-k) applied to sampleable requests.
+     *
+     * @return the current value of k
+     */
+    public int getSampleEvery() {
+        return sampleEvery;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Counts the request and, once per window, recalculates k from the observed rate.
+    // Only the thread that wins the CAS on windowStart does the recalculation.
+    private void record(long now) {
+        windowCount.increment();
+        long start = windowStart.get();
+        long elapsed = now - start;
+        if (elapsed >= windowNanos && windowStart.compareAndSet(start, now)) {
+            double rate = windowCount.sumThenReset() * (double) NANOS_PER_SECOND / elapsed;
+            sampleEvery = (int) Math.max(1, Math.min(Integer.MAX_VALUE, Math.ceil(rate / targetPerSecond)));
+        }
+    }
+}
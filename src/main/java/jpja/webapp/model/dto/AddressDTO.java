@@ -50,6 +50,11 @@ public class AddressDTO implements DTOInterface {
      */
     private String nickname;
 
+    /**
+     * The size of the location in square feet (optional).
+     */
+    private Long sqft;
+
     /**
      * Default constructor.
      * Initializes all fields to {@code null}.
@@ -63,6 +68,7 @@ public class AddressDTO implements DTOInterface {
         this.city = null;
         this.zip = null;
         this.state = null;
+        this.sqft = null;
     }
 
     /**
@@ -191,6 +197,24 @@ public class AddressDTO implements DTOInterface {
         this.zip = zip;
     }
 
+    /**
+     * Gets the size of the location in square feet.
+     *
+     * @return the square footage, or null if not given
+     */
+    public Long getSqft() {
+        return sqft;
+    }
+
+    /**
+     * Sets the size of the location in square feet.
+     *
+     * @param sqft the square footage to set
+     */
+    public void setSqft(Long sqft) {
+        this.sqft = sqft;
+    }
+
     /**
      * Gets the state or region of the address.
      *
@@ -0,0 +1,88 @@
+package jpja.webapp.model.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for the outcome of a bulk booking import.
+ *
+ * <p>Counts every imported and rejected row, and keeps the reasons for the
+ * first rejected rows, each prefixed with its line number in the file. Past
+ * that limit rejected rows are only counted, so {@link #isTruncated()} tells
+ * whether the list of errors is complete.</p>
+ *
+ * @author James Prial
+ */
+public class BookingImportResultDTO implements DTOInterface {
+
+    /**
+     * The number of bookings imported.
+     */
+    private long imported;
+
+    /**
+     * The number of rows rejected.
+     */
+    private long rejected;
+
+    /**
+     * The reasons the first rejected rows were rejected.
+     */
+    private List<String> errors;
+
+    /**
+     * Default constructor.
+     * Initializes an empty result.
+     */
+    public BookingImportResultDTO() {
+        this.imported = 0;
+        this.rejected = 0;
+        this.errors = new ArrayList<>();
+    }
+
+    /**
+     * Constructs a result with the given counts and errors.
+     *
+     * @param imported the number of bookings imported
+     * @param rejected the number of rows rejected
+     * @param errors   the reasons the first rejected rows were rejected
+     */
+    public BookingImportResultDTO(long imported, long rejected, List<String> errors) {
+        this.imported = imported;
+        this.rejected = rejected;
+        this.errors = errors;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<String> errors) {
+        this.errors = errors;
+    }
+
+    /**
+     * Checks whether some rejected rows are missing from the errors.
+     *
+     * @return true if fewer errors were kept than rows were rejected
+     */
+    public boolean isTruncated() {
+        return errors.size() < rejected;
+    }
+}
@@ -0,0 +1,78 @@
+package jpja.webapp.model.dto;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for one page of a booking list.
+ *
+ * <p>Holds the bookings on the page, in order, and the cursor to request the
+ * next page with. The cursor is {@code null} on the last page.</p>
+ *
+ * @author James Prial
+ */
+public class BookingPageDTO implements DTOInterface {
+
+    /**
+     * The bookings on this page, in (date, time, id) order.
+     */
+    private List<BookingDTO> bookings;
+
+    /**
+     * The cursor for the next page, or {@code null} if this is the last page.
+     */
+    private String nextCursor;
+
+    /**
+     * Default constructor.
+     * Initializes an empty last page.
+     */
+    public BookingPageDTO() {
+        this.bookings = List.of();
+        this.nextCursor = null;
+    }
+
+    /**
+     * Constructs a page with the given bookings and next cursor.
+     *
+     * @param bookings   the bookings on the page
+     * @param nextCursor the cursor for the next page, or {@code null}
+     */
+    public BookingPageDTO(List<BookingDTO> bookings, String nextCursor) {
+        this.bookings = bookings;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<BookingDTO> getBookings() {
+        return bookings;
+    }
+
+    public void setBookings(List<BookingDTO> bookings) {
+        this.bookings = bookings;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Checks whether there is a page after this one.
+     *
+     * @return {@code true} if a next cursor is present
+     */
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+
+    /**
+     * Checks whether the page has no bookings.
+     *
+     * @return {@code true} if the page is empty
+     */
+    public boolean isEmpty() {
+        return bookings == null || bookings.isEmpty();
+    }
+}
@@ -0,0 +1,120 @@
+package jpja.webapp.model.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Data Transfer Object (DTO) for the criteria of an admin booking search.
+ *
+ * <p>Every criterion is optional; blank ones are ignored and the rest must
+ * all match. The vendor and customer are given by username and the type by
+ * the name of its TYPE modifier.</p>
+ *
+ * @author James Prial
+ */
+public class BookingSearchDTO implements DTOInterface {
+
+    /**
+     * The first booking date to include.
+     */
+    private LocalDate from;
+
+    /**
+     * The last booking date to include.
+     */
+    private LocalDate to;
+
+    /**
+     * The status name (e.g., "CLAIMED").
+     */
+    private String status;
+
+    /**
+     * The vendor's username.
+     */
+    private String vendor;
+
+    /**
+     * The customer's username.
+     */
+    private String customer;
+
+    /**
+     * The ZIP code of the booking's location.
+     */
+    private String zip;
+
+    /**
+     * The name of the booking's TYPE modifier (e.g., "LARGE").
+     */
+    private String type;
+
+    /**
+     * Default constructor.
+     * Initializes all criteria to {@code null}.
+     */
+    public BookingSearchDTO() {
+        this.from = null;
+        this.to = null;
+        this.status = null;
+        this.vendor = null;
+        this.customer = null;
+        this.zip = null;
+        this.type = null;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDate to) {
+        this.to = to;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getVendor() {
+        return vendor;
+    }
+
+    public void setVendor(String vendor) {
+        this.vendor = vendor;
+    }
+
+    public String getCustomer() {
+        return customer;
+    }
+
+    public void setCustomer(String customer) {
+        this.customer = customer;
+    }
+
+    public String getZip() {
+        return zip;
+    }
+
+    public void setZip(String zip) {
+        this.zip = zip;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+}
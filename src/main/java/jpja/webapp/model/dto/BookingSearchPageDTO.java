@@ -0,0 +1,66 @@
+package jpja.webapp.model.dto;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for one page of admin booking search results.
+ *
+ * <p>Besides the page itself, the first page carries the number of matching
+ * bookings. Up to a limit the number is exact; past it, it is estimated from
+ * the spread of booking dates and flagged as approximate. Later pages do not
+ * count again, so their match count is {@code null}.</p>
+ *
+ * @author James Prial
+ */
+public class BookingSearchPageDTO extends BookingPageDTO {
+
+    /**
+     * The number of matching bookings, or {@code null} if not counted.
+     */
+    private Long matchCount;
+
+    /**
+     * Whether {@link #matchCount} is an estimate.
+     */
+    private boolean approximate;
+
+    /**
+     * Default constructor.
+     * Initializes an empty last page with no count.
+     */
+    public BookingSearchPageDTO() {
+        super();
+        this.matchCount = null;
+        this.approximate = false;
+    }
+
+    /**
+     * Constructs a page with the given bookings, next cursor and count.
+     *
+     * @param bookings    the bookings on the page
+     * @param nextCursor  the cursor for the next page, or {@code null}
+     * @param matchCount  the number of matching bookings, or {@code null}
+     * @param approximate whether the count is an estimate
+     */
+    public BookingSearchPageDTO(List<BookingDTO> bookings, String nextCursor, Long matchCount, boolean approximate) {
+        super(bookings, nextCursor);
+        this.matchCount = matchCount;
+        this.approximate = approximate;
+    }
+
+    public Long getMatchCount() {
+        return matchCount;
+    }
+
+    public void setMatchCount(Long matchCount) {
+        this.matchCount = matchCount;
+    }
+
+    public boolean isApproximate() {
+        return approximate;
+    }
+
+    public void setApproximate(boolean approximate) {
+        this.approximate = approximate;
+    }
+}
@@ -0,0 +1,123 @@
+package jpja.webapp.model.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Data Transfer Object (DTO) for one change to the list of unclaimed bookings,
+ * pushed to connected vendors.
+ *
+ * <p>An ADDED event carries enough of the booking to list it; a REMOVED event
+ * only its ID. A RESET event tells the client its copy of the list can no
+ * longer be brought up to date incrementally and must be reloaded.</p>
+ *
+ * @author James Prial
+ */
+public class FeedEventDTO implements DTOInterface {
+
+    public static final String ADDED = "added";
+    public static final String REMOVED = "removed";
+    public static final String RESET = "reset";
+
+    /**
+     * The position of the event in the feed, increasing with every event.
+     */
+    private long id;
+
+    /**
+     * The kind of change: {@link #ADDED}, {@link #REMOVED} or {@link #RESET}.
+     */
+    private String type;
+
+    /**
+     * The ID of the booking that changed.
+     */
+    private Long bookingId;
+
+    /**
+     * The date of the booking (ADDED only).
+     */
+    private LocalDate bookingDate;
+
+    /**
+     * The time of the booking (ADDED only).
+     */
+    private LocalTime bookingTime;
+
+    /**
+     * The street address and city of the booking (ADDED only).
+     */
+    private String address;
+
+    /**
+     * Default constructor.
+     * Initializes all fields to {@code null}.
+     */
+    public FeedEventDTO() {
+        this.type = null;
+        this.bookingId = null;
+        this.bookingDate = null;
+        this.bookingTime = null;
+        this.address = null;
+    }
+
+    /**
+     * Constructs an event of the given type for a booking.
+     *
+     * @param type      the kind of change
+     * @param bookingId the ID of the booking, or {@code null} for a RESET
+     */
+    public FeedEventDTO(String type, Long bookingId) {
+        this();
+        this.type = type;
+        this.bookingId = bookingId;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Long getBookingId() {
+        return bookingId;
+    }
+
+    public void setBookingId(Long bookingId) {
+        this.bookingId = bookingId;
+    }
+
+    public LocalDate getBookingDate() {
+        return bookingDate;
+    }
+
+    public void setBookingDate(LocalDate bookingDate) {
+        this.bookingDate = bookingDate;
+    }
+
+    public LocalTime getBookingTime() {
+        return bookingTime;
+    }
+
+    public void setBookingTime(LocalTime bookingTime) {
+        this.bookingTime = bookingTime;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public void setAddress(String address) {
+        this.address = address;
+    }
+}
@@ -40,6 +40,13 @@ public interface VendorDTOInterface extends UserDTOInterface {
      */
     Long getMax_sqft();
 
+    /**
+     * Gets the ZIP code the vendor works out of.
+     *
+     * @return the vendor's ZIP code
+     */
+    String getZip();
+
     /**
      * Sets the name of the vendor.
      *
@@ -67,4 +74,11 @@ public interface VendorDTOInterface extends UserDTOInterface {
      * @param max_sqft the maximum square footage to set
      */
     void setMax_sqft(Long max_sqft);
+
+    /**
+     * Sets the ZIP code the vendor works out of.
+     *
+     * @param zip the ZIP code to set
+     */
+    void setZip(String zip);
 }
@@ -33,6 +33,11 @@ public class VendorIncomingDTO extends UserIncomingDTO implements VendorDTOInter
      */
     private Long max_sqft;
 
+    /**
+     * The ZIP code the vendor works out of.
+     */
+    private String zip;
+
     /**
      * Default constructor.
      * Initializes all fields to {@code null}.
@@ -43,6 +48,7 @@ public class VendorIncomingDTO extends UserIncomingDTO implements VendorDTOInter
         this.phone = null;
         this.size = null;
         this.max_sqft = null;
+        this.zip = null;
     }
 
     /**
@@ -116,4 +122,22 @@ public class VendorIncomingDTO extends UserIncomingDTO implements VendorDTOInter
     public void setMax_sqft(Long max_sqft) {
         this.max_sqft = max_sqft;
     }
+
+    /**
+     * Gets the ZIP code the vendor works out of.
+     *
+     * @return the vendor's ZIP code
+     */
+    public String getZip() {
+        return zip;
+    }
+
+    /**
+     * Sets the ZIP code the vendor works out of.
+     *
+     * @param zip the ZIP code to set
+     */
+    public void setZip(String zip) {
+        this.zip = zip;
+    }
 }
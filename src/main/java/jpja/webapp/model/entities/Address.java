@@ -3,6 +3,9 @@ package jpja.webapp.model.entities;
 import java.util.HashSet;
 import java.util.Set;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import jakarta.persistence.*;
 
 /**
@@ -18,7 +21,7 @@ import jakarta.persistence.*;
  * @author James Prial
  */
 @Entity
-@Table(name = "addresses")
+@Table(name = "addresses", indexes = @Index(name = "idx_addresses_zip", columnList = "zip"))
 public class Address {
 
     /**
@@ -77,11 +80,19 @@ public class Address {
     @Column
     private String nickname;
 
+    /**
+     * The size of the location in square feet, if known.
+     * Used to match bookings with vendors that can handle them.
+     */
+    @Column(name = "sqft", columnDefinition = "INT UNSIGNED", nullable = true)
+    private Long sqft;
+
     /**
      * The set of address types associated with this address.
-     * Represented as a many-to-many relationship.
+     * Represented as a many-to-many relationship, cached alongside the types themselves.
      */
     @ManyToMany(fetch = FetchType.EAGER)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JoinTable(
         name = "address_type_join",
         joinColumns = @JoinColumn(name = "address_id"),
@@ -219,6 +230,14 @@ public class Address {
         this.nickname = nickname;
     }
 
+    public Long getSqft() {
+        return sqft;
+    }
+
+    public void setSqft(Long sqft) {
+        this.sqft = sqft;
+    }
+
     public Set<AddressType> getTypes() {
         return types;
     }
@@ -1,5 +1,8 @@
 package jpja.webapp.model.entities;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import jakarta.persistence.*;
 
 /**
@@ -8,12 +11,14 @@ import jakarta.persistence.*;
  * for the type's name and description.
  * 
  * <p>An address type is used to categorize addresses (e.g., "Home", "Work").</p>
- * Implements the {@link ModifierInterface} to standardize behavior across modifier-like entities.</p>
+ * Implements the {@link ModifierInterface} to standardize behavior across modifier-like entities.
+ * Address types rarely change and are kept in the second-level cache.</p>
  * 
  * @author James Prial
  */
 @Entity
 @Table(name = "address_types")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class AddressType implements ModifierInterface {
 
     /**
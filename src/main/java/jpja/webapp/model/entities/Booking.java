@@ -3,13 +3,18 @@ package jpja.webapp.model.entities;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashSet;
+import java.util.Objects;
 import java.util.Set;
 
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.collection.spi.PersistentCollection;
 
 import jakarta.persistence.*;
 import jpja.webapp.exceptions.database.ConflictingModifiersException;
+import jpja.webapp.exceptions.database.ExpectedDataNotFoundException;
 
 /**
  * Entity representing a booking.
@@ -17,12 +22,31 @@ import jpja.webapp.exceptions.database.ConflictingModifiersException;
  * for customer, vendor, location, booking date and time, price, and modifiers.
  * 
  * <p>Each booking is associated with a customer and optionally a vendor. 
- * The modifiers allow for flexible tagging and categorization of bookings.</p>
+ * The modifiers allow for flexible tagging and categorization of bookings.
+ * They are also indexed by {@link ModifierType}, so reading the status or the
+ * modifiers of one type does not scan the whole set. The index is kept up to
+ * date by {@link #addModifier(BookingModifier)} and
+ * {@link #removeModifier(BookingModifier)}, which is why
+ * {@link #getModifiers()} is read-only. It is rebuilt after a load or refresh,
+ * and on the next read once Hibernate has changed the set in place, as a merge
+ * does; that is detected from the set's size and dirty flag, the status column
+ * and the version, without scanning the set.</p>
+ * 
+ * <p>Every index ends in (booking_date, booking_time) and, implicitly, the
+ * primary key, so keyset pages over any of them in (date, time, id) order
+ * are read from the index alone.</p>
  * 
  * @author James Prial
  */
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+    @Index(name = "idx_bookings_date", columnList = "booking_date, booking_time"),
+    @Index(name = "idx_bookings_status_date", columnList = "status, booking_date, booking_time"),
+    @Index(name = "idx_bookings_vendor_status_date", columnList = "vendor_id, status, booking_date, booking_time"),
+    @Index(name = "idx_bookings_customer_status_date", columnList = "customer_id, status, booking_date, booking_time"),
+    @Index(name = "idx_bookings_vendor_date", columnList = "vendor_id, booking_date, booking_time"),
+    @Index(name = "idx_bookings_customer_date", columnList = "customer_id, booking_date, booking_time")
+})
 public class Booking {
 
     /**
@@ -83,6 +107,22 @@ public class Booking {
     @Column(name = "price", nullable = true)
     private Double price;
 
+    /**
+     * The name of the booking's STATUS modifier (e.g., "UNCLAIMED").
+     * Denormalized from the modifier join table so status queries can use an index.
+     * Kept in sync by {@link #addModifier(BookingModifier)} and {@link #removeModifier(BookingModifier)}.
+     */
+    @Column(name = "status", columnDefinition = "varchar(32)", nullable = true)
+    private String statusName;
+
+    /**
+     * Optimistic lock version, incremented on every update.
+     * Guards status transitions against concurrent writers.
+     */
+    @Version
+    @Column(name = "version", columnDefinition = "bigint default 0 not null")
+    private long version;
+
     /**
      * The set of modifiers associated with the booking.
      * Represented as a many-to-many relationship.
@@ -91,10 +131,38 @@ public class Booking {
     @JoinTable(
         name = "booking_modifier_join",
         joinColumns = @JoinColumn(name = "booking_id"),
-        inverseJoinColumns = @JoinColumn(name = "modifier_id")
+        inverseJoinColumns = @JoinColumn(name = "modifier_id"),
+        indexes = @Index(name = "idx_booking_modifier_join_modifier", columnList = "modifier_id, booking_id")
     )
     private Set<BookingModifier> modifiers;
 
+    /**
+     * The modifiers grouped by type.
+     */
+    @Transient
+    private final EnumMap<ModifierType, Set<BookingModifier>> modifiersByType = new EnumMap<>(ModifierType.class);
+
+    /**
+     * The booking's STATUS modifier, or null if it has none or more than one.
+     */
+    @Transient
+    private BookingModifier status;
+
+    /**
+     * The state of {@link #modifiers} when {@link #modifiersByType} was last
+     * brought up to date, used to tell whether it has changed since.
+     */
+    @Transient
+    private Set<BookingModifier> indexedModifiers;
+    @Transient
+    private int indexedSize;
+    @Transient
+    private boolean indexedDirty;
+    @Transient
+    private String indexedStatusName;
+    @Transient
+    private long indexedVersion;
+
     /**
      * Default constructor.
      * Initializes fields to default values and the modifiers set to an empty set.
@@ -107,6 +175,7 @@ public class Booking {
         this.bookingDate = null;
         this.bookingTime = null;
         this.price = null;
+        this.statusName = null;
         this.modifiers = new HashSet<>();
     }
 
@@ -132,6 +201,7 @@ public class Booking {
         this.bookingTime = bookingTime;
         this.price = price;
         this.modifiers = modifiers;
+        syncStatusName();
     }
 
     // Getters and setters for all fields
@@ -195,12 +265,27 @@ public class Booking {
         this.location = location;
     }
 
+    /**
+     * Gets the booking's modifiers. Use {@link #addModifier(BookingModifier)}
+     * and {@link #removeModifier(BookingModifier)} to change them.
+     *
+     * @return a read-only view of the modifiers
+     */
     public Set<BookingModifier> getModifiers() {
-        return modifiers;
+        return Collections.unmodifiableSet(modifiers);
     }
 
     public void setModifiers(Set<BookingModifier> modifiers) {
         this.modifiers = modifiers;
+        syncStatusName();
+    }
+
+    public String getStatusName() {
+        return statusName;
+    }
+
+    public long getVersion() {
+        return version;
     }
 
     // Additional utility methods
@@ -208,11 +293,15 @@ public class Booking {
      * Gets modifiers of a specific type.
      *
      * @param type the type of modifier to filter by
-     * @return a set of modifiers of the specified type
+     * @return a copy of the modifiers of the specified type
      */
     public Set<BookingModifier> getModifiersByType(String type) {
+        ModifierType modifierType = ModifierType.fromName(type);
+        if (modifierType != ModifierType.OTHER) {
+            return getModifiersByType(modifierType);
+        }
         Set<BookingModifier> result = new HashSet<>();
-        for (BookingModifier modifier : modifiers) {
+        for (BookingModifier modifier : index().getOrDefault(ModifierType.OTHER, Collections.emptySet())) {
             if (type.equals(modifier.getType())) {
                 result.add(modifier);
             }
@@ -220,24 +309,115 @@ public class Booking {
         return result;
     }
 
+    /**
+     * Gets modifiers of a specific type from the index, without copying.
+     *
+     * @param type the type of modifier to look up
+     * @return a read-only view of the modifiers of the specified type
+     */
+    public Set<BookingModifier> getModifiersByType(ModifierType type) {
+        Set<BookingModifier> result = index().get(type);
+        return result == null ? Collections.emptySet() : Collections.unmodifiableSet(result);
+    }
+
     /**
      * Adds a modifier to the booking.
+     * Adding a STATUS modifier also updates the status column.
      *
      * @param modifier the modifier to add
      * @return {@code true} if the modifier was added, {@code false} if it already exists
      */
     public boolean addModifier(BookingModifier modifier) {
-        return modifiers.add(modifier);
+        index();
+        boolean added = modifiers.add(modifier);
+        if (added) {
+            ModifierType type = modifier.getModifierType();
+            modifiersByType.computeIfAbsent(type, t -> new HashSet<>()).add(modifier);
+            if (type == ModifierType.STATUS) {
+                this.statusName = modifier.getName();
+                updateStatus();
+            }
+            markIndexed();
+        }
+        return added;
     }
 
     /**
      * Removes a modifier from the booking.
+     * Removing the current STATUS modifier also clears the status column.
      *
      * @param modifier the modifier to remove
      * @return {@code true} if the modifier was removed, {@code false} if it did not exist
      */
     public boolean removeModifier(BookingModifier modifier) {
-        return modifiers.remove(modifier);
+        index();
+        boolean removed = modifiers.remove(modifier);
+        if (removed) {
+            ModifierType type = modifier.getModifierType();
+            Set<BookingModifier> ofType = modifiersByType.get(type);
+            if (ofType != null) {
+                ofType.remove(modifier);
+            }
+            if (type == ModifierType.STATUS) {
+                if (modifier.getName().equals(statusName)) {
+                    this.statusName = null;
+                }
+                updateStatus();
+            }
+            markIndexed();
+        }
+        return removed;
+    }
+
+    // Recomputes the status column from the modifier set.
+    private void syncStatusName() {
+        reindex();
+        this.statusName = null;
+        for (BookingModifier modifier : getModifiersByType(ModifierType.STATUS)) {
+            this.statusName = modifier.getName();
+        }
+        markIndexed();
+    }
+
+    // Hibernate replaces the modifier set on load and refresh, so index the new one.
+    @PostLoad
+    private void reindex() {
+        modifiersByType.clear();
+        for (BookingModifier modifier : modifiers) {
+            modifiersByType.computeIfAbsent(modifier.getModifierType(), t -> new HashSet<>()).add(modifier);
+        }
+        updateStatus();
+        markIndexed();
+    }
+
+    // Returns the type index, rebuilding it if the modifier set changed outside the mutators.
+    private EnumMap<ModifierType, Set<BookingModifier>> index() {
+        boolean dirty = isDirty(modifiers);
+        if (indexedModifiers != modifiers || indexedSize != modifiers.size() || (dirty && !indexedDirty)
+                || indexedVersion != version || !Objects.equals(indexedStatusName, statusName)) {
+            reindex();
+        }
+        return modifiersByType;
+    }
+
+    // Records the state of the modifier set the index now matches.
+    private void markIndexed() {
+        indexedModifiers = modifiers;
+        indexedSize = modifiers.size();
+        indexedDirty = isDirty(modifiers);
+        indexedStatusName = statusName;
+        indexedVersion = version;
+    }
+
+    // A loaded set is marked dirty by any change Hibernate or the application makes, until the next flush.
+    private static boolean isDirty(Set<BookingModifier> modifiers) {
+        return modifiers instanceof PersistentCollection<?> collection && collection.isDirty();
+    }
+
+    // Caches the STATUS modifier when there is exactly one.
+    private void updateStatus() {
+        Set<BookingModifier> statuses = modifiersByType.get(ModifierType.STATUS);
+        this.status = statuses != null && statuses.size() == 1 ? statuses.iterator().next() : null;
     }
 
     /**
@@ -246,13 +426,18 @@ public class Booking {
      *
      * @return the status modifier
      * @throws ConflictingModifiersException if there are multiple status modifiers
+     * @throws ExpectedDataNotFoundException if there is no status modifier
      */
     public BookingModifier getStatus() {
-        Set<BookingModifier> statuses = getModifiersByType("STATUS");
-        if (statuses.size() > 1) {
-            throw new ConflictingModifiersException();
+        index();
+        if (status == null) {
+            Set<BookingModifier> statuses = modifiersByType.get(ModifierType.STATUS);
+            if (statuses != null && statuses.size() > 1) {
+                throw new ConflictingModifiersException();
+            }
+            throw new ExpectedDataNotFoundException("Booking " + id + " has no STATUS modifier");
         }
-        return statuses.iterator().next();
+        return status;
     }
 
     /**
@@ -261,8 +446,7 @@ public class Booking {
      * @return {@code true} if the booking is completed, {@code false} otherwise
      */
     public boolean isCompleted() {
-        BookingModifier status = getStatus();
-        return "COMPLETED".equals(status.getName());
+        return "COMPLETED".equals(getStatus().getName());
     }
 
     // hashCode, equals, and toString methods
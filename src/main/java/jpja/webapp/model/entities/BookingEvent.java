@@ -0,0 +1,119 @@
+package jpja.webapp.model.entities;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.CreationTimestamp;
+
+import jakarta.persistence.*;
+
+/**
+ * Entity representing a booking status change waiting to be delivered to
+ * event consumers.
+ * This class maps to the "booking_events" table in the database, which acts as
+ * a transactional outbox: each row is written in the same transaction as the
+ * change it describes, so an event exists if and only if its change committed.
+ * 
+ * <p>A new booking is recorded as a change from no status to UNCLAIMED. Rows
+ * are read in id order by the outbox dispatcher and deleted once every
+ * consumer has processed them.</p>
+ * 
+ * @author James Prial
+ */
+@Entity
+@Table(name = "booking_events")
+public class BookingEvent {
+
+    /**
+     * The position of the event in the outbox, increasing with every event.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    /**
+     * The id of the booking that changed.
+     */
+    @Column(name = "booking_id", nullable = false)
+    private long bookingId;
+
+    /**
+     * The booking's status before the change, or null for a new booking.
+     */
+    @Column(name = "from_status", columnDefinition = "varchar(32)", nullable = true)
+    private String fromStatus;
+
+    /**
+     * The booking's status after the change.
+     */
+    @Column(name = "to_status", columnDefinition = "varchar(32)", nullable = false)
+    private String toStatus;
+
+    /**
+     * The timestamp when the event was recorded.
+     */
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Default constructor.
+     */
+    public BookingEvent() {
+        this.fromStatus = null;
+        this.toStatus = null;
+        this.createdAt = null;
+    }
+
+    /**
+     * Constructs an event for a status change.
+     *
+     * @param bookingId the id of the booking
+     * @param fromStatus the status before the change, or null for a new booking
+     * @param toStatus the status after the change
+     */
+    public BookingEvent(long bookingId, String fromStatus, String toStatus) {
+        this.bookingId = bookingId;
+        this.fromStatus = fromStatus;
+        this.toStatus = toStatus;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public long getBookingId() {
+        return bookingId;
+    }
+
+    public String getFromStatus() {
+        return fromStatus;
+    }
+
+    public String getToStatus() {
+        return toStatus;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Checks whether the change moved the booking to the given status.
+     *
+     * @param status the status name
+     * @return {@code true} if the booking now has the status and did not before
+     */
+    public boolean entered(String status) {
+        return status.equals(toStatus) && !status.equals(fromStatus);
+    }
+
+    /**
+     * Checks whether the change moved the booking out of the given status.
+     *
+     * @param status the status name
+     * @return {@code true} if the booking had the status and no longer does
+     */
+    public boolean left(String status) {
+        return status.equals(fromStatus) && !status.equals(toStatus);
+    }
+}
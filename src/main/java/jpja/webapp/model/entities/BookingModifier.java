@@ -1,5 +1,8 @@
 package jpja.webapp.model.entities;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import jakarta.persistence.*;
 
 /**
@@ -8,12 +11,14 @@ import jakarta.persistence.*;
  * such as status ("COMPLETED") or type ("LARGE").
  * 
  * <p>This class maps to the "booking_modifiers" table in the database and
- * implements the {@link ModifierInterface} for consistency with other modifiers.</p>
+ * implements the {@link ModifierInterface} for consistency with other modifiers.
+ * Modifiers rarely change and are kept in the second-level cache.</p>
  * 
  * @author James Prial
  */
 @Entity
 @Table(name = "booking_modifiers")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class BookingModifier implements ModifierInterface {
 
     /**
@@ -44,6 +49,12 @@ public class BookingModifier implements ModifierInterface {
     @Column
     private String description;
 
+    /**
+     * The parsed form of {@link #type}, resolved on first use.
+     */
+    @Transient
+    private ModifierType modifierType;
+
     /**
      * Gets the unique identifier for the booking modifier.
      *
@@ -78,6 +89,21 @@ public class BookingModifier implements ModifierInterface {
      */
     public void setType(String type) {
         this.type = type;
+        this.modifierType = null;
+    }
+
+    /**
+     * Gets the type of the booking modifier as a {@link ModifierType}.
+     *
+     * @return the modifier type, or {@link ModifierType#OTHER} if it is not a listed type
+     */
+    public ModifierType getModifierType() {
+        ModifierType resolved = modifierType;
+        if (resolved == null) {
+            resolved = ModifierType.fromName(type);
+            modifierType = resolved;
+        }
+        return resolved;
     }
 
     /**
@@ -140,4 +166,15 @@ public class BookingModifier implements ModifierInterface {
         }
         return false;
     }
+
+    /**
+     * Returns a hash code consistent with {@link #equals(Object)}, so that the
+     * same modifier loaded in different sessions is treated as one in sets.
+     *
+     * @return the hash code of the modifier ID
+     */
+    @Override
+    public int hashCode() {
+        return id == null ? 0 : id.hashCode();
+    }
 }
@@ -0,0 +1,82 @@
+package jpja.webapp.model.entities;
+
+/**
+ * The lifecycle states of a booking, matching the names of the STATUS
+ * {@link BookingModifier}s.
+ *
+ * <p>The legal transitions are declared in {@link #TRANSITIONS}, one row per
+ * state listing the states it may move to. The table is compiled once into a
+ * bit mask per state indexed by ordinal, so checking a transition is a single
+ * array read.</p>
+ *
+ * @author James Prial
+ */
+public enum BookingStatus {
+    UNCLAIMED, CLAIMED, COMPLETED, PENDING_PAYOUT, CANCELED, EXPIRED;
+
+    /**
+     * Declarative transition table: the first status of each row may move to
+     * each of the others. Re-scheduling a booking moves it back to UNCLAIMED;
+     * an UNCLAIMED booking whose date has passed becomes EXPIRED.
+     */
+    private static final BookingStatus[][] TRANSITIONS = {
+        { UNCLAIMED, UNCLAIMED, CLAIMED, CANCELED, EXPIRED },
+        { CLAIMED, UNCLAIMED, COMPLETED, CANCELED },
+        { COMPLETED, PENDING_PAYOUT },
+        { PENDING_PAYOUT },
+        { CANCELED },
+        { EXPIRED },
+    };
+
+    private static final int[] ALLOWED = compile(TRANSITIONS);
+
+    private static int[] compile(BookingStatus[][] table) {
+        int[] allowed = new int[values().length];
+        for (BookingStatus[] row : table) {
+            for (int i = 1; i < row.length; i++) {
+                allowed[row[0].ordinal()] |= 1 << row[i].ordinal();
+            }
+        }
+        return allowed;
+    }
+
+    /**
+     * Checks whether a booking in this status may move to the given status.
+     *
+     * @param next the status to move to
+     * @return {@code true} if the transition is legal
+     */
+    public boolean canMoveTo(BookingStatus next) {
+        return (ALLOWED[ordinal()] & (1 << next.ordinal())) != 0;
+    }
+
+    /**
+     * Checks whether a booking may move between two statuses. A booking with no
+     * recognized status may move to any status.
+     *
+     * @param from the current status, or null if unknown
+     * @param to the status to move to
+     * @return {@code true} if the transition is legal
+     */
+    public static boolean isAllowed(BookingStatus from, BookingStatus to) {
+        return from == null || from.canMoveTo(to);
+    }
+
+    /**
+     * Looks up a status by its modifier name.
+     *
+     * @param name the status name, e.g. "CLAIMED"
+     * @return the status, or null if the name is null or not a known status
+     */
+    public static BookingStatus fromName(String name) {
+        if (name == null) {
+            return null;
+        }
+        for (BookingStatus status : values()) {
+            if (status.name().equals(name)) {
+                return status;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,60 @@
+package jpja.webapp.model.entities;
+
+import jakarta.persistence.*;
+
+/**
+ * Entity representing how far a booking event consumer has read the outbox.
+ * This class maps to the "booking_event_offsets" table in the database and
+ * holds one row per consumer with the id of the last {@link BookingEvent} it
+ * processed.
+ * 
+ * @author James Prial
+ */
+@Entity
+@Table(name = "booking_event_offsets")
+public class EventConsumerOffset {
+
+    /**
+     * The unique name of the consumer.
+     */
+    @Id
+    @Column(name = "consumer", columnDefinition = "varchar(64)")
+    private String consumer;
+
+    /**
+     * The id of the last event the consumer processed.
+     */
+    @Column(name = "last_event_id", nullable = false)
+    private long lastEventId;
+
+    /**
+     * Default constructor.
+     */
+    public EventConsumerOffset() {
+        this.consumer = null;
+        this.lastEventId = 0;
+    }
+
+    /**
+     * Constructs an offset for a consumer.
+     *
+     * @param consumer the name of the consumer
+     * @param lastEventId the id of the last event processed
+     */
+    public EventConsumerOffset(String consumer, long lastEventId) {
+        this.consumer = consumer;
+        this.lastEventId = lastEventId;
+    }
+
+    public String getConsumer() {
+        return consumer;
+    }
+
+    public long getLastEventId() {
+        return lastEventId;
+    }
+
+    public void setLastEventId(long lastEventId) {
+        this.lastEventId = lastEventId;
+    }
+}
@@ -0,0 +1,112 @@
+package jpja.webapp.model.entities;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+
+/**
+ * Entity representing a request submitted with an idempotency key.
+ * This class maps to the "idempotency_keys" table in the database, which is
+ * shared by every node: a node inserts the row before it executes a request,
+ * so a duplicate arriving at another node finds the key taken, waits for the
+ * row to be completed and replays the stored response.
+ *
+ * <p>A row without a status is still being processed. Rows are deleted when
+ * the request fails, and by a periodic purge once they have expired.</p>
+ *
+ * @author James Prial
+ */
+@Entity
+@Table(name = "idempotency_keys")
+public class IdempotencyRecord {
+
+    /**
+     * The SHA-256 hash, in hex, of the client's key and the request it was sent with.
+     */
+    @Id
+    @Column(name = "idempotency_key", columnDefinition = "char(64)")
+    private String idempotencyKey;
+
+    /**
+     * The timestamp when the request was first received.
+     */
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * The timestamp after which the key may be used again.
+     */
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    /**
+     * The HTTP status of the response, or null while the request is in progress.
+     */
+    @Column(name = "status", nullable = true)
+    private Integer status;
+
+    /**
+     * The Location header of the response, if any.
+     */
+    @Column(name = "location", length = 2048, nullable = true)
+    private String location;
+
+    /**
+     * The Content-Type header of the response, if any.
+     */
+    @Column(name = "content_type", nullable = true)
+    private String contentType;
+
+    /**
+     * The body of the response.
+     */
+    @Lob
+    @Column(name = "body", length = 16777215, nullable = true)
+    private byte[] body;
+
+    /**
+     * Default constructor.
+     */
+    public IdempotencyRecord() {
+        this.idempotencyKey = null;
+        this.createdAt = null;
+        this.expiresAt = null;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public Integer getStatus() {
+        return status;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    /**
+     * Checks whether the request has finished and its response was stored.
+     *
+     * @return true if the response can be replayed
+     */
+    public boolean isCompleted() {
+        return status != null;
+    }
+}
@@ -0,0 +1,133 @@
+package jpja.webapp.model.entities;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.*;
+
+/**
+ * Entity representing how far a chunked background job has progressed.
+ * This class maps to the "job_checkpoints" table in the database and holds one
+ * row per job with the keyset position of the last chunk it committed, so a
+ * run interrupted by a restart can resume where it stopped.
+ * 
+ * @author James Prial
+ */
+@Entity
+@Table(name = "job_checkpoints")
+public class JobCheckpoint {
+
+    /**
+     * The unique name of the job.
+     */
+    @Id
+    @Column(name = "name", columnDefinition = "varchar(64)")
+    private String name;
+
+    /**
+     * The cutoff date of the run in progress, or null if the job is idle.
+     */
+    @Column(name = "cutoff_date")
+    private LocalDate cutoffDate;
+
+    /**
+     * The booking date of the last row committed by the run in progress.
+     */
+    @Column(name = "last_date")
+    private LocalDate lastDate;
+
+    /**
+     * The id of the last row committed by the run in progress.
+     */
+    @Column(name = "last_id", nullable = false)
+    private long lastId;
+
+    /**
+     * The number of rows moved so far by the run in progress.
+     */
+    @Column(name = "moved", nullable = false)
+    private long moved;
+
+    /**
+     * Default constructor.
+     */
+    public JobCheckpoint() {
+        this.name = null;
+        this.cutoffDate = null;
+        this.lastDate = null;
+        this.lastId = 0;
+        this.moved = 0;
+    }
+
+    /**
+     * Constructs an idle checkpoint for a job.
+     *
+     * @param name the name of the job
+     */
+    public JobCheckpoint(String name) {
+        this();
+        this.name = name;
+    }
+
+    /**
+     * Starts a new run, discarding any previous position.
+     *
+     * @param cutoffDate the cutoff date of the run
+     */
+    public void start(LocalDate cutoffDate) {
+        this.cutoffDate = cutoffDate;
+        this.lastDate = null;
+        this.lastId = 0;
+        this.moved = 0;
+    }
+
+    /**
+     * Marks the job as idle.
+     */
+    public void finish() {
+        this.cutoffDate = null;
+        this.lastDate = null;
+        this.lastId = 0;
+    }
+
+    /**
+     * Checks whether a run was interrupted before it finished.
+     *
+     * @return true if a run is in progress
+     */
+    public boolean isRunning() {
+        return cutoffDate != null;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LocalDate getCutoffDate() {
+        return cutoffDate;
+    }
+
+    public LocalDate getLastDate() {
+        return lastDate;
+    }
+
+    public long getLastId() {
+        return lastId;
+    }
+
+    public long getMoved() {
+        return moved;
+    }
+
+    /**
+     * Records a committed chunk.
+     *
+     * @param lastDate the booking date of the last row in the chunk
+     * @param lastId the id of the last row in the chunk
+     * @param moved the number of rows the chunk moved
+     */
+    public void advance(LocalDate lastDate, long lastId, int moved) {
+        this.lastDate = lastDate;
+        this.lastId = lastId;
+        this.moved += moved;
+    }
+}
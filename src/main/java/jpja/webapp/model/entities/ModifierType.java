@@ -0,0 +1,34 @@
+package jpja.webapp.model.entities;
+
+/**
+ * The kinds of {@link BookingModifier}, matching the values of its
+ * {@code type} column.
+ *
+ * <p>{@link Booking} keeps its modifiers indexed by this enum, so looking up
+ * a booking's status or type does not scan or compare strings. Modifier types
+ * not listed here are grouped under {@link #OTHER}.</p>
+ *
+ * @author James Prial
+ */
+public enum ModifierType {
+    STATUS, TYPE, OTHER;
+
+    private static final ModifierType[] VALUES = values();
+
+    /**
+     * Looks up a modifier type by its column value.
+     *
+     * @param type the modifier type, e.g. "STATUS"
+     * @return the matching type, or {@link #OTHER} if the value is null or not listed
+     */
+    public static ModifierType fromName(String type) {
+        if (type != null) {
+            for (ModifierType value : VALUES) {
+                if (value != OTHER && value.name().equals(type)) {
+                    return value;
+                }
+            }
+        }
+        return OTHER;
+    }
+}
@@ -0,0 +1,194 @@
+package jpja.webapp.model.entities;
+
+import jakarta.persistence.*;
+
+/**
+ * Entity representing one rule of the booking price list.
+ * This class maps to the "pricing_rules" table in the database. A rule applies
+ * to the bookings matching all of its conditions; a condition left null
+ * matches every booking. The price of a booking is
+ * {@code basePrice + perSqft * sqft} of the matching rule with the highest
+ * priority.
+ * 
+ * @author James Prial
+ */
+@Entity
+@Table(name = "pricing_rules")
+public class PricingRule {
+
+    /**
+     * The unique identifier for the rule.
+     */
+    @Id
+    @Column(columnDefinition = "INT UNSIGNED")
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * The TYPE modifier of the bookings the rule applies to, or null for any.
+     */
+    @ManyToOne
+    @JoinColumn(name = "type_id", nullable = true)
+    private BookingModifier type;
+
+    /**
+     * The type of the address the rule applies to, or null for any.
+     */
+    @ManyToOne
+    @JoinColumn(name = "address_type_id", nullable = true)
+    private AddressType addressType;
+
+    /**
+     * True for weekend bookings only, false for weekday bookings only, or null for both.
+     */
+    @Column(name = "weekend", nullable = true)
+    private Boolean weekend;
+
+    /**
+     * The smallest square footage the rule applies to, or null for any.
+     */
+    @Column(name = "min_sqft", columnDefinition = "INT UNSIGNED", nullable = true)
+    private Long minSqft;
+
+    /**
+     * The most days ahead a booking may be made for the rule to apply, or null
+     * for any lead time.
+     */
+    @Column(name = "max_lead_days", nullable = true)
+    private Integer maxLeadDays;
+
+    /**
+     * The flat part of the price.
+     */
+    @Column(name = "base_price", nullable = false)
+    private double basePrice;
+
+    /**
+     * The price per square foot of the location.
+     */
+    @Column(name = "per_sqft", nullable = false)
+    private double perSqft;
+
+    /**
+     * The priority of the rule; the highest priority matching rule is used.
+     */
+    @Column(name = "priority", nullable = false)
+    private int priority;
+
+    /**
+     * A description of the rule.
+     */
+    @Column(name = "description", nullable = true)
+    private String description;
+
+    /**
+     * Default constructor.
+     * Initializes all conditions to {@code null} and the price to zero.
+     */
+    public PricingRule() {
+        this.id = null;
+        this.type = null;
+        this.addressType = null;
+        this.weekend = null;
+        this.minSqft = null;
+        this.maxLeadDays = null;
+        this.basePrice = 0;
+        this.perSqft = 0;
+        this.priority = 0;
+        this.description = null;
+    }
+
+    /**
+     * Constructs a rule that applies to every booking.
+     *
+     * @param basePrice the flat part of the price
+     * @param perSqft the price per square foot
+     * @param priority the priority of the rule
+     */
+    public PricingRule(double basePrice, double perSqft, int priority) {
+        this();
+        this.basePrice = basePrice;
+        this.perSqft = perSqft;
+        this.priority = priority;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public BookingModifier getType() {
+        return type;
+    }
+
+    public void setType(BookingModifier type) {
+        this.type = type;
+    }
+
+    public AddressType getAddressType() {
+        return addressType;
+    }
+
+    public void setAddressType(AddressType addressType) {
+        this.addressType = addressType;
+    }
+
+    public Boolean getWeekend() {
+        return weekend;
+    }
+
+    public void setWeekend(Boolean weekend) {
+        this.weekend = weekend;
+    }
+
+    public Long getMinSqft() {
+        return minSqft;
+    }
+
+    public void setMinSqft(Long minSqft) {
+        this.minSqft = minSqft;
+    }
+
+    public Integer getMaxLeadDays() {
+        return maxLeadDays;
+    }
+
+    public void setMaxLeadDays(Integer maxLeadDays) {
+        this.maxLeadDays = maxLeadDays;
+    }
+
+    public double getBasePrice() {
+        return basePrice;
+    }
+
+    public void setBasePrice(double basePrice) {
+        this.basePrice = basePrice;
+    }
+
+    public double getPerSqft() {
+        return perSqft;
+    }
+
+    public void setPerSqft(double perSqft) {
+        this.perSqft = perSqft;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+}
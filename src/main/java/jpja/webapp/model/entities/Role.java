@@ -1,5 +1,7 @@
 package jpja.webapp.model.entities;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.security.core.GrantedAuthority;
 
 import jakarta.persistence.*;
@@ -9,11 +11,13 @@ import jakarta.persistence.*;
  * Roles define the permissions and authorities assigned to users within the system.
  * This class maps to the "roles" table in the database and implements both
  * {@link GrantedAuthority} for Spring Security integration and {@link ModifierInterface} for consistent handling of modifiers.
+ * Roles rarely change and are kept in the second-level cache.
  * 
  * @author James Prial
  */
 @Entity
 @Table(name = "roles")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Role implements GrantedAuthority, ModifierInterface {
 
     /**
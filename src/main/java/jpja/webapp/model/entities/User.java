@@ -1,6 +1,10 @@
 package jpja.webapp.model.entities;
 
 import jakarta.persistence.*;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import java.util.HashSet;
 import java.util.Set;
 
@@ -53,9 +57,11 @@ public abstract class User {
 
     /**
      * The roles assigned to the user.
-     * Represented as a many-to-many relationship with the {@link Role} entity.
+     * Represented as a many-to-many relationship with the {@link Role} entity,
+     * cached alongside the roles themselves.
      */
     @ManyToMany(fetch = FetchType.EAGER)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JoinTable(
         name = "user_roles",
         joinColumns = @JoinColumn(name = "user_id"),
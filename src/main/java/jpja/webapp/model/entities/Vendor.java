@@ -45,6 +45,13 @@ public class Vendor extends User {
     @Column(columnDefinition = "INT UNSIGNED", nullable = true)
     private Long max_sqft;
 
+    /**
+     * The ZIP code the vendor works out of.
+     * Used to match the vendor with nearby bookings.
+     */
+    @Column(name = "zip", columnDefinition = "varchar(15)", nullable = true)
+    private String zip;
+
     /**
      * The set of bookings associated with the vendor.
      * Represented as a one-to-many relationship mapped by the "vendor" field in the {@link Booking} entity.
@@ -62,6 +69,7 @@ public class Vendor extends User {
         this.phone = null;
         this.size = null;
         this.max_sqft = null;
+        this.zip = null;
     }
 
     /**
@@ -78,6 +86,7 @@ public class Vendor extends User {
         this.phone = null;
         this.size = null;
         this.max_sqft = null;
+        this.zip = null;
     }
 
     /**
@@ -119,9 +128,9 @@ public class Vendor extends User {
     /**
      * Gets the team size of the vendor.
      *
-     * @return the team size
+     * @return the team size, or null if not set
      */
-    public int getSize() {
+    public Integer getSize() {
         return size;
     }
 
@@ -152,6 +161,24 @@ public class Vendor extends User {
         this.max_sqft = max_sqft;
     }
 
+    /**
+     * Gets the ZIP code the vendor works out of.
+     *
+     * @return the vendor's ZIP code
+     */
+    public String getZip() {
+        return zip;
+    }
+
+    /**
+     * Sets the ZIP code the vendor works out of.
+     *
+     * @param zip the ZIP code to set
+     */
+    public void setZip(String zip) {
+        this.zip = zip;
+    }
+
     /**
      * Gets the set of bookings associated with the vendor.
      *
@@ -0,0 +1,86 @@
+package jpja.webapp.model.entities;
+
+import jakarta.persistence.*;
+
+/**
+ * Entity representing a vendor's running earnings totals.
+ * This class maps to the "vendor_earnings" table in the database and holds one
+ * row per vendor with the sums of the prices of their COMPLETED and
+ * PENDING_PAYOUT bookings.
+ * 
+ * <p>Amounts are stored as whole cents so that repeated additions and
+ * subtractions stay exact. The row is keyed by the vendor's user id and is
+ * maintained incrementally as bookings change status.</p>
+ * 
+ * @author James Prial
+ */
+@Entity
+@Table(name = "vendor_earnings")
+public class VendorEarnings {
+
+    /**
+     * The user id of the vendor the totals belong to.
+     */
+    @Id
+    @Column(name = "vendor_id", columnDefinition = "int(10) unsigned")
+    private Long vendorId;
+
+    /**
+     * The total price of the vendor's COMPLETED bookings, in cents.
+     */
+    @Column(name = "completed_cents", nullable = false)
+    private long completedCents;
+
+    /**
+     * The total price of the vendor's PENDING_PAYOUT bookings, in cents.
+     */
+    @Column(name = "pending_cents", nullable = false)
+    private long pendingCents;
+
+    /**
+     * Default constructor.
+     * Initializes both totals to zero.
+     */
+    public VendorEarnings() {
+        this.vendorId = null;
+        this.completedCents = 0;
+        this.pendingCents = 0;
+    }
+
+    /**
+     * Constructs a ledger row with the specified totals.
+     *
+     * @param vendorId the user id of the vendor
+     * @param completedCents the total of completed bookings, in cents
+     * @param pendingCents the total of bookings pending payout, in cents
+     */
+    public VendorEarnings(Long vendorId, long completedCents, long pendingCents) {
+        this.vendorId = vendorId;
+        this.completedCents = completedCents;
+        this.pendingCents = pendingCents;
+    }
+
+    public Long getVendorId() {
+        return vendorId;
+    }
+
+    public void setVendorId(Long vendorId) {
+        this.vendorId = vendorId;
+    }
+
+    public long getCompletedCents() {
+        return completedCents;
+    }
+
+    public void setCompletedCents(long completedCents) {
+        this.completedCents = completedCents;
+    }
+
+    public long getPendingCents() {
+        return pendingCents;
+    }
+
+    public void setPendingCents(long pendingCents) {
+        this.pendingCents = pendingCents;
+    }
+}
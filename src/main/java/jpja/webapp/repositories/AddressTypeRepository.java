@@ -1,10 +1,16 @@
 package jpja.webapp.repositories;
 
+import java.util.List;
 import java.util.Optional;
 
+import org.hibernate.jpa.HibernateHints;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+
 import jpja.webapp.model.entities.AddressType;
 
 /**
@@ -22,10 +28,20 @@ import jpja.webapp.model.entities.AddressType;
 public interface AddressTypeRepository extends JpaRepository<AddressType, Long> {
 
     /**
-     * Finds an {@link AddressType} entity by its name.
+     * Finds an {@link AddressType} entity by its name. The result is kept in the query cache.
      *
      * @param name the name of the address type to search for
      * @return an {@link Optional} containing the {@link AddressType} if found, or empty if not found
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<AddressType> findByName(String name);
+
+    /**
+     * Finds every {@link AddressType} entity. The result is kept in the query cache.
+     *
+     * @return all address type entities
+     */
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<AddressType> findAll();
 }
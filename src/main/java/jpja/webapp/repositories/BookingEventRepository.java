@@ -0,0 +1,57 @@
+package jpja.webapp.repositories;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import jpja.webapp.model.entities.BookingEvent;
+
+/**
+ * Repository interface for {@link BookingEvent} entities.
+ * This interface provides CRUD operations and the reads used to deliver the
+ * booking event outbox to its consumers in order.
+ * 
+ * <p>Extends {@link JpaRepository}, enabling standard data access methods such as save, findById, findAll, and delete.</p>
+ * 
+ * @author James Prial
+ */
+@Repository
+public interface BookingEventRepository extends JpaRepository<BookingEvent, Long> {
+
+    /**
+     * Finds the events after the given id, oldest first.
+     *
+     * @param id the id of the last event already processed
+     * @param limit the maximum number of events to return
+     * @return the next events in the outbox
+     */
+    List<BookingEvent> findByIdGreaterThanOrderByIdAsc(long id, Limit limit);
+
+    /**
+     * Finds the id of the newest event.
+     *
+     * @return the largest event id, or 0 if the outbox is empty
+     */
+    @Query("SELECT COALESCE(MAX(e.id), 0) FROM BookingEvent e")
+    long findLatestId();
+
+    /**
+     * Deletes every event up to and including the given id that was created
+     * before the given time.
+     *
+     * @param id the id of the last event to delete
+     * @param before the time events must be older than to be deleted
+     * @return the number of events deleted
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM BookingEvent e WHERE e.id <= :id AND e.createdAt < :before")
+    int deleteUpTo(@Param("id") long id, @Param("before") LocalDateTime before);
+}
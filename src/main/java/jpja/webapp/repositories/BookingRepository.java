@@ -1,10 +1,24 @@
 package jpja.webapp.repositories;
 
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.persistence.QueryHint;
 import jpja.webapp.model.entities.Booking;
 import jpja.webapp.model.entities.BookingModifier;
 import jpja.webapp.model.entities.Customer;
@@ -21,11 +35,52 @@ import jpja.webapp.model.entities.Vendor;
  * <p>Includes custom query methods for retrieving bookings based on customer, vendor,
  * modifiers, and other attributes.</p>
  * 
+ * <p>Native updates name the tables they touch in a query hint, so Hibernate
+ * only invalidates those instead of the whole second-level cache.</p>
+ * 
  * @author James Prial
  */
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
+    /**
+     * Native select building one {@link BookingRow} per booking. The location's
+     * type and the booking's modifiers are aggregated by correlated subqueries,
+     * so each booking is exactly one result row.
+     */
+    String ROW_SELECT = "SELECT b.id AS id, cu.username AS customerUsername, vu.username AS vendorUsername, "
+            + "b.created_at AS createdAt, b.booking_date AS bookingDate, b.booking_time AS bookingTime, "
+            + "b.price AS price, b.status AS status, a.id AS locationId, a.street_number AS streetNumber, "
+            + "a.street_name AS streetName, a.unit AS unit, a.city AS city, a.zip AS zip, a.state AS state, "
+            + "a.nickname AS nickname, a.sqft AS sqft, "
+            + "(SELECT MIN(atj.type_id) FROM address_type_join atj WHERE atj.address_id = a.id) AS locationTypeId, "
+            + "(SELECT GROUP_CONCAT(CONCAT(m.type, '_', m.name) SEPARATOR ',') FROM booking_modifier_join j "
+            + "JOIN booking_modifiers m ON m.id = j.modifier_id WHERE j.booking_id = b.id) AS modifiers "
+            + "FROM bookings b JOIN users cu ON cu.id = b.customer_id LEFT JOIN users vu ON vu.id = b.vendor_id "
+            + "JOIN addresses a ON a.id = b.location_id ";
+
+    /**
+     * SQL predicate selecting bookings that sort after the keyset cursor
+     * ({@code :date}, {@code :time}, {@code :id}) in (date, time, id) order.
+     */
+    String AFTER_CURSOR = "(b.booking_date > :date OR (b.booking_date = :date AND "
+            + "(b.booking_time > :time OR (b.booking_time = :time AND b.id > :id))))";
+
+    /**
+     * SQL predicate selecting bookings scheduled strictly after {@code :date} {@code :time}.
+     */
+    String AFTER_NOW = "(b.booking_date > :date OR (b.booking_date = :date AND b.booking_time > :time))";
+
+    /**
+     * SQL ordering used by every keyset-paginated booking query.
+     */
+    String KEYSET_ORDER = " ORDER BY b.booking_date, b.booking_time, b.id";
+
+    /**
+     * Number of rows {@link #streamAllRows()} fetches per round trip.
+     */
+    String EXPORT_FETCH_SIZE = "1000";
+
     /**
      * Finds all bookings for a customer by their ID.
      *
@@ -90,4 +145,310 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
      * @return a set of bookings for the specified vendor with the specified modifier
      */
     Set<Booking> findByVendorAndModifiers(Vendor vendor, BookingModifier modifier);
+
+    /**
+     * Finds all bookings with the given status, using the indexed status column.
+     *
+     * @param status the status name (e.g., "UNCLAIMED")
+     * @return a set of bookings with the specified status
+     */
+    Set<Booking> findByStatusName(String status);
+
+    /**
+     * Finds all bookings for a specific customer with the given status.
+     *
+     * @param customer the customer entity
+     * @param status the status name
+     * @return a set of bookings for the specified customer with the specified status
+     */
+    Set<Booking> findByCustomerAndStatusName(Customer customer, String status);
+
+    /**
+     * Finds all bookings for a specific vendor with the given status.
+     *
+     * @param vendor the vendor entity
+     * @param status the status name
+     * @return a set of bookings for the specified vendor with the specified status
+     */
+    Set<Booking> findByVendorAndStatusName(Vendor vendor, String status);
+
+    /**
+     * Fills in the status column of bookings that do not have one yet, from
+     * their STATUS modifier in the join table. Used once after the column is
+     * added; bookings saved since then keep the column up to date themselves.
+     *
+     * @return the number of bookings updated
+     */
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "bookings"))
+    @Query(value = "UPDATE bookings SET status = ("
+            + "SELECT MIN(m.name) FROM booking_modifier_join j "
+            + "JOIN booking_modifiers m ON m.id = j.modifier_id "
+            + "WHERE j.booking_id = bookings.id AND m.type = 'STATUS') "
+            + "WHERE status IS NULL AND id IN ("
+            + "SELECT j.booking_id FROM booking_modifier_join j "
+            + "JOIN booking_modifiers m ON m.id = j.modifier_id WHERE m.type = 'STATUS')", nativeQuery = true)
+    int backfillStatusColumn();
+
+    /**
+     * Assigns an unclaimed booking to a vendor as a single compare-and-set.
+     * The row only changes if it still has no vendor and is UNCLAIMED, so of
+     * several concurrent claims exactly one updates it.
+     *
+     * @param bookingId the id of the booking to claim
+     * @param vendorId the user id of the claiming vendor
+     * @return 1 if this call claimed the booking, 0 if it was already taken
+     */
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "bookings"))
+    @Query(value = "UPDATE bookings SET vendor_id = :vendorId, status = 'CLAIMED', version = version + 1 "
+            + "WHERE id = :bookingId AND vendor_id IS NULL AND status = 'UNCLAIMED'", nativeQuery = true)
+    int claimIfUnclaimed(@Param("bookingId") long bookingId, @Param("vendorId") long vendorId);
+
+    /**
+     * Replaces a booking's STATUS modifier in the modifier join table.
+     * Used after a conditional update has already set the status column.
+     *
+     * @param bookingId the id of the booking
+     * @param modifierId the id of the new STATUS modifier
+     * @return the number of join rows updated
+     */
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "booking_modifier_join"))
+    @Query(value = "UPDATE booking_modifier_join SET modifier_id = :modifierId WHERE booking_id = :bookingId "
+            + "AND modifier_id IN (SELECT m.id FROM booking_modifiers m WHERE m.type = 'STATUS')", nativeQuery = true)
+    int replaceStatusModifier(@Param("bookingId") long bookingId, @Param("modifierId") long modifierId);
+
+    /**
+     * Finds the first page of a vendor's bookings in (date, time, id) order.
+     *
+     * @param vendorId the vendor's user id
+     * @param limit the maximum number of bookings to return
+     * @return the vendor's earliest bookings
+     */
+    @Query(value = ROW_SELECT + "WHERE b.vendor_id = :vendorId" + KEYSET_ORDER, nativeQuery = true)
+    List<BookingRow> findRowsByVendor(@Param("vendorId") long vendorId, Limit limit);
+
+    /**
+     * Finds the page of a vendor's bookings that follows the given cursor.
+     *
+     * @param vendorId the vendor's user id
+     * @param date the booking date of the cursor
+     * @param time the booking time of the cursor
+     * @param id the booking id of the cursor
+     * @param limit the maximum number of bookings to return
+     * @return the vendor's bookings after the cursor
+     */
+    @Query(value = ROW_SELECT + "WHERE b.vendor_id = :vendorId AND " + AFTER_CURSOR + KEYSET_ORDER, nativeQuery = true)
+    List<BookingRow> findRowsByVendorAfter(@Param("vendorId") long vendorId, @Param("date") LocalDate date,
+            @Param("time") LocalTime time, @Param("id") long id, Limit limit);
+
+    /**
+     * Finds the first page of a customer's bookings in (date, time, id) order.
+     *
+     * @param customerId the customer's user id
+     * @param limit the maximum number of bookings to return
+     * @return the customer's earliest bookings
+     */
+    @Query(value = ROW_SELECT + "WHERE b.customer_id = :customerId" + KEYSET_ORDER, nativeQuery = true)
+    List<BookingRow> findRowsByCustomer(@Param("customerId") long customerId, Limit limit);
+
+    /**
+     * Finds the page of a customer's bookings that follows the given cursor.
+     *
+     * @param customerId the customer's user id
+     * @param date the booking date of the cursor
+     * @param time the booking time of the cursor
+     * @param id the booking id of the cursor
+     * @param limit the maximum number of bookings to return
+     * @return the customer's bookings after the cursor
+     */
+    @Query(value = ROW_SELECT + "WHERE b.customer_id = :customerId AND " + AFTER_CURSOR + KEYSET_ORDER, nativeQuery = true)
+    List<BookingRow> findRowsByCustomerAfter(@Param("customerId") long customerId, @Param("date") LocalDate date,
+            @Param("time") LocalTime time, @Param("id") long id, Limit limit);
+
+    /**
+     * Finds the first page of bookings with the given status in (date, time, id) order.
+     *
+     * @param status the status name
+     * @param limit the maximum number of bookings to return
+     * @return the earliest bookings with the status
+     */
+    @Query(value = ROW_SELECT + "WHERE b.status = :status" + KEYSET_ORDER, nativeQuery = true)
+    List<BookingRow> findRowsByStatus(@Param("status") String status, Limit limit);
+
+    /**
+     * Finds the page of bookings with the given status that follows the given cursor.
+     *
+     * @param status the status name
+     * @param date the booking date of the cursor
+     * @param time the booking time of the cursor
+     * @param id the booking id of the cursor
+     * @param limit the maximum number of bookings to return
+     * @return the bookings with the status after the cursor
+     */
+    @Query(value = ROW_SELECT + "WHERE b.status = :status AND " + AFTER_CURSOR + KEYSET_ORDER, nativeQuery = true)
+    List<BookingRow> findRowsByStatusAfter(@Param("status") String status, @Param("date") LocalDate date,
+            @Param("time") LocalTime time, @Param("id") long id, Limit limit);
+
+    /**
+     * Finds a customer's bookings with the given status, most recent first.
+     *
+     * @param customerId the customer's user id
+     * @param status the status name
+     * @param limit the maximum number of bookings to return
+     * @return the customer's latest bookings with the status
+     */
+    @Query(value = ROW_SELECT + "WHERE b.customer_id = :customerId AND b.status = :status "
+            + "ORDER BY b.booking_date DESC, b.booking_time DESC, b.id DESC", nativeQuery = true)
+    List<BookingRow> findRecentRowsByCustomerAndStatus(@Param("customerId") long customerId,
+            @Param("status") String status, Limit limit);
+
+    /**
+     * Finds a vendor's bookings scheduled after the given moment, soonest first.
+     * Served by the (vendor_id, booking_date, booking_time) index.
+     *
+     * @param vendorId the vendor's user id
+     * @param date the current date
+     * @param time the current time
+     * @param limit the maximum number of bookings to return
+     * @return the vendor's upcoming bookings
+     */
+    @Query(value = ROW_SELECT + "WHERE b.vendor_id = :vendorId AND " + AFTER_NOW + KEYSET_ORDER, nativeQuery = true)
+    List<BookingRow> findUpcomingRowsByVendor(@Param("vendorId") long vendorId, @Param("date") LocalDate date,
+            @Param("time") LocalTime time, Limit limit);
+
+    /**
+     * Finds a customer's bookings scheduled after the given moment, soonest first.
+     * Served by the (customer_id, booking_date, booking_time) index.
+     *
+     * @param customerId the customer's user id
+     * @param date the current date
+     * @param time the current time
+     * @param limit the maximum number of bookings to return
+     * @return the customer's upcoming bookings
+     */
+    @Query(value = ROW_SELECT + "WHERE b.customer_id = :customerId AND " + AFTER_NOW + KEYSET_ORDER, nativeQuery = true)
+    List<BookingRow> findUpcomingRowsByCustomer(@Param("customerId") long customerId, @Param("date") LocalDate date,
+            @Param("time") LocalTime time, Limit limit);
+
+    /**
+     * Finds the date and time of every booking on or after the given date with
+     * one of the given statuses. Used to build the slot occupancy index.
+     *
+     * @param date the first date to include
+     * @param statuses the status names to include
+     * @return the date and time of each matching booking
+     */
+    @Query("SELECT b.bookingDate AS bookingDate, b.bookingTime AS bookingTime FROM Booking b "
+            + "WHERE b.bookingDate >= :date AND b.bookingTime IS NOT NULL AND b.statusName IN :statuses")
+    List<SlotTime> findSlotTimes(@Param("date") LocalDate date, @Param("statuses") List<String> statuses);
+
+    /**
+     * Finds the bookings on or after the given date with the given status,
+     * with the ZIP code and size of their location. Used to build the
+     * vendor matching index.
+     *
+     * @param status the status name
+     * @param date the first date to include
+     * @return one candidate per matching booking
+     */
+    @Query("SELECT b.id AS id, b.bookingDate AS bookingDate, l.zip AS zip, l.sqft AS sqft "
+            + "FROM Booking b JOIN b.location l WHERE b.statusName = :status AND b.bookingDate >= :date")
+    List<MatchCandidate> findMatchCandidates(@Param("status") String status, @Param("date") LocalDate date);
+
+    /**
+     * Finds a vendor's bookings between two dates, with the ZIP code of their
+     * location, in date and time order. Used to build the vendor calendar.
+     *
+     * @param vendorId the user ID of the vendor
+     * @param from the first date to include
+     * @param to the last date to include
+     * @return one entry per booking
+     */
+    @Query("SELECT b.id AS id, b.bookingDate AS bookingDate, b.bookingTime AS bookingTime, b.statusName AS status, "
+            + "l.zip AS zip FROM Booking b JOIN b.location l WHERE b.vendor.id = :vendorId "
+            + "AND b.bookingDate BETWEEN :from AND :to ORDER BY b.bookingDate, b.bookingTime, b.id")
+    List<CalendarEntry> findCalendarEntries(@Param("vendorId") long vendorId, @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+
+    /**
+     * Finds the date of a booking without loading it.
+     *
+     * @param id the booking ID
+     * @return the booking date, or empty if the booking does not exist or has no date
+     */
+    @Query("SELECT b.bookingDate FROM Booking b WHERE b.id = :id")
+    Optional<LocalDate> findBookingDateById(@Param("id") long id);
+
+    /**
+     * Finds the bookings with the given IDs that are still unclaimed, in no particular order.
+     *
+     * @param ids the booking IDs
+     * @return the rows of the bookings that are still unclaimed
+     */
+    @Query(value = ROW_SELECT + "WHERE b.id IN (:ids) AND b.status = 'UNCLAIMED'", nativeQuery = true)
+    List<BookingRow> findUnclaimedRowsByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Finds the rows of the bookings with the given IDs, in no particular order.
+     *
+     * @param ids the booking IDs
+     * @return the rows of the bookings that exist
+     */
+    @Query(value = ROW_SELECT + "WHERE b.id IN (:ids)", nativeQuery = true)
+    List<BookingRow> findRowsByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Streams the rows of every booking in id order from a forward-only
+     * cursor, {@link #EXPORT_FETCH_SIZE} rows per fetch. The rows are
+     * projections, so nothing accumulates in the persistence context. The
+     * stream must be consumed and closed inside a transaction.
+     *
+     * @return the rows of all bookings
+     */
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    @Query(value = ROW_SELECT + "ORDER BY b.id", nativeQuery = true)
+    Stream<BookingRow> streamAllRows();
+
+    /**
+     * Date and time of one booking.
+     */
+    interface SlotTime {
+        LocalDate getBookingDate();
+
+        LocalTime getBookingTime();
+    }
+
+    /**
+     * Location and date of one booking, for vendor matching.
+     */
+    interface MatchCandidate {
+        Long getId();
+
+        LocalDate getBookingDate();
+
+        String getZip();
+
+        Long getSqft();
+    }
+
+    /**
+     * One booking in a vendor's calendar.
+     */
+    interface CalendarEntry {
+        Long getId();
+
+        LocalDate getBookingDate();
+
+        LocalTime getBookingTime();
+
+        String getStatus();
+
+        String getZip();
+    }
 }
@@ -0,0 +1,67 @@
+package jpja.webapp.repositories;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Flat projection of one booking with everything a booking list displays.
+ *
+ * <p>Returned by the {@code ...Rows} queries of {@link BookingRepository}, which
+ * select the booking together with the customer and vendor usernames, its
+ * location, the location's type and its modifiers in a single statement. This
+ * avoids loading the {@link jpja.webapp.model.entities.Booking} entity graph,
+ * where the joined user hierarchy and the eager roles, modifiers and address
+ * types cost several extra queries per booking.</p>
+ *
+ * @author James Prial
+ */
+public interface BookingRow {
+
+    Long getId();
+
+    String getCustomerUsername();
+
+    /**
+     * @return the vendor's username, or null if the booking is unclaimed
+     */
+    String getVendorUsername();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDate getBookingDate();
+
+    LocalTime getBookingTime();
+
+    Double getPrice();
+
+    String getStatus();
+
+    Long getLocationId();
+
+    String getStreetNumber();
+
+    String getStreetName();
+
+    String getUnit();
+
+    String getCity();
+
+    String getZip();
+
+    String getState();
+
+    String getNickname();
+
+    Long getSqft();
+
+    /**
+     * @return the id of the location's first address type, or null if it has none
+     */
+    Long getLocationTypeId();
+
+    /**
+     * @return the booking's modifiers as comma separated {@code TYPE_NAME} pairs, or null if it has none
+     */
+    String getModifiers();
+}
@@ -0,0 +1,118 @@
+package jpja.webapp.repositories;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import jakarta.persistence.criteria.Path;
+import jpja.webapp.model.entities.Booking;
+import jpja.webapp.model.entities.BookingModifier;
+
+/**
+ * {@link Specification}s for filtering {@link Booking}s, combined by the admin
+ * booking search.
+ *
+ * <p>Every filter is on a column that leads one of the booking indexes
+ * (status, vendor, customer or date) or is resolved through an indexed join,
+ * and {@link #after(LocalDate, LocalTime, long)} continues a list in the
+ * (date, time, id) order those indexes end with.</p>
+ *
+ * @author James Prial
+ */
+public final class BookingSpecifications {
+
+    private BookingSpecifications() {
+    }
+
+    /**
+     * Selects bookings dated within the given range. Either end may be null to
+     * leave that side open.
+     *
+     * @param from the first date to include, or null
+     * @param to the last date to include, or null
+     * @return the specification, or null if both ends are open
+     */
+    public static Specification<Booking> bookedBetween(LocalDate from, LocalDate to) {
+        if (from == null && to == null) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            Path<LocalDate> date = root.get("bookingDate");
+            if (from == null) {
+                return cb.lessThanOrEqualTo(date, to);
+            }
+            return to == null ? cb.greaterThanOrEqualTo(date, from) : cb.between(date, from, to);
+        };
+    }
+
+    /**
+     * Selects bookings with the given status, using the status column.
+     *
+     * @param status the status name
+     * @return the specification
+     */
+    public static Specification<Booking> hasStatus(String status) {
+        return (root, query, cb) -> cb.equal(root.get("statusName"), status);
+    }
+
+    /**
+     * Selects the bookings of a vendor.
+     *
+     * @param vendorId the vendor's user id
+     * @return the specification
+     */
+    public static Specification<Booking> hasVendor(long vendorId) {
+        return (root, query, cb) -> cb.equal(root.get("vendor").get("id"), vendorId);
+    }
+
+    /**
+     * Selects the bookings of a customer.
+     *
+     * @param customerId the customer's user id
+     * @return the specification
+     */
+    public static Specification<Booking> hasCustomer(long customerId) {
+        return (root, query, cb) -> cb.equal(root.get("customer").get("id"), customerId);
+    }
+
+    /**
+     * Selects bookings located in the given ZIP code.
+     *
+     * @param zip the ZIP code
+     * @return the specification
+     */
+    public static Specification<Booking> inZip(String zip) {
+        return (root, query, cb) -> cb.equal(root.join("location").get("zip"), zip);
+    }
+
+    /**
+     * Selects bookings carrying the given modifier, such as a TYPE.
+     *
+     * @param modifier the modifier
+     * @return the specification
+     */
+    public static Specification<Booking> hasModifier(BookingModifier modifier) {
+        return (root, query, cb) -> cb.isMember(modifier, root.get("modifiers"));
+    }
+
+    /**
+     * Selects bookings that sort after the given position in (date, time, id) order.
+     * The redundant lower bound on the date lets the database seek into the
+     * index instead of evaluating the disjunction on every row.
+     *
+     * @param date the booking date of the position
+     * @param time the booking time of the position
+     * @param id the booking id of the position
+     * @return the specification
+     */
+    public static Specification<Booking> after(LocalDate date, LocalTime time, long id) {
+        return (root, query, cb) -> {
+            Path<LocalDate> bookingDate = root.get("bookingDate");
+            Path<LocalTime> bookingTime = root.get("bookingTime");
+            return cb.and(cb.greaterThanOrEqualTo(bookingDate, date), cb.or(cb.greaterThan(bookingDate, date),
+                    cb.and(cb.equal(bookingDate, date), cb.or(cb.greaterThan(bookingTime, time),
+                            cb.and(cb.equal(bookingTime, time), cb.greaterThan(root.get("id"), id))))));
+        };
+    }
+}
@@ -0,0 +1,19 @@
+package jpja.webapp.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import jpja.webapp.model.entities.EventConsumerOffset;
+
+/**
+ * Repository interface for {@link EventConsumerOffset} entities.
+ * This interface provides CRUD operations for the per-consumer read positions
+ * in the booking event outbox.
+ * 
+ * <p>Extends {@link JpaRepository}, enabling standard data access methods such as save, findById, findAll, and delete.</p>
+ * 
+ * @author James Prial
+ */
+@Repository
+public interface EventConsumerOffsetRepository extends JpaRepository<EventConsumerOffset, String> {
+}
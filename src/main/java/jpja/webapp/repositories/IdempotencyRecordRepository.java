@@ -0,0 +1,106 @@
+package jpja.webapp.repositories;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import jpja.webapp.model.entities.IdempotencyRecord;
+
+/**
+ * Repository interface for {@link IdempotencyRecord} entities.
+ * This interface provides the claim, completion and purge statements of the
+ * shared idempotency key store. Every method runs in its own read-write
+ * transaction, so reads go to the primary and a key polled in a loop is seen
+ * as soon as another node completes it.
+ *
+ * <p>Extends {@link JpaRepository}, enabling standard data access methods such as save, findById, findAll, and delete.</p>
+ *
+ * @author James Prial
+ */
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * Inserts an in-progress row for a key. Fails with a
+     * {@link org.springframework.dao.DataIntegrityViolationException} if the
+     * key is already taken.
+     *
+     * @param key the hashed key
+     * @param createdAt the current time
+     * @param expiresAt the time after which the key may be used again
+     * @return the number of rows inserted
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (idempotency_key, created_at, expires_at) "
+            + "VALUES (:key, :createdAt, :expiresAt)", nativeQuery = true)
+    int claim(@Param("key") String key, @Param("createdAt") LocalDateTime createdAt,
+            @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Stores the response of a request that finished.
+     *
+     * @param key the hashed key
+     * @param status the HTTP status
+     * @param location the Location header, or null
+     * @param contentType the Content-Type header, or null
+     * @param body the response body
+     * @return the number of rows updated, 0 if the row was purged meanwhile
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.status = :status, r.location = :location, "
+            + "r.contentType = :contentType, r.body = :body WHERE r.idempotencyKey = :key")
+    int complete(@Param("key") String key, @Param("status") int status, @Param("location") String location,
+            @Param("contentType") String contentType, @Param("body") byte[] body);
+
+    /**
+     * Reads a key from the primary.
+     *
+     * @param key the hashed key
+     * @return the row, if the key is taken
+     */
+    @Transactional
+    @Query("SELECT r FROM IdempotencyRecord r WHERE r.idempotencyKey = :key")
+    Optional<IdempotencyRecord> findCurrent(@Param("key") String key);
+
+    /**
+     * Deletes a key, so the request can be executed again.
+     *
+     * @param key the hashed key
+     * @return the number of rows deleted
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.idempotencyKey = :key")
+    int release(@Param("key") String key);
+
+    /**
+     * Deletes a key if it has expired.
+     *
+     * @param key the hashed key
+     * @param now the current time
+     * @return the number of rows deleted
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.idempotencyKey = :key AND r.expiresAt < :now")
+    int releaseIfExpired(@Param("key") String key, @Param("now") LocalDateTime now);
+
+    /**
+     * Deletes every expired key.
+     *
+     * @param now the current time
+     * @return the number of rows deleted
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int purgeExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,19 @@
+package jpja.webapp.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import jpja.webapp.model.entities.JobCheckpoint;
+
+/**
+ * Repository interface for {@link JobCheckpoint} entities.
+ * This interface provides CRUD operations for the resume positions of chunked
+ * background jobs.
+ * 
+ * <p>Extends {@link JpaRepository}, enabling standard data access methods such as save, findById, findAll, and delete.</p>
+ * 
+ * @author James Prial
+ */
+@Repository
+public interface JobCheckpointRepository extends JpaRepository<JobCheckpoint, String> {
+}
@@ -0,0 +1,19 @@
+package jpja.webapp.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import jpja.webapp.model.entities.PricingRule;
+
+/**
+ * Repository interface for {@link PricingRule} entities.
+ * This interface provides CRUD operations for the rules of the booking price
+ * list.
+ * 
+ * <p>Extends {@link JpaRepository}, enabling standard data access methods such as save, findById, findAll, and delete.</p>
+ * 
+ * @author James Prial
+ */
+@Repository
+public interface PricingRuleRepository extends JpaRepository<PricingRule, Long> {
+}
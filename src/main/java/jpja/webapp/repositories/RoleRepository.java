@@ -1,10 +1,16 @@
 package jpja.webapp.repositories;
 
+import java.util.List;
 import java.util.Optional;
 
+import org.hibernate.jpa.HibernateHints;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+
 import jpja.webapp.model.entities.Role;
 
 /**
@@ -21,10 +27,20 @@ import jpja.webapp.model.entities.Role;
 public interface RoleRepository extends JpaRepository<Role, Long> {
 
     /**
-     * Finds a {@link Role} entity by its name.
+     * Finds a {@link Role} entity by its name. The result is kept in the query cache.
      *
      * @param name the name of the role
      * @return an {@link Optional} containing the {@link Role} if found, or empty if not found
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Role> findByName(String name);
+
+    /**
+     * Finds every {@link Role} entity. The result is kept in the query cache.
+     *
+     * @return all role entities
+     */
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Role> findAll();
 }
@@ -0,0 +1,94 @@
+package jpja.webapp.repositories;
+
+import java.util.List;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.QueryHint;
+import jpja.webapp.model.entities.VendorEarnings;
+
+/**
+ * Repository interface for {@link VendorEarnings} entities.
+ * This interface provides CRUD operations and the atomic updates used to keep
+ * the per-vendor earnings ledger in step with booking status changes.
+ * 
+ * <p>Extends {@link JpaRepository}, enabling standard data access methods such as save, findById, findAll, and delete.</p>
+ * 
+ * @author James Prial
+ */
+@Repository
+public interface VendorEarningsRepository extends JpaRepository<VendorEarnings, Long> {
+
+    /**
+     * Adds the given amounts to a vendor's totals in a single statement,
+     * creating the vendor's row if it does not exist yet.
+     *
+     * @param vendorId the user id of the vendor
+     * @param completedCents the change to the completed total, in cents
+     * @param pendingCents the change to the pending total, in cents
+     * @return the number of rows affected
+     */
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "vendor_earnings"))
+    @Query(value = "INSERT INTO vendor_earnings (vendor_id, completed_cents, pending_cents) "
+            + "VALUES (:vendorId, :completed, :pending) ON DUPLICATE KEY UPDATE "
+            + "completed_cents = completed_cents + VALUES(completed_cents), "
+            + "pending_cents = pending_cents + VALUES(pending_cents)", nativeQuery = true)
+    int addCents(@Param("vendorId") long vendorId, @Param("completed") long completedCents,
+            @Param("pending") long pendingCents);
+
+    /**
+     * Lists the vendors that have a ledger row or earn from at least one
+     * COMPLETED or PENDING_PAYOUT booking.
+     *
+     * @return the user ids of the vendors
+     */
+    @Query(value = "SELECT e.vendor_id FROM vendor_earnings e UNION "
+            + "SELECT b.vendor_id FROM bookings b WHERE b.vendor_id IS NOT NULL "
+            + "AND b.status IN ('COMPLETED', 'PENDING_PAYOUT')", nativeQuery = true)
+    List<Long> findReconcilableVendorIds();
+
+    /**
+     * Reads a vendor's ledger totals without going through the persistence
+     * context, so a row locked in the current transaction is read as committed.
+     *
+     * @param vendorId the user id of the vendor
+     * @return the totals, or null if the vendor has no row
+     */
+    @Query(value = "SELECT e.completed_cents AS completedCents, e.pending_cents AS pendingCents "
+            + "FROM vendor_earnings e WHERE e.vendor_id = :vendorId", nativeQuery = true)
+    EarningsTotals findTotals(@Param("vendorId") long vendorId);
+
+    /**
+     * Sums the prices of a vendor's COMPLETED and PENDING_PAYOUT bookings
+     * directly from the bookings table, in cents. Each price is rounded as
+     * {@code EarningsLedger.toCents} rounds it, half up, so the sums match
+     * the ledger to the cent.
+     *
+     * @param vendorId the user id of the vendor
+     * @return the totals, zero if the vendor has no such booking
+     */
+    @Query(value = "SELECT "
+            + "COALESCE(SUM(CASE WHEN b.status = 'COMPLETED' THEN FLOOR(b.price * 100 + 0.5) END), 0) AS completedCents, "
+            + "COALESCE(SUM(CASE WHEN b.status = 'PENDING_PAYOUT' THEN FLOOR(b.price * 100 + 0.5) END), 0) AS pendingCents "
+            + "FROM bookings b WHERE b.vendor_id = :vendorId AND b.status IN ('COMPLETED', 'PENDING_PAYOUT')",
+            nativeQuery = true)
+    EarningsTotals sumBookingCents(@Param("vendorId") long vendorId);
+
+    /**
+     * Earnings totals of one vendor, in cents.
+     */
+    interface EarningsTotals {
+        Long getCompletedCents();
+
+        Long getPendingCents();
+    }
+}
@@ -100,7 +100,7 @@ public class AddressService {
             throw new IllegalArgumentException("Missing address info");
         }
         AddressType type = addressTypeRepository.findById(typeId)
-                .orElse(addressTypeRepository.findByName("DFT")
+                .orElseGet(() -> addressTypeRepository.findByName("DFT")
                         .orElseThrow(() -> new RuntimeException("Something went very wrong!")));
         Address address = new Address();
         String streetNum = street.split(" ")[0];
@@ -135,8 +135,13 @@ public class AddressService {
         if (dto == null) {
             throw new IllegalArgumentException("Missing address info");
         }
-        return createAndSaveNewAddress(dto.getAddress(), dto.getUnit(), dto.getCity(), dto.getZip(), dto.getState(),
-                dto.getNickname(), dto.getTypeId());
+        Address address = createAndSaveNewAddress(dto.getAddress(), dto.getUnit(), dto.getCity(), dto.getZip(),
+                dto.getState(), dto.getNickname(), dto.getTypeId());
+        if (dto.getSqft() != null) {
+            address.setSqft(dto.getSqft());
+            saveAddress(address);
+        }
+        return address;
     }
 
     /**
@@ -0,0 +1,88 @@
+package jpja.webapp.service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+
+import jpja.webapp.model.dto.BookingDTO;
+
+/**
+ * Position in a booking list ordered by (booking date, booking time, id).
+ *
+ * <p>Pages are fetched by keyset: the next page is every booking that sorts
+ * after the cursor, so the database seeks straight to it through an index
+ * instead of skipping an offset. The cursor travels between requests as a
+ * string of the form {@code 2025-03-01_10:30_42}.</p>
+ *
+ * @author James Prial
+ */
+public final class BookingCursor {
+    private final LocalDate date;
+    private final LocalTime time;
+    private final long id;
+
+    public BookingCursor(LocalDate date, LocalTime time, long id) {
+        if (date == null || time == null) {
+            throw new IllegalArgumentException("Cursor date/time not given");
+        }
+        this.date = date;
+        this.time = time;
+        this.id = id;
+    }
+
+    /**
+     * Creates a cursor positioned at the given booking.
+     *
+     * @param booking the last booking of a page
+     * @return a cursor for the page after the booking, or null if the booking has no date or time
+     */
+    public static BookingCursor after(BookingDTO booking) {
+        if (booking.getBookingDate() == null || booking.getBookingTime() == null) {
+            return null;
+        }
+        return new BookingCursor(booking.getBookingDate(), booking.getBookingTime(), booking.getId());
+    }
+
+    /**
+     * Parses a cursor produced by {@link #encode()}.
+     *
+     * @param cursor the encoded cursor, or null/empty for the first page
+     * @return the cursor, or null for the first page
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static BookingCursor decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        String[] parts = cursor.split("_");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("improperly formatted cursor");
+        }
+        try {
+            return new BookingCursor(LocalDate.parse(parts[0]), LocalTime.parse(parts[1]), Long.parseLong(parts[2]));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("improperly formatted cursor", e);
+        }
+    }
+
+    public String encode() {
+        return date + "_" + time + "_" + id;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public LocalTime getTime() {
+        return time;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return encode();
+    }
+}
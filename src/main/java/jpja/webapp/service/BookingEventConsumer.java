@@ -0,0 +1,45 @@
+package jpja.webapp.service;
+
+import java.util.List;
+
+import jpja.webapp.model.entities.BookingEvent;
+
+/**
+ * A consumer of booking status changes from the transactional outbox.
+ *
+ * <p>Every Spring bean implementing this interface is fed by
+ * {@link OutboxDispatcher}, in event order, in batches, off the request
+ * threads. Delivery is at least once: if {@link #consume} throws, the same
+ * batch is delivered again on the next poll, so consumers must tolerate
+ * seeing an event twice.</p>
+ *
+ * @author James Prial
+ */
+public interface BookingEventConsumer {
+
+    /**
+     * Gets the unique name under which the consumer's read position is stored.
+     *
+     * @return The consumer's name.
+     */
+    String getName();
+
+    /**
+     * Whether the consumer's read position is stored in the database and
+     * shared by every node. A consumer that is not durable serves the node it
+     * runs on: every node delivers each event to its own instance, keeps the
+     * position in memory and starts from the newest event when it starts.
+     *
+     * @return true if the position is stored, the default.
+     */
+    default boolean isDurable() {
+        return true;
+    }
+
+    /**
+     * Processes a batch of events.
+     *
+     * @param events The events, oldest first.
+     */
+    void consume(List<BookingEvent> events);
+}
@@ -0,0 +1,175 @@
+package jpja.webapp.service;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import jpja.webapp.repositories.BookingRepository;
+import jpja.webapp.repositories.BookingRow;
+
+/**
+ * Service that exports every booking, e.g. for reconciliation by finance.
+ *
+ * <p>Bookings are read as {@link BookingRow} projections from a forward-only
+ * cursor in a read-only transaction, which is routed to the replica, and each
+ * row is written out as soon as it is read. Memory use therefore does not
+ * depend on the number of bookings. The output is flushed once the first
+ * line is written, so the download starts before the query finishes.</p>
+ *
+ * @author James Prial
+ */
+@Service
+public class BookingExportService {
+
+    /**
+     * The exported fields, in column order.
+     */
+    public static final String[] COLUMNS = { "id", "customer", "vendor", "createdAt", "bookingDate", "bookingTime",
+            "status", "price", "locationId", "zip", "modifiers" };
+
+    private static final JsonFactory JSON = JsonFactory.builder().build();
+
+    private final BookingRepository bookingRepository;
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingExportService.class);
+
+    /**
+     * Output formats of an export.
+     */
+    public enum Format {
+        /** Comma separated values with a header line. */
+        CSV("text/csv", "csv"),
+        /** One JSON object per line. */
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    /**
+     * Constructs a BookingExportService.
+     *
+     * @param bookingRepository Repository the bookings are streamed from.
+     */
+    public BookingExportService(BookingRepository bookingRepository) {
+        this.bookingRepository = bookingRepository;
+    }
+
+    /**
+     * Writes every booking, in id order, to the given writer. The writer is
+     * flushed but not closed.
+     *
+     * @param format The output format.
+     * @param out The writer, typically the response body.
+     * @return The number of bookings written.
+     * @throws IllegalArgumentException if the format or writer is null.
+     * @throws IOException if the writer fails, e.g. because the client went away.
+     */
+    @Transactional(readOnly = true)
+    public long export(Format format, Writer out) throws IOException {
+        if (format == null || out == null) {
+            throw new IllegalArgumentException("Format/writer not given");
+        }
+        long written = 0;
+        try (Stream<BookingRow> rows = bookingRepository.streamAllRows()) {
+            if (format == Format.CSV) {
+                written = writeCsv(rows.iterator(), out);
+            } else {
+                written = writeNdjson(rows.iterator(), out);
+            }
+        }
+        out.flush();
+        logger.info("Exported {} bookings as {}", written, format);
+        return written;
+    }
+
+    private static long writeCsv(Iterator<BookingRow> rows, Writer out) throws IOException {
+        out.write(String.join(",", COLUMNS));
+        out.write("\r\n");
+        out.flush();
+        long written = 0;
+        while (rows.hasNext()) {
+            Object[] values = values(rows.next());
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                out.write(csvField(values[i]));
+            }
+            out.write("\r\n");
+            written++;
+        }
+        return written;
+    }
+
+    private static long writeNdjson(Iterator<BookingRow> rows, Writer out) throws IOException {
+        JsonGenerator json = JSON.createGenerator(out);
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        json.setRootValueSeparator(null);
+        long written = 0;
+        while (rows.hasNext()) {
+            Object[] values = values(rows.next());
+            json.writeStartObject();
+            for (int i = 0; i < values.length; i++) {
+                json.writeFieldName(COLUMNS[i]);
+                if (values[i] == null) {
+                    json.writeNull();
+                } else if (values[i] instanceof Long number) {
+                    json.writeNumber(number);
+                } else if (values[i] instanceof Double number) {
+                    json.writeNumber(number);
+                } else {
+                    json.writeString(values[i].toString());
+                }
+            }
+            json.writeEndObject();
+            json.writeRaw('\n');
+            if (++written == 1) {
+                json.flush();
+            }
+        }
+        json.close();
+        return written;
+    }
+
+    // The exported fields of one row, in the order of COLUMNS.
+    private static Object[] values(BookingRow row) {
+        return new Object[] { row.getId(), row.getCustomerUsername(), row.getVendorUsername(), row.getCreatedAt(),
+                row.getBookingDate(), row.getBookingTime(), row.getStatus(), row.getPrice(), row.getLocationId(),
+                row.getZip(), row.getModifiers() };
+    }
+
+    // Quotes a field if it contains a separator, quote or line break; null is written as an empty field.
+    private static String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,470 @@
+package jpja.webapp.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jpja.webapp.model.dto.BookingImportResultDTO;
+import jpja.webapp.model.entities.BookingModifier;
+import jpja.webapp.model.entities.BookingStatus;
+
+/**
+ * Service that imports bookings in bulk from a CSV file, e.g. the history of
+ * a newly onboarded region.
+ *
+ * <p>The file is read one line at a time and its first line names the
+ * columns: {@code customer}, {@code address}, {@code date}, {@code time},
+ * {@code status} and {@code type} are required, {@code vendor} and
+ * {@code price} optional. Users are given by username, the address by ID and
+ * the status and type by modifier name. Every row is checked against
+ * reference data read once per import: customer and vendor IDs by username,
+ * the owner of every address, and the {@link ModifierRegistry}. Only one
+ * batch of valid rows is held at a time, so memory does not grow with the
+ * size of the file.</p>
+ *
+ * <p>Each batch of {@code jpja.bookings.import-batch-size} rows is written in
+ * its own transaction with two JDBC batches, one into {@code bookings} and
+ * one into {@code booking_modifier_join}, and the vendor earnings ledger is
+ * adjusted once per vendor and status. If the database rejects a batch, its
+ * rows are retried one at a time so that only the offending rows are
+ * rejected. Rejected rows never stop the import; the reasons for the first
+ * {@code jpja.bookings.import-max-errors} are returned with their line
+ * numbers.</p>
+ *
+ * <p>UNCLAIMED and CLAIMED rows from today onward take a reservation in the
+ * {@link SlotCapacityIndex} like any new booking, and a row whose slot is full
+ * is rejected. Imported bookings are not recorded in the {@link BookingOutbox},
+ * so no notifications are sent for them.</p>
+ *
+ * @author James Prial
+ */
+@Service
+public class BookingImportService {
+
+    private static final String[] REQUIRED_COLUMNS = { "customer", "address", "date", "time", "status", "type" };
+
+    private static final String SELECT_CUSTOMERS = "SELECT u.username, u.id FROM users u JOIN customer_info c ON c.id = u.id";
+    private static final String SELECT_VENDORS = "SELECT u.username, u.id FROM users u JOIN vendor_info v ON v.id = u.id";
+    private static final String SELECT_ADDRESS_OWNERS = "SELECT a.id, j.user_id FROM addresses a "
+            + "LEFT JOIN address_join j ON j.address_id = a.id";
+    private static final String INSERT_BOOKING = "INSERT INTO bookings (customer_id, vendor_id, location_id, created_at, "
+            + "booking_date, booking_time, price, status, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0)";
+    private static final String INSERT_MODIFIER = "INSERT INTO booking_modifier_join (booking_id, modifier_id) "
+            + "VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ModifierRegistry modifierRegistry;
+    private final EarningsLedger earningsLedger;
+    private final SlotCapacityIndex slotCapacityIndex;
+    private final BookingMatcher bookingMatcher;
+    private final VendorCalendarService vendorCalendar;
+    private final int batchSize;
+    private final int maxErrors;
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingImportService.class);
+
+    /**
+     * Constructs a BookingImportService with the necessary dependencies.
+     *
+     * @param jdbcTemplate JDBC access used for reference data and batched inserts.
+     * @param transactionManager Transaction manager; each batch runs in its own transaction.
+     * @param modifierRegistry In-memory registry of booking modifiers.
+     * @param earningsLedger Ledger of vendor earnings, updated per batch.
+     * @param slotCapacityIndex Index of slot capacity, reserved for upcoming active bookings.
+     * @param bookingMatcher Matcher rebuilt once unclaimed bookings were imported.
+     * @param vendorCalendar Calendar cache whose weeks with imported bookings are evicted.
+     * @param batchSize Number of rows per batch.
+     * @param maxErrors Number of rejected rows whose reasons are kept.
+     */
+    public BookingImportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            ModifierRegistry modifierRegistry, EarningsLedger earningsLedger, SlotCapacityIndex slotCapacityIndex,
+            BookingMatcher bookingMatcher, VendorCalendarService vendorCalendar,
+            @Value("${jpja.bookings.import-batch-size:500}") int batchSize,
+            @Value("${jpja.bookings.import-max-errors:100}") int maxErrors) {
+        if (batchSize < 1 || maxErrors < 0) {
+            throw new IllegalArgumentException("Batch size must be positive and error limit not negative");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.modifierRegistry = modifierRegistry;
+        this.earningsLedger = earningsLedger;
+        this.slotCapacityIndex = slotCapacityIndex;
+        this.bookingMatcher = bookingMatcher;
+        this.vendorCalendar = vendorCalendar;
+        this.batchSize = batchSize;
+        this.maxErrors = maxErrors;
+    }
+
+    /**
+     * Imports every valid row of a CSV file as a booking. The stream is read
+     * to the end but not closed.
+     *
+     * @param input The CSV file, encoded in UTF-8, with a header line.
+     * @return The number of imported and rejected rows and the reasons for the first rejections.
+     * @throws IllegalArgumentException if the input is null or empty, or the header lacks a required column.
+     * @throws IOException if the input cannot be read.
+     */
+    public BookingImportResultDTO importCsv(InputStream input) throws IOException {
+        if (input == null) {
+            throw new IllegalArgumentException("File not given");
+        }
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        String header = reader.readLine();
+        if (header == null) {
+            throw new IllegalArgumentException("File is empty");
+        }
+        Columns columns = new Columns(header);
+        ReferenceData reference = loadReferenceData();
+        Progress progress = new Progress();
+        List<ImportRow> batch = new ArrayList<>(batchSize);
+        LocalDate today = LocalDate.now();
+        int lineNumber = 1;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                batch.add(toRow(lineNumber, columns.read(line), reference, today));
+            } catch (IllegalArgumentException e) {
+                progress.reject(lineNumber, e.getMessage());
+                continue;
+            }
+            if (batch.size() == batchSize) {
+                write(batch, progress);
+                batch.clear();
+            }
+        }
+        write(batch, progress);
+        if (progress.unclaimedImported) {
+            bookingMatcher.rebuild();
+        }
+        logger.info("Imported {} bookings, rejected {} rows", progress.imported, progress.rejected);
+        return new BookingImportResultDTO(progress.imported, progress.rejected, progress.errors);
+    }
+
+    private ReferenceData loadReferenceData() {
+        ReferenceData reference = new ReferenceData();
+        jdbcTemplate.query(SELECT_CUSTOMERS, rs -> {
+            reference.customers.put(rs.getString(1), rs.getLong(2));
+        });
+        jdbcTemplate.query(SELECT_VENDORS, rs -> {
+            reference.vendors.put(rs.getString(1), rs.getLong(2));
+        });
+        jdbcTemplate.query(SELECT_ADDRESS_OWNERS, rs -> {
+            reference.addressOwners.put(rs.getLong(1), rs.getObject(2, Long.class));
+        });
+        return reference;
+    }
+
+    // Validates one row against the reference data; the message of the exception is the reason it is rejected.
+    private ImportRow toRow(int lineNumber, Map<String, String> values, ReferenceData reference, LocalDate today) {
+        ImportRow row = new ImportRow(lineNumber);
+        String customer = values.get("customer");
+        Long customerId = reference.customers.get(customer);
+        if (customerId == null) {
+            throw new IllegalArgumentException("Unknown customer " + customer);
+        }
+        row.customerId = customerId;
+        String vendor = values.get("vendor");
+        if (vendor != null) {
+            row.vendorId = reference.vendors.get(vendor);
+            if (row.vendorId == null) {
+                throw new IllegalArgumentException("Unknown vendor " + vendor);
+            }
+        }
+        row.addressId = parse(values, "address", Long::valueOf);
+        if (!reference.addressOwners.containsKey(row.addressId)) {
+            throw new IllegalArgumentException("Unknown address " + row.addressId);
+        }
+        Long owner = reference.addressOwners.get(row.addressId);
+        if (owner != null && owner != row.customerId) {
+            throw new IllegalArgumentException("Address " + row.addressId + " does not belong to " + customer);
+        }
+        row.date = parse(values, "date", LocalDate::parse);
+        row.time = parse(values, "time", LocalTime::parse);
+        if (row.time.isBefore(SlotCapacityIndex.OPEN) || !row.time.isBefore(SlotCapacityIndex.CLOSE)) {
+            throw new IllegalArgumentException("Time " + row.time + " is outside working hours");
+        }
+        if (values.get("price") != null) {
+            row.price = parse(values, "price", Double::valueOf);
+            if (row.price < 0 || row.price.isNaN() || row.price.isInfinite()) {
+                throw new IllegalArgumentException("Invalid price " + values.get("price"));
+            }
+        }
+        row.status = BookingStatus.fromName(values.get("status"));
+        if (row.status == null) {
+            throw new IllegalArgumentException(values.get("status") + " is not a valid STATUS.");
+        }
+        checkVendor(row);
+        row.statusModifierId = modifier("STATUS", row.status.name()).getId();
+        row.typeModifierId = modifier("TYPE", values.get("type")).getId();
+        if (SlotCapacityIndex.occupies(row.status.name()) && !row.date.isBefore(today)) {
+            if (!slotCapacityIndex.tryReserve(row.date, row.time)) {
+                throw new IllegalArgumentException("Slot at " + row.date + " " + row.time + " is full");
+            }
+            row.reserved = true;
+        }
+        return row;
+    }
+
+    private static void checkVendor(ImportRow row) {
+        switch (row.status) {
+            case UNCLAIMED:
+                if (row.vendorId != null) {
+                    throw new IllegalArgumentException("UNCLAIMED booking cannot have a vendor");
+                }
+                break;
+            case CLAIMED:
+            case COMPLETED:
+            case PENDING_PAYOUT:
+                if (row.vendorId == null) {
+                    throw new IllegalArgumentException(row.status + " booking needs a vendor");
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private BookingModifier modifier(String type, String name) {
+        return modifierRegistry.findByTypeAndName(type, name)
+                .orElseThrow(() -> new IllegalArgumentException(name + " is not a valid " + type + "."));
+    }
+
+    private static <T> T parse(Map<String, String> values, String column, Parser<T> parser) {
+        String value = values.get(column);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing " + column);
+        }
+        try {
+            return parser.parse(value);
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid " + column + " " + value);
+        }
+    }
+
+    // Writes a batch in one transaction, or row by row if the database rejects it.
+    private void write(List<ImportRow> batch, Progress progress) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            insert(batch);
+            progress.imported(batch);
+            return;
+        } catch (DataAccessException e) {
+            logger.warn("Import batch of {} rows failed, retrying row by row: {}", batch.size(), e.getMessage());
+        }
+        for (ImportRow row : batch) {
+            try {
+                insert(List.of(row));
+                progress.imported(List.of(row));
+            } catch (DataAccessException e) {
+                if (row.reserved) {
+                    slotCapacityIndex.release(row.date, row.time);
+                }
+                progress.reject(row.line, "Rejected by the database: " + e.getMostSpecificCause().getMessage());
+            }
+        }
+    }
+
+    private void insert(List<ImportRow> rows) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        transactionTemplate.executeWithoutResult(tx -> {
+            KeyHolder keys = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_BOOKING, Statement.RETURN_GENERATED_KEYS),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            ImportRow row = rows.get(i);
+                            ps.setLong(1, row.customerId);
+                            ps.setObject(2, row.vendorId, Types.BIGINT);
+                            ps.setLong(3, row.addressId);
+                            ps.setTimestamp(4, now);
+                            ps.setObject(5, row.date);
+                            ps.setObject(6, row.time);
+                            ps.setObject(7, row.price, Types.DOUBLE);
+                            ps.setString(8, row.status.name());
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return rows.size();
+                        }
+                    }, keys);
+            List<Map<String, Object>> generated = keys.getKeyList();
+            if (generated.size() != rows.size()) {
+                throw new InvalidDataAccessApiUsageException("Expected " + rows.size() + " generated keys, got "
+                        + generated.size());
+            }
+            List<Object[]> modifierArgs = new ArrayList<>(rows.size() * 2);
+            Map<Long, Map<BookingStatus, Long>> centsByVendor = new HashMap<>();
+            for (int i = 0; i < rows.size(); i++) {
+                ImportRow row = rows.get(i);
+                long id = ((Number) generated.get(i).values().iterator().next()).longValue();
+                modifierArgs.add(new Object[] { id, row.statusModifierId });
+                modifierArgs.add(new Object[] { id, row.typeModifierId });
+                if (row.vendorId != null) {
+                    centsByVendor.computeIfAbsent(row.vendorId, v -> new HashMap<>())
+                            .merge(row.status, EarningsLedger.toCents(row.price), Long::sum);
+                    vendorCalendar.evict(row.vendorId, row.date);
+                }
+            }
+            jdbcTemplate.batchUpdate(INSERT_MODIFIER, modifierArgs);
+            centsByVendor.forEach((vendorId, byStatus) -> byStatus.forEach((status, cents) ->
+                    earningsLedger.recordStatusChange(vendorId, cents, null, status.name())));
+        });
+    }
+
+    @FunctionalInterface
+    private interface Parser<T> {
+        T parse(String value);
+    }
+
+    // The positions of the named columns, and a reader for one line of values.
+    private static final class Columns {
+        private final Map<String, Integer> positions = new HashMap<>();
+
+        Columns(String header) {
+            if (header.startsWith("\uFEFF")) {
+                header = header.substring(1);
+            }
+            List<String> names = split(header);
+            if (names == null) {
+                throw new IllegalArgumentException("Malformed header");
+            }
+            for (int i = 0; i < names.size(); i++) {
+                positions.putIfAbsent(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+            for (String column : REQUIRED_COLUMNS) {
+                if (!positions.containsKey(column)) {
+                    throw new IllegalArgumentException("Missing column " + column);
+                }
+            }
+        }
+
+        // Maps each known column to its trimmed value, or to null if blank.
+        Map<String, String> read(String line) {
+            List<String> fields = split(line);
+            if (fields == null) {
+                throw new IllegalArgumentException("Unterminated quote");
+            }
+            Map<String, String> values = new HashMap<>();
+            positions.forEach((name, position) -> {
+                String value = position < fields.size() ? fields.get(position).trim() : "";
+                values.put(name, value.isEmpty() ? null : value);
+            });
+            return values;
+        }
+
+        // Splits a line on commas outside double quotes, where "" is a quote; null if a quote is left open.
+        private static List<String> split(String line) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (quoted) {
+                return null;
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+
+    private static final class ReferenceData {
+        private final Map<String, Long> customers = new HashMap<>();
+        private final Map<String, Long> vendors = new HashMap<>();
+        // Every address ID, mapped to the ID of the customer it belongs to, or to null.
+        private final Map<Long, Long> addressOwners = new HashMap<>();
+    }
+
+    private static final class ImportRow {
+        private final int line;
+        private long customerId;
+        private Long vendorId;
+        private long addressId;
+        private LocalDate date;
+        private LocalTime time;
+        private Double price;
+        private BookingStatus status;
+        private long statusModifierId;
+        private long typeModifierId;
+        private boolean reserved;
+
+        ImportRow(int line) {
+            this.line = line;
+        }
+    }
+
+    private final class Progress {
+        private long imported;
+        private long rejected;
+        private boolean unclaimedImported;
+        private final List<String> errors = new ArrayList<>();
+
+        void imported(List<ImportRow> rows) {
+            imported += rows.size();
+            for (ImportRow row : rows) {
+                unclaimedImported |= row.status == BookingStatus.UNCLAIMED;
+            }
+        }
+
+        void reject(int line, String reason) {
+            rejected++;
+            if (errors.size() < maxErrors) {
+                errors.add("Line " + line + ": " + reason);
+            }
+        }
+    }
+}
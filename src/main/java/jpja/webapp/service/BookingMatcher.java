@@ -0,0 +1,342 @@
+package jpja.webapp.service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jpja.webapp.model.entities.Booking;
+import jpja.webapp.model.entities.BookingStatus;
+import jpja.webapp.model.entities.Vendor;
+import jpja.webapp.repositories.BookingRepository;
+import jpja.webapp.repositories.BookingRepository.MatchCandidate;
+import jpja.webapp.service.ZipCentroids.GeoPoint;
+
+/**
+ * Ranks unclaimed bookings for a vendor by distance, capacity fit and date.
+ *
+ * <p>Every upcoming unclaimed booking is placed on a latitude/longitude grid by
+ * the centroid of its location's ZIP code. Cells are as tall as the matching
+ * radius ({@code jpja.matching.radius-miles}), so a vendor's feed only scans
+ * the handful of cells around the vendor's ZIP instead of every unclaimed
+ * booking.</p>
+ *
+ * <p>Bookings farther than the radius, or larger than the vendor can handle,
+ * are skipped. The rest are scored on a weighted sum of distance, how fully the
+ * job uses the vendor's capacity, and how soon it is, lowest first.</p>
+ *
+ * <p>The grid is kept current by {@link BookingService} on every status change
+ * and rebuilt from the database at startup and periodically, which picks up
+ * bulk changes and drops past bookings. Bookings indexed or removed while a
+ * rebuild reads the database are recorded and replayed onto the rebuilt grid
+ * before it replaces the live one, so those changes are not lost.</p>
+ *
+ * @author James Prial
+ */
+@Service
+public class BookingMatcher implements ApplicationRunner {
+
+    // Estimated square footage one team member can handle, for vendors without a max_sqft.
+    private static final long SQFT_PER_TEAM_MEMBER = 1500;
+    private static final double MILES_PER_DEGREE = 69.0;
+    private static final double DISTANCE_WEIGHT = 0.5;
+    private static final double FIT_WEIGHT = 0.2;
+    private static final double DATE_WEIGHT = 0.3;
+
+    private final BookingRepository bookingRepository;
+    private final ZipCentroids zipCentroids;
+    private final double radiusMiles;
+    private final int horizonDays;
+    private final double cellDegrees;
+    private volatile Grid grid = new Grid();
+    // Changes made to the live grid during a rebuild, or null when none is running.
+    private volatile Queue<Change> changes;
+    // Shared by every change to the live grid, exclusive to a rebuild starting or finishing.
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingMatcher.class);
+
+    /**
+     * Constructs a BookingMatcher.
+     *
+     * @param bookingRepository Repository used to build the grid.
+     * @param zipCentroids Lookup of ZIP code centroids.
+     * @param radiusMiles Maximum travel distance of a match, in miles.
+     * @param horizonDays Number of days ahead after which date proximity stops mattering.
+     */
+    public BookingMatcher(BookingRepository bookingRepository, ZipCentroids zipCentroids,
+            @Value("${jpja.matching.radius-miles:25}") double radiusMiles,
+            @Value("${jpja.matching.horizon-days:14}") int horizonDays) {
+        if (radiusMiles <= 0 || horizonDays < 1) {
+            throw new IllegalArgumentException("Matching radius and horizon must be positive");
+        }
+        this.bookingRepository = bookingRepository;
+        this.zipCentroids = zipCentroids;
+        this.radiusMiles = radiusMiles;
+        this.horizonDays = horizonDays;
+        this.cellDegrees = radiusMiles / MILES_PER_DEGREE;
+    }
+
+    /**
+     * Builds the grid at startup.
+     *
+     * @param args the application arguments (unused)
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        rebuild();
+    }
+
+    /**
+     * Rebuilds the grid from every unclaimed booking from today onward.
+     * Bookings indexed or removed while the bookings are read are applied to
+     * the rebuilt grid as well.
+     */
+    @Scheduled(cron = "${jpja.matching.rebuild-cron:0 */15 * * * *}")
+    public synchronized void rebuild() {
+        Queue<Change> recorded = new ConcurrentLinkedQueue<>();
+        rebuildLock.writeLock().lock();
+        try {
+            changes = recorded;
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+        try {
+            Grid rebuilt = new Grid();
+            List<MatchCandidate> unclaimed = bookingRepository.findMatchCandidates(BookingStatus.UNCLAIMED.name(),
+                    LocalDate.now());
+            for (MatchCandidate candidate : unclaimed) {
+                GeoPoint point = zipCentroids.locate(candidate.getZip());
+                if (point != null && candidate.getBookingDate() != null) {
+                    rebuilt.put(new Entry(candidate.getId(), point, candidate.getBookingDate(), candidate.getSqft()));
+                }
+            }
+            rebuildLock.writeLock().lock();
+            try {
+                for (Change change : recorded) {
+                    if (change.entry == null) {
+                        rebuilt.remove(change.id);
+                    } else {
+                        rebuilt.put(change.entry);
+                    }
+                }
+                this.grid = rebuilt;
+            } finally {
+                rebuildLock.writeLock().unlock();
+            }
+            logger.info("Indexed {} of {} unclaimed bookings for matching, {} changed meanwhile", rebuilt.size(),
+                    unclaimed.size(), recorded.size());
+        } finally {
+            changes = null;
+        }
+    }
+
+    /**
+     * Adds or updates a booking in the grid. Bookings that are not unclaimed,
+     * or whose location cannot be placed, are removed instead.
+     *
+     * @param booking The booking to index.
+     */
+    public void index(Booking booking) {
+        if (booking == null) {
+            return;
+        }
+        GeoPoint point = booking.getLocation() == null ? null : zipCentroids.locate(booking.getLocation().getZip());
+        if (point == null || booking.getBookingDate() == null
+                || !BookingStatus.UNCLAIMED.name().equals(booking.getStatusName())) {
+            remove(booking.getId());
+            return;
+        }
+        apply(new Change(booking.getId(),
+                new Entry(booking.getId(), point, booking.getBookingDate(), booking.getLocation().getSqft())));
+    }
+
+    /**
+     * Removes a booking from the grid.
+     *
+     * @param bookingId The ID of the booking.
+     */
+    public void remove(long bookingId) {
+        apply(new Change(bookingId, null));
+    }
+
+    // Applies a change to the live grid, recording it for a rebuild in progress.
+    private void apply(Change change) {
+        rebuildLock.readLock().lock();
+        try {
+            if (change.entry == null) {
+                grid.remove(change.id);
+            } else {
+                grid.put(change.entry);
+            }
+            Queue<Change> recorded = changes;
+            if (recorded != null) {
+                recorded.add(change);
+            }
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the best matching unclaimed bookings for a vendor.
+     *
+     * @param vendor The vendor.
+     * @param limit The maximum number of bookings to return.
+     * @return The IDs of the matching bookings, best first, or an empty list if
+     *         the vendor's ZIP code is unknown.
+     */
+    public List<Long> match(Vendor vendor, int limit) {
+        GeoPoint origin = vendor == null ? null : zipCentroids.locate(vendor.getZip());
+        if (origin == null || limit < 1) {
+            return List.of();
+        }
+        Long capacity = capacityOf(vendor);
+        LocalDate today = LocalDate.now();
+        double latSpan = radiusMiles / MILES_PER_DEGREE;
+        double lonSpan = latSpan / Math.max(0.01, Math.cos(Math.toRadians(origin.getLatitude())));
+        // Max-heap on score, trimmed to the limit, so only the best matches are kept.
+        PriorityQueue<Scored> best = new PriorityQueue<>(Comparator.comparingDouble((Scored s) -> s.score).reversed());
+        Grid current = grid;
+        for (int row = cell(origin.getLatitude() - latSpan); row <= cell(origin.getLatitude() + latSpan); row++) {
+            for (int col = cell(origin.getLongitude() - lonSpan); col <= cell(origin.getLongitude() + lonSpan); col++) {
+                Map<Long, Entry> entries = current.cells.get(key(row, col));
+                if (entries == null) {
+                    continue;
+                }
+                for (Entry entry : entries.values()) {
+                    double score = score(entry, origin, capacity, today);
+                    if (score < 0) {
+                        continue;
+                    }
+                    best.add(new Scored(entry.id, score));
+                    if (best.size() > limit) {
+                        best.poll();
+                    }
+                }
+            }
+        }
+        List<Long> ranked = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            ranked.add(best.poll().id);
+        }
+        Collections.reverse(ranked);
+        return ranked;
+    }
+
+    // Lower is better; negative means the booking does not match at all.
+    private double score(Entry entry, GeoPoint origin, Long capacity, LocalDate today) {
+        if (entry.date.isBefore(today)) {
+            return -1;
+        }
+        double distance = ZipCentroids.distanceMiles(origin, entry.point);
+        if (distance > radiusMiles) {
+            return -1;
+        }
+        double fit = 0.5;
+        if (capacity != null && entry.sqft != null) {
+            if (entry.sqft > capacity) {
+                return -1;
+            }
+            fit = 1.0 - (double) entry.sqft / capacity;
+        }
+        double days = Math.min(horizonDays, ChronoUnit.DAYS.between(today, entry.date));
+        return DISTANCE_WEIGHT * distance / radiusMiles + FIT_WEIGHT * fit + DATE_WEIGHT * days / horizonDays;
+    }
+
+    // The largest job a vendor can take, from max_sqft or else team size; null if unknown.
+    private static Long capacityOf(Vendor vendor) {
+        if (vendor.getMax_sqft() != null) {
+            return vendor.getMax_sqft();
+        }
+        return vendor.getSize() == null ? null : vendor.getSize() * SQFT_PER_TEAM_MEMBER;
+    }
+
+    private int cell(double degrees) {
+        return (int) Math.floor(degrees / cellDegrees);
+    }
+
+    private static long key(int row, int col) {
+        return ((long) row << 32) | (col & 0xffffffffL);
+    }
+
+    // Bookings bucketed by grid cell, plus the cell of each booking for removal.
+    private final class Grid {
+        private final Map<Long, Map<Long, Entry>> cells = new ConcurrentHashMap<>();
+        private final Map<Long, Long> cellOf = new ConcurrentHashMap<>();
+
+        synchronized void put(Entry entry) {
+            remove(entry.id);
+            long key = key(cell(entry.point.getLatitude()), cell(entry.point.getLongitude()));
+            cells.computeIfAbsent(key, k -> new ConcurrentHashMap<>()).put(entry.id, entry);
+            cellOf.put(entry.id, key);
+        }
+
+        synchronized void remove(long id) {
+            Long key = cellOf.remove(id);
+            if (key != null) {
+                Map<Long, Entry> entries = cells.get(key);
+                entries.remove(id);
+                if (entries.isEmpty()) {
+                    cells.remove(key);
+                }
+            }
+        }
+
+        int size() {
+            return cellOf.size();
+        }
+    }
+
+    private static final class Entry {
+        private final long id;
+        private final GeoPoint point;
+        private final LocalDate date;
+        private final Long sqft;
+
+        Entry(long id, GeoPoint point, LocalDate date, Long sqft) {
+            this.id = id;
+            this.point = point;
+            this.date = date;
+            this.sqft = sqft;
+        }
+    }
+
+    // A booking put into the grid, or removed from it when entry is null.
+    private static final class Change {
+        private final long id;
+        private final Entry entry;
+
+        Change(long id, Entry entry) {
+            this.id = id;
+            this.entry = entry;
+        }
+    }
+
+    private static final class Scored {
+        private final long id;
+        private final double score;
+
+        Scored(long id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package jpja.webapp.service;
+
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.stereotype.Component;
+
+import jpja.webapp.model.entities.Booking;
+import jpja.webapp.model.entities.BookingEvent;
+import jpja.webapp.model.entities.BookingStatus;
+import jpja.webapp.repositories.BookingRepository;
+
+/**
+ * Emails customers when one of their bookings is claimed, completed or canceled.
+ *
+ * <p>Runs from the outbox, so sending mail never adds to request latency and
+ * a notification is not lost if the server stops before sending it.</p>
+ *
+ * @author James Prial
+ */
+@Component
+public class BookingNotificationConsumer implements BookingEventConsumer {
+
+    private static final Set<String> NOTIFIED = Set.of(BookingStatus.CLAIMED.name(),
+            BookingStatus.COMPLETED.name(), BookingStatus.CANCELED.name());
+
+    private final BookingRepository bookingRepository;
+    private final EmailService emailService;
+
+    /**
+     * Constructs a BookingNotificationConsumer.
+     *
+     * @param bookingRepository Repository used to load the changed bookings.
+     * @param emailService Service used to send the emails.
+     */
+    public BookingNotificationConsumer(BookingRepository bookingRepository, EmailService emailService) {
+        this.bookingRepository = bookingRepository;
+        this.emailService = emailService;
+    }
+
+    @Override
+    public String getName() {
+        return "booking-notifications";
+    }
+
+    @Override
+    public void consume(List<BookingEvent> events) {
+        for (BookingEvent event : events) {
+            if (!NOTIFIED.contains(event.getToStatus()) || !event.entered(event.getToStatus())) {
+                continue;
+            }
+            Booking booking = bookingRepository.findById(event.getBookingId()).orElse(null);
+            if (booking != null) {
+                emailService.sendBookingStatusEmail(booking.getCustomer(), booking, event.getToStatus());
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package jpja.webapp.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import jpja.webapp.model.entities.BookingEvent;
+import jpja.webapp.repositories.BookingEventRepository;
+
+/**
+ * Records booking status changes in the transactional outbox.
+ *
+ * <p>Events must be written in the same transaction as the change they
+ * describe, so every method here requires one to be active. The events are
+ * delivered to consumers after commit by {@link OutboxDispatcher}.</p>
+ *
+ * @author James Prial
+ */
+@Service
+public class BookingOutbox {
+
+    private static final String INSERT_EVENT = "INSERT INTO booking_events (booking_id, from_status, to_status, created_at) "
+            + "VALUES (?, ?, ?, ?)";
+
+    private final BookingEventRepository bookingEventRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructs a BookingOutbox.
+     *
+     * @param bookingEventRepository Repository for outbox events.
+     * @param jdbcTemplate Template used for batch inserts.
+     */
+    public BookingOutbox(BookingEventRepository bookingEventRepository, JdbcTemplate jdbcTemplate) {
+        this.bookingEventRepository = bookingEventRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Records a status change of one booking.
+     *
+     * @param bookingId The ID of the booking.
+     * @param from The status before the change, or null for a new booking.
+     * @param to The status after the change.
+     * @throws IllegalArgumentException if the new status is null.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(long bookingId, String from, String to) {
+        if (to == null) {
+            throw new IllegalArgumentException("Status not given");
+        }
+        bookingEventRepository.save(new BookingEvent(bookingId, from, to));
+    }
+
+    /**
+     * Records the same status change for many bookings in one batch.
+     *
+     * @param bookingIds The IDs of the bookings.
+     * @param from The status before the change.
+     * @param to The status after the change.
+     * @throws IllegalArgumentException if the new status is null.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(List<Long> bookingIds, String from, String to) {
+        if (to == null) {
+            throw new IllegalArgumentException("Status not given");
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> args = new ArrayList<>(bookingIds.size());
+        for (Long bookingId : bookingIds) {
+            args.add(new Object[] { bookingId, from, to, now });
+        }
+        jdbcTemplate.batchUpdate(INSERT_EVENT, args);
+    }
+}
@@ -0,0 +1,241 @@
+package jpja.webapp.service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jpja.webapp.factories.BookingDTOFactory;
+import jpja.webapp.model.dto.BookingDTO;
+import jpja.webapp.model.dto.BookingSearchDTO;
+import jpja.webapp.model.dto.BookingSearchPageDTO;
+import jpja.webapp.model.entities.Booking;
+import jpja.webapp.model.entities.BookingModifier;
+import jpja.webapp.model.entities.BookingStatus;
+import jpja.webapp.model.entities.User;
+import jpja.webapp.repositories.BookingRepository;
+import jpja.webapp.repositories.BookingRow;
+import jpja.webapp.repositories.BookingSpecifications;
+import jpja.webapp.repositories.UserRepository;
+
+/**
+ * Service for searching bookings by any combination of date range, status,
+ * vendor, customer, ZIP code and type, for admins.
+ *
+ * <p>The criteria are combined from {@link BookingSpecifications} into a
+ * criteria query that selects only the (date, time, id) key of each match,
+ * ordered the same way. With the booking indexes all ending in those columns,
+ * the common filter combinations are answered from an index alone, and pages
+ * continue by keyset from a {@link BookingCursor}. The page's rows are then
+ * read with {@link BookingRepository#findRowsByIds}.</p>
+ *
+ * <p>Counting every match would scan the whole result on each page. Instead,
+ * the first page reads up to {@code jpja.bookings.search.count-limit} keys;
+ * if there are no more than that the count is exact. Otherwise it is
+ * estimated by scaling the sample by the date range of all matches, found
+ * from the last match in reverse key order, and marked approximate.</p>
+ *
+ * @author James Prial
+ */
+@Service
+public class BookingSearchService {
+
+    private final EntityManager entityManager;
+    private final BookingRepository bookingRepository;
+    private final UserRepository userRepository;
+    private final ModifierRegistry modifierRegistry;
+    private final int pageSize;
+    private final int countLimit;
+
+    /**
+     * Constructs a BookingSearchService with the necessary dependencies.
+     *
+     * @param entityManager Entity manager the key queries run on.
+     * @param bookingRepository Repository the rows of each page are read from.
+     * @param userRepository Repository used to resolve vendor and customer usernames.
+     * @param modifierRegistry Registry used to resolve type names.
+     * @param pageSize Number of bookings per page.
+     * @param countLimit Number of matches counted exactly before estimating.
+     */
+    public BookingSearchService(EntityManager entityManager, BookingRepository bookingRepository,
+            UserRepository userRepository, ModifierRegistry modifierRegistry,
+            @Value("${jpja.bookings.page-size:20}") int pageSize,
+            @Value("${jpja.bookings.search.count-limit:10000}") int countLimit) {
+        if (pageSize < 1 || countLimit < pageSize) {
+            throw new IllegalArgumentException("Page size must be positive and no larger than the count limit");
+        }
+        this.entityManager = entityManager;
+        this.bookingRepository = bookingRepository;
+        this.userRepository = userRepository;
+        this.modifierRegistry = modifierRegistry;
+        this.pageSize = pageSize;
+        this.countLimit = countLimit;
+    }
+
+    /**
+     * Retrieves one page of the bookings matching the given criteria, ordered
+     * by date, time and id. Only the first page is counted.
+     *
+     * @param criteria The search criteria; blank criteria are ignored.
+     * @param cursor The cursor returned with the previous page, or null for the first page.
+     * @return The page of bookings, the cursor for the next page and, on the first page, the match count.
+     * @throws IllegalArgumentException if the criteria are null or invalid, or the cursor is malformed.
+     */
+    @Transactional(readOnly = true)
+    public BookingSearchPageDTO search(BookingSearchDTO criteria, String cursor) {
+        if (criteria == null) {
+            throw new IllegalArgumentException("Search criteria not given");
+        }
+        BookingCursor after = BookingCursor.decode(cursor);
+        Specification<Booking> filter = toSpecification(criteria);
+        if (after != null) {
+            List<Key> keys = keys(filter.and(BookingSpecifications.after(after.getDate(), after.getTime(),
+                    after.getId())), pageSize + 1, true);
+            return toPage(keys, null, false);
+        }
+        List<Key> sample = keys(filter, countLimit + 1, true);
+        boolean approximate = sample.size() > countLimit;
+        long count = approximate ? estimate(filter, sample) : sample.size();
+        return toPage(sample.subList(0, Math.min(sample.size(), pageSize + 1)), count, approximate);
+    }
+
+    // Combines the given criteria; a criterion naming an unknown user or type matches nothing.
+    private Specification<Booking> toSpecification(BookingSearchDTO criteria) {
+        if (criteria.getFrom() != null && criteria.getTo() != null && criteria.getFrom().isAfter(criteria.getTo())) {
+            throw new IllegalArgumentException("Start date is after end date");
+        }
+        List<Specification<Booking>> filters = new ArrayList<>();
+        Specification<Booking> dates = BookingSpecifications.bookedBetween(criteria.getFrom(), criteria.getTo());
+        if (dates != null) {
+            filters.add(dates);
+        }
+        String status = blankToNull(criteria.getStatus());
+        if (status != null) {
+            if (BookingStatus.fromName(status) == null) {
+                throw new IllegalArgumentException(status + " is not a valid STATUS.");
+            }
+            filters.add(BookingSpecifications.hasStatus(status));
+        }
+        String vendor = blankToNull(criteria.getVendor());
+        if (vendor != null) {
+            Long vendorId = userRepository.findByUsername(vendor).map(User::getId).orElse(null);
+            filters.add(vendorId == null ? nothing() : BookingSpecifications.hasVendor(vendorId));
+        }
+        String customer = blankToNull(criteria.getCustomer());
+        if (customer != null) {
+            Long customerId = userRepository.findByUsername(customer).map(User::getId).orElse(null);
+            filters.add(customerId == null ? nothing() : BookingSpecifications.hasCustomer(customerId));
+        }
+        String zip = blankToNull(criteria.getZip());
+        if (zip != null) {
+            filters.add(BookingSpecifications.inZip(zip));
+        }
+        String type = blankToNull(criteria.getType());
+        if (type != null) {
+            BookingModifier modifier = modifierRegistry.findByTypeAndName("TYPE", type).orElse(null);
+            filters.add(modifier == null ? nothing() : BookingSpecifications.hasModifier(modifier));
+        }
+        return Specification.allOf(filters);
+    }
+
+    private static Specification<Booking> nothing() {
+        return (root, query, cb) -> cb.disjunction();
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    // Selects the (id, date, time) keys of the matching bookings in key order.
+    private List<Key> keys(Specification<Booking> filter, int limit, boolean ascending) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Booking> root = query.from(Booking.class);
+        query.multiselect(root.get("id"), root.get("bookingDate"), root.get("bookingTime"));
+        Predicate predicate = filter.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (ascending) {
+            query.orderBy(cb.asc(root.get("bookingDate")), cb.asc(root.get("bookingTime")), cb.asc(root.get("id")));
+        } else {
+            query.orderBy(cb.desc(root.get("bookingDate")), cb.desc(root.get("bookingTime")), cb.desc(root.get("id")));
+        }
+        List<Key> keys = new ArrayList<>();
+        for (Tuple tuple : entityManager.createQuery(query).setMaxResults(limit).getResultList()) {
+            keys.add(new Key(tuple.get(0, Long.class), tuple.get(1, LocalDate.class), tuple.get(2, LocalTime.class)));
+        }
+        return keys;
+    }
+
+    // Scales the sample size by the number of days all matches span over the days the sample spans.
+    private long estimate(Specification<Booking> filter, List<Key> sample) {
+        long lowerBound = sample.size();
+        LocalDate first = sample.get(0).date;
+        LocalDate sampledTo = sample.get(sample.size() - 1).date;
+        List<Key> last = keys(filter, 1, false);
+        if (first == null || sampledTo == null || last.isEmpty() || last.get(0).date == null) {
+            return lowerBound;
+        }
+        double sampledDays = ChronoUnit.DAYS.between(first, sampledTo) + 1;
+        double totalDays = ChronoUnit.DAYS.between(first, last.get(0).date) + 1;
+        return Math.max(lowerBound, Math.round(lowerBound * totalDays / sampledDays));
+    }
+
+    private BookingSearchPageDTO toPage(List<Key> keys, Long count, boolean approximate) {
+        List<Key> onPage = keys.subList(0, Math.min(keys.size(), pageSize));
+        if (onPage.isEmpty()) {
+            return new BookingSearchPageDTO(List.of(), null, count, approximate);
+        }
+        List<Long> ids = new ArrayList<>(onPage.size());
+        for (Key key : onPage) {
+            ids.add(key.id);
+        }
+        Map<Long, BookingRow> rows = new HashMap<>();
+        for (BookingRow row : bookingRepository.findRowsByIds(ids)) {
+            rows.put(row.getId(), row);
+        }
+        List<BookingRow> ordered = new ArrayList<>(onPage.size());
+        for (Long id : ids) {
+            BookingRow row = rows.get(id);
+            if (row != null) {
+                ordered.add(row);
+            }
+        }
+        List<BookingDTO> page = BookingDTOFactory.copyBookingRowsToDTO(ordered);
+        String next = null;
+        if (keys.size() > pageSize) {
+            Key lastKey = onPage.get(onPage.size() - 1);
+            if (lastKey.date != null && lastKey.time != null) {
+                next = new BookingCursor(lastKey.date, lastKey.time, lastKey.id).encode();
+            }
+        }
+        return new BookingSearchPageDTO(page, next, count, approximate);
+    }
+
+    private static final class Key {
+        private final long id;
+        private final LocalDate date;
+        private final LocalTime time;
+
+        Key(long id, LocalDate date, LocalTime time) {
+            this.id = id;
+            this.date = date;
+            this.time = time;
+        }
+    }
+}
@@ -1,28 +1,45 @@
 package jpja.webapp.service;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import jakarta.validation.Valid;
+import jpja.webapp.exceptions.SlotUnavailableException;
 import jpja.webapp.exceptions.database.ConflictingModifiersException;
 import jpja.webapp.exceptions.database.DatabaseException;
 import jpja.webapp.exceptions.database.ExpectedDataNotFoundException;
+import jpja.webapp.factories.BookingDTOFactory;
+import jpja.webapp.model.dto.BookingDTO;
+import jpja.webapp.model.dto.BookingPageDTO;
 import jpja.webapp.model.dto.ModifierDTO;
 import jpja.webapp.model.dto.NewBookingDTO;
 import jpja.webapp.model.entities.Booking;
 import jpja.webapp.model.entities.BookingModifier;
+import jpja.webapp.model.entities.BookingStatus;
 import jpja.webapp.model.entities.Customer;
+import jpja.webapp.model.entities.ModifierType;
 import jpja.webapp.model.entities.User;
 import jpja.webapp.model.entities.Vendor;
 import jpja.webapp.repositories.BookingRepository;
-import jpja.webapp.repositories.ModifierRepository;
+import jpja.webapp.repositories.BookingRow;
 
 /**
  * Service class for managing bookings and associated operations.
@@ -35,22 +52,52 @@ import jpja.webapp.repositories.ModifierRepository;
 public class BookingService {
 
     private final BookingRepository bookingRepository;
-    private final ModifierRepository modifierRepository;
+    private final ModifierRegistry modifierRegistry;
     private final AddressService addressService;
+    private final EarningsLedger earningsLedger;
+    private final SlotCapacityIndex slotCapacityIndex;
+    private final BookingMatcher bookingMatcher;
+    private final BookingOutbox bookingOutbox;
+    private final PricingEngine pricingEngine;
+    private final VendorCalendarService vendorCalendar;
+    private final int pageSize;
 
     private static final Logger logger = LoggerFactory.getLogger(BookingService.class);
 
+    // Number of alternative times offered when a slot is full.
+    private static final int ALTERNATIVE_SLOTS = 3;
+
     /**
      * Constructs a BookingService with the necessary dependencies.
      * 
      * @param bookingRepository Repository for managing booking entities.
-     * @param modifierRepository Repository for managing booking modifier entities.
+     * @param modifierRegistry In-memory registry of booking modifiers.
      * @param addressService Service for handling address-related logic.
+     * @param earningsLedger Ledger of vendor earnings, updated on status changes.
+     * @param slotCapacityIndex Index of booked time slots, used to prevent overbooking.
+     * @param bookingMatcher Index of unclaimed bookings, used to rank them for vendors.
+     * @param bookingOutbox Outbox recording status changes for asynchronous consumers.
+     * @param pricingEngine Engine quoting the price of new bookings.
+     * @param vendorCalendar Cache of vendor calendar weeks, evicted when a vendor's booking changes.
+     * @param pageSize Number of bookings per page of a paginated booking list.
      */
-    public BookingService(BookingRepository bookingRepository, ModifierRepository modifierRepository, AddressService addressService) {
+    public BookingService(BookingRepository bookingRepository, ModifierRegistry modifierRegistry, AddressService addressService,
+            EarningsLedger earningsLedger, SlotCapacityIndex slotCapacityIndex, BookingMatcher bookingMatcher,
+            BookingOutbox bookingOutbox, PricingEngine pricingEngine, VendorCalendarService vendorCalendar,
+            @Value("${jpja.bookings.page-size:20}") int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
         this.bookingRepository = bookingRepository;
-        this.modifierRepository = modifierRepository;
+        this.modifierRegistry = modifierRegistry;
         this.addressService = addressService;
+        this.earningsLedger = earningsLedger;
+        this.slotCapacityIndex = slotCapacityIndex;
+        this.bookingMatcher = bookingMatcher;
+        this.bookingOutbox = bookingOutbox;
+        this.pricingEngine = pricingEngine;
+        this.vendorCalendar = vendorCalendar;
+        this.pageSize = pageSize;
     }
 
     /**
@@ -73,6 +120,9 @@ public class BookingService {
      * @return A set of bookings associated with the given modifier.
      */
     public Set<Booking> getBookingsByModifier(BookingModifier modifier) {
+        if (isStatus(modifier)) {
+            return bookingRepository.findByStatusName(modifier.getName());
+        }
         return bookingRepository.findByModifiers(modifier);
     }
 
@@ -84,7 +134,7 @@ public class BookingService {
      * @throws IllegalArgumentException if the modifier is not found in the repository.
      */
     public Set<Booking> getBookingsByModifier(String modifier) {
-        return bookingRepository.findByModifiers(this.findModifier(modifier).orElseThrow(
+        return getBookingsByModifier(this.findModifier(modifier).orElseThrow(
                 () -> new IllegalArgumentException(modifier + " not found in modifierRepo")));
     }
 
@@ -97,7 +147,7 @@ public class BookingService {
      * @throws IllegalArgumentException if the type or modifier is not found in the repository.
      */
     public Set<Booking> getBookingsByModifier(String type, String modifier) {
-        return bookingRepository.findByModifiers(this.findModifier(type + "_" + modifier).orElseThrow(
+        return getBookingsByModifier(this.findModifier(type + "_" + modifier).orElseThrow(
                 () -> new IllegalArgumentException(type + ", " + modifier + " not found in modifierRepo")));
     }
 
@@ -112,7 +162,7 @@ public class BookingService {
         if (type == null) {
             throw new IllegalArgumentException("Type not given");
         }
-        Set<BookingModifier> mods = modifierRepository.findByType(type);
+        Collection<BookingModifier> mods = modifierRegistry.findByType(type);
         Set<ModifierDTO> ret = new HashSet<>();
         for (BookingModifier mod : mods) {
             ModifierDTO dto = new ModifierDTO();
@@ -127,38 +177,34 @@ public class BookingService {
     /**
      * Allows a vendor to claim a booking that is currently unclaimed.
      * 
+     * <p>The claim is a conditional UPDATE on the booking row, so when several
+     * vendors claim the same booking at once exactly one of them wins, and no
+     * lock is held beyond this short transaction.</p>
+     * 
      * @param bookingId The ID of the booking to claim.
      * @param vendor The vendor claiming the booking.
      * @return true if the booking was successfully claimed, false otherwise.
+     * @throws IllegalArgumentException if the vendor is null.
      */
+    @Transactional
     public boolean claimBooking(long bookingId, Vendor vendor) {
-        Optional<Booking> optionalBooking = bookingRepository.findById(bookingId);
-        if (optionalBooking.isPresent()) {
-            Booking booking = optionalBooking.get();
-            try {
-                if (booking.getVendor() == null && booking.getStatus().getName().equals("UNCLAIMED")) {
-                    booking.setVendor(vendor);
-                    return setBookingStatus(booking, "CLAIMED");
-                }
-            } catch (DatabaseException e) {
-                if (e instanceof ConflictingModifiersException) {
-                    Set<BookingModifier> statuses = booking.getModifiersByType("STATUS");
-                    String conflictingStatuses = "|";
-                    for (BookingModifier modifier : statuses) {
-                        conflictingStatuses = conflictingStatuses + modifier.toString() + "|";
-                    }
-                    logger.error("ConflictingModifiersException thrown for booking id " + booking.getId()
-                            + " when attempting to claim booking. STATUSes: " + conflictingStatuses);
-                } else if (e instanceof ExpectedDataNotFoundException) {
-                    logger.error("ExpectedDataNotFoundException thrown for booking id " + booking.getId()
-                            + "when attempting to claim booking. No status previously set");
-                } else {
-                    logger.error("Unrecognized DatabaseException", e);
-                }
-            }
+        if (vendor == null) {
+            throw new IllegalArgumentException("Vendor not given");
         }
-        return false;
+        BookingModifier claimed = modifierRegistry.findByTypeAndName("STATUS", "CLAIMED")
+                .orElseThrow(() -> new IllegalArgumentException("CLAIMED is not a valid STATUS."));
+        if (bookingRepository.claimIfUnclaimed(bookingId, vendor.getId()) != 1) {
+            return false;
+        }
+        if (bookingRepository.replaceStatusModifier(bookingId, claimed.getId()) != 1) {
+            logger.warn("Booking id " + bookingId + " claimed without exactly one STATUS modifier row");
+        }
+        bookingMatcher.remove(bookingId);
+        bookingOutbox.record(bookingId, BookingStatus.UNCLAIMED.name(), BookingStatus.CLAIMED.name());
+        vendorCalendar.evict(vendor.getId(), bookingRepository.findBookingDateById(bookingId).orElse(null));
+        return true;
     }
+
     /**
      * Retrieves all bookings with the specified status.
      * 
@@ -189,6 +235,40 @@ public class BookingService {
         return bookingRepository.findByCustomer(customer);
     }
 
+    /**
+     * Retrieves one page of a vendor's bookings, ordered by date, time and id.
+     * 
+     * @param vendor The vendor whose bookings are to be retrieved.
+     * @param cursor The cursor returned with the previous page, or null for the first page.
+     *               A malformed cursor also gives the first page.
+     * @return The page of bookings and the cursor for the next page.
+     */
+    @Transactional(readOnly = true)
+    public BookingPageDTO getBookingsByVendor(Vendor vendor, String cursor) {
+        BookingCursor after = decodeCursor(cursor);
+        Limit limit = Limit.of(pageSize + 1);
+        return toPage(after == null
+                ? bookingRepository.findRowsByVendor(vendor.getId(), limit)
+                : bookingRepository.findRowsByVendorAfter(vendor.getId(), after.getDate(), after.getTime(), after.getId(), limit));
+    }
+
+    /**
+     * Retrieves one page of a customer's bookings, ordered by date, time and id.
+     * 
+     * @param customer The customer whose bookings are to be retrieved.
+     * @param cursor The cursor returned with the previous page, or null for the first page.
+     *               A malformed cursor also gives the first page.
+     * @return The page of bookings and the cursor for the next page.
+     */
+    @Transactional(readOnly = true)
+    public BookingPageDTO getBookingsByCustomer(Customer customer, String cursor) {
+        BookingCursor after = decodeCursor(cursor);
+        Limit limit = Limit.of(pageSize + 1);
+        return toPage(after == null
+                ? bookingRepository.findRowsByCustomer(customer.getId(), limit)
+                : bookingRepository.findRowsByCustomerAfter(customer.getId(), after.getDate(), after.getTime(), after.getId(), limit));
+    }
+
     /**
      * Retrieves bookings associated with a specific customer and a specific modifier.
      * 
@@ -197,6 +277,9 @@ public class BookingService {
      * @return A set of bookings linked to the given customer and modifier.
      */
     public Set<Booking> getBookingsByCustomerAndModifier(Customer customer, BookingModifier modifier) {
+        if (isStatus(modifier)) {
+            return bookingRepository.findByCustomerAndStatusName(customer, modifier.getName());
+        }
         return bookingRepository.findByCustomerAndModifiers(customer, modifier);
     }
 
@@ -208,6 +291,9 @@ public class BookingService {
      * @return A set of bookings linked to the given vendor and modifier.
      */
     public Set<Booking> getBookingsByVendorAndModifier(Vendor vendor, BookingModifier modifier) {
+        if (isStatus(modifier)) {
+            return bookingRepository.findByVendorAndStatusName(vendor, modifier.getName());
+        }
         return bookingRepository.findByVendorAndModifiers(vendor, modifier);
     }
 
@@ -246,40 +332,38 @@ public class BookingService {
      * 
      * @param modifier The name or type_name of the modifier.
      * @return An optional containing the modifier if found.
-     * @throws IllegalArgumentException if the modifier format is invalid or duplicates exist.
+     * @throws IllegalArgumentException if the name matches modifiers of several types.
+     * @see ModifierRegistry#find(String)
      */
     public Optional<BookingModifier> findModifier(String modifier) {
-        String[] splitModifier = modifier.toUpperCase().split("_");
-        Optional<BookingModifier> ret = Optional.empty();
-        if (splitModifier.length == 2) {
-            ret = modifierRepository.findByTypeAndName(splitModifier[0], splitModifier[1]);
-        } else if (splitModifier.length == 1) {
-            Set<BookingModifier> mods = modifierRepository.findByName(splitModifier[0]);
-            if (mods.size() > 1) {
-                throw new IllegalArgumentException("duplicate modifiers: specify type");
-            } else if (mods.size() == 1) {
-                ret = mods.stream().findFirst();
-            } else {
-                ret = Optional.empty();
-            }
-        } else {
-            throw new IllegalArgumentException("improperly formatted modifier");
-        }
-        return ret;
+        return modifierRegistry.find(modifier);
     }
 
     /**
      * Sets the status of a booking using a BookingModifier.
+     * Only transitions allowed by {@link BookingStatus} are applied, and the
+     * booking's version column rejects the save if it was changed concurrently.
+     * The vendor earnings ledger is updated in the same transaction.
      * 
      * @param booking The booking whose status is to be set.
      * @param status The BookingModifier representing the status.
      * @return true if the status was successfully set, false otherwise.
-     * @throws IllegalArgumentException if the status is not of type STATUS.
+     * @throws IllegalArgumentException if the status is not of type STATUS or not a known status.
      */
+    @Transactional
     public boolean setBookingStatus(Booking booking, BookingModifier status) {
-        if (!status.getType().equals("STATUS")) {
+        if (status.getModifierType() != ModifierType.STATUS) {
             throw new IllegalArgumentException("modifier not of type STATUS");
         }
+        BookingStatus next = BookingStatus.fromName(status.getName());
+        if (next == null) {
+            throw new IllegalArgumentException(status.getName() + " is not a valid STATUS.");
+        }
+        String previous = booking.getStatusName();
+        if (!BookingStatus.isAllowed(BookingStatus.fromName(previous), next)) {
+            logger.warn("Illegal status transition " + previous + " -> " + next + " for booking id " + booking.getId());
+            return false;
+        }
         try {
             booking.removeModifier(booking.getStatus());
         } catch (DatabaseException e) {
@@ -301,9 +385,45 @@ public class BookingService {
         }
         boolean ret = booking.addModifier(status);
         saveBooking(booking);
+        earningsLedger.recordStatusChange(booking, previous, status.getName());
+        bookingMatcher.index(booking);
+        bookingOutbox.record(booking.getId(), previous, status.getName());
+        if (booking.getVendor() != null) {
+            vendorCalendar.evict(booking.getVendor().getId(), booking.getBookingDate());
+        }
         return ret;
     }
 
+    /**
+     * Retrieves the unclaimed bookings that best match a vendor's location,
+     * capacity and the booking dates, best first.
+     *
+     * @param vendor The vendor to match bookings for.
+     * @return Up to one page of matching bookings, or an empty list if the vendor's ZIP code is unknown.
+     * @throws IllegalArgumentException if the vendor is null.
+     */
+    @Transactional(readOnly = true)
+    public List<BookingDTO> getMatchedBookings(Vendor vendor) {
+        if (vendor == null) {
+            throw new IllegalArgumentException("Vendor not given");
+        }
+        List<Long> ranked = bookingMatcher.match(vendor, pageSize);
+        if (ranked.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, BookingRow> rows = new HashMap<>();
+        for (BookingRow row : bookingRepository.findUnclaimedRowsByIds(ranked)) {
+            rows.put(row.getId(), row);
+        }
+        List<BookingRow> ordered = new ArrayList<>(rows.size());
+        for (Long id : ranked) {
+            if (rows.containsKey(id)) {
+                ordered.add(rows.get(id));
+            }
+        }
+        return BookingDTOFactory.copyBookingRowsToDTO(ordered);
+    }
+
     /**
      * Retrieves all unclaimed bookings.
      * 
@@ -311,10 +431,26 @@ public class BookingService {
      * @throws IllegalArgumentException if the "UNCLAIMED" status modifier is not found.
      */
     public Set<Booking> getUnclaimedBookings() {
-        return bookingRepository.findByModifiers(
+        return getBookingsByModifier(
                 findModifier("STATUS_UNCLAIMED").orElseThrow(() -> new IllegalArgumentException()));
     }
 
+    /**
+     * Retrieves one page of unclaimed bookings, ordered by date, time and id.
+     * 
+     * @param cursor The cursor returned with the previous page, or null for the first page.
+     *               A malformed cursor also gives the first page.
+     * @return The page of bookings and the cursor for the next page.
+     */
+    @Transactional(readOnly = true)
+    public BookingPageDTO getUnclaimedBookings(String cursor) {
+        BookingCursor after = decodeCursor(cursor);
+        Limit limit = Limit.of(pageSize + 1);
+        return toPage(after == null
+                ? bookingRepository.findRowsByStatus("UNCLAIMED", limit)
+                : bookingRepository.findRowsByStatusAfter("UNCLAIMED", after.getDate(), after.getTime(), after.getId(), limit));
+    }
+
     /**
      * Sets the status of a booking using a status string.
      * 
@@ -323,8 +459,9 @@ public class BookingService {
      * @return true if the status was successfully set, false otherwise.
      * @throws IllegalArgumentException if the status is invalid.
      */
+    @Transactional
     public boolean setBookingStatus(Booking booking, String statusAsString) {
-        BookingModifier status = modifierRepository
+        BookingModifier status = modifierRegistry
                 .findByTypeAndName("STATUS", statusAsString)
                 .orElseThrow(() -> new IllegalArgumentException(statusAsString + " is not a valid STATUS."));
         return setBookingStatus(booking, status);
@@ -335,6 +472,7 @@ public class BookingService {
      * 
      * @return The total number of bookings in the database.
      */
+    @Transactional(readOnly = true)
     public long totalBookings() {
         return bookingRepository.count();
     }
@@ -344,58 +482,74 @@ public class BookingService {
      * 
      * @param vendor The vendor whose earnings are to be calculated.
      * @return The total earnings of the vendor from completed bookings.
-     * @throws IllegalArgumentException if the "COMPLETED" status modifier is not found.
+     * @see EarningsLedger
      */
-    public double calculateTotalEarnings(Vendor vendor) {
-        Set<Booking> bookings = bookingRepository.findByVendorAndModifiers(
-                vendor, findModifier("COMPLETED").orElseThrow(() -> new IllegalArgumentException()));
-        double total = 0.0;
-        for (Booking booking : bookings) {
-            total += booking.getPrice();
-        }
-        return total;
+    public BigDecimal calculateTotalEarnings(Vendor vendor) {
+        return BigDecimal.valueOf(earningsLedger.getEarnings(vendor).getCompletedCents(), 2);
     }
+
     /**
      * Calculates the total pending earnings for a given vendor.
      * 
      * @param vendor The vendor whose pending earnings are to be calculated.
      * @return The total pending earnings for the vendor from bookings marked as "PENDING_PAYOUT".
-     * @throws IllegalArgumentException if the "PENDING_PAYOUT" status modifier is not found.
+     * @see EarningsLedger
      */
-    public double calculatePendingEarnings(Vendor vendor) {
-        Set<Booking> bookings = bookingRepository.findByVendorAndModifiers(
-                vendor, findModifier("PENDING_PAYOUT").orElseThrow(() -> new IllegalArgumentException()));
-        double total = 0.0;
-        for (Booking booking : bookings) {
-            total += booking.getPrice();
-        }
-        return total;
+    public BigDecimal calculatePendingEarnings(Vendor vendor) {
+        return BigDecimal.valueOf(earningsLedger.getEarnings(vendor).getPendingCents(), 2);
     }
 
     /**
-     * Retrieves upcoming bookings for a given user.
+     * Retrieves the first page of upcoming bookings for a given user, soonest first.
      * 
      * @param user The user whose upcoming bookings are to be retrieved.
-     * @return A set of upcoming bookings for the user.
+     * @return A list of upcoming bookings for the user.
      * @throws IllegalArgumentException if the user type is invalid.
      */
-    public Set<Booking> getUpcomingBookings(User user) {
-        if (user instanceof Vendor || user instanceof Customer) {
-            Set<Booking> allBookings = user instanceof Vendor
-                    ? getBookingsByVendor((Vendor) user)
-                    : getBookingsByCustomer((Customer) user);
-            Set<Booking> ret = new HashSet<>();
-            for (Booking booking : allBookings) {
-                if (booking.getBookingDate().isAfter(LocalDate.now()) || 
-                   (booking.getBookingDate().isEqual(LocalDate.now()) && booking.getBookingTime().isAfter(LocalTime.now()))) {
-                    ret.add(booking);
-                }
-            }
-            return ret;
+    @Transactional(readOnly = true)
+    public List<BookingDTO> getUpcomingBookings(User user) {
+        return getUpcomingBookings(user, pageSize);
+    }
+
+    /**
+     * Retrieves upcoming bookings for a given user, soonest first.
+     * 
+     * @param user The user whose upcoming bookings are to be retrieved.
+     * @param limit The maximum number of bookings to return.
+     * @return A list of upcoming bookings for the user.
+     * @throws IllegalArgumentException if the user type is invalid.
+     */
+    @Transactional(readOnly = true)
+    public List<BookingDTO> getUpcomingBookings(User user, int limit) {
+        LocalDate today = LocalDate.now();
+        LocalTime now = LocalTime.now();
+        if (user instanceof Vendor) {
+            return BookingDTOFactory.copyBookingRowsToDTO(
+                    bookingRepository.findUpcomingRowsByVendor(user.getId(), today, now, Limit.of(limit)));
+        } else if (user instanceof Customer) {
+            return BookingDTOFactory.copyBookingRowsToDTO(
+                    bookingRepository.findUpcomingRowsByCustomer(user.getId(), today, now, Limit.of(limit)));
         }
         throw new IllegalArgumentException("Invalid User");
     }
 
+    /**
+     * Retrieves a customer's most recent bookings with the given status.
+     * 
+     * @param customer The customer whose bookings are to be retrieved.
+     * @param status The status name, e.g. "COMPLETED".
+     * @return A list of the customer's latest bookings with the status, most recent first.
+     * @throws IllegalArgumentException if the customer is null.
+     */
+    @Transactional(readOnly = true)
+    public List<BookingDTO> getRecentBookingsByCustomerAndStatus(Customer customer, String status) {
+        if (customer == null) {
+            throw new IllegalArgumentException("Customer not given");
+        }
+        return BookingDTOFactory.copyBookingRowsToDTO(
+                bookingRepository.findRecentRowsByCustomerAndStatus(customer.getId(), status, Limit.of(pageSize)));
+    }
+
     /**
      * Checks if a booking belongs to a specific customer.
      * 
@@ -455,20 +609,41 @@ public class BookingService {
      * @param newTime The new booking time.
      * @return true if the booking was successfully modified, false otherwise.
      * @throws IllegalArgumentException if booking, date, or time is null, or if the new date/time is invalid.
+     * @throws SlotUnavailableException if the new time slot is full.
      */
+    @Transactional
     public boolean modifyBooking(Booking booking, LocalDate newDate, LocalTime newTime) {
         if (booking == null || newDate == null || newTime == null) {
             throw new IllegalArgumentException("Booking or date or time not given");
         }
         if (newDate.isAfter(LocalDate.now().plusDays(1)) &&
             newTime.isAfter(LocalTime.NOON.minusHours(4)) &&
-            newTime.isBefore(LocalTime.NOON.plusHours(8))) {
-            booking.setBookingDate(newDate);
-            booking.setBookingTime(newTime);
-            setBookingStatus(booking, "UNCLAIMED");
-            booking.setVendor(null);
-            saveBooking(booking);
-            return true;
+            newTime.isBefore(LocalTime.NOON.plusHours(8)) &&
+            BookingStatus.isAllowed(BookingStatus.fromName(booking.getStatusName()), BookingStatus.UNCLAIMED)) {
+            LocalDate oldDate = booking.getBookingDate();
+            LocalTime oldTime = booking.getBookingTime();
+            Long oldVendorId = booking.getVendor() == null ? null : booking.getVendor().getId();
+            boolean occupied = SlotCapacityIndex.occupies(booking.getStatusName());
+            if (!slotCapacityIndex.move(occupied ? oldDate : null, occupied ? oldTime : null, newDate, newTime)) {
+                throw new SlotUnavailableException(newDate, slotCapacityIndex.freeSlotsNear(newDate, newTime, ALTERNATIVE_SLOTS));
+            }
+            boolean modified = false;
+            try {
+                booking.setBookingDate(newDate);
+                booking.setBookingTime(newTime);
+                booking.setVendor(null);
+                modified = setBookingStatus(booking, "UNCLAIMED");
+            } finally {
+                if (!modified) {
+                    slotCapacityIndex.undoMove(occupied ? oldDate : null, occupied ? oldTime : null, newDate, newTime);
+                }
+            }
+            if (modified) {
+                afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK, () -> slotCapacityIndex
+                        .undoMove(occupied ? oldDate : null, occupied ? oldTime : null, newDate, newTime));
+                vendorCalendar.evict(oldVendorId, oldDate);
+            }
+            return modified;
         }
         return false;
     }
@@ -480,11 +655,19 @@ public class BookingService {
      * @return true if the booking was successfully canceled, false otherwise.
      * @throws IllegalArgumentException if the booking is null.
      */
+    @Transactional
     public boolean cancelBooking(Booking booking) {
         if (booking == null) {
             throw new IllegalArgumentException("Booking not given");
         }
-        return setBookingStatus(booking, "CANCELED");
+        boolean occupied = SlotCapacityIndex.occupies(booking.getStatusName());
+        boolean canceled = setBookingStatus(booking, "CANCELED");
+        if (canceled && occupied) {
+            LocalDate date = booking.getBookingDate();
+            LocalTime time = booking.getBookingTime();
+            afterCompletion(TransactionSynchronization.STATUS_COMMITTED, () -> slotCapacityIndex.release(date, time));
+        }
+        return canceled;
     }
 
     /**
@@ -493,7 +676,9 @@ public class BookingService {
      * @param bookingInfo The details of the new booking.
      * @param customer The customer for whom the booking is created.
      * @throws IllegalArgumentException if booking info or customer is null.
+     * @throws SlotUnavailableException if the requested time slot is full.
      */
+    @Transactional
     public void createBooking(@Valid NewBookingDTO bookingInfo, Customer customer) {
         if (bookingInfo == null || customer == null) {
             throw new IllegalArgumentException("Booking/customer not given");
@@ -503,10 +688,58 @@ public class BookingService {
         booking.setBookingDate(bookingInfo.getDate());
         booking.setBookingTime(bookingInfo.getTime());
         booking.addModifier(findModifier("UNCLAIMED").orElseThrow(() -> new IllegalArgumentException()));
-        booking.addModifier(getModifierById(bookingInfo.getTypeId()));
+        BookingModifier type = getModifierById(bookingInfo.getTypeId());
+        booking.addModifier(type);
         booking.setLocation(addressService.getAddressById(bookingInfo.getAddressId()));
-        booking.setPrice(0.0); // Placeholder
+        booking.setPrice(pricingEngine.quote(type, booking.getLocation(), booking.getBookingDate(), LocalDate.now()));
+        if (!slotCapacityIndex.tryReserve(booking.getBookingDate(), booking.getBookingTime())) {
+            throw new SlotUnavailableException(booking.getBookingDate(),
+                    slotCapacityIndex.freeSlotsNear(booking.getBookingDate(), booking.getBookingTime(), ALTERNATIVE_SLOTS));
+        }
+        LocalDate date = booking.getBookingDate();
+        LocalTime time = booking.getBookingTime();
+        afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK, () -> slotCapacityIndex.release(date, time));
         saveBooking(booking);
+        bookingMatcher.index(booking);
+        bookingOutbox.record(booking.getId(), null, BookingStatus.UNCLAIMED.name());
+    }
+
+    // Runs an action once the current transaction ends with the given outcome, e.g. to
+    // hand back a slot reservation when the booking holding it is rolled back.
+    private static void afterCompletion(int outcome, Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == outcome) {
+                    action.run();
+                }
+            }
+        });
+    }
+
+    // Cursors come back from the browser, so one that does not parse restarts the list.
+    private static BookingCursor decodeCursor(String cursor) {
+        try {
+            return BookingCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            logger.debug("Ignoring malformed cursor {}", cursor);
+            return null;
+        }
+    }
+
+    // Pages are fetched with one extra row; its presence means there is a next page.
+    private BookingPageDTO toPage(List<BookingRow> rows) {
+        if (rows.size() <= pageSize) {
+            return new BookingPageDTO(BookingDTOFactory.copyBookingRowsToDTO(rows), null);
+        }
+        List<BookingDTO> page = BookingDTOFactory.copyBookingRowsToDTO(rows.subList(0, pageSize));
+        BookingCursor next = BookingCursor.after(page.get(pageSize - 1));
+        return new BookingPageDTO(page, next == null ? null : next.encode());
+    }
+
+    // STATUS modifiers are mirrored in the indexed bookings.status column.
+    private boolean isStatus(BookingModifier modifier) {
+        return modifier != null && modifier.getModifierType() == ModifierType.STATUS;
     }
 
     /**
@@ -517,7 +750,7 @@ public class BookingService {
      * @throws IllegalArgumentException if no modifier is found with the given ID.
      */
     public BookingModifier getModifierById(Long id) {
-        return modifierRepository.findById(id)
+        return modifierRegistry.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("BookingModifier Id not found"));
     }
 }
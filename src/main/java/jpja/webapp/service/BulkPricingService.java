@@ -0,0 +1,144 @@
+package jpja.webapp.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jpja.webapp.model.entities.BookingStatus;
+
+/**
+ * Service that re-quotes upcoming bookings after the price list changes.
+ *
+ * <p>The rules are reloaded first, so edits made to the {@code pricing_rules}
+ * table take effect. UNCLAIMED and CLAIMED bookings from a given date onward are selected by
+ * keyset on id in chunks, together with the IDs their price depends on, and
+ * quoted by the {@link PricingEngine}. Bookings whose price changed are
+ * updated with one JDBC batch per chunk, in its own transaction. Lead time is
+ * measured from the day each booking was made, so a re-quote gives the price
+ * the customer would have been quoted under the current rules. Completed
+ * bookings are never repriced, which keeps the earnings ledger valid.</p>
+ *
+ * @author James Prial
+ */
+@Service
+public class BulkPricingService {
+
+    private static final String SELECT_CHUNK = "SELECT b.id, b.booking_date, b.created_at, b.price, a.sqft, "
+            + "(SELECT MIN(m.id) FROM booking_modifier_join j JOIN booking_modifiers m ON m.id = j.modifier_id "
+            + "WHERE j.booking_id = b.id AND m.type = 'TYPE'), "
+            + "(SELECT MIN(t.type_id) FROM address_type_join t WHERE t.address_id = b.location_id) "
+            + "FROM bookings b JOIN addresses a ON a.id = b.location_id "
+            + "WHERE b.status IN (?, ?) AND b.booking_date >= ? AND b.id > ? ORDER BY b.id LIMIT ?";
+    private static final String UPDATE_PRICE = "UPDATE bookings SET price = ?, version = version + 1 "
+            + "WHERE id = ? AND status IN (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PricingEngine pricingEngine;
+    private final int chunkSize;
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkPricingService.class);
+
+    /**
+     * Constructs a BulkPricingService with the necessary dependencies.
+     *
+     * @param jdbcTemplate JDBC access used for selection and batched updates.
+     * @param transactionManager Transaction manager; each chunk runs in its own transaction.
+     * @param pricingEngine Engine the bookings are quoted with.
+     * @param chunkSize Number of bookings per chunk.
+     */
+    public BulkPricingService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            PricingEngine pricingEngine, @Value("${jpja.bookings.bulk-chunk-size:500}") int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.pricingEngine = pricingEngine;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Reloads the pricing rules and re-quotes every UNCLAIMED and CLAIMED
+     * booking dated on or after the given date.
+     *
+     * @param from The first booking date to reprice.
+     * @return The number of bookings whose price changed.
+     * @throws IllegalArgumentException if the date is null.
+     * @throws IllegalStateException if there are no pricing rules.
+     */
+    public int requote(LocalDate from) {
+        if (from == null) {
+            throw new IllegalArgumentException("Date not given");
+        }
+        pricingEngine.refresh();
+        String unclaimed = BookingStatus.UNCLAIMED.name();
+        String claimed = BookingStatus.CLAIMED.name();
+        LocalDate today = LocalDate.now();
+        int repriced = 0;
+        long afterId = 0;
+        while (true) {
+            List<QuoteRow> chunk = jdbcTemplate.query(SELECT_CHUNK, (rs, i) -> new QuoteRow(rs.getLong(1),
+                    rs.getObject(2, LocalDate.class), rs.getObject(3, LocalDateTime.class),
+                    rs.getObject(4, Double.class), rs.getLong(5), rs.getLong(6), rs.getLong(7)),
+                    unclaimed, claimed, from, afterId, chunkSize);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            List<Object[]> updates = new ArrayList<>();
+            for (QuoteRow row : chunk) {
+                LocalDate bookedOn = row.createdAt == null ? today : row.createdAt.toLocalDate();
+                double price = pricingEngine.quote(row.typeId, row.addressTypeId, row.sqft, row.bookingDate, bookedOn);
+                if (row.price == null || row.price != price) {
+                    updates.add(new Object[] { price, row.id, unclaimed, claimed });
+                }
+            }
+            if (!updates.isEmpty()) {
+                Integer updated = transactionTemplate.execute(tx -> {
+                    int count = 0;
+                    for (int rows : jdbcTemplate.batchUpdate(UPDATE_PRICE, updates)) {
+                        count += rows > 0 ? 1 : 0;
+                    }
+                    return count;
+                });
+                repriced += updated == null ? 0 : updated;
+            }
+            afterId = chunk.get(chunk.size() - 1).id;
+            if (chunk.size() < chunkSize) {
+                break;
+            }
+        }
+        logger.info("Repriced {} bookings dated from {}", repriced, from);
+        return repriced;
+    }
+
+    private static final class QuoteRow {
+        private final long id;
+        private final LocalDate bookingDate;
+        private final LocalDateTime createdAt;
+        private final Double price;
+        private final long sqft;
+        private final long typeId;
+        private final long addressTypeId;
+
+        QuoteRow(long id, LocalDate bookingDate, LocalDateTime createdAt, Double price, long sqft, long typeId,
+                long addressTypeId) {
+            this.id = id;
+            this.bookingDate = bookingDate;
+            this.createdAt = createdAt;
+            this.price = price;
+            this.sqft = sqft;
+            this.typeId = typeId;
+            this.addressTypeId = addressTypeId;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package jpja.webapp.service;
+
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jpja.webapp.model.entities.BookingModifier;
+import jpja.webapp.model.entities.BookingStatus;
+
+/**
+ * Service that moves large numbers of bookings between statuses.
+ *
+ * <p>{@link #transition(BookingStatus, BookingStatus, LocalDate)} selects the
+ * bookings by keyset on id in chunks; callers with their own selection, such
+ * as {@link PastBookingSweeper}, hand chunks to
+ * {@link #applyChunk(List, BookingStatus, BookingStatus)} directly. Each chunk
+ * is applied in its own transaction with JDBC batch updates: one to the status
+ * and version columns, one to the STATUS row in {@code booking_modifier_join}.
+ * Every update repeats the expected current status in its WHERE clause, so a
+ * booking that changed concurrently is skipped rather than overwritten. The
+ * vendor earnings ledger is adjusted once per vendor per chunk.</p>
+ *
+ * @author James Prial
+ */
+@Service
+public class BulkStatusService {
+
+    private static final String SELECT_CHUNK = "SELECT id, vendor_id, price FROM bookings "
+            + "WHERE status = ? AND booking_date = ? AND id > ? ORDER BY id LIMIT ?";
+    private static final String UPDATE_STATUS = "UPDATE bookings SET status = ?, version = version + 1 "
+            + "WHERE id = ? AND status = ?";
+    private static final String UPDATE_MODIFIER = "UPDATE booking_modifier_join SET modifier_id = ? "
+            + "WHERE booking_id = ? AND modifier_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ModifierRegistry modifierRegistry;
+    private final EarningsLedger earningsLedger;
+    private final BookingOutbox bookingOutbox;
+    private final VendorCalendarService vendorCalendar;
+    private final int chunkSize;
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkStatusService.class);
+
+    /**
+     * Constructs a BulkStatusService with the necessary dependencies.
+     *
+     * @param jdbcTemplate JDBC access used for batched updates.
+     * @param transactionManager Transaction manager; each chunk runs in its own transaction.
+     * @param modifierRegistry In-memory registry of booking modifiers.
+     * @param earningsLedger Ledger of vendor earnings, updated per chunk.
+     * @param bookingOutbox Outbox the moved bookings are recorded in, per chunk.
+     * @param vendorCalendar Calendar cache whose weeks with moved bookings are evicted.
+     * @param chunkSize Number of bookings per chunk.
+     */
+    public BulkStatusService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            ModifierRegistry modifierRegistry, EarningsLedger earningsLedger, BookingOutbox bookingOutbox,
+            VendorCalendarService vendorCalendar, @Value("${jpja.bookings.bulk-chunk-size:500}") int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.modifierRegistry = modifierRegistry;
+        this.earningsLedger = earningsLedger;
+        this.bookingOutbox = bookingOutbox;
+        this.vendorCalendar = vendorCalendar;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Moves every booking on the given date from one status to another, e.g.
+     * all of yesterday's COMPLETED bookings to PENDING_PAYOUT. Bookings that
+     * change status while the transition runs are skipped.
+     *
+     * @param from The status the bookings must currently have.
+     * @param to The status to move them to.
+     * @param bookingDate The booking date to select.
+     * @return The number of bookings moved.
+     * @throws IllegalArgumentException if the transition is not allowed, a status modifier is missing or the date
+     *         is null.
+     */
+    public int transition(BookingStatus from, BookingStatus to, LocalDate bookingDate) {
+        checkTransition(from, to);
+        if (bookingDate == null) {
+            throw new IllegalArgumentException("Booking date not given");
+        }
+        int moved = 0;
+        long afterId = 0;
+        while (true) {
+            List<ChunkRow> chunk = jdbcTemplate.query(SELECT_CHUNK,
+                    (rs, i) -> new ChunkRow(rs.getLong(1), rs.getObject(2, Long.class), rs.getObject(3, Double.class),
+                            bookingDate),
+                    from.name(), bookingDate, afterId, chunkSize);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            moved += applyChunk(chunk, from, to);
+            afterId = chunk.get(chunk.size() - 1).id;
+            if (chunk.size() < chunkSize) {
+                break;
+            }
+        }
+        logger.info("Moved {} bookings dated {} from {} to {}", moved, bookingDate, from, to);
+        return moved;
+    }
+
+    /**
+     * Moves one chunk of bookings from one status to another in a single
+     * transaction. Bookings no longer in {@code from} are skipped.
+     *
+     * @param chunk The bookings to move, with their vendor and price.
+     * @param from The status the bookings must currently have.
+     * @param to The status to move them to.
+     * @return The number of bookings moved.
+     * @throws IllegalArgumentException if the transition is not allowed or a status modifier is missing.
+     */
+    public int applyChunk(List<ChunkRow> chunk, BookingStatus from, BookingStatus to) {
+        checkTransition(from, to);
+        long fromId = statusModifier(from).getId();
+        long toId = statusModifier(to).getId();
+        Integer moved = transactionTemplate.execute(tx -> {
+            List<Object[]> statusArgs = new ArrayList<>(chunk.size());
+            for (ChunkRow row : chunk) {
+                statusArgs.add(new Object[] { to.name(), row.id, from.name() });
+            }
+            boolean[] updated = moved(chunk, jdbcTemplate.batchUpdate(UPDATE_STATUS, statusArgs), to);
+            List<Object[]> modifierArgs = new ArrayList<>(chunk.size());
+            List<Long> movedIds = new ArrayList<>(chunk.size());
+            Map<Long, Long> centsByVendor = new HashMap<>();
+            for (int i = 0; i < updated.length; i++) {
+                if (!updated[i]) {
+                    continue;
+                }
+                ChunkRow row = chunk.get(i);
+                modifierArgs.add(new Object[] { toId, row.id, fromId });
+                movedIds.add(row.id);
+                if (row.vendorId != null) {
+                    centsByVendor.merge(row.vendorId, EarningsLedger.toCents(row.price), Long::sum);
+                    vendorCalendar.evict(row.vendorId, row.bookingDate);
+                }
+            }
+            jdbcTemplate.batchUpdate(UPDATE_MODIFIER, modifierArgs);
+            bookingOutbox.recordAll(movedIds, from.name(), to.name());
+            centsByVendor.forEach((vendorId, cents) ->
+                    earningsLedger.recordStatusChange(vendorId, cents, from.name(), to.name()));
+            return modifierArgs.size();
+        });
+        return moved == null ? 0 : moved;
+    }
+
+    // Which rows of the chunk were moved. A driver that batches the statements
+    // may report SUCCESS_NO_INFO instead of a count; the status of those rows
+    // is re-read, which sees this transaction's own updates.
+    private boolean[] moved(List<ChunkRow> chunk, int[] counts, BookingStatus to) {
+        boolean[] moved = new boolean[counts.length];
+        List<Long> unknownIds = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            moved[i] = counts[i] > 0;
+            if (counts[i] == Statement.SUCCESS_NO_INFO) {
+                unknownIds.add(chunk.get(i).id);
+            }
+        }
+        if (!unknownIds.isEmpty()) {
+            String placeholders = String.join(", ", Collections.nCopies(unknownIds.size(), "?"));
+            List<Object> args = new ArrayList<>(unknownIds.size() + 1);
+            args.add(to.name());
+            args.addAll(unknownIds);
+            Set<Long> movedIds = new HashSet<>(jdbcTemplate.queryForList(
+                    "SELECT id FROM bookings WHERE status = ? AND id IN (" + placeholders + ")", Long.class,
+                    args.toArray()));
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == Statement.SUCCESS_NO_INFO) {
+                    moved[i] = movedIds.contains(chunk.get(i).id);
+                }
+            }
+        }
+        return moved;
+    }
+
+    private void checkTransition(BookingStatus from, BookingStatus to) {
+        if (from == null || to == null || !from.canMoveTo(to)) {
+            throw new IllegalArgumentException("Illegal status transition " + from + " -> " + to);
+        }
+    }
+
+    private BookingModifier statusModifier(BookingStatus status) {
+        return modifierRegistry.findByTypeAndName("STATUS", status.name())
+                .orElseThrow(() -> new IllegalArgumentException(status + " is not a valid STATUS."));
+    }
+
+    /**
+     * A booking selected for a bulk transition.
+     */
+    public static final class ChunkRow {
+        private final long id;
+        private final Long vendorId;
+        private final Double price;
+        private final LocalDate bookingDate;
+
+        public ChunkRow(long id, Long vendorId, Double price, LocalDate bookingDate) {
+            this.id = id;
+            this.vendorId = vendorId;
+            this.price = price;
+            this.bookingDate = bookingDate;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public LocalDate getBookingDate() {
+            return bookingDate;
+        }
+    }
+}
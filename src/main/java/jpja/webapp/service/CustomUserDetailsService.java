@@ -7,6 +7,7 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import jpja.webapp.exceptions.EmailNotVerifiedException;
 import jpja.webapp.exceptions.EmailTakenException;
@@ -190,6 +191,7 @@ public class CustomUserDetailsService implements UserDetailsService {
      * 
      * @return The total count of users.
      */
+    @Transactional(readOnly = true)
     public long userCount() {
         return userRepository.count();
     }
@@ -219,6 +221,7 @@ public class CustomUserDetailsService implements UserDetailsService {
      * 
      * @return A list of all {@link User} entities.
      */
+    @Transactional(readOnly = true)
     public List<User> getAllUsers() {
         return userRepository.findAll();
     }
@@ -252,6 +255,7 @@ public class CustomUserDetailsService implements UserDetailsService {
      * 
      * @return A list of all {@link Role} entities.
      */
+    @Transactional(readOnly = true)
     public List<Role> getAllRoles() {
         return roleRepository.findAll();
     }
@@ -0,0 +1,247 @@
+package jpja.webapp.service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextCallable;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Service that loads the independent sections of a dashboard page
+ * concurrently, each on its own virtual thread.
+ *
+ * <p>Each section runs its own transaction and so borrows its own pooled
+ * connection. No more than {@code jpja.dashboard.parallelism} sections run in
+ * the background at once across all requests, so a burst of page loads
+ * cannot drain the pool. A section keeps its slot until its task returns,
+ * even after it is cancelled, because an interrupt does not stop a running
+ * query or give back its connection. A section that finds no free slot runs on the request
+ * thread instead. All sections of a page share one deadline,
+ * {@code jpja.dashboard.deadline-ms} from {@link #start}. A section that fails
+ * or is not done by then is cancelled and reported as unavailable, and the
+ * page renders without it.</p>
+ *
+ * <p>Page load times are published as the {@code dashboard.load} timer with
+ * its p50 and p99, and unavailable sections as
+ * {@code dashboard.sections.unavailable}, both tagged with the page. Setting
+ * {@code jpja.dashboard.parallel} to false loads sections one after another on
+ * the request thread, for comparison.</p>
+ *
+ * @author James Prial
+ */
+@Service
+public class DashboardLoader {
+
+    private final ExecutorService workers;
+    private final MeterRegistry meterRegistry;
+    private final boolean parallel;
+    private final Semaphore slots;
+    private final long deadlineNanos;
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardLoader.class);
+
+    /**
+     * Constructs a DashboardLoader.
+     *
+     * @param meterRegistry Registry the load times are published to.
+     * @param parallel Whether sections are loaded concurrently.
+     * @param parallelism Maximum number of sections loading in the background at once.
+     * @param deadlineMillis Time a page's sections have to load.
+     */
+    @Autowired
+    public DashboardLoader(MeterRegistry meterRegistry,
+            @Value("${jpja.dashboard.parallel:true}") boolean parallel,
+            @Value("${jpja.dashboard.parallelism:16}") int parallelism,
+            @Value("${jpja.dashboard.deadline-ms:3000}") long deadlineMillis) {
+        this(meterRegistry, parallel, parallelism, deadlineMillis, Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    /**
+     * Constructs a DashboardLoader running background sections on the given executor.
+     *
+     * @param meterRegistry Registry the load times are published to.
+     * @param parallel Whether sections are loaded concurrently.
+     * @param parallelism Maximum number of sections loading in the background at once.
+     * @param deadlineMillis Time a page's sections have to load.
+     * @param workers Executor the background sections run on; shut down with the loader.
+     */
+    public DashboardLoader(MeterRegistry meterRegistry, boolean parallel, int parallelism, long deadlineMillis,
+            ExecutorService workers) {
+        if (parallelism < 1 || deadlineMillis < 1 || workers == null) {
+            throw new IllegalArgumentException("Invalid dashboard loader settings");
+        }
+        this.workers = workers;
+        this.meterRegistry = meterRegistry;
+        this.parallel = parallel;
+        this.slots = new Semaphore(parallelism);
+        this.deadlineNanos = TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+    }
+
+    /**
+     * Starts loading a page. The deadline of its sections starts now.
+     *
+     * @param page The name of the page, used to tag its meters.
+     * @return The load, to fork the sections on and then join.
+     * @throws IllegalArgumentException if the page is null.
+     */
+    public Load start(String page) {
+        if (page == null) {
+            throw new IllegalArgumentException("Page not given");
+        }
+        return new Load(page, System.nanoTime());
+    }
+
+    /**
+     * Gets the number of sections that could start loading in the background now.
+     *
+     * @return The number of free background slots.
+     */
+    public int getAvailableSlots() {
+        return slots.availablePermits();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * The sections of one page being loaded. Used by the request thread only.
+     */
+    public final class Load {
+        private final String page;
+        private final long started;
+        private final Map<String, Future<?>> sections = new LinkedHashMap<>();
+        private final Set<String> unavailable = new LinkedHashSet<>();
+
+        Load(String page, long started) {
+            this.page = page;
+            this.started = started;
+        }
+
+        /**
+         * Starts loading a section. The task runs with the security context
+         * of the calling request.
+         *
+         * @param name The model attribute the section's value is stored under.
+         * @param task The task computing the value.
+         * @return This load.
+         * @throws IllegalArgumentException if the name or task is null, or the name was already forked.
+         */
+        public Load fork(String name, Callable<?> task) {
+            if (name == null || task == null || sections.containsKey(name)) {
+                throw new IllegalArgumentException("Section not given or already forked");
+            }
+            if (parallel && slots.tryAcquire()) {
+                Callable<?> secured = DelegatingSecurityContextCallable.create(task, SecurityContextHolder.getContext());
+                // Whichever claims the slot first frees it: the task once it returns, or a cancel before it starts.
+                AtomicBoolean claimed = new AtomicBoolean();
+                FutureTask<Object> section = new FutureTask<>(() -> {
+                    if (!claimed.compareAndSet(false, true)) {
+                        return null;
+                    }
+                    try {
+                        return secured.call();
+                    } finally {
+                        slots.release();
+                    }
+                }) {
+                    @Override
+                    protected void done() {
+                        if (claimed.compareAndSet(false, true)) {
+                            slots.release();
+                        }
+                    }
+                };
+                try {
+                    workers.execute(section);
+                } catch (RuntimeException e) {
+                    section.cancel(false);
+                    throw e;
+                }
+                sections.put(name, section);
+            } else {
+                FutureTask<?> inline = new FutureTask<>(task);
+                sections.put(name, inline);
+                if (System.nanoTime() - started < deadlineNanos) {
+                    inline.run();
+                } else {
+                    inline.cancel(false);
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Waits for every section until the deadline and cancels those still
+         * running.
+         *
+         * @return The value of every section that loaded, by name; a null value is left out.
+         */
+        public Map<String, Object> join() {
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (Map.Entry<String, Future<?>> section : sections.entrySet()) {
+                Future<?> future = section.getValue();
+                try {
+                    long remaining = Math.max(0, deadlineNanos - (System.nanoTime() - started));
+                    Object value = future.get(remaining, TimeUnit.NANOSECONDS);
+                    if (value != null) {
+                        values.put(section.getKey(), value);
+                    }
+                } catch (TimeoutException | CancellationException e) {
+                    future.cancel(true);
+                    markUnavailable(section.getKey(), "timed out");
+                } catch (ExecutionException e) {
+                    logger.warn("Dashboard {} section {} failed", page, section.getKey(), e.getCause());
+                    markUnavailable(section.getKey(), "failed");
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    future.cancel(true);
+                    markUnavailable(section.getKey(), "interrupted");
+                }
+            }
+            Timer.builder("dashboard.load").tag("page", page).publishPercentiles(0.5, 0.99)
+                    .register(meterRegistry).record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            return values;
+        }
+
+        private void markUnavailable(String section, String reason) {
+            unavailable.add(section);
+            Counter.builder("dashboard.sections.unavailable").tag("page", page).register(meterRegistry).increment();
+            logger.debug("Dashboard {} rendered without section {}: {}", page, section, reason);
+        }
+
+        /**
+         * Gets the sections that failed or missed the deadline.
+         *
+         * @return The names of the sections, empty if every section loaded.
+         */
+        public Set<String> getUnavailable() {
+            return Collections.unmodifiableSet(unavailable);
+        }
+    }
+}
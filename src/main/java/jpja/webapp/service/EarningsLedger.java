@@ -0,0 +1,166 @@
+package jpja.webapp.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jpja.webapp.model.entities.Booking;
+import jpja.webapp.model.entities.Vendor;
+import jpja.webapp.model.entities.VendorEarnings;
+import jpja.webapp.repositories.VendorEarningsRepository;
+import jpja.webapp.repositories.VendorEarningsRepository.EarningsTotals;
+
+/**
+ * Service maintaining the per-vendor earnings ledger.
+ *
+ * <p>Each vendor has one {@link VendorEarnings} row holding the totals of their
+ * COMPLETED and PENDING_PAYOUT bookings in cents. The row is adjusted by the
+ * price of a booking whenever it enters or leaves one of those statuses, so the
+ * dashboard reads both totals with a single primary key lookup instead of
+ * loading and summing every booking.</p>
+ *
+ * <p>{@link #reconcile()} recomputes the totals from the bookings table and
+ * corrects any row that has drifted. Each vendor is checked while holding the
+ * lock on their row, so no status change can commit between reading the
+ * totals and correcting them.</p>
+ *
+ * @author James Prial
+ */
+@Service
+public class EarningsLedger {
+
+    public static final String COMPLETED = "COMPLETED";
+    public static final String PENDING_PAYOUT = "PENDING_PAYOUT";
+
+    private final VendorEarningsRepository vendorEarningsRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private static final Logger logger = LoggerFactory.getLogger(EarningsLedger.class);
+
+    /**
+     * Constructs an EarningsLedger backed by the given repository.
+     *
+     * @param vendorEarningsRepository Repository for managing vendor earnings rows.
+     * @param transactionManager Transaction manager running each vendor's reconciliation.
+     */
+    public EarningsLedger(VendorEarningsRepository vendorEarningsRepository,
+            PlatformTransactionManager transactionManager) {
+        this.vendorEarningsRepository = vendorEarningsRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+    }
+
+    /**
+     * Converts a booking price to whole cents, rounding half up. The same
+     * expression is evaluated in SQL by {@link VendorEarningsRepository#sumBookingCents(long)},
+     * so the ledger and the reconciliation agree on every price.
+     *
+     * @param price The price in dollars, possibly null.
+     * @return The price in cents, or 0 if the price is null.
+     */
+    public static long toCents(Double price) {
+        return price == null ? 0 : (long) Math.floor(price * 100 + 0.5);
+    }
+
+    /**
+     * Updates the ledger for a booking whose status changed. Joins the caller's
+     * transaction, so the ledger and the booking are committed together.
+     *
+     * @param booking The booking, with its vendor and price as of the change.
+     * @param fromStatus The name of the previous status, or null if there was none.
+     * @param toStatus The name of the new status.
+     */
+    @Transactional
+    public void recordStatusChange(Booking booking, String fromStatus, String toStatus) {
+        if (booking == null || booking.getVendor() == null) {
+            return;
+        }
+        recordStatusChange(booking.getVendor().getId(), toCents(booking.getPrice()), fromStatus, toStatus);
+    }
+
+    /**
+     * Updates the ledger for bookings of one vendor that made the same status
+     * change, e.g. a chunk of a bulk transition.
+     *
+     * @param vendorId The user id of the vendor.
+     * @param cents The combined price of the bookings, in cents.
+     * @param fromStatus The name of the previous status, or null if there was none.
+     * @param toStatus The name of the new status.
+     */
+    @Transactional
+    public void recordStatusChange(long vendorId, long cents, String fromStatus, String toStatus) {
+        long completed = delta(COMPLETED, fromStatus, toStatus, cents);
+        long pending = delta(PENDING_PAYOUT, fromStatus, toStatus, cents);
+        if (completed != 0 || pending != 0) {
+            vendorEarningsRepository.addCents(vendorId, completed, pending);
+        }
+    }
+
+    /**
+     * Retrieves a vendor's earnings totals.
+     *
+     * @param vendor The vendor whose totals are to be retrieved.
+     * @return The vendor's totals, zero if the vendor has no ledger row yet.
+     * @throws IllegalArgumentException if the vendor is null.
+     */
+    public VendorEarnings getEarnings(Vendor vendor) {
+        if (vendor == null) {
+            throw new IllegalArgumentException("Vendor not given");
+        }
+        return vendorEarningsRepository.findById(vendor.getId())
+                .orElseGet(() -> new VendorEarnings(vendor.getId(), 0, 0));
+    }
+
+    /**
+     * Verifies every ledger row against a SUM over the bookings table and
+     * corrects the rows that disagree. Each vendor is checked in a transaction
+     * of its own that first locks the vendor's row, creating it if needed.
+     * A status change updates the row in the same transaction as the booking,
+     * so it either committed before the lock was taken and is counted in both
+     * totals, or waits for the correction to commit and then adds its delta.
+     *
+     * @return The number of vendors whose totals were corrected.
+     */
+    public int reconcile() {
+        int corrected = 0;
+        for (Long vendorId : vendorEarningsRepository.findReconcilableVendorIds()) {
+            if (Boolean.TRUE.equals(transactionTemplate.execute(status -> reconcile(vendorId)))) {
+                corrected++;
+            }
+        }
+        return corrected;
+    }
+
+    // Locks the vendor's row with an empty upsert, then corrects it by the difference.
+    private boolean reconcile(long vendorId) {
+        vendorEarningsRepository.addCents(vendorId, 0, 0);
+        EarningsTotals row = vendorEarningsRepository.findTotals(vendorId);
+        EarningsTotals actual = vendorEarningsRepository.sumBookingCents(vendorId);
+        long completed = actual.getCompletedCents();
+        long pending = actual.getPendingCents();
+        if (row.getCompletedCents() == completed && row.getPendingCents() == pending) {
+            return false;
+        }
+        logger.warn("Earnings ledger drift for vendor " + vendorId + ": completed " + row.getCompletedCents()
+                + " -> " + completed + ", pending " + row.getPendingCents() + " -> " + pending);
+        vendorEarningsRepository.addCents(vendorId, completed - row.getCompletedCents(),
+                pending - row.getPendingCents());
+        return true;
+    }
+
+    // The change to one total: +cents when entering the status, -cents when leaving it.
+    private static long delta(String status, String fromStatus, String toStatus, long cents) {
+        long delta = 0;
+        if (status.equals(toStatus)) {
+            delta += cents;
+        }
+        if (status.equals(fromStatus)) {
+            delta -= cents;
+        }
+        return delta;
+    }
+}
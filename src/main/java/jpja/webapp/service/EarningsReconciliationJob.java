@@ -0,0 +1,59 @@
+package jpja.webapp.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically checks the vendor earnings ledger against the bookings table.
+ *
+ * <p>Runs once at startup, which also seeds the ledger for bookings that were
+ * completed before it existed, and then on the configured cron schedule
+ * ({@code jpja.earnings.reconcile-cron}, nightly by default). It is ordered
+ * after the status column backfill, which the SUM relies on.</p>
+ *
+ * @author James Prial
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class EarningsReconciliationJob implements ApplicationRunner {
+
+    private final EarningsLedger earningsLedger;
+
+    private static final Logger logger = LoggerFactory.getLogger(EarningsReconciliationJob.class);
+
+    /**
+     * Constructs the job.
+     *
+     * @param earningsLedger the ledger to reconcile
+     */
+    public EarningsReconciliationJob(EarningsLedger earningsLedger) {
+        this.earningsLedger = earningsLedger;
+    }
+
+    /**
+     * Reconciles the ledger at startup.
+     *
+     * @param args the application arguments (unused)
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        reconcile();
+    }
+
+    /**
+     * Reconciles the ledger and logs how many vendors were corrected.
+     */
+    @Scheduled(cron = "${jpja.earnings.reconcile-cron:0 30 3 * * *}")
+    public void reconcile() {
+        int corrected = earningsLedger.reconcile();
+        if (corrected > 0) {
+            logger.info("Reconciled earnings ledger for {} vendors", corrected);
+        }
+    }
+}
@@ -10,6 +10,7 @@ import org.springframework.stereotype.Service;
 
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
+import jpja.webapp.model.entities.Booking;
 import jpja.webapp.model.entities.User;
 import jpja.webapp.model.entities.VerificationToken;
 
@@ -64,4 +65,33 @@ public class EmailService {
             LOGGER.log(Level.SEVERE, "MessagingException occurred while sending email to: " + user.getEmail(), e);
         }
     }
+
+    /**
+     * Sends an email telling a customer their booking has changed status.
+     * 
+     * @param user    The customer who made the booking.
+     * @param booking The booking that changed.
+     * @param status  The booking's new status (e.g., "CLAIMED").
+     */
+    public void sendBookingStatusEmail(User user, Booking booking, String status) {
+        String subject = "Your booking is " + status.toLowerCase().replace('_', ' ');
+        String message = "Your cleaning on " + booking.getBookingDate() + " at " + booking.getBookingTime()
+                + " is now " + status.toLowerCase().replace('_', ' ') + ".";
+
+        try {
+            MimeMessage mimeMessage = mailSender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true);
+            helper.setTo(user.getEmail());
+            helper.setFrom("info@EZCleanNJ.com");
+            helper.setSubject(subject);
+            helper.setText(message, true);
+            mailSender.send(mimeMessage);
+        } catch (MailException e) {
+            // Handle exceptions related to Spring's mail-sending process
+            LOGGER.log(Level.SEVERE, "Spring MailException occurred while sending email to: " + user.getEmail(), e);
+        } catch (MessagingException e) {
+            // Handle exceptions related to constructing or sending the email message
+            LOGGER.log(Level.SEVERE, "MessagingException occurred while sending email to: " + user.getEmail(), e);
+        }
+    }
 }
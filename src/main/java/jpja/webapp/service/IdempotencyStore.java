@@ -0,0 +1,346 @@
+package jpja.webapp.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jpja.webapp.model.entities.IdempotencyRecord;
+import jpja.webapp.repositories.IdempotencyRecordRepository;
+
+/**
+ * Service that remembers the responses of requests sent with an idempotency
+ * key, so a repeated request is answered with the original response instead
+ * of being executed again.
+ *
+ * <p>Keys are held in memory, up to {@code jpja.idempotency.max-keys} of them,
+ * dropping the least recently used ones beyond that, for
+ * {@code jpja.idempotency.window-seconds} after the first request. Concurrent
+ * requests with the same key are collapsed: the first one to arrive executes,
+ * and the others wait for its response. If it fails, one of the waiting
+ * requests executes instead.</p>
+ *
+ * <p>When {@code jpja.idempotency.shared} is set, a key that is not in memory
+ * is also claimed in the {@code idempotency_keys} table, so a duplicate that
+ * reaches another node, or arrives after the key was dropped from memory, is
+ * found there. A key held by another node is polled until its response is
+ * stored or the wait times out.</p>
+ *
+ * @author James Prial
+ */
+@Service
+public class IdempotencyStore {
+
+    private final IdempotencyRecordRepository recordRepository;
+    private final boolean shared;
+    private final Duration window;
+    private final long waitNanos;
+    private final long pollMillis;
+    private final Map<String, Entry> entries;
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    /**
+     * Constructs an IdempotencyStore.
+     *
+     * @param recordRepository Repository of the keys shared by every node.
+     * @param shared Whether keys are also claimed in the database.
+     * @param maxKeys Maximum number of keys held in memory.
+     * @param windowSeconds How long a key is remembered after its first request.
+     * @param waitMillis How long a duplicate waits for the original request to finish.
+     * @param pollMillis How often a key held by another node is polled.
+     */
+    public IdempotencyStore(IdempotencyRecordRepository recordRepository,
+            @Value("${jpja.idempotency.shared:true}") boolean shared,
+            @Value("${jpja.idempotency.max-keys:10000}") int maxKeys,
+            @Value("${jpja.idempotency.window-seconds:600}") long windowSeconds,
+            @Value("${jpja.idempotency.wait-ms:10000}") long waitMillis,
+            @Value("${jpja.idempotency.poll-ms:100}") long pollMillis) {
+        if (maxKeys < 1 || windowSeconds < 1 || waitMillis < 0 || pollMillis < 1) {
+            throw new IllegalArgumentException("Invalid idempotency store settings");
+        }
+        this.recordRepository = recordRepository;
+        this.shared = shared;
+        this.window = Duration.ofSeconds(windowSeconds);
+        this.waitNanos = TimeUnit.MILLISECONDS.toNanos(waitMillis);
+        this.pollMillis = pollMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxKeys;
+            }
+        };
+    }
+
+    /**
+     * Acquires a key before executing a request. If the key was already used
+     * within the window, waits for that request to finish and returns its
+     * response; otherwise the caller holds the key and must execute the
+     * request, then call {@link Lease#complete} or {@link Lease#release}.
+     *
+     * @param key The key, already scoped to the client and request.
+     * @return The lease on the key, or the response to replay.
+     * @throws IllegalArgumentException if the key is null.
+     * @throws IllegalStateException if the original request is still in progress after the wait.
+     */
+    public Lease acquire(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Key not given");
+        }
+        long deadline = System.nanoTime() + waitNanos;
+        while (true) {
+            Entry entry;
+            boolean leader = false;
+            synchronized (entries) {
+                entry = entries.get(key);
+                if (entry == null || entry.isExpired(System.nanoTime())) {
+                    entry = new Entry(System.nanoTime() + window.toNanos());
+                    entries.put(key, entry);
+                    leader = true;
+                }
+            }
+            if (leader) {
+                return lead(key, entry, deadline);
+            }
+            StoredResponse response = await(entry, deadline);
+            if (response != null) {
+                return new Lease(key, entry, response);
+            }
+            // The request holding the key failed, so this one may execute it.
+        }
+    }
+
+    // Claims a key that was not in memory in the database, or waits for the node holding it.
+    private Lease lead(String key, Entry entry, long deadline) {
+        if (!shared) {
+            return new Lease(key, entry, null);
+        }
+        try {
+            StoredResponse response = claimShared(key, deadline);
+            if (response == null) {
+                return new Lease(key, entry, null);
+            }
+            entry.result.complete(response);
+            return new Lease(key, entry, response);
+        } catch (RuntimeException e) {
+            forget(key, entry);
+            throw e;
+        }
+    }
+
+    private StoredResponse claimShared(String key, long deadline) {
+        while (true) {
+            LocalDateTime now = LocalDateTime.now();
+            try {
+                recordRepository.claim(key, now, now.plus(window));
+                return null;
+            } catch (DataIntegrityViolationException e) {
+                // Taken, by another node or by a request this node has forgotten.
+            }
+            Optional<IdempotencyRecord> record = recordRepository.findCurrent(key);
+            if (record.isPresent()) {
+                if (record.get().getExpiresAt().isBefore(now)) {
+                    recordRepository.releaseIfExpired(key, now);
+                    continue;
+                }
+                if (record.get().isCompleted()) {
+                    return new StoredResponse(record.get().getStatus(), record.get().getLocation(),
+                            record.get().getContentType(), record.get().getBody());
+                }
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                throw new IllegalStateException("Request is still being processed");
+            }
+            if (record.isPresent()) {
+                sleep(Math.min(pollMillis, TimeUnit.NANOSECONDS.toMillis(remaining) + 1));
+            }
+        }
+    }
+
+    // Waits for the request holding a key; null if it failed without a response.
+    private static StoredResponse await(Entry entry, long deadline) {
+        try {
+            return entry.result.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Request is still being processed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for request", e);
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for request", e);
+        }
+    }
+
+    // Drops a key from memory, if it is still the given entry, and wakes its waiters.
+    private void forget(String key, Entry entry) {
+        synchronized (entries) {
+            entries.remove(key, entry);
+        }
+        entry.result.complete(null);
+    }
+
+    /**
+     * Deletes the keys whose window has passed from the database.
+     */
+    @Scheduled(fixedDelayString = "${jpja.idempotency.purge-ms:60000}")
+    public void purgeExpired() {
+        if (!shared) {
+            return;
+        }
+        int purged = recordRepository.purgeExpired(LocalDateTime.now());
+        if (purged > 0) {
+            logger.debug("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    /**
+     * Gets the number of keys held in memory.
+     *
+     * @return The number of keys.
+     */
+    public int getKeyCount() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * The outcome of {@link IdempotencyStore#acquire}: either a response to
+     * replay, or the right to execute the request.
+     */
+    public final class Lease {
+        private final String key;
+        private final Entry entry;
+        private final StoredResponse replay;
+
+        Lease(String key, Entry entry, StoredResponse replay) {
+            this.key = key;
+            this.entry = entry;
+            this.replay = replay;
+        }
+
+        /**
+         * Gets the response of the original request.
+         *
+         * @return The response to replay, or null if the caller must execute the request.
+         */
+        public StoredResponse getReplay() {
+            return replay;
+        }
+
+        /**
+         * Stores the response of the executed request and hands it to every
+         * request waiting on the key.
+         *
+         * @param response The response.
+         */
+        public void complete(StoredResponse response) {
+            if (replay != null || response == null) {
+                throw new IllegalStateException("Lease does not hold the key");
+            }
+            try {
+                if (shared) {
+                    recordRepository.complete(key, response.getStatus(), response.getLocation(),
+                            response.getContentType(), response.getBody());
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Could not store response for idempotency key: {}", e.getMessage());
+            }
+            entry.result.complete(response);
+        }
+
+        /**
+         * Gives up the key without a response, e.g. because the request
+         * failed, so the next request with the key executes again.
+         */
+        public void release() {
+            if (replay != null) {
+                return;
+            }
+            try {
+                if (shared) {
+                    recordRepository.release(key);
+                }
+            } finally {
+                forget(key, entry);
+            }
+        }
+    }
+
+    /**
+     * A response that can be replayed. Immutable, so it can be shared by every request.
+     */
+    public static final class StoredResponse {
+        private final int status;
+        private final String location;
+        private final String contentType;
+        private final byte[] body;
+
+        /**
+         * Constructs a StoredResponse.
+         *
+         * @param status The HTTP status.
+         * @param location The Location header, or null.
+         * @param contentType The Content-Type header, or null.
+         * @param body The body, or null if empty.
+         */
+        public StoredResponse(int status, String location, String contentType, byte[] body) {
+            this.status = status;
+            this.location = location;
+            this.contentType = contentType;
+            this.body = body == null ? new byte[0] : body.clone();
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public String getLocation() {
+            return location;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public byte[] getBody() {
+            return body.clone();
+        }
+    }
+
+    private static final class Entry {
+        private final CompletableFuture<StoredResponse> result = new CompletableFuture<>();
+        private final long expiresAt;
+
+        Entry(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+
+        // Only a finished request expires; one still in progress keeps its key.
+        boolean isExpired(long now) {
+            return result.isDone() && now - expiresAt > 0;
+        }
+    }
+}
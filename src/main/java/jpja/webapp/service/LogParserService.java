@@ -50,7 +50,8 @@ public class LogParserService {
         "\\[(\\w+)\\] IP: ([\\d\\.]+) - "+
         "Method: (\\w+) - "+
         "URI: (\\S+) - "+
-        "Query: (.*)$"
+        "Query: (.*?)"+
+        "(?: - Weight: (\\d+))?$"
     );
 
     private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
@@ -132,7 +133,9 @@ public class LogParserService {
             RequestMethod method = requestHelper(matcher.group(4));
             String uri = matcher.group(5);
             String query = matcher.group(6);
-            return new ActivityLog(id, date, time, level, source, method, uri, query);
+            // lines written before sampling was introduced have no weight
+            int weight = matcher.group(7) == null ? 1 : Integer.parseInt(matcher.group(7));
+            return new ActivityLog(id, date, time, level, source, method, uri, query, weight);
         }else{
             String thread = matcher.group(3);
             String logger = matcher.group(4);
@@ -6,9 +6,11 @@ import java.util.Optional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.ObjectError;
 
+import jpja.webapp.logging.ActivitySampler;
 import jpja.webapp.model.entities.LoginRecord;
 import jpja.webapp.model.entities.User;
 import jpja.webapp.repositories.LoginRepository;
@@ -24,17 +26,26 @@ import jpja.webapp.repositories.LoginRepository;
 public class LoggingService {
 
     private final LoginRepository loginRepository;
+    private final ActivitySampler activitySampler;
     private static final Logger logger = LoggerFactory.getLogger(LoggingService.class);
     private static final Logger activityLogger = LoggerFactory.getLogger("jpja.logging.activity");
+    private static final String ACTIVITY_FORMAT = "IP: {} - Method: {} - URI: {} - Query: {} - Weight: {}";
 
     /**
      * Constructs a new instance of LoggingService with the provided
      * {@link LoginRepository}.
      * 
-     * @param loginRepository the repository for managing login records
+     * @param loginRepository  the repository for managing login records
+     * @param samplingEnabled  whether sampleable activity lines are sampled under load
+     * @param samplingTarget   the number of sampled activity lines per second to aim for
+     * @param samplingWindowMs how often, in milliseconds, the sampling rate is recalculated
      */
-    public LoggingService(LoginRepository loginRepository) {
+    public LoggingService(LoginRepository loginRepository,
+            @Value("${jpja.logging.activity.sampling.enabled:true}") boolean samplingEnabled,
+            @Value("${jpja.logging.activity.sampling.target-per-second:50}") double samplingTarget,
+            @Value("${jpja.logging.activity.sampling.window-ms:1000}") long samplingWindowMs) {
         this.loginRepository = loginRepository;
+        this.activitySampler = new ActivitySampler(samplingEnabled, samplingTarget, samplingWindowMs);
     }
 
     /**
@@ -115,11 +126,59 @@ public class LoggingService {
         logBindingResults(source, errors, false);
     }
 
+    /**
+     * Logs a request to the activity log unconditionally, with a weight of 1,
+     * as {@link #logActivity(String, String, String, String, boolean)} does
+     * for a request that is never sampled.
+     * 
+     * @param ip     the IP address of the client
+     * @param method the HTTP method
+     * @param uri    the request URI
+     * @param query  the query string, or "NA"
+     */
     public void logActivity(String ip, String method, String uri, String query) {
-        activityLogger.info("IP: {} - Method: {} - URI: {} - Query: {}", ip, method, uri, query);
+        logActivity(ip, method, uri, query, true);
+    }
+
+    /**
+     * Logs a request to the activity log, sampling it when traffic is high.
+     * Non-GET requests and requests that ended in an error are always logged.
+     * Other requests are sampled, and a logged line carries the number of
+     * requests it stands for as its weight.
+     * 
+     * @param ip     the IP address of the client
+     * @param method the HTTP method
+     * @param uri    the request URI
+     * @param query  the query string, or "NA"
+     * @param error  {@code true} if the request failed or returned an error status
+     */
+    public void logActivity(String ip, String method, String uri, String query, boolean error) {
+        int weight = activitySampler.weigh(error || !"GET".equals(method));
+        if (weight > 0) {
+            activityLogger.info(ACTIVITY_FORMAT, ip, method, uri, query, weight);
+        }
     }
 
+    /**
+     * Logs a request to the activity log as a warning. Warnings are never
+     * sampled.
+     * 
+     * @param ip     the IP address of the client
+     * @param method the HTTP method
+     * @param uri    the request URI
+     * @param query  the query string, or "NA"
+     */
     public void logActivityAsWarn(String ip, String method, String uri, String query) {
-        activityLogger.warn("IP: {} - Method: {} - URI: {} - Query: {}", ip, method, uri, query);
+        int weight = activitySampler.weigh(true);
+        activityLogger.warn(ACTIVITY_FORMAT, ip, method, uri, query, weight);
+    }
+
+    /**
+     * Gets the sampling interval currently applied to sampleable activity lines.
+     * 
+     * @return k, where 1 in k sampleable requests is logged
+     */
+    public int getActivitySampleEvery() {
+        return activitySampler.getSampleEvery();
     }
 }
@@ -0,0 +1,206 @@
+package jpja.webapp.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jpja.webapp.model.entities.BookingModifier;
+import jpja.webapp.repositories.ModifierRepository;
+
+/**
+ * In-memory registry of every {@link BookingModifier}.
+ *
+ * <p>The {@code booking_modifiers} table is small and rarely changes, so it is
+ * loaded once at startup into an immutable snapshot indexed by id, by name and
+ * by type and name. Lookups read the current snapshot without touching the
+ * database. Changes made through {@link #save(BookingModifier)} or
+ * {@link #delete(BookingModifier)} build a new snapshot and swap it in, so
+ * readers never see a partially updated index. Services that derive state
+ * from the modifiers can register a listener to be run after every refresh.</p>
+ *
+ * <p>The modifiers handed out are shared between threads and must be treated as
+ * read-only.</p>
+ *
+ * @author James Prial
+ */
+@Service
+public class ModifierRegistry {
+
+    private final ModifierRepository modifierRepository;
+    private volatile Snapshot snapshot;
+    private final List<Runnable> refreshListeners = new CopyOnWriteArrayList<>();
+
+    private static final Logger logger = LoggerFactory.getLogger(ModifierRegistry.class);
+
+    /**
+     * Constructs a ModifierRegistry backed by the given repository.
+     *
+     * @param modifierRepository Repository for managing booking modifier entities.
+     */
+    public ModifierRegistry(ModifierRepository modifierRepository) {
+        this.modifierRepository = modifierRepository;
+        this.snapshot = new Snapshot(List.of());
+    }
+
+    /**
+     * Reloads every modifier from the database and replaces the current snapshot.
+     */
+    @PostConstruct
+    public synchronized void refresh() {
+        this.snapshot = new Snapshot(modifierRepository.findAll());
+        logger.info("Loaded {} booking modifiers", snapshot.byId.size());
+        for (Runnable listener : refreshListeners) {
+            listener.run();
+        }
+    }
+
+    /**
+     * Registers a listener run after every refresh, once the new snapshot is in place.
+     *
+     * @param listener The listener to run.
+     * @throws IllegalArgumentException if the listener is null.
+     */
+    public void addRefreshListener(Runnable listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener not given");
+        }
+        refreshListeners.add(listener);
+    }
+
+    /**
+     * Saves a modifier and refreshes the registry.
+     *
+     * @param modifier The modifier to save.
+     * @return The saved modifier.
+     * @throws IllegalArgumentException if the modifier is null.
+     */
+    public BookingModifier save(BookingModifier modifier) {
+        if (modifier == null) {
+            throw new IllegalArgumentException("Modifier not given");
+        }
+        BookingModifier saved = modifierRepository.save(modifier);
+        refresh();
+        return saved;
+    }
+
+    /**
+     * Deletes a modifier and refreshes the registry.
+     *
+     * @param modifier The modifier to delete.
+     * @throws IllegalArgumentException if the modifier is null.
+     */
+    public void delete(BookingModifier modifier) {
+        if (modifier == null) {
+            throw new IllegalArgumentException("Modifier not given");
+        }
+        modifierRepository.delete(modifier);
+        refresh();
+    }
+
+    /**
+     * Finds a modifier by its ID.
+     *
+     * @param id The ID of the modifier.
+     * @return An optional containing the modifier if found.
+     */
+    public Optional<BookingModifier> findById(Long id) {
+        return id == null ? Optional.empty() : Optional.ofNullable(snapshot.byId.get(id));
+    }
+
+    /**
+     * Finds a modifier by its type and name.
+     *
+     * @param type The type of the modifier, e.g. "STATUS".
+     * @param name The name of the modifier, e.g. "UNCLAIMED".
+     * @return An optional containing the modifier if found.
+     */
+    public Optional<BookingModifier> findByTypeAndName(String type, String name) {
+        Map<String, BookingModifier> ofType = snapshot.byType.get(type);
+        return ofType == null ? Optional.empty() : Optional.ofNullable(ofType.get(name));
+    }
+
+    /**
+     * Finds all modifiers with the given name, across every type.
+     *
+     * @param name The name of the modifier.
+     * @return The modifiers with that name, possibly empty.
+     */
+    public List<BookingModifier> findByName(String name) {
+        return snapshot.byName.getOrDefault(name, List.of());
+    }
+
+    /**
+     * Finds all modifiers of the given type.
+     *
+     * @param type The type of the modifiers.
+     * @return The modifiers of that type, possibly empty.
+     */
+    public Collection<BookingModifier> findByType(String type) {
+        Map<String, BookingModifier> ofType = snapshot.byType.get(type);
+        return ofType == null ? List.of() : ofType.values();
+    }
+
+    /**
+     * Finds a modifier by its name or type_name combination, e.g. "UNCLAIMED",
+     * "STATUS_UNCLAIMED" or "PENDING_PAYOUT".
+     *
+     * <p>If the text before the first underscore is a known type, the rest is
+     * looked up as a name of that type. Otherwise the whole string is treated as
+     * a name, which must be unique across types.</p>
+     *
+     * @param modifier The name or type_name of the modifier.
+     * @return An optional containing the modifier if found.
+     * @throws IllegalArgumentException if the name matches modifiers of several types.
+     */
+    public Optional<BookingModifier> find(String modifier) {
+        String upper = modifier.toUpperCase();
+        int split = upper.indexOf('_');
+        if (split > 0) {
+            Optional<BookingModifier> typed = findByTypeAndName(upper.substring(0, split), upper.substring(split + 1));
+            if (typed.isPresent()) {
+                return typed;
+            }
+        }
+        List<BookingModifier> mods = findByName(upper);
+        if (mods.size() > 1) {
+            throw new IllegalArgumentException("duplicate modifiers: specify type");
+        }
+        return mods.stream().findFirst();
+    }
+
+    // Immutable indexes over one load of the table.
+    private static final class Snapshot {
+        private final Map<Long, BookingModifier> byId;
+        private final Map<String, List<BookingModifier>> byName;
+        private final Map<String, Map<String, BookingModifier>> byType;
+
+        private Snapshot(List<BookingModifier> modifiers) {
+            Map<Long, BookingModifier> ids = new HashMap<>();
+            Map<String, List<BookingModifier>> names = new HashMap<>();
+            Map<String, Map<String, BookingModifier>> types = new HashMap<>();
+            for (BookingModifier modifier : modifiers) {
+                ids.put(modifier.getId(), modifier);
+                names.computeIfAbsent(modifier.getName(), k -> new ArrayList<>()).add(modifier);
+                if (modifier.getType() != null) {
+                    types.computeIfAbsent(modifier.getType(), k -> new HashMap<>()).put(modifier.getName(), modifier);
+                }
+            }
+            Map<String, List<BookingModifier>> frozenNames = new HashMap<>();
+            names.forEach((name, list) -> frozenNames.put(name, List.copyOf(list)));
+            Map<String, Map<String, BookingModifier>> frozenTypes = new HashMap<>();
+            types.forEach((type, map) -> frozenTypes.put(type, Map.copyOf(map)));
+            this.byId = Map.copyOf(ids);
+            this.byName = Map.copyOf(frozenNames);
+            this.byType = Map.copyOf(frozenTypes);
+        }
+    }
+}
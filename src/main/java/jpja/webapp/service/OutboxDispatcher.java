@@ -0,0 +1,173 @@
+package jpja.webapp.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import jpja.webapp.model.entities.BookingEvent;
+import jpja.webapp.model.entities.EventConsumerOffset;
+import jpja.webapp.repositories.BookingEventRepository;
+import jpja.webapp.repositories.EventConsumerOffsetRepository;
+
+/**
+ * Delivers booking events from the transactional outbox to every
+ * {@link BookingEventConsumer}.
+ *
+ * <p>On each poll ({@code jpja.outbox.poll-ms}) every consumer is run on its
+ * own virtual thread. It reads the events after its offset in batches of
+ * {@code jpja.outbox.batch-size} and the offset is advanced only after the
+ * consumer returns, so a crash or a failing consumer means redelivery rather
+ * than loss. Offsets of durable consumers are stored in the database and
+ * shared by every node; the others are kept in memory per node. Events every
+ * durable consumer has passed are deleted once they are older than the gap
+ * timeout, which leaves every node time to deliver them to its own
+ * consumers.</p>
+ *
+ * <p>Event ids are assigned on insert but become visible on commit, so a
+ * smaller id can appear after a larger one has been read. A batch therefore
+ * stops at a gap in the ids until the gap is older than
+ * {@code jpja.outbox.gap-timeout-ms}, after which it is assumed to be a
+ * rolled-back insert and skipped.</p>
+ *
+ * @author James Prial
+ */
+@Component
+public class OutboxDispatcher {
+
+    private final BookingEventRepository bookingEventRepository;
+    private final EventConsumerOffsetRepository offsetRepository;
+    private final List<BookingEventConsumer> consumers;
+    private final int batchSize;
+    private final long gapTimeoutMillis;
+    private final Map<String, Long> localOffsets = new ConcurrentHashMap<>();
+    private final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    /**
+     * Constructs an OutboxDispatcher.
+     *
+     * @param bookingEventRepository Repository for outbox events.
+     * @param offsetRepository Repository for consumer offsets.
+     * @param consumers Every registered event consumer.
+     * @param batchSize Maximum number of events handed to a consumer at once.
+     * @param gapTimeoutMillis How long to wait for a missing event id before skipping it.
+     */
+    public OutboxDispatcher(BookingEventRepository bookingEventRepository, EventConsumerOffsetRepository offsetRepository,
+            List<BookingEventConsumer> consumers, @Value("${jpja.outbox.batch-size:100}") int batchSize,
+            @Value("${jpja.outbox.gap-timeout-ms:10000}") long gapTimeoutMillis) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.bookingEventRepository = bookingEventRepository;
+        this.offsetRepository = offsetRepository;
+        this.consumers = consumers;
+        this.batchSize = batchSize;
+        this.gapTimeoutMillis = gapTimeoutMillis;
+    }
+
+    /**
+     * Delivers pending events to every consumer, then deletes the settled
+     * events all durable consumers have processed.
+     */
+    @Scheduled(fixedDelayString = "${jpja.outbox.poll-ms:500}")
+    public void dispatch() {
+        if (consumers.isEmpty()) {
+            return;
+        }
+        List<Callable<Long>> runs = new ArrayList<>(consumers.size());
+        for (BookingEventConsumer consumer : consumers) {
+            runs.add(() -> deliver(consumer));
+        }
+        long processedByAll = Long.MAX_VALUE;
+        try {
+            List<Future<Long>> results = workers.invokeAll(runs);
+            for (int i = 0; i < results.size(); i++) {
+                long offset = results.get(i).get();
+                if (consumers.get(i).isDurable()) {
+                    processedByAll = Math.min(processedByAll, offset);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception e) {
+            logger.error("Outbox delivery failed", e);
+            return;
+        }
+        if (processedByAll > 0 && processedByAll < Long.MAX_VALUE) {
+            bookingEventRepository.deleteUpTo(processedByAll,
+                    LocalDateTime.now().minusNanos(gapTimeoutMillis * 1_000_000));
+        }
+    }
+
+    /**
+     * Delivers every available event to one consumer.
+     *
+     * @param consumer The consumer.
+     * @return The consumer's offset afterwards.
+     */
+    private long deliver(BookingEventConsumer consumer) {
+        long offset = consumer.isDurable()
+                ? offsetRepository.findById(consumer.getName()).map(EventConsumerOffset::getLastEventId).orElse(0L)
+                : localOffsets.computeIfAbsent(consumer.getName(), name -> bookingEventRepository.findLatestId());
+        while (true) {
+            List<BookingEvent> batch = readyEvents(offset);
+            if (batch.isEmpty()) {
+                return offset;
+            }
+            try {
+                consumer.consume(batch);
+            } catch (RuntimeException e) {
+                logger.warn("Consumer {} failed on events after {}; will retry", consumer.getName(), offset, e);
+                return offset;
+            }
+            offset = batch.get(batch.size() - 1).getId();
+            if (consumer.isDurable()) {
+                offsetRepository.save(new EventConsumerOffset(consumer.getName(), offset));
+            } else {
+                localOffsets.put(consumer.getName(), offset);
+            }
+            if (batch.size() < batchSize) {
+                return offset;
+            }
+        }
+    }
+
+    // The next batch after the offset, cut short at a gap that may still be filled by a commit.
+    private List<BookingEvent> readyEvents(long after) {
+        List<BookingEvent> events = bookingEventRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(batchSize));
+        LocalDateTime settled = LocalDateTime.now().minusNanos(gapTimeoutMillis * 1_000_000);
+        long expected = after + 1;
+        for (int i = 0; i < events.size(); i++) {
+            BookingEvent event = events.get(i);
+            if (event.getId() != expected && event.getCreatedAt().isAfter(settled)) {
+                return events.subList(0, i);
+            }
+            expected = event.getId() + 1;
+        }
+        return events;
+    }
+
+    /**
+     * Stops the workers on shutdown.
+     */
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,229 @@
+package jpja.webapp.service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jpja.webapp.model.entities.BookingStatus;
+import jpja.webapp.model.entities.JobCheckpoint;
+import jpja.webapp.repositories.JobCheckpointRepository;
+import jpja.webapp.service.BulkStatusService.ChunkRow;
+
+/**
+ * Nightly job that closes out bookings whose date has passed: CLAIMED
+ * bookings become COMPLETED and UNCLAIMED bookings become EXPIRED.
+ *
+ * <p>Past bookings are read by keyset on {@code (booking_date, id)} in chunks
+ * of {@code jpja.bookings.bulk-chunk-size}, and each chunk is applied by
+ * {@link BulkStatusService#applyChunk} in its own transaction, so the status
+ * column, STATUS modifier, earnings ledger and outbox are updated together.
+ * After every chunk the keyset position is saved in a {@link JobCheckpoint};
+ * a run cut short by a restart is resumed from there once the application has
+ * started, on the task scheduler, so a long resume does not hold up startup
+ * and a failed one is logged rather than stopping it. Because each
+ * update checks the expected current status, re-applying a chunk that
+ * committed just before the checkpoint was lost moves nothing.</p>
+ *
+ * <p>Progress is published as {@code bookings.sweep.*} meters tagged with the
+ * transition.</p>
+ *
+ * @author James Prial
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class PastBookingSweeper implements ApplicationRunner {
+
+    private static final String SELECT_FIRST = "SELECT id, vendor_id, price, booking_date FROM bookings "
+            + "WHERE status = ? AND booking_date < ? ORDER BY booking_date, id LIMIT ?";
+    private static final String SELECT_NEXT = "SELECT id, vendor_id, price, booking_date FROM bookings "
+            + "WHERE status = ? AND booking_date < ? AND (booking_date > ? OR (booking_date = ? AND id > ?)) "
+            + "ORDER BY booking_date, id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BulkStatusService bulkStatusService;
+    private final JobCheckpointRepository checkpointRepository;
+    private final TaskScheduler taskScheduler;
+    private final int chunkSize;
+    private final List<Rule> rules = new ArrayList<>();
+    private final Timer duration;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private static final Logger logger = LoggerFactory.getLogger(PastBookingSweeper.class);
+
+    /**
+     * Constructs a PastBookingSweeper.
+     *
+     * @param jdbcTemplate JDBC access used to select chunks.
+     * @param bulkStatusService Service that applies each chunk.
+     * @param checkpointRepository Repository for the job's resume positions.
+     * @param meterRegistry Registry the progress meters are published to.
+     * @param taskScheduler Scheduler an interrupted run is resumed on after startup.
+     * @param chunkSize Number of bookings per chunk.
+     */
+    public PastBookingSweeper(JdbcTemplate jdbcTemplate, BulkStatusService bulkStatusService,
+            JobCheckpointRepository checkpointRepository, MeterRegistry meterRegistry, TaskScheduler taskScheduler,
+            @Value("${jpja.bookings.bulk-chunk-size:500}") int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.bulkStatusService = bulkStatusService;
+        this.checkpointRepository = checkpointRepository;
+        this.taskScheduler = taskScheduler;
+        this.chunkSize = chunkSize;
+        rules.add(new Rule(BookingStatus.CLAIMED, BookingStatus.COMPLETED, meterRegistry));
+        rules.add(new Rule(BookingStatus.UNCLAIMED, BookingStatus.EXPIRED, meterRegistry));
+        this.duration = Timer.builder("bookings.sweep.duration").register(meterRegistry);
+        Gauge.builder("bookings.sweep.running", running, r -> r.get() ? 1 : 0).register(meterRegistry);
+    }
+
+    /**
+     * Schedules the resume of any run that was interrupted by a shutdown.
+     *
+     * @param args the application arguments (unused)
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        taskScheduler.schedule(this::resume, Instant.now());
+    }
+
+    /**
+     * Resumes every rule whose last run was interrupted, from its saved
+     * position. A rule that fails is logged and left for the next sweep.
+     */
+    public void resume() {
+        for (Rule rule : rules) {
+            try {
+                checkpointRepository.findById(rule.checkpointName()).filter(JobCheckpoint::isRunning)
+                        .ifPresent(checkpoint -> {
+                            logger.info("Resuming {} -> {} sweep for bookings before {} after {} id {}", rule.from,
+                                    rule.to, checkpoint.getCutoffDate(), checkpoint.getLastDate(),
+                                    checkpoint.getLastId());
+                            guarded(() -> sweep(rule, checkpoint));
+                        });
+            } catch (RuntimeException e) {
+                logger.error("Could not resume {} -> {} sweep", rule.from, rule.to, e);
+            }
+        }
+    }
+
+    /**
+     * Moves every booking dated before today out of CLAIMED and UNCLAIMED.
+     */
+    @Scheduled(cron = "${jpja.bookings.sweep-cron:0 15 1 * * *}")
+    public void sweep() {
+        sweep(LocalDate.now());
+    }
+
+    /**
+     * Moves every booking dated before the cutoff out of CLAIMED and UNCLAIMED.
+     * Does nothing if a sweep is already running.
+     *
+     * @param cutoff The first booking date that is left alone.
+     */
+    public void sweep(LocalDate cutoff) {
+        guarded(() -> {
+            for (Rule rule : rules) {
+                JobCheckpoint checkpoint = checkpointRepository.findById(rule.checkpointName())
+                        .orElseGet(() -> new JobCheckpoint(rule.checkpointName()));
+                checkpoint.start(cutoff);
+                sweep(rule, checkpointRepository.save(checkpoint));
+            }
+        });
+    }
+
+    private void guarded(Runnable work) {
+        if (!running.compareAndSet(false, true)) {
+            logger.info("Past booking sweep already running; skipping");
+            return;
+        }
+        try {
+            duration.record(work);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    // Applies one rule chunk by chunk from the checkpoint, saving the position after each commit.
+    private void sweep(Rule rule, JobCheckpoint checkpoint) {
+        long started = System.nanoTime();
+        while (true) {
+            List<ChunkRow> rows = nextChunk(rule.from, checkpoint);
+            if (rows.isEmpty()) {
+                break;
+            }
+            int moved = bulkStatusService.applyChunk(rows, rule.from, rule.to);
+            ChunkRow last = rows.get(rows.size() - 1);
+            checkpoint.advance(last.getBookingDate(), last.getId(), moved);
+            checkpoint = checkpointRepository.save(checkpoint);
+            rule.moved.increment(moved);
+            rule.chunks.increment();
+            if (rows.size() < chunkSize) {
+                break;
+            }
+        }
+        logger.info("Moved {} bookings dated before {} from {} to {} in {} ms", checkpoint.getMoved(),
+                checkpoint.getCutoffDate(), rule.from, rule.to,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        checkpoint.finish();
+        checkpointRepository.save(checkpoint);
+    }
+
+    private List<ChunkRow> nextChunk(BookingStatus status, JobCheckpoint checkpoint) {
+        if (checkpoint.getLastDate() == null) {
+            return jdbcTemplate.query(SELECT_FIRST, (rs, i) -> mapRow(rs), status.name(),
+                    checkpoint.getCutoffDate(), chunkSize);
+        }
+        return jdbcTemplate.query(SELECT_NEXT, (rs, i) -> mapRow(rs), status.name(), checkpoint.getCutoffDate(),
+                checkpoint.getLastDate(), checkpoint.getLastDate(), checkpoint.getLastId(), chunkSize);
+    }
+
+    private static ChunkRow mapRow(ResultSet rs) throws SQLException {
+        return new ChunkRow(rs.getLong(1), rs.getObject(2, Long.class), rs.getObject(3, Double.class),
+                rs.getObject(4, LocalDate.class));
+    }
+
+    // One transition applied by the sweep, with its meters.
+    private static final class Rule {
+        private final BookingStatus from;
+        private final BookingStatus to;
+        private final Counter moved;
+        private final Counter chunks;
+
+        Rule(BookingStatus from, BookingStatus to, MeterRegistry meterRegistry) {
+            if (!from.canMoveTo(to)) {
+                throw new IllegalArgumentException("Illegal status transition " + from + " -> " + to);
+            }
+            this.from = from;
+            this.to = to;
+            String transition = from.name().toLowerCase() + "-" + to.name().toLowerCase();
+            this.moved = Counter.builder("bookings.sweep.moved").tag("transition", transition).register(meterRegistry);
+            this.chunks = Counter.builder("bookings.sweep.chunks").tag("transition", transition).register(meterRegistry);
+        }
+
+        String checkpointName() {
+            return "sweep-" + from.name();
+        }
+    }
+}
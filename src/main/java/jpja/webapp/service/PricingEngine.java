@@ -0,0 +1,316 @@
+package jpja.webapp.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jpja.webapp.model.entities.Address;
+import jpja.webapp.model.entities.AddressType;
+import jpja.webapp.model.entities.BookingModifier;
+import jpja.webapp.model.entities.PricingRule;
+import jpja.webapp.repositories.AddressTypeRepository;
+import jpja.webapp.repositories.PricingRuleRepository;
+
+/**
+ * Quotes booking prices from the rules in the {@code pricing_rules} table.
+ *
+ * <p>Rules are compiled at load time into a flat table with one cell for every
+ * combination of booking TYPE, address type, weekday or weekend, square
+ * footage band and lead time band. The band edges are the distinct
+ * {@code min_sqft} and {@code max_lead_days} values of the rules, so every
+ * booking in a cell matches the same rules, and each cell stores the base and
+ * per-square-foot price of its highest priority match. A quote is then a few
+ * array reads and a binary search per band, without touching the database or
+ * allocating.</p>
+ *
+ * <p>The table is compiled at startup, again whenever the
+ * {@link ModifierRegistry} is refreshed, as the TYPE modifiers are part of it,
+ * and on {@link #refresh()}, which {@link BulkPricingService} calls before
+ * repricing. Each compile swaps in a new table. Bookings no rule matches are
+ * quoted at zero, and the number of such cells is logged when the table is
+ * compiled. With no rules at all, quoting fails rather than pricing every
+ * booking at zero.</p>
+ *
+ * @author James Prial
+ */
+@Service
+public class PricingEngine {
+
+    private final PricingRuleRepository pricingRuleRepository;
+    private final AddressTypeRepository addressTypeRepository;
+    private final ModifierRegistry modifierRegistry;
+    private volatile Table table;
+
+    private static final Logger logger = LoggerFactory.getLogger(PricingEngine.class);
+
+    /**
+     * Constructs a PricingEngine.
+     *
+     * @param pricingRuleRepository Repository for pricing rules.
+     * @param addressTypeRepository Repository for address types.
+     * @param modifierRegistry In-memory registry of booking modifiers, for the TYPE modifiers.
+     */
+    public PricingEngine(PricingRuleRepository pricingRuleRepository, AddressTypeRepository addressTypeRepository,
+            ModifierRegistry modifierRegistry) {
+        this.pricingRuleRepository = pricingRuleRepository;
+        this.addressTypeRepository = addressTypeRepository;
+        this.modifierRegistry = modifierRegistry;
+        this.table = new Table(List.of(), List.of(), List.of());
+        modifierRegistry.addRefreshListener(this::refresh);
+    }
+
+    /**
+     * Reloads the rules and recompiles the price table.
+     */
+    @PostConstruct
+    public synchronized void refresh() {
+        List<PricingRule> rules = pricingRuleRepository.findAll();
+        Table compiled = new Table(rules, modifierRegistry.findByType("TYPE"), addressTypeRepository.findAll());
+        this.table = compiled;
+        logger.info("Compiled {} pricing rules into {} cells", rules.size(), compiled.base.length);
+        if (rules.isEmpty()) {
+            logger.error("The pricing_rules table is empty; bookings cannot be quoted until rules are added "
+                    + "(db/changes/pricing-rules.sql seeds a default rule)");
+        } else if (compiled.uncovered > 0) {
+            logger.warn("{} of {} price cells match no pricing rule and quote zero", compiled.uncovered,
+                    compiled.base.length);
+        }
+    }
+
+    /**
+     * Quotes the price of a booking.
+     *
+     * @param type The TYPE modifier of the booking, or null.
+     * @param location The location of the booking, or null.
+     * @param bookingDate The date of the booking.
+     * @param bookedOn The date the booking is made.
+     * @return The price, rounded to cents.
+     * @throws IllegalArgumentException if either date is null.
+     * @throws IllegalStateException if no pricing rules are loaded.
+     */
+    public double quote(BookingModifier type, Address location, LocalDate bookingDate, LocalDate bookedOn) {
+        long typeId = type == null || type.getId() == null ? 0 : type.getId();
+        long sqft = location == null || location.getSqft() == null ? 0 : location.getSqft();
+        return quote(typeId, primaryTypeId(location), sqft, bookingDate, bookedOn);
+    }
+
+    /**
+     * Quotes the price of a booking from its IDs.
+     *
+     * @param typeId The ID of the booking's TYPE modifier, or 0 if it has none.
+     * @param addressTypeId The ID of the location's address type, or 0 if it has none.
+     * @param sqft The square footage of the location, or 0 if unknown.
+     * @param bookingDate The date of the booking.
+     * @param bookedOn The date the booking is made.
+     * @return The price, rounded to cents.
+     * @throws IllegalArgumentException if either date is null.
+     * @throws IllegalStateException if no pricing rules are loaded.
+     */
+    public double quote(long typeId, long addressTypeId, long sqft, LocalDate bookingDate, LocalDate bookedOn) {
+        if (bookingDate == null || bookedOn == null) {
+            throw new IllegalArgumentException("Booking date not given");
+        }
+        Table current = table;
+        if (current.rules == 0) {
+            throw new IllegalStateException("No pricing rules loaded");
+        }
+        long leadDays = Math.max(0, ChronoUnit.DAYS.between(bookedOn, bookingDate));
+        int cell = current.cell(typeId, addressTypeId, isWeekend(bookingDate), sqft, leadDays);
+        double price = current.base[cell] + current.perSqft[cell] * Math.max(0, sqft);
+        return Math.round(price * 100) / 100.0;
+    }
+
+    /**
+     * Picks the address type an address is priced by: the one with the lowest
+     * ID, so the choice is stable for addresses with several types.
+     *
+     * @param location The address, or null.
+     * @return The ID of the address type, or 0 if it has none.
+     */
+    public static long primaryTypeId(Address location) {
+        long primary = 0;
+        if (location != null && location.getTypes() != null) {
+            for (AddressType type : location.getTypes()) {
+                if (type.getId() != null && (primary == 0 || type.getId() < primary)) {
+                    primary = type.getId();
+                }
+            }
+        }
+        return primary;
+    }
+
+    private static boolean isWeekend(LocalDate date) {
+        DayOfWeek day = date.getDayOfWeek();
+        return day == DayOfWeek.SATURDAY || day == DayOfWeek.SUNDAY;
+    }
+
+    // Index of the first edge >= value, or edges.length if there is none.
+    private static int bandAtOrAbove(long[] edges, long value) {
+        int low = 0;
+        int high = edges.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (edges[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Number of edges <= value.
+    private static int bandBelow(long[] edges, long value) {
+        return bandAtOrAbove(edges, value + 1);
+    }
+
+    // Dense index of an entity ID, with 0 reserved for "none or unknown".
+    private static int[] indexById(List<Long> ids) {
+        long max = 0;
+        for (Long id : ids) {
+            max = Math.max(max, id);
+        }
+        int[] index = new int[(int) max + 1];
+        for (int i = 0; i < ids.size(); i++) {
+            index[ids.get(i).intValue()] = i + 1;
+        }
+        return index;
+    }
+
+    private static long[] edges(TreeSet<Long> values) {
+        long[] edges = new long[values.size()];
+        int i = 0;
+        for (Long value : values) {
+            edges[i++] = value;
+        }
+        return edges;
+    }
+
+    /**
+     * The compiled price table. Cells are laid out with the lead time band
+     * varying fastest, then the square footage band, weekend flag, address
+     * type and booking type.
+     */
+    private static final class Table {
+        private final int[] typeIndex;
+        private final int[] addressTypeIndex;
+        private final long[] sqftEdges;
+        private final long[] leadEdges;
+        private final int leadStride;
+        private final int sqftStride;
+        private final int weekendStride;
+        private final int addressTypeStride;
+        private final int typeStride;
+        private final double[] base;
+        private final double[] perSqft;
+        private final int uncovered;
+        private final int rules;
+
+        Table(List<PricingRule> rules, Collection<BookingModifier> types, List<AddressType> addressTypes) {
+            List<Long> typeIds = new ArrayList<>();
+            for (BookingModifier type : types) {
+                typeIds.add(type.getId());
+            }
+            List<Long> addressTypeIds = new ArrayList<>();
+            for (AddressType addressType : addressTypes) {
+                addressTypeIds.add(addressType.getId());
+            }
+            TreeSet<Long> sqftValues = new TreeSet<>();
+            TreeSet<Long> leadValues = new TreeSet<>();
+            for (PricingRule rule : rules) {
+                if (rule.getMinSqft() != null && rule.getMinSqft() > 0) {
+                    sqftValues.add(rule.getMinSqft());
+                }
+                if (rule.getMaxLeadDays() != null && rule.getMaxLeadDays() >= 0) {
+                    leadValues.add((long) rule.getMaxLeadDays());
+                }
+            }
+            this.typeIndex = indexById(typeIds);
+            this.addressTypeIndex = indexById(addressTypeIds);
+            this.sqftEdges = edges(sqftValues);
+            this.leadEdges = edges(leadValues);
+            this.leadStride = 1;
+            this.sqftStride = leadStride * (leadEdges.length + 1);
+            this.weekendStride = sqftStride * (sqftEdges.length + 1);
+            this.addressTypeStride = weekendStride * 2;
+            this.typeStride = addressTypeStride * (addressTypeIds.size() + 1);
+            int cells = typeStride * (typeIds.size() + 1);
+            this.base = new double[cells];
+            this.perSqft = new double[cells];
+            int unmatched = 0;
+
+            List<PricingRule> ordered = new ArrayList<>(rules);
+            ordered.sort(Comparator.comparingInt(PricingRule::getPriority).reversed()
+                    .thenComparing(PricingRule::getId, Comparator.nullsLast(Comparator.naturalOrder())));
+            for (int t = 0; t <= typeIds.size(); t++) {
+                Long typeId = t == 0 ? null : typeIds.get(t - 1);
+                for (int a = 0; a <= addressTypeIds.size(); a++) {
+                    Long addressTypeId = a == 0 ? null : addressTypeIds.get(a - 1);
+                    for (int w = 0; w < 2; w++) {
+                        for (int s = 0; s <= sqftEdges.length; s++) {
+                            long sqftFloor = s == 0 ? 0 : sqftEdges[s - 1];
+                            for (int l = 0; l <= leadEdges.length; l++) {
+                                Long leadCeiling = l == leadEdges.length ? null : leadEdges[l];
+                                int cell = t * typeStride + a * addressTypeStride + w * weekendStride
+                                        + s * sqftStride + l * leadStride;
+                                PricingRule match = firstMatch(ordered, typeId, addressTypeId, w == 1, sqftFloor,
+                                        leadCeiling);
+                                if (match == null) {
+                                    unmatched++;
+                                } else {
+                                    base[cell] = match.getBasePrice();
+                                    perSqft[cell] = match.getPerSqft();
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+            this.uncovered = unmatched;
+            this.rules = rules.size();
+        }
+
+        // Every booking in a cell shares the cell's lowest square footage and highest lead time
+        // band edge, so checking those decides the match for the whole cell.
+        private static PricingRule firstMatch(List<PricingRule> ordered, Long typeId, Long addressTypeId,
+                boolean weekend, long sqftFloor, Long leadCeiling) {
+            for (PricingRule rule : ordered) {
+                if (rule.getType() != null && !rule.getType().getId().equals(typeId)) {
+                    continue;
+                }
+                if (rule.getAddressType() != null && !rule.getAddressType().getId().equals(addressTypeId)) {
+                    continue;
+                }
+                if (rule.getWeekend() != null && rule.getWeekend() != weekend) {
+                    continue;
+                }
+                if (rule.getMinSqft() != null && rule.getMinSqft() > sqftFloor) {
+                    continue;
+                }
+                if (rule.getMaxLeadDays() != null && (leadCeiling == null || leadCeiling > rule.getMaxLeadDays())) {
+                    continue;
+                }
+                return rule;
+            }
+            return null;
+        }
+
+        int cell(long typeId, long addressTypeId, boolean weekend, long sqft, long leadDays) {
+            int t = typeId > 0 && typeId < typeIndex.length ? typeIndex[(int) typeId] : 0;
+            int a = addressTypeId > 0 && addressTypeId < addressTypeIndex.length
+                    ? addressTypeIndex[(int) addressTypeId] : 0;
+            return t * typeStride + a * addressTypeStride + (weekend ? weekendStride : 0)
+                    + bandBelow(sqftEdges, sqft) * sqftStride + bandAtOrAbove(leadEdges, leadDays) * leadStride;
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package jpja.webapp.service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jpja.webapp.model.entities.BookingStatus;
+import jpja.webapp.repositories.BookingRepository;
+import jpja.webapp.repositories.BookingRepository.SlotTime;
+
+/**
+ * In-memory index of how many active bookings occupy each time slot.
+ *
+ * <p>The working day (6AM to 8PM) is divided into fixed slots of
+ * {@code jpja.slots.minutes} minutes, each holding at most
+ * {@code jpja.slots.capacity} UNCLAIMED or CLAIMED bookings. Each future day
+ * keeps a count per slot plus a bitmap of full slots, so a reservation is a
+ * constant-time check and the nearest free alternatives are found by scanning
+ * the bitmap outward from the requested slot.</p>
+ *
+ * <p>Reservations are taken before a booking is saved and released if its
+ * transaction rolls back, under a per-day lock, so concurrent submissions
+ * cannot overfill a slot. The index is built from the database at startup and
+ * rebuilt nightly, which also drops past days and heals any drift. Changes made
+ * while a rebuild reads the database are recorded and replayed onto the rebuilt
+ * index before it replaces the live one, so they are not lost. A booking that
+ * commits during that read may be counted twice until the next rebuild, which
+ * errs on the side of a full slot.</p>
+ *
+ * @author James Prial
+ */
+@Service
+public class SlotCapacityIndex implements ApplicationRunner {
+
+    public static final LocalTime OPEN = LocalTime.of(6, 0);
+    public static final LocalTime CLOSE = LocalTime.of(20, 0);
+
+    private final BookingRepository bookingRepository;
+    private final int slotMinutes;
+    private final int capacity;
+    private final int slots;
+    private volatile Map<LocalDate, Day> days = new ConcurrentHashMap<>();
+    // Changes made to the live index during a rebuild, or null when none is running.
+    private volatile Queue<Change> changes;
+    // Shared by every change to the live index, exclusive to a rebuild starting or finishing.
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+
+    private static final Logger logger = LoggerFactory.getLogger(SlotCapacityIndex.class);
+
+    /**
+     * Constructs a SlotCapacityIndex.
+     *
+     * @param bookingRepository Repository used to build the index.
+     * @param slotMinutes Length of one slot in minutes.
+     * @param capacity Maximum number of active bookings per slot.
+     */
+    public SlotCapacityIndex(BookingRepository bookingRepository,
+            @Value("${jpja.slots.minutes:60}") int slotMinutes,
+            @Value("${jpja.slots.capacity:4}") int capacity) {
+        if (slotMinutes < 1 || capacity < 1) {
+            throw new IllegalArgumentException("Slot length and capacity must be positive");
+        }
+        this.bookingRepository = bookingRepository;
+        this.slotMinutes = slotMinutes;
+        this.capacity = capacity;
+        this.slots = (int) Math.ceil((CLOSE.toSecondOfDay() - OPEN.toSecondOfDay()) / 60.0 / slotMinutes);
+    }
+
+    /**
+     * Builds the index at startup.
+     *
+     * @param args the application arguments (unused)
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        rebuild();
+    }
+
+    /**
+     * Rebuilds the index from every active booking from today onward. Changes
+     * made to the index while the bookings are read are applied to the rebuilt
+     * index as well.
+     */
+    @Scheduled(cron = "${jpja.slots.rebuild-cron:0 5 0 * * *}")
+    public synchronized void rebuild() {
+        Queue<Change> recorded = new ConcurrentLinkedQueue<>();
+        rebuildLock.writeLock().lock();
+        try {
+            changes = recorded;
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+        try {
+            LocalDate today = LocalDate.now();
+            Map<LocalDate, Day> rebuilt = new ConcurrentHashMap<>();
+            List<SlotTime> active = bookingRepository.findSlotTimes(today,
+                    List.of(BookingStatus.UNCLAIMED.name(), BookingStatus.CLAIMED.name()));
+            for (SlotTime time : active) {
+                rebuilt.computeIfAbsent(time.getBookingDate(), d -> new Day()).add(slotOf(time.getBookingTime()));
+            }
+            rebuildLock.writeLock().lock();
+            try {
+                for (Change change : recorded) {
+                    if (change.date.isBefore(today)) {
+                        continue;
+                    }
+                    Day day = rebuilt.computeIfAbsent(change.date, d -> new Day());
+                    if (change.added) {
+                        day.add(change.slot);
+                    } else {
+                        day.remove(change.slot);
+                    }
+                }
+                this.days = rebuilt;
+            } finally {
+                rebuildLock.writeLock().unlock();
+            }
+            logger.info("Indexed {} active bookings over {} days, {} changed meanwhile",
+                    active.size(), rebuilt.size(), recorded.size());
+        } finally {
+            changes = null;
+        }
+    }
+
+    /**
+     * Checks whether a booking status occupies a slot.
+     *
+     * @param statusName The status name.
+     * @return true for UNCLAIMED and CLAIMED bookings.
+     */
+    public static boolean occupies(String statusName) {
+        BookingStatus status = BookingStatus.fromName(statusName);
+        return status == BookingStatus.UNCLAIMED || status == BookingStatus.CLAIMED;
+    }
+
+    /**
+     * Reserves room for one booking in the slot containing the given time.
+     *
+     * @param date The booking date.
+     * @param time The booking time.
+     * @return true if the slot had room and was reserved, false if it is full.
+     * @throws IllegalArgumentException if the date or time is null.
+     */
+    public boolean tryReserve(LocalDate date, LocalTime time) {
+        if (date == null || time == null) {
+            throw new IllegalArgumentException("Date or time not given");
+        }
+        int slot = slotOf(time);
+        rebuildLock.readLock().lock();
+        try {
+            if (!days.computeIfAbsent(date, d -> new Day()).tryAdd(slot)) {
+                return false;
+            }
+            record(date, slot, true);
+            return true;
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Releases one booking's reservation in the slot containing the given time.
+     *
+     * @param date The booking date.
+     * @param time The booking time.
+     */
+    public void release(LocalDate date, LocalTime time) {
+        if (date == null || time == null) {
+            return;
+        }
+        int slot = slotOf(time);
+        rebuildLock.readLock().lock();
+        try {
+            Day day = days.get(date);
+            if (day != null) {
+                day.remove(slot);
+            }
+            record(date, slot, false);
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Moves one booking's reservation between slots. A move within the same slot
+     * always succeeds; otherwise the new slot is reserved before the old one is
+     * released.
+     *
+     * @param fromDate The current booking date, or null if the booking holds no reservation.
+     * @param fromTime The current booking time, or null if the booking holds no reservation.
+     * @param toDate The new booking date, or null to only release the current reservation.
+     * @param toTime The new booking time, or null to only release the current reservation.
+     * @return true if the booking now holds the new slot, false if the new slot is full.
+     */
+    public boolean move(LocalDate fromDate, LocalTime fromTime, LocalDate toDate, LocalTime toTime) {
+        boolean from = fromDate != null && fromTime != null;
+        boolean to = toDate != null && toTime != null;
+        if (from && to && fromDate.equals(toDate) && slotOf(fromTime) == slotOf(toTime)) {
+            return true;
+        }
+        if (to && !tryReserve(toDate, toTime)) {
+            return false;
+        }
+        if (from) {
+            release(fromDate, fromTime);
+        }
+        return true;
+    }
+
+    /**
+     * Reverts a successful {@link #move}. The original reservation is restored
+     * even if its slot has filled up since, as the booking never left it.
+     *
+     * @param fromDate The date passed to {@link #move} as the current date.
+     * @param fromTime The time passed to {@link #move} as the current time.
+     * @param toDate The date passed to {@link #move} as the new date.
+     * @param toTime The time passed to {@link #move} as the new time.
+     */
+    public void undoMove(LocalDate fromDate, LocalTime fromTime, LocalDate toDate, LocalTime toTime) {
+        boolean from = fromDate != null && fromTime != null;
+        if (from && toDate != null && toTime != null && fromDate.equals(toDate) && slotOf(fromTime) == slotOf(toTime)) {
+            return;
+        }
+        release(toDate, toTime);
+        if (from) {
+            int slot = slotOf(fromTime);
+            rebuildLock.readLock().lock();
+            try {
+                days.computeIfAbsent(fromDate, d -> new Day()).add(slot);
+                record(fromDate, slot, true);
+            } finally {
+                rebuildLock.readLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Gets the number of active bookings in the slot containing the given time.
+     *
+     * @param date The booking date.
+     * @param time The booking time.
+     * @return The number of bookings holding the slot.
+     */
+    public int occupancy(LocalDate date, LocalTime time) {
+        Day day = days.get(date);
+        return day == null ? 0 : day.count(slotOf(time));
+    }
+
+    /**
+     * Finds the start times of the free slots nearest to the given time on the same day.
+     *
+     * @param date The booking date.
+     * @param time The requested time.
+     * @param max The maximum number of slots to return.
+     * @return Up to {@code max} free slot start times, nearest first.
+     */
+    public List<LocalTime> freeSlotsNear(LocalDate date, LocalTime time, int max) {
+        Day day = days.get(date);
+        int requested = slotOf(time);
+        List<LocalTime> free = new ArrayList<>(max);
+        BitSet full = day == null ? new BitSet() : day.fullSlots();
+        int below = full.previousClearBit(requested - 1);
+        int above = full.nextClearBit(requested);
+        while (free.size() < max && (below >= 0 || above < slots)) {
+            boolean takeAbove = above < slots && (below < 0 || above - requested <= requested - below);
+            if (takeAbove) {
+                free.add(startOf(above));
+                above = full.nextClearBit(above + 1);
+            } else {
+                free.add(startOf(below));
+                below = full.previousClearBit(below - 1);
+            }
+        }
+        return free;
+    }
+
+    // Called under the shared rebuild lock, so a change is either recorded or already in the rebuilt index.
+    private void record(LocalDate date, int slot, boolean added) {
+        Queue<Change> recorded = changes;
+        if (recorded != null) {
+            recorded.add(new Change(date, slot, added));
+        }
+    }
+
+    private int slotOf(LocalTime time) {
+        int slot = (time.toSecondOfDay() - OPEN.toSecondOfDay()) / 60 / slotMinutes;
+        return Math.max(0, Math.min(slots - 1, slot));
+    }
+
+    private LocalTime startOf(int slot) {
+        return OPEN.plusMinutes((long) slot * slotMinutes);
+    }
+
+    // Occupancy of one day: a count per slot and a bitmap of the full ones.
+    private final class Day {
+        private final int[] counts = new int[slots];
+        private final BitSet full = new BitSet(slots);
+
+        synchronized boolean tryAdd(int slot) {
+            if (counts[slot] >= capacity) {
+                return false;
+            }
+            add(slot);
+            return true;
+        }
+
+        // Unconditional add, used when loading existing bookings.
+        synchronized void add(int slot) {
+            if (++counts[slot] >= capacity) {
+                full.set(slot);
+            }
+        }
+
+        synchronized void remove(int slot) {
+            if (counts[slot] > 0 && --counts[slot] < capacity) {
+                full.clear(slot);
+            }
+        }
+
+        synchronized int count(int slot) {
+            return counts[slot];
+        }
+
+        synchronized BitSet fullSlots() {
+            return (BitSet) full.clone();
+        }
+    }
+
+    // One reservation taken or released while a rebuild was running.
+    private static final class Change {
+        private final LocalDate date;
+        private final int slot;
+        private final boolean added;
+
+        Change(LocalDate date, int slot, boolean added) {
+            this.date = date;
+            this.slot = slot;
+            this.added = added;
+        }
+    }
+}
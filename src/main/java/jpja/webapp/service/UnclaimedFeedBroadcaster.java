@@ -0,0 +1,268 @@
+package jpja.webapp.service;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.annotation.PreDestroy;
+import jpja.webapp.model.dto.FeedEventDTO;
+import jpja.webapp.repositories.BookingRow;
+
+/**
+ * Pushes changes to the list of unclaimed bookings to connected vendors over
+ * server-sent events.
+ *
+ * <p>Changes arrive from {@link UnclaimedFeedConsumer} once they have
+ * committed. Every change gets the next feed position as its event ID and is kept in
+ * a bounded history ({@code jpja.feed.history-size}). A client that reconnects
+ * with a {@code Last-Event-ID} is replayed everything it missed; if that has
+ * already fallen out of the history, or the ID is ahead of the feed because
+ * the node restarted since, it is told to reload instead.</p>
+ *
+ * <p>Each client has its own bounded buffer ({@code jpja.feed.client-buffer}),
+ * drained on a virtual thread, so a slow connection never holds up the
+ * publisher or other clients. A client whose buffer fills up is disconnected
+ * and resumes from its last event when its browser reconnects. Completing a
+ * connection waits for a write in progress, so it is also done on the
+ * sender's virtual threads rather than by the publisher.</p>
+ *
+ * @author James Prial
+ */
+@Service
+public class UnclaimedFeedBroadcaster {
+
+    private final int historySize;
+    private final int clientBuffer;
+    private final long timeoutMillis;
+    private final Deque<FeedEventDTO> history = new ArrayDeque<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService sender = Executors.newVirtualThreadPerTaskExecutor();
+    private long lastEventId = 0;
+
+    private static final Logger logger = LoggerFactory.getLogger(UnclaimedFeedBroadcaster.class);
+
+    /**
+     * Constructs an UnclaimedFeedBroadcaster.
+     *
+     * @param historySize Number of past events kept for reconnecting clients.
+     * @param clientBuffer Number of undelivered events a client may fall behind by.
+     * @param timeoutMillis Time after which a connection is closed, for the client to reopen.
+     */
+    public UnclaimedFeedBroadcaster(@Value("${jpja.feed.history-size:512}") int historySize,
+            @Value("${jpja.feed.client-buffer:64}") int clientBuffer,
+            @Value("${jpja.feed.timeout-ms:1800000}") long timeoutMillis) {
+        if (historySize < 1 || clientBuffer < 1) {
+            throw new IllegalArgumentException("Feed history and client buffer must be positive");
+        }
+        this.historySize = historySize;
+        this.clientBuffer = clientBuffer;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Gets the ID of the latest event, for a client to resume from after
+     * rendering the current list.
+     *
+     * @return The latest event ID, or 0 if nothing has been published.
+     */
+    public long getLastEventId() {
+        synchronized (history) {
+            return lastEventId;
+        }
+    }
+
+    /**
+     * Announces that a booking has become unclaimed.
+     *
+     * @param booking The booking's row.
+     */
+    public void bookingAdded(BookingRow booking) {
+        FeedEventDTO event = new FeedEventDTO(FeedEventDTO.ADDED, booking.getId());
+        event.setBookingDate(booking.getBookingDate());
+        event.setBookingTime(booking.getBookingTime());
+        event.setAddress(booking.getStreetNumber() + " " + booking.getStreetName() + ", " + booking.getCity());
+        publish(event);
+    }
+
+    /**
+     * Announces that a booking is no longer unclaimed.
+     *
+     * @param bookingId The ID of the booking.
+     */
+    public void bookingRemoved(long bookingId) {
+        publish(new FeedEventDTO(FeedEventDTO.REMOVED, bookingId));
+    }
+
+    /**
+     * Numbers an event, records it in the history and queues it for every client.
+     *
+     * @param event The event to publish.
+     */
+    public void publish(FeedEventDTO event) {
+        List<Subscriber> ready = new ArrayList<>();
+        synchronized (history) {
+            event.setId(++lastEventId);
+            history.addLast(event);
+            if (history.size() > historySize) {
+                history.removeFirst();
+            }
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.queue.offer(event)) {
+                    ready.add(subscriber);
+                } else {
+                    subscriber.close("fell " + clientBuffer + " events behind");
+                }
+            }
+        }
+        for (Subscriber subscriber : ready) {
+            subscriber.scheduleDrain();
+        }
+    }
+
+    /**
+     * Opens a feed connection.
+     *
+     * @param resumeAfter The ID of the last event the client has seen, or null
+     *                    to only receive new events.
+     * @return The emitter streaming the client's events.
+     */
+    public SseEmitter subscribe(Long resumeAfter) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscriber.close(null));
+        emitter.onError(e -> subscriber.close(null));
+        synchronized (history) {
+            if (resumeAfter != null && resumeAfter != lastEventId) {
+                replay(subscriber, resumeAfter);
+            }
+            subscribers.add(subscriber);
+        }
+        subscriber.scheduleDrain();
+        return emitter;
+    }
+
+    // Queues the events after the given ID, or a single RESET if they are no longer all
+    // available or the ID was handed out before a restart.
+    private void replay(Subscriber subscriber, long resumeAfter) {
+        FeedEventDTO oldest = history.peekFirst();
+        boolean missing = resumeAfter > lastEventId || oldest == null || oldest.getId() > resumeAfter + 1;
+        if (missing || lastEventId - resumeAfter > clientBuffer) {
+            FeedEventDTO reset = new FeedEventDTO(FeedEventDTO.RESET, null);
+            reset.setId(lastEventId);
+            subscriber.queue.offer(reset);
+            return;
+        }
+        for (FeedEventDTO event : history) {
+            if (event.getId() > resumeAfter) {
+                subscriber.queue.offer(event);
+            }
+        }
+    }
+
+    /**
+     * Sends a comment to every client so dead connections are detected and
+     * proxies do not close idle ones.
+     */
+    @Scheduled(fixedRateString = "${jpja.feed.heartbeat-ms:20000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            sender.execute(subscriber::ping);
+        }
+    }
+
+    /**
+     * Gets the number of connected clients.
+     *
+     * @return The number of open feed connections.
+     */
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Stops the sender, interrupting any blocked write, and closes every
+     * connection on shutdown.
+     */
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.close(null);
+        }
+    }
+
+    // One connected client: its emitter and the events not yet written to it.
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<FeedEventDTO> queue = new ArrayBlockingQueue<>(clientBuffer);
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        // At most one drain runs per client, so events are written in order.
+        void scheduleDrain() {
+            if (!queue.isEmpty() && draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                FeedEventDTO event;
+                while ((event = queue.poll()) != null) {
+                    emitter.send(SseEmitter.event().id(String.valueOf(event.getId())).name(event.getType())
+                            .data(event, MediaType.APPLICATION_JSON));
+                }
+            } catch (IOException | IllegalStateException e) {
+                close(null);
+                return;
+            } finally {
+                draining.set(false);
+            }
+            scheduleDrain();
+        }
+
+        void ping() {
+            try {
+                emitter.send(SseEmitter.event().comment("keepalive"));
+            } catch (IOException | IllegalStateException e) {
+                close(null);
+            }
+        }
+
+        void close(String reason) {
+            if (subscribers.remove(this)) {
+                if (reason != null) {
+                    logger.info("Closing unclaimed feed connection that {}", reason);
+                }
+                queue.clear();
+                try {
+                    sender.execute(emitter::complete);
+                } catch (RejectedExecutionException e) {
+                    emitter.complete();
+                }
+            }
+        }
+    }
+}
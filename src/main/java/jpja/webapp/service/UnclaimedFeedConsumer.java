@@ -0,0 +1,83 @@
+package jpja.webapp.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+import jpja.webapp.model.entities.BookingEvent;
+import jpja.webapp.model.entities.BookingStatus;
+import jpja.webapp.repositories.BookingRepository;
+import jpja.webapp.repositories.BookingRow;
+
+/**
+ * Feeds committed changes to the unclaimed bookings into the
+ * {@link UnclaimedFeedBroadcaster}.
+ *
+ * <p>Bookings that became unclaimed are loaded in one query per batch; any
+ * that have been claimed again since are skipped, as a later event in the
+ * outbox will remove them.</p>
+ *
+ * <p>Every node pushes to its own connected clients, so the consumer is not
+ * durable: each node reads every event, and a restarted node starts from the
+ * newest one, its clients being told to reload.</p>
+ *
+ * @author James Prial
+ */
+@Component
+public class UnclaimedFeedConsumer implements BookingEventConsumer {
+
+    private static final String UNCLAIMED = BookingStatus.UNCLAIMED.name();
+
+    private final BookingRepository bookingRepository;
+    private final UnclaimedFeedBroadcaster unclaimedFeed;
+
+    /**
+     * Constructs an UnclaimedFeedConsumer.
+     *
+     * @param bookingRepository Repository used to load added bookings.
+     * @param unclaimedFeed Broadcaster the changes are pushed to.
+     */
+    public UnclaimedFeedConsumer(BookingRepository bookingRepository, UnclaimedFeedBroadcaster unclaimedFeed) {
+        this.bookingRepository = bookingRepository;
+        this.unclaimedFeed = unclaimedFeed;
+    }
+
+    @Override
+    public String getName() {
+        return "unclaimed-feed";
+    }
+
+    @Override
+    public boolean isDurable() {
+        return false;
+    }
+
+    @Override
+    public void consume(List<BookingEvent> events) {
+        List<Long> addedIds = new ArrayList<>();
+        for (BookingEvent event : events) {
+            if (UNCLAIMED.equals(event.getToStatus())) {
+                addedIds.add(event.getBookingId());
+            }
+        }
+        Map<Long, BookingRow> added = new HashMap<>();
+        if (!addedIds.isEmpty()) {
+            for (BookingRow row : bookingRepository.findUnclaimedRowsByIds(addedIds)) {
+                added.put(row.getId(), row);
+            }
+        }
+        for (BookingEvent event : events) {
+            if (UNCLAIMED.equals(event.getToStatus())) {
+                BookingRow row = added.get(event.getBookingId());
+                if (row != null) {
+                    unclaimedFeed.bookingAdded(row);
+                }
+            } else if (event.left(UNCLAIMED)) {
+                unclaimedFeed.bookingRemoved(event.getBookingId());
+            }
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package jpja.webapp.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jpja.webapp.model.entities.BookingStatus;
+import jpja.webapp.repositories.BookingRepository;
+import jpja.webapp.repositories.BookingRepository.CalendarEntry;
+
+/**
+ * Service that serves vendors a calendar of their bookings, one week
+ * (Monday to Sunday) at a time, from an in-memory cache.
+ *
+ * <p>Each (vendor, week) is read with a single query bounded to that week and
+ * kept as compact cells: booking ID, time, status and ZIP code, with the
+ * status sharing the constant's name. The cache holds up to
+ * {@code jpja.calendar.cache-weeks} weeks and drops the least recently used
+ * ones beyond that. An entry is never expired by time. Instead, every
+ * code path that claims, modifies, cancels or changes the status of a booking
+ * calls {@link #evict} for the vendor and date it affected, and the entry is
+ * dropped once that transaction completes.</p>
+ *
+ * <p>Weeks are read from the primary, since a lagging replica could put a
+ * stale week back into the cache right after its eviction. A week read while
+ * an eviction happens is returned but not cached.</p>
+ *
+ * @author James Prial
+ */
+@Service
+public class VendorCalendarService {
+
+    private final BookingRepository bookingRepository;
+    private final Map<WeekKey, Week> weeks;
+    // Incremented on every eviction, under the lock of weeks.
+    private long evictions;
+
+    /**
+     * Constructs a VendorCalendarService.
+     *
+     * @param bookingRepository Repository the weeks are read from.
+     * @param capacity Maximum number of (vendor, week) entries cached.
+     */
+    public VendorCalendarService(BookingRepository bookingRepository,
+            @Value("${jpja.calendar.cache-weeks:10000}") int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Cache capacity must be positive");
+        }
+        this.bookingRepository = bookingRepository;
+        this.weeks = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<WeekKey, Week> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Retrieves the week of a vendor's calendar containing the given date.
+     *
+     * @param vendorId The user ID of the vendor.
+     * @param date Any date in the week.
+     * @return The week, with the vendor's bookings on each day in time order.
+     * @throws IllegalArgumentException if the date is null.
+     */
+    @Transactional
+    public Week getWeek(long vendorId, LocalDate date) {
+        if (date == null) {
+            throw new IllegalArgumentException("Date not given");
+        }
+        WeekKey key = new WeekKey(vendorId, weekStart(date));
+        long seen;
+        synchronized (weeks) {
+            Week cached = weeks.get(key);
+            if (cached != null) {
+                return cached;
+            }
+            seen = evictions;
+        }
+        Week week = new Week(key.start,
+                bookingRepository.findCalendarEntries(vendorId, key.start, key.start.plusDays(6)));
+        synchronized (weeks) {
+            if (evictions == seen) {
+                weeks.put(key, week);
+            }
+        }
+        return week;
+    }
+
+    /**
+     * Retrieves the weeks of a vendor's calendar that overlap the given month.
+     *
+     * @param vendorId The user ID of the vendor.
+     * @param month The month.
+     * @return The weeks from the one containing the first of the month to the one containing its last day.
+     * @throws IllegalArgumentException if the month is null.
+     */
+    @Transactional
+    public List<Week> getMonth(long vendorId, YearMonth month) {
+        if (month == null) {
+            throw new IllegalArgumentException("Month not given");
+        }
+        List<Week> result = new ArrayList<>();
+        for (LocalDate start = weekStart(month.atDay(1)); !start.isAfter(month.atEndOfMonth());
+                start = start.plusWeeks(1)) {
+            result.add(getWeek(vendorId, start));
+        }
+        return result;
+    }
+
+    /**
+     * Drops the cached week of a vendor containing the given date. Inside a
+     * transaction the week is dropped when the transaction completes, so it
+     * cannot be cached again from data that was not yet committed.
+     *
+     * @param vendorId The user ID of the vendor, or null if the booking has none.
+     * @param date The date of the changed booking, or null if it has none.
+     */
+    public void evict(Long vendorId, LocalDate date) {
+        if (vendorId == null || date == null) {
+            return;
+        }
+        WeekKey key = new WeekKey(vendorId, weekStart(date));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    remove(key);
+                }
+            });
+        } else {
+            remove(key);
+        }
+    }
+
+    private void remove(WeekKey key) {
+        synchronized (weeks) {
+            weeks.remove(key);
+            evictions++;
+        }
+    }
+
+    /**
+     * Gets the Monday of the week containing a date.
+     *
+     * @param date The date.
+     * @return The first day of its week.
+     */
+    public static LocalDate weekStart(LocalDate date) {
+        return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    /**
+     * One week of a vendor's calendar. Immutable, so it can be shared by every request.
+     */
+    public static final class Week {
+        private final LocalDate start;
+        private final List<Day> days;
+
+        Week(LocalDate start, List<CalendarEntry> entries) {
+            List<List<Cell>> cells = new ArrayList<>(7);
+            for (int i = 0; i < 7; i++) {
+                cells.add(new ArrayList<>());
+            }
+            for (CalendarEntry entry : entries) {
+                int day = (int) (entry.getBookingDate().toEpochDay() - start.toEpochDay());
+                BookingStatus status = BookingStatus.fromName(entry.getStatus());
+                cells.get(day).add(new Cell(entry.getId(), entry.getBookingTime(),
+                        status == null ? entry.getStatus() : status.name(), entry.getZip()));
+            }
+            List<Day> days = new ArrayList<>(7);
+            for (int i = 0; i < 7; i++) {
+                days.add(new Day(start.plusDays(i), List.copyOf(cells.get(i))));
+            }
+            this.start = start;
+            this.days = Collections.unmodifiableList(days);
+        }
+
+        public LocalDate getStart() {
+            return start;
+        }
+
+        public List<Day> getDays() {
+            return days;
+        }
+    }
+
+    /**
+     * One day of a calendar week.
+     */
+    public static final class Day {
+        private final LocalDate date;
+        private final List<Cell> cells;
+
+        Day(LocalDate date, List<Cell> cells) {
+            this.date = date;
+            this.cells = cells;
+        }
+
+        public LocalDate getDate() {
+            return date;
+        }
+
+        public List<Cell> getCells() {
+            return cells;
+        }
+    }
+
+    /**
+     * One booking in a calendar day.
+     */
+    public static final class Cell {
+        private final long bookingId;
+        private final LocalTime time;
+        private final String status;
+        private final String zip;
+
+        Cell(long bookingId, LocalTime time, String status, String zip) {
+            this.bookingId = bookingId;
+            this.time = time;
+            this.status = status;
+            this.zip = zip;
+        }
+
+        public long getBookingId() {
+            return bookingId;
+        }
+
+        public LocalTime getTime() {
+            return time;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public String getZip() {
+            return zip;
+        }
+    }
+
+    private static final class WeekKey {
+        private final long vendorId;
+        private final LocalDate start;
+
+        WeekKey(long vendorId, LocalDate start) {
+            this.vendorId = vendorId;
+            this.start = start;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof WeekKey other && vendorId == other.vendorId && start.equals(other.start);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(vendorId, start);
+        }
+    }
+}
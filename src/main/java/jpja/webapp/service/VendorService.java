@@ -138,6 +138,9 @@ public class VendorService {
         if (newInfo.getMax_sqft() != null) {
             vendor.setMax_sqft(vendor.getMax_sqft());
         }
+        if (newInfo.getZip() != null) {
+            vendor.setZip(newInfo.getZip());
+        }
         saveVendor(vendor);
     }
 }
@@ -0,0 +1,141 @@
+package jpja.webapp.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+/**
+ * Offline lookup of ZIP code centroids, used to estimate travel distance.
+ *
+ * <p>Centroids are read once at startup from {@code jpja.matching.zip-centroids},
+ * either a CSV of {@code zip,latitude,longitude} rows or the Census Bureau's
+ * tab-separated ZCTA Gazetteer file ({@code GEOID ... INTPTLAT INTPTLONG}),
+ * so the national dataset can be used as downloaded. Rows may hold full
+ * 5-digit ZIP codes or 3-digit ZIP prefixes; a lookup tries the full ZIP first
+ * and falls back to its prefix, so an address outside the dataset is still
+ * placed in the right area.</p>
+ *
+ * @author James Prial
+ */
+@Component
+public class ZipCentroids {
+
+    private static final double EARTH_RADIUS_MILES = 3958.8;
+    // GEOID, ALAND, AWATER, ALAND_SQMI, AWATER_SQMI, INTPTLAT, INTPTLONG
+    private static final int GAZETTEER_COLUMNS = 7;
+    private static final int GAZETTEER_LATITUDE = 5;
+
+    private final Map<String, GeoPoint> centroids;
+
+    private static final Logger logger = LoggerFactory.getLogger(ZipCentroids.class);
+
+    /**
+     * Constructs ZipCentroids by loading the given dataset.
+     *
+     * @param dataset CSV resource of ZIP centroids.
+     * @throws UncheckedIOException if the dataset cannot be read.
+     */
+    public ZipCentroids(@Value("${jpja.matching.zip-centroids:classpath:geo/zip-centroids.csv}") Resource dataset) {
+        this.centroids = load(dataset);
+        logger.info("Loaded {} ZIP centroids", centroids.size());
+    }
+
+    /**
+     * Finds the centroid of a ZIP code.
+     *
+     * @param zip The ZIP code, optionally in ZIP+4 form.
+     * @return The centroid, or null if the ZIP code is unknown.
+     */
+    public GeoPoint locate(String zip) {
+        if (zip == null) {
+            return null;
+        }
+        String trimmed = zip.trim();
+        if (trimmed.length() > 5) {
+            trimmed = trimmed.substring(0, 5);
+        }
+        GeoPoint point = centroids.get(trimmed);
+        if (point == null && trimmed.length() >= 3) {
+            point = centroids.get(trimmed.substring(0, 3));
+        }
+        return point;
+    }
+
+    /**
+     * Calculates the great-circle distance between two points.
+     *
+     * @param a The first point.
+     * @param b The second point.
+     * @return The distance in miles.
+     */
+    public static double distanceMiles(GeoPoint a, GeoPoint b) {
+        double dLat = Math.toRadians(b.getLatitude() - a.getLatitude());
+        double dLon = Math.toRadians(b.getLongitude() - a.getLongitude());
+        double h = Math.pow(Math.sin(dLat / 2), 2) + Math.cos(Math.toRadians(a.getLatitude()))
+                * Math.cos(Math.toRadians(b.getLatitude())) * Math.pow(Math.sin(dLon / 2), 2);
+        return 2 * EARTH_RADIUS_MILES * Math.asin(Math.min(1, Math.sqrt(h)));
+    }
+
+    // Reads zip,latitude,longitude rows or Gazetteer rows, skipping headers, comments and malformed lines.
+    private static Map<String, GeoPoint> load(Resource dataset) {
+        Map<String, GeoPoint> loaded = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(dataset.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split(line.indexOf('\t') >= 0 ? "\t" : ",");
+                int lat;
+                if (parts.length == 3) {
+                    lat = 1;
+                } else if (parts.length == GAZETTEER_COLUMNS) {
+                    lat = GAZETTEER_LATITUDE;
+                } else {
+                    continue;
+                }
+                try {
+                    loaded.put(parts[0].trim(), new GeoPoint(Double.parseDouble(parts[lat].trim()),
+                            Double.parseDouble(parts[lat + 1].trim())));
+                } catch (NumberFormatException e) {
+                    // header row or malformed entry
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read ZIP centroids from " + dataset, e);
+        }
+        return loaded;
+    }
+
+    /**
+     * A latitude/longitude pair in degrees.
+     */
+    public static final class GeoPoint {
+        private final double latitude;
+        private final double longitude;
+
+        public GeoPoint(double latitude, double longitude) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+        }
+
+        public double getLatitude() {
+            return latitude;
+        }
+
+        public double getLongitude() {
+            return longitude;
+        }
+    }
+}
@@ -1,13 +1,10 @@
 package jpja.webapp.validation.validator;
 
-import java.util.Set;
-
 import org.springframework.stereotype.Component;
 
 import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
-import jpja.webapp.model.dto.ModifierDTO;
-import jpja.webapp.service.BookingService;
+import jpja.webapp.service.ModifierRegistry;
 import jpja.webapp.validation.annotation.ValidModifierId;
 
 /**
@@ -16,8 +13,8 @@ import jpja.webapp.validation.annotation.ValidModifierId;
  * <p>
  * This class ensures that a given modifier ID is valid by checking if it exists
  * within the
- * set of allowed modifiers of the specified type, as retrieved from the
- * {@link BookingService}.
+ * set of allowed modifiers of the specified type, as held by the
+ * {@link ModifierRegistry}.
  * </p>
  * 
  * <p>
@@ -43,15 +40,15 @@ public class ModifierIdValidator implements ConstraintValidator<ValidModifierId,
 
     private String type;
 
-    private final BookingService bookingService;
+    private final ModifierRegistry modifierRegistry;
 
     /**
      * Constructor for injecting required services.
      * 
-     * @param bookingService the service used to retrieve valid modifiers
+     * @param modifierRegistry the registry used to look up valid modifiers
      */
-    public ModifierIdValidator(BookingService bookingService) {
-        this.bookingService = bookingService;
+    public ModifierIdValidator(ModifierRegistry modifierRegistry) {
+        this.modifierRegistry = modifierRegistry;
     }
 
     /**
@@ -85,12 +82,8 @@ public class ModifierIdValidator implements ConstraintValidator<ValidModifierId,
         if (modifierId == null) {
             return true; // Let @NotNull handle null
         }
-        Set<ModifierDTO> modifiers = bookingService.getModifiersByType(type);
-        for (ModifierDTO mod : modifiers) {
-            if (mod.getId().equals(modifierId)) {
-                return true;
-            }
-        }
-        return false;
+        return modifierRegistry.findById(modifierId)
+                .map(mod -> type.equals(mod.getType()))
+                .orElse(false);
     }
 }
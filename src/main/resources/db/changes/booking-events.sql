@@ -0,0 +1,17 @@
+-- Transactional outbox of booking status changes and the offsets of its
+-- durable consumers. Apply by hand; see README.md.
+
+CREATE TABLE IF NOT EXISTS booking_events (
+    id bigint NOT NULL AUTO_INCREMENT,
+    booking_id bigint NOT NULL,
+    from_status varchar(32) NULL,
+    to_status varchar(32) NOT NULL,
+    created_at datetime(6) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS booking_event_offsets (
+    consumer varchar(64) NOT NULL,
+    last_event_id bigint NOT NULL,
+    PRIMARY KEY (consumer)
+);
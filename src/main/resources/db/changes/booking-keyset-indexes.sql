@@ -0,0 +1,5 @@
+-- Indexes the vendor and customer dashboards page through by keyset on
+-- (booking_date, booking_time, id). Apply by hand; see README.md.
+
+CREATE INDEX IF NOT EXISTS idx_bookings_vendor_date ON bookings (vendor_id, booking_date, booking_time);
+CREATE INDEX IF NOT EXISTS idx_bookings_customer_date ON bookings (customer_id, booking_date, booking_time);
@@ -0,0 +1,5 @@
+-- Columns the booking matcher ranks by: the size of each address, checked
+-- against a vendor's maximum, and each vendor's home zip. Apply by hand; see README.md.
+
+ALTER TABLE addresses ADD COLUMN IF NOT EXISTS sqft INT UNSIGNED NULL;
+ALTER TABLE vendor_info ADD COLUMN IF NOT EXISTS zip varchar(15) NULL;
@@ -0,0 +1,11 @@
+-- Indexes the admin booking search pages through by keyset. Every booking
+-- index ends in (booking_date, booking_time), so the first status indexes,
+-- which stopped at the status column, are replaced. Apply by hand; see README.md.
+
+DROP INDEX IF EXISTS idx_bookings_vendor_status ON bookings;
+DROP INDEX IF EXISTS idx_bookings_customer_status ON bookings;
+CREATE INDEX IF NOT EXISTS idx_bookings_date ON bookings (booking_date, booking_time);
+CREATE INDEX IF NOT EXISTS idx_bookings_vendor_status_date ON bookings (vendor_id, status, booking_date, booking_time);
+CREATE INDEX IF NOT EXISTS idx_bookings_customer_status_date ON bookings (customer_id, status, booking_date, booking_time);
+CREATE INDEX IF NOT EXISTS idx_booking_modifier_join_modifier ON booking_modifier_join (modifier_id, booking_id);
+CREATE INDEX IF NOT EXISTS idx_addresses_zip ON addresses (zip);
@@ -0,0 +1,17 @@
+-- Adds the denormalized bookings.status column, backfills it from each
+-- booking's STATUS modifier and indexes it for the status queries.
+-- Apply by hand before deploying the build that reads the column; see README.md.
+
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS status varchar(32) NULL;
+
+-- The same statement runs on startup in BookingStatusMigration, so rows
+-- written by an older build between this script and the deploy are caught there.
+UPDATE bookings SET status = (
+    SELECT MIN(m.name) FROM booking_modifier_join j
+    JOIN booking_modifiers m ON m.id = j.modifier_id
+    WHERE j.booking_id = bookings.id AND m.type = 'STATUS')
+WHERE status IS NULL AND id IN (
+    SELECT j.booking_id FROM booking_modifier_join j
+    JOIN booking_modifiers m ON m.id = j.modifier_id WHERE m.type = 'STATUS');
+
+CREATE INDEX IF NOT EXISTS idx_bookings_status_date ON bookings (status, booking_date, booking_time);
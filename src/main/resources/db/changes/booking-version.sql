@@ -0,0 +1,4 @@
+-- Optimistic lock version checked by every booking status transition.
+-- Existing rows start at 0. Apply by hand; see README.md.
+
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS version bigint default 0 not null;
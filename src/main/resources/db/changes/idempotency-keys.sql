@@ -0,0 +1,13 @@
+-- Stored responses of POSTs carrying an idempotency key, replayed to retries
+-- until they expire. Apply by hand; see README.md.
+
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    idempotency_key char(64) NOT NULL,
+    created_at datetime(6) NOT NULL,
+    expires_at datetime(6) NOT NULL,
+    status int NULL,
+    location varchar(2048) NULL,
+    content_type varchar(255) NULL,
+    body mediumblob NULL,
+    PRIMARY KEY (idempotency_key)
+);
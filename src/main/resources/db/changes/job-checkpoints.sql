@@ -0,0 +1,11 @@
+-- Progress of resumable background jobs such as PastBookingSweeper.
+-- Apply by hand; see README.md.
+
+CREATE TABLE IF NOT EXISTS job_checkpoints (
+    name varchar(64) NOT NULL,
+    cutoff_date date NULL,
+    last_date date NULL,
+    last_id bigint NOT NULL,
+    moved bigint NOT NULL,
+    PRIMARY KEY (name)
+);
@@ -0,0 +1,28 @@
+-- Pricing rules compiled by PricingEngine. A NULL match column matches any
+-- booking; the highest priority matching rule sets the price. Apply by hand;
+-- see README.md.
+
+CREATE TABLE IF NOT EXISTS pricing_rules (
+    id INT UNSIGNED NOT NULL AUTO_INCREMENT,
+    type_id INT UNSIGNED NULL,
+    address_type_id int unsigned NULL,
+    weekend bit(1) NULL,
+    min_sqft INT UNSIGNED NULL,
+    max_lead_days int NULL,
+    base_price double NOT NULL,
+    per_sqft double NOT NULL,
+    priority int NOT NULL,
+    description varchar(255) NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_pricing_rules_type FOREIGN KEY (type_id) REFERENCES booking_modifiers (id),
+    CONSTRAINT fk_pricing_rules_address_type FOREIGN KEY (address_type_id) REFERENCES address_types (id)
+);
+
+-- PricingEngine refuses to quote with no rules, so an empty table would stop
+-- every new booking. Seed one catch-all rule at the lowest priority; rules
+-- added later with a higher priority override it where they match. Review
+-- the price before the first deploy.
+INSERT INTO pricing_rules (type_id, address_type_id, weekend, min_sqft, max_lead_days, base_price, per_sqft,
+        priority, description)
+SELECT NULL, NULL, NULL, NULL, NULL, 100.0, 0.0, 0, 'Default price for bookings no other rule matches'
+WHERE NOT EXISTS (SELECT 1 FROM pricing_rules);
@@ -0,0 +1,9 @@
+-- Per-vendor earnings ledger kept by EarningsLedger. reconcile() fills it in
+-- from the existing bookings on its first run. Apply by hand; see README.md.
+
+CREATE TABLE IF NOT EXISTS vendor_earnings (
+    vendor_id int(10) unsigned NOT NULL,
+    completed_cents bigint NOT NULL,
+    pending_cents bigint NOT NULL,
+    PRIMARY KEY (vendor_id)
+);
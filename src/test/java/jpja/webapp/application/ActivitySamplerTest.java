@@ -0,0 +1,69 @@
+package jpja.webapp.application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.regex.Matcher;
+
+import org.junit.jupiter.api.Test;
+
+import jpja.webapp.logging.ActivitySampler;
+import jpja.webapp.service.LogParserService;
+
+/**
+ * Checks the weights the activity sampler hands out and that weighted
+ * activity lines are parsed back.
+ */
+public class ActivitySamplerTest {
+
+    @Test
+    void disabledSamplerLogsEverything() {
+        ActivitySampler sampler = new ActivitySampler(false, 1, 1);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(1, sampler.weigh(false));
+        }
+        assertEquals(1, sampler.getSampleEvery());
+    }
+
+    @Test
+    void sampledLinesCarryTheSamplingInterval() throws InterruptedException {
+        ActivitySampler sampler = new ActivitySampler(true, 1, 50);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(1, sampler.weigh(true));
+        }
+        Thread.sleep(60);
+        sampler.weigh(true);
+        assertTrue(sampler.getSampleEvery() > 1);
+
+        int written = 0;
+        for (int i = 0; i < 1000; i++) {
+            int weight = sampler.weigh(false);
+            if (weight != 0) {
+                written++;
+                assertTrue(weight > 1);
+            }
+        }
+        assertTrue(written < 1000);
+        assertEquals(1, sampler.weigh(true));
+    }
+
+    @Test
+    void rejectsNonPositiveSettings() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new ActivitySampler(true, 0, 1000));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ActivitySampler(true, 10, 0));
+    }
+
+    @Test
+    void weightedActivityLineIsParsed() {
+        String sample = "2025-01-06 01:43:29 [ACTIVITY] IP: 57.152.56.111 - Method: GET - URI: /css/styles.css - Query: NA - Weight: 12";
+        Matcher matcher = new LogParserService().getActivityPattern().matcher(sample);
+        assertTrue(matcher.find());
+        String[] expected = { "2025-01-06 01:43:29", "ACTIVITY", "57.152.56.111", "GET", "/css/styles.css", "NA", "12" };
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], matcher.group(i + 1));
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package jpja.webapp.application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jpja.webapp.repositories.BookingRepository;
+import jpja.webapp.repositories.BookingRow;
+import jpja.webapp.service.BookingExportService;
+import jpja.webapp.service.BookingExportService.Format;
+
+/**
+ * Exports stubbed rows and checks the CSV quoting and the NDJSON value types
+ * a spreadsheet or a reconciliation script relies on.
+ */
+public class BookingExportTest {
+    private static final String HEADER = String.join(",", BookingExportService.COLUMNS) + "\r\n";
+
+    private static BookingRow row(long id, String customer, String vendor, String zip, Double price) {
+        Map<String, Object> values = new HashMap<>();
+        values.put("getId", id);
+        values.put("getCustomerUsername", customer);
+        values.put("getVendorUsername", vendor);
+        values.put("getCreatedAt", LocalDateTime.of(2025, 2, 20, 8, 15));
+        values.put("getBookingDate", LocalDate.of(2025, 3, 1));
+        values.put("getBookingTime", LocalTime.of(9, 0));
+        values.put("getStatus", vendor == null ? "UNCLAIMED" : "CLAIMED");
+        values.put("getPrice", price);
+        values.put("getLocationId", 7L);
+        values.put("getZip", zip);
+        return (BookingRow) Proxy.newProxyInstance(BookingRow.class.getClassLoader(),
+                new Class<?>[] { BookingRow.class }, (proxy, method, args) -> values.get(method.getName()));
+    }
+
+    private static BookingExportService service(List<BookingRow> rows) {
+        BookingRepository repository = (BookingRepository) Proxy.newProxyInstance(
+                BookingRepository.class.getClassLoader(), new Class<?>[] { BookingRepository.class },
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("streamAllRows")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    return rows.stream();
+                });
+        return new BookingExportService(repository);
+    }
+
+    private static String export(Format format, BookingRow... rows) throws IOException {
+        StringWriter out = new StringWriter();
+        assertEquals(rows.length, service(List.of(rows)).export(format, out));
+        return out.toString();
+    }
+
+    @Test
+    void csvQuotesSeparatorsQuotesAndLineBreaks() throws IOException {
+        String csv = export(Format.CSV,
+                row(1, "smith, jr", "o\"neil", "07102", 80.0),
+                row(2, "line\nbreak", "carriage\rreturn", "07102\r\nunit 4", 90.5),
+                row(3, "plain", null, null, null));
+
+        assertEquals(HEADER
+                + "1,\"smith, jr\",\"o\"\"neil\",2025-02-20T08:15,2025-03-01,09:00,CLAIMED,80.0,7,07102,\r\n"
+                + "2,\"line\nbreak\",\"carriage\rreturn\",2025-02-20T08:15,2025-03-01,09:00,CLAIMED,90.5,7,"
+                + "\"07102\r\nunit 4\",\r\n"
+                + "3,plain,,2025-02-20T08:15,2025-03-01,09:00,UNCLAIMED,,7,,\r\n", csv);
+    }
+
+    @Test
+    void ndjsonKeepsNumbersAndNullsTyped() throws IOException {
+        String ndjson = export(Format.NDJSON,
+                row(1, "smith, jr", "o\"neil", "07102", 80.0),
+                row(2, "plain", null, null, null));
+
+        String[] lines = ndjson.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(ndjson.endsWith("\n"));
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode first = mapper.readTree(lines[0]);
+        JsonNode second = mapper.readTree(lines[1]);
+
+        assertTrue(first.get("id").isIntegralNumber());
+        assertEquals(1, first.get("id").asLong());
+        assertTrue(first.get("price").isFloatingPointNumber());
+        assertEquals(80.0, first.get("price").asDouble());
+        assertTrue(first.get("locationId").isIntegralNumber());
+        assertTrue(first.get("zip").isTextual());
+        assertEquals("o\"neil", first.get("vendor").asText());
+        assertEquals("2025-03-01", first.get("bookingDate").asText());
+        assertTrue(second.get("vendor").isNull());
+        assertTrue(second.get("price").isNull());
+        assertTrue(second.get("zip").isNull());
+        assertEquals(BookingExportService.COLUMNS.length, second.size());
+    }
+
+    @Test
+    void emptyTableStillWritesTheCsvHeader() throws IOException {
+        assertEquals(HEADER, export(Format.CSV));
+        assertEquals("", export(Format.NDJSON));
+    }
+}
@@ -0,0 +1,139 @@
+package jpja.webapp.application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import jpja.webapp.application.helper.BookingJpaTest;
+import jpja.webapp.model.dto.BookingImportResultDTO;
+import jpja.webapp.model.entities.Address;
+import jpja.webapp.model.entities.Customer;
+import jpja.webapp.model.entities.Vendor;
+import jpja.webapp.service.BookingImportService;
+import jpja.webapp.service.BookingMatcher;
+import jpja.webapp.service.EarningsLedger;
+import jpja.webapp.service.SlotCapacityIndex;
+import jpja.webapp.service.VendorCalendarService;
+
+/**
+ * Imports CSV files in small batches and checks what was written, what was
+ * rejected and why.
+ */
+public class BookingImportTest extends BookingJpaTest {
+    private static final String HEADER = "customer,vendor,address,date,time,price,status,type\n";
+
+    @Autowired
+    private EarningsLedger earningsLedger;
+    @Autowired
+    private SlotCapacityIndex slotCapacityIndex;
+    @Autowired
+    private BookingMatcher bookingMatcher;
+    @Autowired
+    private VendorCalendarService vendorCalendar;
+
+    private Customer customer;
+    private Vendor vendor;
+    private Address address;
+
+    @BeforeEach
+    void setUp() {
+        fixtures(fixtures -> {
+            for (String name : List.of("UNCLAIMED", "CLAIMED", "COMPLETED", "CANCELED")) {
+                fixtures.modifier("STATUS", name);
+            }
+            fixtures.modifier("TYPE", "LARGE");
+            customer = fixtures.customer();
+            vendor = fixtures.vendor();
+            address = fixtures.address();
+        });
+        modifierRegistry.refresh();
+    }
+
+    @AfterEach
+    void dropConstraint() {
+        jdbcTemplate.execute("ALTER TABLE bookings DROP CONSTRAINT IF EXISTS chk_import_test");
+    }
+
+    private BookingImportService service(int batchSize, int maxErrors) {
+        return new BookingImportService(jdbcTemplate, transactionManager, modifierRegistry, earningsLedger,
+                slotCapacityIndex, bookingMatcher, vendorCalendar, batchSize, maxErrors);
+    }
+
+    private static ByteArrayInputStream csv(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String row(String vendorName, String date, String price, String status, String type) {
+        return customer.getUsername() + "," + vendorName + "," + address.getId() + "," + date + ",09:00," + price
+                + "," + status + "," + type + "\n";
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+
+    @Test
+    void importsValidRowsAndReportsInvalidOnes() throws IOException {
+        String v = vendor.getUsername();
+        String file = HEADER
+                + row("", "2020-01-01", "80", "UNCLAIMED", "LARGE")
+                + row(v, "2020-01-02", "\"100.50\"", "COMPLETED", "LARGE")
+                + "nobody,," + address.getId() + ",2020-01-03,09:00,80,CANCELED,LARGE\n"
+                + row(v, "2020-01-04", "50", "COMPLETED", "LARGE")
+                + row(v, "2020-13-01", "80", "CLAIMED", "LARGE")
+                + "\n"
+                + row(v, "2020-01-05", "80", "UNCLAIMED", "LARGE")
+                + row("", "2020-01-06", "80", "CLAIMED", "LARGE")
+                + row("", "2020-01-07", "80", "CANCELED", "HUGE")
+                + row(v, "2020-01-08", "80", "CLAIMED", "LARGE");
+
+        BookingImportResultDTO result = service(2, 100).importCsv(csv(file));
+
+        assertEquals(4, result.getImported());
+        assertEquals(5, result.getRejected());
+        assertEquals(List.of("Line 4: Unknown customer nobody", "Line 6: Invalid date 2020-13-01",
+                "Line 8: UNCLAIMED booking cannot have a vendor", "Line 9: CLAIMED booking needs a vendor",
+                "Line 10: HUGE is not a valid TYPE."), result.getErrors());
+        assertEquals(4, count("SELECT COUNT(*) FROM bookings"));
+        assertEquals(8, count("SELECT COUNT(*) FROM booking_modifier_join"));
+        assertEquals(0, count("SELECT COUNT(*) FROM bookings b WHERE NOT EXISTS (SELECT 1 FROM booking_modifier_join j "
+                + "JOIN booking_modifiers m ON m.id = j.modifier_id WHERE j.booking_id = b.id AND m.type = 'STATUS' "
+                + "AND m.name = b.status)"));
+        assertEquals(15050, count("SELECT completed_cents FROM vendor_earnings WHERE vendor_id = " + vendor.getId()));
+    }
+
+    @Test
+    void rejectsOnlyTheRowsTheDatabaseRefuses() throws IOException {
+        jdbcTemplate.execute("ALTER TABLE bookings ADD CONSTRAINT chk_import_test CHECK (price <> 13)");
+        StringBuilder file = new StringBuilder(HEADER);
+        for (int i = 1; i <= 7; i++) {
+            file.append(row("", "2020-02-0" + i, i == 3 || i == 6 ? "13" : "80", "CANCELED", "LARGE"));
+        }
+
+        BookingImportResultDTO result = service(3, 1).importCsv(csv(file.toString()));
+
+        assertEquals(5, result.getImported());
+        assertEquals(2, result.getRejected());
+        assertEquals(1, result.getErrors().size());
+        assertTrue(result.getErrors().get(0).startsWith("Line 4: Rejected by the database"));
+        assertTrue(result.isTruncated());
+        assertEquals(5, count("SELECT COUNT(*) FROM bookings"));
+        assertEquals(10, count("SELECT COUNT(*) FROM booking_modifier_join"));
+    }
+
+    @Test
+    void rejectsHeaderWithoutRequiredColumns() {
+        assertThrows(IllegalArgumentException.class,
+                () -> service(2, 10).importCsv(csv("customer,address,date,time,status\n")));
+    }
+}
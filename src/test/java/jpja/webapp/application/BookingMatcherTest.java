@@ -0,0 +1,172 @@
+package jpja.webapp.application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+
+import jpja.webapp.model.entities.Address;
+import jpja.webapp.model.entities.Booking;
+import jpja.webapp.model.entities.BookingModifier;
+import jpja.webapp.model.entities.Vendor;
+import jpja.webapp.repositories.BookingRepository;
+import jpja.webapp.repositories.BookingRepository.MatchCandidate;
+import jpja.webapp.service.BookingMatcher;
+import jpja.webapp.service.ZipCentroids;
+import jpja.webapp.service.ZipCentroids.GeoPoint;
+
+/**
+ * Checks how the matcher ranks and filters bookings, that grid changes made
+ * during a rebuild survive it, and how ZIP codes are placed.
+ */
+public class BookingMatcherTest {
+    private static final LocalDate SOON = LocalDate.now().plusDays(1);
+    private static final LocalDate LATER = LocalDate.now().plusDays(10);
+
+    // Hoboken and Jersey City are a few miles apart, Princeton about 40 and Atlantic City about 110.
+    private final ZipCentroids zipCentroids = centroids("zip,latitude,longitude\n"
+            + "07030,40.745,-74.028\n"
+            + "07302,40.720,-74.046\n"
+            + "08540,40.357,-74.667\n"
+            + "08401,39.364,-74.434\n"
+            + "073,40.720,-74.060\n");
+
+    private final List<MatchCandidate> stored = new ArrayList<>();
+    private Runnable duringRead = () -> { };
+
+    // A repository holding the stored candidates, running duringRead while the rebuild reads them.
+    private final BookingRepository repository = (BookingRepository) Proxy.newProxyInstance(
+            BookingRepository.class.getClassLoader(), new Class<?>[] { BookingRepository.class },
+            (proxy, method, args) -> {
+                if (!method.getName().equals("findMatchCandidates")) {
+                    throw new UnsupportedOperationException(method.getName());
+                }
+                duringRead.run();
+                return new ArrayList<>(stored);
+            });
+
+    private final BookingMatcher matcher = new BookingMatcher(repository, zipCentroids, 25, 14);
+
+    private static ZipCentroids centroids(String csv) {
+        return new ZipCentroids(new ByteArrayResource(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static MatchCandidate candidate(long id, String zip, LocalDate date, Long sqft) {
+        return new MatchCandidate() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public LocalDate getBookingDate() {
+                return date;
+            }
+
+            @Override
+            public String getZip() {
+                return zip;
+            }
+
+            @Override
+            public Long getSqft() {
+                return sqft;
+            }
+        };
+    }
+
+    private static Booking unclaimed(long id, String zip, LocalDate date) {
+        Address address = new Address();
+        address.setZip(zip);
+        BookingModifier status = new BookingModifier();
+        status.setId(1L);
+        status.setType("STATUS");
+        status.setName("UNCLAIMED");
+        Booking booking = new Booking(null, null, address, null, date, null, 80.0, new HashSet<>());
+        booking.setId(id);
+        booking.addModifier(status);
+        return booking;
+    }
+
+    private static Vendor vendor(String zip, Long maxSqft) {
+        Vendor vendor = new Vendor();
+        vendor.setZip(zip);
+        vendor.setMax_sqft(maxSqft);
+        return vendor;
+    }
+
+    @Test
+    void nearbyBookingsThatFitAreRankedClosestAndSoonestFirst() {
+        stored.add(candidate(1, "07302", LATER, 1000L));
+        stored.add(candidate(2, "07030", SOON, 1000L));
+        stored.add(candidate(3, "07030", LATER, 1000L));
+        stored.add(candidate(4, "07030", SOON, 5000L));
+        stored.add(candidate(5, "08540", SOON, 1000L));
+        stored.add(candidate(6, "08401", SOON, 1000L));
+        stored.add(candidate(7, "99999", SOON, 1000L));
+        matcher.rebuild();
+
+        assertEquals(List.of(2L, 3L, 1L), matcher.match(vendor("07030", 2000L), 10));
+        assertEquals(List.of(2L, 3L), matcher.match(vendor("07030", 2000L), 2));
+        assertEquals(List.of(), matcher.match(vendor("99999", 2000L), 10));
+    }
+
+    @Test
+    void indexedAndRemovedBookingsFollowTheirStatus() {
+        matcher.index(unclaimed(1, "07030", SOON));
+        matcher.index(unclaimed(2, "07302", SOON));
+        assertEquals(List.of(1L, 2L), matcher.match(vendor("07030", null), 10));
+
+        Booking claimed = unclaimed(1, "07030", SOON);
+        claimed.removeModifier(claimed.getStatus());
+        matcher.index(claimed);
+        matcher.remove(2);
+
+        assertEquals(List.of(), matcher.match(vendor("07030", null), 10));
+    }
+
+    @Test
+    void rebuildKeepsChangesMadeWhileReading() {
+        stored.add(candidate(1, "07030", SOON, null));
+        stored.add(candidate(2, "07030", SOON, null));
+        matcher.rebuild();
+
+        duringRead = () -> {
+            matcher.index(unclaimed(3, "07302", SOON));
+            matcher.remove(2);
+        };
+        matcher.rebuild();
+
+        assertEquals(List.of(1L, 3L), matcher.match(vendor("07030", null), 10));
+    }
+
+    @Test
+    void zipCodesFallBackToTheirPrefix() {
+        GeoPoint exact = zipCentroids.locate("07302-1234");
+        GeoPoint prefix = zipCentroids.locate("07310");
+
+        assertEquals(-74.046, exact.getLongitude());
+        assertEquals(-74.060, prefix.getLongitude());
+        assertNull(zipCentroids.locate("99999"));
+    }
+
+    @Test
+    void gazetteerFilesAreReadAsDownloaded() {
+        ZipCentroids gazetteer = centroids(
+                "GEOID\tALAND\tAWATER\tALAND_SQMI\tAWATER_SQMI\tINTPTLAT\tINTPTLONG                                  \n"
+                        + "07030\t3246296\t1317000\t1.253\t0.508\t40.745255\t-74.027961              \n");
+
+        GeoPoint point = gazetteer.locate("07030");
+
+        assertEquals(40.745255, point.getLatitude());
+        assertEquals(-74.027961, point.getLongitude());
+    }
+}
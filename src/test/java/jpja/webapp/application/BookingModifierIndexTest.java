@@ -0,0 +1,96 @@
+package jpja.webapp.application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jpja.webapp.application.helper.BookingJpaTest;
+import jpja.webapp.model.entities.Booking;
+import jpja.webapp.model.entities.BookingModifier;
+import jpja.webapp.model.entities.ModifierType;
+
+/**
+ * Checks that a managed booking's modifier index follows the changes
+ * Hibernate makes to its modifier set in place, on merge and on refresh.
+ */
+public class BookingModifierIndexTest extends BookingJpaTest {
+
+    private BookingModifier unclaimed;
+    private BookingModifier claimed;
+    private BookingModifier standard;
+    private BookingModifier deep;
+    private long bookingId;
+
+    @BeforeEach
+    void setUp() {
+        fixtures(fixtures -> {
+            unclaimed = fixtures.modifier("STATUS", "UNCLAIMED");
+            claimed = fixtures.modifier("STATUS", "CLAIMED");
+            standard = fixtures.modifier("TYPE", "STANDARD");
+            deep = fixtures.modifier("TYPE", "DEEP");
+            bookingId = fixtures.booking(fixtures.customer(), null, fixtures.address(), LocalDate.of(2030, 1, 1),
+                    LocalTime.of(9, 0), 50.0, unclaimed, standard).getId();
+        });
+    }
+
+    @Test
+    void mergedTypeChangeIsSeen() {
+        Booking detached = new TransactionTemplate(transactionManager)
+                .execute(status -> em.find(Booking.class, bookingId));
+        detached.removeModifier(standard);
+        detached.addModifier(deep);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Booking managed = em.find(Booking.class, bookingId);
+            assertEquals(unclaimed, managed.getStatus());
+            assertEquals(Set.of(standard), managed.getModifiersByType(ModifierType.TYPE));
+
+            // The set keeps its size; merge replaces its elements in place.
+            em.merge(detached);
+
+            assertEquals(unclaimed, managed.getStatus());
+            assertEquals(Set.of(deep), managed.getModifiersByType(ModifierType.TYPE));
+        });
+    }
+
+    @Test
+    void mergedStatusChangeIsSeen() {
+        Booking detached = new TransactionTemplate(transactionManager)
+                .execute(status -> em.find(Booking.class, bookingId));
+        detached.removeModifier(unclaimed);
+        detached.addModifier(claimed);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Booking managed = em.find(Booking.class, bookingId);
+            assertEquals(unclaimed, managed.getStatus());
+
+            em.merge(detached);
+
+            assertEquals(claimed, managed.getStatus());
+            assertEquals("CLAIMED", managed.getStatusName());
+        });
+        assertEquals("CLAIMED", new TransactionTemplate(transactionManager)
+                .execute(status -> em.find(Booking.class, bookingId)).getStatus().getName());
+    }
+
+    @Test
+    void refreshOfAManagedBookingIsSeen() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Booking managed = em.find(Booking.class, bookingId);
+            assertEquals(unclaimed, managed.getStatus());
+
+            jdbcTemplate.update("UPDATE booking_modifier_join SET modifier_id = ? WHERE booking_id = ? "
+                    + "AND modifier_id = ?", deep.getId(), bookingId, standard.getId());
+            em.refresh(managed);
+
+            assertEquals(unclaimed, managed.getStatus());
+            assertEquals(Set.of(deep), managed.getModifiersByType(ModifierType.TYPE));
+        });
+    }
+}
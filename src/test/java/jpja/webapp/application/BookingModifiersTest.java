@@ -0,0 +1,84 @@
+package jpja.webapp.application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import jpja.webapp.exceptions.database.ConflictingModifiersException;
+import jpja.webapp.exceptions.database.ExpectedDataNotFoundException;
+import jpja.webapp.model.entities.Booking;
+import jpja.webapp.model.entities.BookingModifier;
+import jpja.webapp.model.entities.ModifierType;
+
+/**
+ * Checks that a booking's status and per-type modifiers follow its modifier
+ * set, including when the set's contents are replaced in place the way
+ * Hibernate refreshes or merges a loaded collection.
+ */
+public class BookingModifiersTest {
+    private final BookingModifier unclaimed = modifier(1, "STATUS", "UNCLAIMED");
+    private final BookingModifier claimed = modifier(2, "STATUS", "CLAIMED");
+    private final BookingModifier standard = modifier(3, "TYPE", "STANDARD");
+    private final BookingModifier pets = modifier(4, "EXTRA", "PETS");
+
+    private static BookingModifier modifier(long id, String type, String name) {
+        BookingModifier modifier = new BookingModifier();
+        modifier.setId(id);
+        modifier.setType(type);
+        modifier.setName(name);
+        return modifier;
+    }
+
+    private static Booking booking(Set<BookingModifier> modifiers) {
+        return new Booking(null, null, null, null, null, null, 80.0, modifiers);
+    }
+
+    @Test
+    void modifiersAreGroupedByType() {
+        Booking booking = booking(new HashSet<>(Set.of(unclaimed, standard, pets)));
+
+        assertEquals(Set.of(unclaimed), booking.getModifiersByType(ModifierType.STATUS));
+        assertEquals(Set.of(standard), booking.getModifiersByType("TYPE"));
+        assertEquals(Set.of(pets), booking.getModifiersByType("EXTRA"));
+        assertEquals(Set.of(), booking.getModifiersByType("OTHER"));
+        assertEquals("UNCLAIMED", booking.getStatusName());
+    }
+
+    @Test
+    void mutatorsKeepTheStatusCurrent() {
+        Booking booking = booking(new HashSet<>(Set.of(unclaimed, standard)));
+        assertEquals(unclaimed, booking.getStatus());
+
+        booking.removeModifier(unclaimed);
+        assertNull(booking.getStatusName());
+        assertThrows(ExpectedDataNotFoundException.class, booking::getStatus);
+
+        booking.addModifier(claimed);
+        assertEquals(claimed, booking.getStatus());
+        assertEquals("CLAIMED", booking.getStatusName());
+
+        booking.addModifier(unclaimed);
+        assertThrows(ConflictingModifiersException.class, booking::getStatus);
+    }
+
+    @Test
+    void setRefreshedInPlaceIsSeen() {
+        Set<BookingModifier> loaded = new HashSet<>(Set.of(unclaimed, standard));
+        Booking booking = booking(loaded);
+        assertEquals(unclaimed, booking.getStatus());
+        assertEquals(Set.of(standard), booking.getModifiersByType(ModifierType.TYPE));
+
+        // Hibernate refreshes a loaded collection by replacing its elements, not the set itself.
+        loaded.clear();
+        loaded.add(claimed);
+
+        assertEquals(claimed, booking.getStatus());
+        assertEquals(Set.of(claimed), booking.getModifiersByType(ModifierType.STATUS));
+        assertEquals(Set.of(), booking.getModifiersByType(ModifierType.TYPE));
+    }
+}
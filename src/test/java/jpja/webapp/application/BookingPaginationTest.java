@@ -0,0 +1,184 @@
+package jpja.webapp.application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+
+import jpja.webapp.application.helper.BookingJpaTest;
+import jpja.webapp.model.dto.BookingDTO;
+import jpja.webapp.model.dto.BookingPageDTO;
+import jpja.webapp.model.entities.Address;
+import jpja.webapp.model.entities.Booking;
+import jpja.webapp.model.entities.BookingModifier;
+import jpja.webapp.model.entities.Customer;
+import jpja.webapp.model.entities.Vendor;
+import jpja.webapp.repositories.BookingRepository;
+import jpja.webapp.repositories.BookingRow;
+import jpja.webapp.service.BookingCursor;
+import jpja.webapp.service.BookingService;
+
+/**
+ * Pages through the vendor, customer and unclaimed booking lists by keyset
+ * cursor. Most bookings share their (date, time) with others, so a page
+ * boundary usually falls inside a tie and only the id decides what comes
+ * next.
+ */
+public class BookingPaginationTest extends BookingJpaTest {
+    private static final LocalDate DATE = LocalDate.of(2025, 3, 1);
+    private static final Comparator<Booking> ORDER = Comparator.comparing(Booking::getBookingDate)
+            .thenComparing(Booking::getBookingTime).thenComparing(Booking::getId);
+    // Four rows a page puts boundaries both inside and between ties.
+    private static final int PAGE = 4;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private Vendor vendor;
+    private Customer customer;
+    private final List<Booking> bookings = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        fixtures(fixtures -> {
+            BookingModifier unclaimed = fixtures.modifier("STATUS", "UNCLAIMED");
+            BookingModifier claimed = fixtures.modifier("STATUS", "CLAIMED");
+            vendor = fixtures.vendor();
+            customer = fixtures.customer();
+            Vendor otherVendor = fixtures.vendor();
+            Customer otherCustomer = fixtures.customer();
+            Address address = fixtures.address();
+            // Ids run against the (date, time) order: later slots are inserted first.
+            for (int i = 44; i >= 0; i--) {
+                LocalDate date = DATE.plusDays(i % 3);
+                LocalTime time = i % 2 == 0 ? LocalTime.of(9, 0) : LocalTime.of(14, 30);
+                Vendor v = i % 5 == 4 ? otherVendor : vendor;
+                Customer c = i % 7 == 6 ? otherCustomer : customer;
+                bookings.add(fixtures.booking(c, v, address, date, time, 100.0 + i,
+                        i % 4 == 3 ? claimed : unclaimed));
+            }
+        });
+    }
+
+    private List<Long> expected(Predicate<Booking> filter) {
+        return bookings.stream().filter(filter).sorted(ORDER).map(Booking::getId).toList();
+    }
+
+    // Follows the repository's cursors until a short page, as the service does.
+    private static List<Long> pageRows(Function<BookingCursor, List<BookingRow>> fetch) {
+        List<Long> ids = new ArrayList<>();
+        BookingCursor cursor = null;
+        List<BookingRow> rows;
+        do {
+            rows = fetch.apply(cursor);
+            assertTrue(rows.size() <= PAGE);
+            for (BookingRow row : rows) {
+                ids.add(row.getId());
+            }
+            if (!rows.isEmpty()) {
+                BookingRow last = rows.get(rows.size() - 1);
+                cursor = BookingCursor.decode(
+                        new BookingCursor(last.getBookingDate(), last.getBookingTime(), last.getId()).encode());
+            }
+        } while (rows.size() == PAGE);
+        return ids;
+    }
+
+    private static List<Long> pageService(Function<String, BookingPageDTO> fetch) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            BookingPageDTO page = fetch.apply(cursor);
+            for (BookingDTO booking : page.getBookings()) {
+                ids.add(booking.getId());
+            }
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return ids;
+    }
+
+    private static List<Long> ids(BookingPageDTO page) {
+        return page.getBookings().stream().map(BookingDTO::getId).toList();
+    }
+
+    @Test
+    void vendorPagesHaveNoGapsOrDuplicates() {
+        List<Long> ids = pageRows(after -> after == null
+                ? bookingRepository.findRowsByVendor(vendor.getId(), Limit.of(PAGE))
+                : bookingRepository.findRowsByVendorAfter(vendor.getId(), after.getDate(), after.getTime(),
+                        after.getId(), Limit.of(PAGE)));
+
+        assertEquals(expected(b -> b.getVendor().getId() == vendor.getId()), ids);
+    }
+
+    @Test
+    void customerPagesHaveNoGapsOrDuplicates() {
+        List<Long> ids = pageRows(after -> after == null
+                ? bookingRepository.findRowsByCustomer(customer.getId(), Limit.of(PAGE))
+                : bookingRepository.findRowsByCustomerAfter(customer.getId(), after.getDate(), after.getTime(),
+                        after.getId(), Limit.of(PAGE)));
+
+        assertEquals(expected(b -> b.getCustomer().getId() == customer.getId()), ids);
+    }
+
+    @Test
+    void statusPagesHaveNoGapsOrDuplicates() {
+        List<Long> ids = pageRows(after -> after == null
+                ? bookingRepository.findRowsByStatus("UNCLAIMED", Limit.of(PAGE))
+                : bookingRepository.findRowsByStatusAfter("UNCLAIMED", after.getDate(), after.getTime(),
+                        after.getId(), Limit.of(PAGE)));
+
+        assertEquals(expected(b -> "UNCLAIMED".equals(b.getStatusName())), ids);
+    }
+
+    @Test
+    void servicePagesFollowTheirCursors() {
+        assertEquals(expected(b -> b.getVendor().getId() == vendor.getId()),
+                pageService(cursor -> bookingService.getBookingsByVendor(vendor, cursor)));
+        assertEquals(expected(b -> b.getCustomer().getId() == customer.getId()),
+                pageService(cursor -> bookingService.getBookingsByCustomer(customer, cursor)));
+        assertEquals(expected(b -> "UNCLAIMED".equals(b.getStatusName())),
+                pageService(bookingService::getUnclaimedBookings));
+    }
+
+    @Test
+    void malformedCursorFallsBackToTheFirstPage() {
+        BookingPageDTO first = bookingService.getBookingsByVendor(vendor, null);
+        assertNotNull(first.getNextCursor());
+
+        for (String cursor : List.of("garbage", "2025-03-01_09:00", "2025-13-01_09:00_1", "2025-03-01_9am_1",
+                "2025-03-01_09:00_x")) {
+            assertEquals(ids(first), ids(bookingService.getBookingsByVendor(vendor, cursor)), cursor);
+        }
+        assertEquals(ids(bookingService.getUnclaimedBookings(null)), ids(bookingService.getUnclaimedBookings("_")));
+    }
+
+    @Test
+    void cursorRoundTrips() {
+        BookingCursor cursor = new BookingCursor(DATE, LocalTime.of(14, 30), 42);
+
+        assertEquals("2025-03-01_14:30_42", cursor.encode());
+        BookingCursor decoded = BookingCursor.decode(cursor.encode());
+        assertEquals(DATE, decoded.getDate());
+        assertEquals(LocalTime.of(14, 30), decoded.getTime());
+        assertEquals(42, decoded.getId());
+        assertNull(BookingCursor.decode(""));
+        assertThrows(IllegalArgumentException.class, () -> BookingCursor.decode("2025-03-01_14:30"));
+    }
+}
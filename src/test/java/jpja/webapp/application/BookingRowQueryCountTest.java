@@ -0,0 +1,127 @@
+package jpja.webapp.application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Set;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jpja.webapp.application.helper.BookingFixtures;
+import jpja.webapp.application.helper.JpaTestConfig;
+import jpja.webapp.factories.BookingDTOFactory;
+import jpja.webapp.model.dto.BookingDTO;
+import jpja.webapp.model.entities.Address;
+import jpja.webapp.model.entities.AddressType;
+import jpja.webapp.model.entities.BookingModifier;
+import jpja.webapp.model.entities.Customer;
+import jpja.webapp.model.entities.Vendor;
+import jpja.webapp.repositories.BookingRepository;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(classes = JpaTestConfig.class)
+@ActiveProfiles("jpatest")
+public class BookingRowQueryCountTest {
+    private static final int BOOKINGS = 40;
+    private static final LocalDate START = LocalDate.of(2030, 1, 1);
+
+    @Autowired
+    private EntityManager em;
+    @Autowired
+    private EntityManagerFactory emf;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private Statistics statistics;
+    private Customer customer;
+    private Vendor vendor;
+    private AddressType home;
+
+    @BeforeEach
+    void setUp() {
+        BookingFixtures fixtures = new BookingFixtures(em);
+        customer = fixtures.customer();
+        vendor = fixtures.vendor();
+        home = fixtures.addressType("HOME");
+        BookingModifier claimed = fixtures.modifier("STATUS", "CLAIMED");
+        BookingModifier unclaimed = fixtures.modifier("STATUS", "UNCLAIMED");
+        BookingModifier large = fixtures.modifier("TYPE", "LARGE");
+        for (int i = 0; i < BOOKINGS; i++) {
+            Address address = fixtures.address(home);
+            if (i % 2 == 0) {
+                fixtures.booking(customer, vendor, address, START.plusDays(i), LocalTime.of(9, 0), 80.0, claimed, large);
+            } else {
+                fixtures.booking(customer, null, address, START.plusDays(i), LocalTime.of(9, 0), 80.0, unclaimed);
+            }
+        }
+        em.flush();
+        em.clear();
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void customerRowsLoadInOneStatement() {
+        List<BookingDTO> dtos = BookingDTOFactory
+                .copyBookingRowsToDTO(bookingRepository.findRowsByCustomer(customer.getId(), Limit.of(BOOKINGS)));
+        assertEquals(BOOKINGS, dtos.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void statusRowsLoadInOneStatement() {
+        List<BookingDTO> dtos = BookingDTOFactory
+                .copyBookingRowsToDTO(bookingRepository.findRowsByStatus("UNCLAIMED", Limit.of(BOOKINGS)));
+        assertEquals(BOOKINGS / 2, dtos.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void entityMappingIssuesQueriesPerBooking() {
+        // The entity path this replaces: one query, then more for each booking's graph.
+        bookingRepository.findByCustomer(customer).forEach(BookingDTOFactory::copyToBookingDTO);
+        assertTrue(statistics.getPrepareStatementCount() > BOOKINGS);
+    }
+
+    @Test
+    void rowMatchesEntityMapping() {
+        List<BookingDTO> rows = BookingDTOFactory
+                .copyBookingRowsToDTO(bookingRepository.findRowsByVendor(vendor.getId(), Limit.of(1)));
+        BookingDTO row = rows.get(0);
+        BookingDTO entity = BookingDTOFactory.copyToBookingDTO(bookingRepository.findById(row.getId()).orElseThrow());
+        assertEquals(entity.getCustomerIdentifier(), row.getCustomerIdentifier());
+        assertEquals(entity.getVendorIdentifier(), row.getVendorIdentifier());
+        assertEquals(entity.getBookingDate(), row.getBookingDate());
+        assertEquals(entity.getBookingTime(), row.getBookingTime());
+        assertEquals(entity.getPrice(), row.getPrice());
+        assertEquals(entity.getStatus(), row.getStatus());
+        assertEquals(entity.getModifiers(), row.getModifiers());
+        assertEquals(Set.of("STATUS_CLAIMED", "TYPE_LARGE"), row.getModifiers());
+        assertEquals(entity.getLocation().getAddress(), row.getLocation().getAddress());
+        assertEquals(home.getId(), row.getLocation().getTypeId());
+    }
+
+    @Test
+    void unclaimedRowHasNoVendor() {
+        BookingDTO row = BookingDTOFactory
+                .copyBookingRowsToDTO(bookingRepository.findRowsByStatus("UNCLAIMED", Limit.of(1))).get(0);
+        assertNull(row.getVendorIdentifier());
+        assertEquals(Set.of("STATUS_UNCLAIMED"), row.getModifiers());
+    }
+}
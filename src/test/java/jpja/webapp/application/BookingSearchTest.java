@@ -0,0 +1,309 @@
+package jpja.webapp.application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jpja.webapp.application.helper.BookingFixtures;
+import jpja.webapp.application.helper.JpaTestConfig;
+import jpja.webapp.model.dto.BookingDTO;
+import jpja.webapp.model.dto.BookingSearchDTO;
+import jpja.webapp.model.dto.BookingSearchPageDTO;
+import jpja.webapp.model.entities.Address;
+import jpja.webapp.model.entities.Booking;
+import jpja.webapp.model.entities.BookingModifier;
+import jpja.webapp.model.entities.Customer;
+import jpja.webapp.model.entities.Vendor;
+import jpja.webapp.repositories.BookingRepository;
+import jpja.webapp.repositories.BookingSpecifications;
+import jpja.webapp.repositories.ModifierRepository;
+import jpja.webapp.repositories.UserRepository;
+import jpja.webapp.service.BookingCursor;
+import jpja.webapp.service.BookingSearchService;
+import jpja.webapp.service.ModifierRegistry;
+
+/**
+ * Checks the admin booking search against a filter over the fixtures, and
+ * benchmarks it over a million bookings when run with
+ * {@code -Djpja.benchmark=true}.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(classes = JpaTestConfig.class)
+@ActiveProfiles("jpatest")
+public class BookingSearchTest {
+    private static final LocalDate START = LocalDate.of(2030, 1, 1);
+    private static final Comparator<Booking> ORDER = Comparator.comparing(Booking::getBookingDate)
+            .thenComparing(Booking::getBookingTime).thenComparing(Booking::getId);
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingSearchTest.class);
+
+    @Autowired
+    private EntityManager em;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ModifierRepository modifierRepository;
+
+    private BookingFixtures fixtures;
+    private ModifierRegistry modifierRegistry;
+    private BookingModifier unclaimed;
+    private BookingModifier claimed;
+    private BookingModifier large;
+    private BookingModifier small;
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new BookingFixtures(em);
+        unclaimed = fixtures.modifier("STATUS", "UNCLAIMED");
+        claimed = fixtures.modifier("STATUS", "CLAIMED");
+        large = fixtures.modifier("TYPE", "LARGE");
+        small = fixtures.modifier("TYPE", "SMALL");
+        em.flush();
+        modifierRegistry = new ModifierRegistry(modifierRepository);
+        modifierRegistry.refresh();
+    }
+
+    private BookingSearchService service(int pageSize, int countLimit) {
+        return new BookingSearchService(em, bookingRepository, userRepository, modifierRegistry, pageSize,
+                countLimit);
+    }
+
+    private static BookingSearchDTO criteria(Consumer<BookingSearchDTO> setup) {
+        BookingSearchDTO criteria = new BookingSearchDTO();
+        setup.accept(criteria);
+        return criteria;
+    }
+
+    // Follows the cursors to the end and returns every booking id in order.
+    private static List<Long> allPages(BookingSearchService service, BookingSearchDTO criteria) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            BookingSearchPageDTO page = service.search(criteria, cursor);
+            for (BookingDTO booking : page.getBookings()) {
+                ids.add(booking.getId());
+            }
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return ids;
+    }
+
+    private List<Booking> mixedBookings() {
+        Customer alice = fixtures.customer();
+        Customer bob = fixtures.customer();
+        Vendor vendor = fixtures.vendor();
+        Address newark = fixtures.address();
+        Address trenton = fixtures.address();
+        trenton.setZip("08608");
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < 90; i++) {
+            boolean isClaimed = i % 3 == 0;
+            bookings.add(fixtures.booking(i % 2 == 0 ? alice : bob, isClaimed ? vendor : null,
+                    i % 5 == 0 ? trenton : newark, START.plusDays(i / 2), LocalTime.of(8 + i % 2 * 6, 0), 80.0,
+                    isClaimed ? claimed : unclaimed, i % 4 == 0 ? large : small));
+        }
+        em.flush();
+        return bookings;
+    }
+
+    private static List<Long> expected(List<Booking> bookings, Predicate<Booking> filter) {
+        return bookings.stream().filter(filter).sorted(ORDER).map(Booking::getId).toList();
+    }
+
+    @Test
+    void pagesMatchFilterForEachCombination() {
+        List<Booking> bookings = mixedBookings();
+        BookingSearchService search = service(7, 1000);
+        String vendor = bookings.stream().filter(b -> b.getVendor() != null).findFirst().get().getVendor()
+                .getUsername();
+        String customer = bookings.get(0).getCustomer().getUsername();
+        LocalDate from = START.plusDays(10);
+        LocalDate to = START.plusDays(30);
+
+        assertEquals(expected(bookings, b -> true), allPages(search, new BookingSearchDTO()));
+        assertEquals(expected(bookings, b -> b.getStatusName().equals("CLAIMED")),
+                allPages(search, criteria(c -> c.setStatus("CLAIMED"))));
+        assertEquals(expected(bookings, b -> !b.getBookingDate().isBefore(from) && !b.getBookingDate().isAfter(to)
+                && b.getStatusName().equals("UNCLAIMED")),
+                allPages(search, criteria(c -> { c.setFrom(from); c.setTo(to); c.setStatus("UNCLAIMED"); })));
+        assertEquals(expected(bookings, b -> b.getVendor() != null && b.getVendor().getUsername().equals(vendor)),
+                allPages(search, criteria(c -> c.setVendor(vendor))));
+        assertEquals(expected(bookings, b -> b.getCustomer().getUsername().equals(customer)
+                && b.getStatusName().equals("CLAIMED")),
+                allPages(search, criteria(c -> { c.setCustomer(customer); c.setStatus("CLAIMED"); })));
+        assertEquals(expected(bookings, b -> b.getLocation().getZip().equals("08608")),
+                allPages(search, criteria(c -> c.setZip("08608"))));
+        assertEquals(expected(bookings, b -> b.getModifiers().contains(large) && !b.getBookingDate().isBefore(from)),
+                allPages(search, criteria(c -> { c.setType("LARGE"); c.setFrom(from); })));
+    }
+
+    @Test
+    void firstPageCountsExactlyUpToLimit() {
+        List<Booking> bookings = mixedBookings();
+        BookingSearchPageDTO first = service(7, 1000).search(criteria(c -> c.setStatus("CLAIMED")), null);
+        assertEquals(expected(bookings, b -> b.getStatusName().equals("CLAIMED")).size(), first.getMatchCount());
+        assertFalse(first.isApproximate());
+        assertNull(service(7, 1000).search(criteria(c -> c.setStatus("CLAIMED")), first.getNextCursor())
+                .getMatchCount());
+    }
+
+    @Test
+    void countIsEstimatedPastLimit() {
+        List<Booking> bookings = mixedBookings();
+        BookingSearchPageDTO first = service(7, 20).search(new BookingSearchDTO(), null);
+        assertTrue(first.isApproximate());
+        assertTrue(Math.abs(first.getMatchCount() - bookings.size()) <= bookings.size() / 10,
+                "estimate " + first.getMatchCount() + " for " + bookings.size());
+        assertEquals(7, first.getBookings().size());
+    }
+
+    @Test
+    void unknownNamesMatchNothingAndBadCriteriaAreRejected() {
+        mixedBookings();
+        BookingSearchService search = service(7, 1000);
+        BookingSearchPageDTO page = search.search(criteria(c -> c.setVendor("nobody")), null);
+        assertTrue(page.isEmpty());
+        assertEquals(0L, page.getMatchCount());
+        assertTrue(search.search(criteria(c -> c.setType("HUGE")), null).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> search.search(criteria(c -> c.setStatus("LOST")), null));
+        assertThrows(IllegalArgumentException.class,
+                () -> search.search(criteria(c -> { c.setFrom(START.plusDays(2)); c.setTo(START); }), null));
+    }
+
+    /**
+     * Loads a million bookings over five years ({@code -Djpja.benchmark.rows}
+     * to change) and logs, for each common filter combination, the time of the
+     * first page with its count, a page deep into the results, an exact
+     * COUNT(*) and an OFFSET page. The absolute numbers are H2's; run EXPLAIN
+     * against MariaDB to check the index plans themselves.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "jpja.benchmark", matches = "true")
+    void benchmarkOverMillionBookings() {
+        int rows = Integer.getInteger("jpja.benchmark.rows", 1_000_000);
+        List<Customer> customers = new ArrayList<>();
+        List<Vendor> vendors = new ArrayList<>();
+        List<Address> addresses = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            customers.add(fixtures.customer());
+        }
+        for (int i = 0; i < 50; i++) {
+            vendors.add(fixtures.vendor());
+        }
+        for (int i = 0; i < 100; i++) {
+            Address address = fixtures.address();
+            address.setZip(String.format("07%03d", i % 10));
+            addresses.add(address);
+        }
+        em.flush();
+        em.clear();
+
+        // Generated in one statement: the fixtures' users and addresses have consecutive ids.
+        long loadStart = System.nanoTime();
+        jdbcTemplate.update("INSERT INTO bookings (customer_id, vendor_id, location_id, created_at, booking_date, "
+                + "booking_time, price, status, version) SELECT " + customers.get(0).getId() + " + MOD(n * 7919, 200), "
+                + "CASE WHEN MOD(n / 3, 4) = 0 THEN NULL ELSE " + vendors.get(0).getId() + " + MOD(n * 104729, 50) END, "
+                + addresses.get(0).getId() + " + MOD(n * 31, 100), CURRENT_TIMESTAMP, "
+                + "DATEADD('DAY', MOD(n * 7907, 1825), DATE '" + START + "'), "
+                + "DATEADD('HOUR', 6 + MOD(n * 17, 14), TIME '00:00:00'), 100.0, "
+                + "CASE MOD(n / 3, 4) WHEN 0 THEN 'UNCLAIMED' WHEN 1 THEN 'CLAIMED' WHEN 2 THEN 'COMPLETED' "
+                + "ELSE 'CANCELED' END, 0 FROM SYSTEM_RANGE(1, " + rows + ") AS r(n)");
+        jdbcTemplate.update("INSERT INTO booking_modifier_join (booking_id, modifier_id) "
+                + "SELECT id, CASE WHEN MOD(id, 4) = 0 THEN ? ELSE ? END FROM bookings", large.getId(), small.getId());
+        logger.info("Loaded {} bookings in {} ms", rows, (System.nanoTime() - loadStart) / 1_000_000);
+
+        BookingSearchService search = service(20, 10_000);
+        String vendor = vendors.get(0).getUsername();
+        String customer = customers.get(0).getUsername();
+        LocalDate from = START.plusYears(1);
+        LocalDate to = START.plusYears(1).plusMonths(3);
+        long vendorId = vendors.get(0).getId();
+        long customerId = customers.get(0).getId();
+        Specification<Booking> dates = BookingSpecifications.bookedBetween(from, to);
+        benchmark(search, "none", new BookingSearchDTO(), Specification.allOf());
+        benchmark(search, "date", criteria(c -> { c.setFrom(from); c.setTo(to); }), dates);
+        benchmark(search, "status", criteria(c -> c.setStatus("CLAIMED")), BookingSpecifications.hasStatus("CLAIMED"));
+        benchmark(search, "status+date", criteria(c -> { c.setStatus("CLAIMED"); c.setFrom(from); c.setTo(to); }),
+                BookingSpecifications.hasStatus("CLAIMED").and(dates));
+        benchmark(search, "vendor", criteria(c -> c.setVendor(vendor)), BookingSpecifications.hasVendor(vendorId));
+        benchmark(search, "vendor+status", criteria(c -> { c.setVendor(vendor); c.setStatus("COMPLETED"); }),
+                BookingSpecifications.hasVendor(vendorId).and(BookingSpecifications.hasStatus("COMPLETED")));
+        benchmark(search, "customer+status", criteria(c -> { c.setCustomer(customer); c.setStatus("CLAIMED"); }),
+                BookingSpecifications.hasCustomer(customerId).and(BookingSpecifications.hasStatus("CLAIMED")));
+        benchmark(search, "zip", criteria(c -> c.setZip("07003")), BookingSpecifications.inZip("07003"));
+        benchmark(search, "type+date", criteria(c -> { c.setType("LARGE"); c.setFrom(from); c.setTo(to); }),
+                BookingSpecifications.hasModifier(large).and(dates));
+    }
+
+    private long exactCount(Specification<Booking> filter) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Booking> root = query.from(Booking.class);
+        query.select(cb.count(root));
+        jakarta.persistence.criteria.Predicate predicate = filter.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return em.createQuery(query).getSingleResult();
+    }
+
+    private void benchmark(BookingSearchService search, String name, BookingSearchDTO criteria,
+            Specification<Booking> filter) {
+        search.search(criteria, null);
+        long start = System.nanoTime();
+        BookingSearchPageDTO first = search.search(criteria, null);
+        long firstMicros = (System.nanoTime() - start) / 1000;
+
+        String deepCursor = new BookingCursor(START.plusYears(2).plusMonths(6), LocalTime.MIDNIGHT, 0).encode();
+        start = System.nanoTime();
+        BookingSearchPageDTO deep = search.search(criteria, deepCursor);
+        long deepMicros = (System.nanoTime() - start) / 1000;
+
+        start = System.nanoTime();
+        long exactCount = exactCount(filter);
+        long exactMicros = (System.nanoTime() - start) / 1000;
+
+        start = System.nanoTime();
+        jdbcTemplate.queryForList("SELECT id FROM bookings ORDER BY booking_date, booking_time, id "
+                + "LIMIT 20 OFFSET " + exactCount / 2, Long.class);
+        long offsetMicros = (System.nanoTime() - start) / 1000;
+
+        logger.info("{}: first page {} us ({}{} of {}), deep page {} us ({} rows), exact count {} us, "
+                + "unfiltered offset page {} us", name, firstMicros, first.isApproximate() ? "~" : "",
+                first.getMatchCount(), exactCount, deepMicros, deep.getBookings().size(), exactMicros, offsetMicros);
+        assertTrue(first.getMatchCount() > 0);
+        assertTrue(first.isApproximate() || first.getMatchCount() == exactCount);
+    }
+}
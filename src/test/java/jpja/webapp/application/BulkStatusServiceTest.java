@@ -0,0 +1,145 @@
+package jpja.webapp.application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import jpja.webapp.application.helper.BookingJpaTest;
+import jpja.webapp.model.entities.Address;
+import jpja.webapp.model.entities.BookingModifier;
+import jpja.webapp.model.entities.BookingStatus;
+import jpja.webapp.model.entities.Customer;
+import jpja.webapp.model.entities.Vendor;
+import jpja.webapp.service.BookingOutbox;
+import jpja.webapp.service.BulkStatusService;
+import jpja.webapp.service.BulkStatusService.ChunkRow;
+import jpja.webapp.service.EarningsLedger;
+import jpja.webapp.service.VendorCalendarService;
+
+/**
+ * Checks that a chunk skips the bookings that left the expected status after
+ * they were selected, whether or not the driver reports per-row counts, and
+ * that a bulk transition walks every chunk of its date.
+ */
+public class BulkStatusServiceTest extends BookingJpaTest {
+    private static final LocalDate DATE = LocalDate.of(2020, 1, 1);
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private EarningsLedger earningsLedger;
+    @Autowired
+    private BookingOutbox bookingOutbox;
+    @Autowired
+    private VendorCalendarService vendorCalendar;
+
+    private final List<ChunkRow> chunk = new ArrayList<>();
+    private BookingModifier completed;
+    private Vendor vendor;
+    private Customer customer;
+    private Address address;
+
+    @BeforeEach
+    void setUp() {
+        fixtures(fixtures -> {
+            BookingModifier claimed = fixtures.modifier("STATUS", "CLAIMED");
+            completed = fixtures.modifier("STATUS", "COMPLETED");
+            fixtures.modifier("STATUS", "PENDING_PAYOUT");
+            fixtures.modifier("STATUS", "CANCELED");
+            customer = fixtures.customer();
+            vendor = fixtures.vendor();
+            address = fixtures.address();
+            for (int i = 0; i < 3; i++) {
+                long id = fixtures.booking(customer, vendor, address, DATE, LocalTime.of(9 + i, 0), 10.0, claimed)
+                        .getId();
+                chunk.add(new ChunkRow(id, vendor.getId(), 10.0, DATE));
+            }
+        });
+        modifierRegistry.refresh();
+        // Another writer cancels the second booking after the chunk was selected.
+        long canceledId = modifierRegistry.findByTypeAndName("STATUS", "CANCELED").orElseThrow().getId();
+        jdbcTemplate.update("UPDATE bookings SET status = 'CANCELED', version = version + 1 WHERE id = ?",
+                chunk.get(1).getId());
+        jdbcTemplate.update("UPDATE booking_modifier_join SET modifier_id = ? WHERE booking_id = ?", canceledId,
+                chunk.get(1).getId());
+    }
+
+    private BulkStatusService service(JdbcTemplate jdbc) {
+        return new BulkStatusService(jdbc, transactionManager, modifierRegistry, earningsLedger, bookingOutbox,
+                vendorCalendar, 500);
+    }
+
+    private void assertOnlyTheUnchangedBookingsMoved(int moved) {
+        assertEquals(2, moved);
+        assertEquals(List.of("COMPLETED", "CANCELED", "COMPLETED"), jdbcTemplate.queryForList(
+                "SELECT status FROM bookings ORDER BY id", String.class));
+        assertEquals(List.of("COMPLETED", "CANCELED", "COMPLETED"), jdbcTemplate.queryForList(
+                "SELECT m.name FROM booking_modifier_join j JOIN booking_modifiers m ON m.id = j.modifier_id "
+                        + "ORDER BY j.booking_id", String.class));
+        assertEquals(List.of(chunk.get(0).getId(), chunk.get(2).getId()), jdbcTemplate.queryForList(
+                "SELECT booking_id FROM booking_events ORDER BY id", Long.class));
+        assertEquals(2000L, jdbcTemplate.queryForObject("SELECT completed_cents FROM vendor_earnings", Long.class));
+    }
+
+    @Test
+    void chunkSkipsBookingsChangedSinceTheyWereSelected() {
+        int moved = service(jdbcTemplate).applyChunk(chunk, BookingStatus.CLAIMED, BookingStatus.COMPLETED);
+
+        assertOnlyTheUnchangedBookingsMoved(moved);
+    }
+
+    @Test
+    void chunkRereadsTheStatusWhenTheDriverReportsNoCounts() {
+        JdbcTemplate noCounts = new JdbcTemplate(dataSource) {
+            @Override
+            public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+                int[] counts = super.batchUpdate(sql, batchArgs);
+                Arrays.fill(counts, Statement.SUCCESS_NO_INFO);
+                return counts;
+            }
+        };
+
+        int moved = service(noCounts).applyChunk(chunk, BookingStatus.CLAIMED, BookingStatus.COMPLETED);
+
+        assertOnlyTheUnchangedBookingsMoved(moved);
+    }
+
+    @Test
+    void transitionMovesEveryBookingOfTheDateInChunks() {
+        List<Long> sameDay = new ArrayList<>();
+        fixtures(fixtures -> {
+            for (int i = 0; i < 5; i++) {
+                sameDay.add(fixtures.booking(customer, vendor, address, DATE, LocalTime.of(13, i), 10.0, completed)
+                        .getId());
+            }
+            fixtures.booking(customer, vendor, address, DATE.plusDays(1), LocalTime.of(9, 0), 10.0, completed);
+        });
+        BulkStatusService service = new BulkStatusService(jdbcTemplate, transactionManager, modifierRegistry,
+                earningsLedger, bookingOutbox, vendorCalendar, 2);
+
+        int moved = service.transition(BookingStatus.COMPLETED, BookingStatus.PENDING_PAYOUT, DATE);
+
+        assertEquals(5, moved);
+        assertEquals(sameDay, jdbcTemplate.queryForList(
+                "SELECT id FROM bookings WHERE status = 'PENDING_PAYOUT' ORDER BY id", Long.class));
+        assertEquals(sameDay, jdbcTemplate.queryForList(
+                "SELECT j.booking_id FROM booking_modifier_join j JOIN booking_modifiers m ON m.id = j.modifier_id "
+                        + "WHERE m.name = 'PENDING_PAYOUT' ORDER BY j.booking_id", Long.class));
+        assertEquals(List.of("CLAIMED", "CANCELED", "CLAIMED", "COMPLETED"), jdbcTemplate.queryForList(
+                "SELECT status FROM bookings WHERE status <> 'PENDING_PAYOUT' ORDER BY id", String.class));
+        assertEquals(5000L, jdbcTemplate.queryForObject("SELECT pending_cents FROM vendor_earnings", Long.class));
+        assertEquals(0, service.transition(BookingStatus.COMPLETED, BookingStatus.PENDING_PAYOUT, DATE));
+    }
+}
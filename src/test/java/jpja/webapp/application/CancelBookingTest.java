@@ -0,0 +1,64 @@
+package jpja.webapp.application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import jpja.webapp.application.helper.BookingJpaTest;
+import jpja.webapp.model.entities.BookingModifier;
+import jpja.webapp.model.entities.Customer;
+import jpja.webapp.repositories.BookingRepository;
+import jpja.webapp.service.BookingService;
+import jpja.webapp.service.SlotCapacityIndex;
+
+/**
+ * Cancels a booking through the service, as the customer controller does, and
+ * checks that the status change, its outbox event and the freed slot all
+ * happen together.
+ */
+public class CancelBookingTest extends BookingJpaTest {
+    private static final LocalDate DATE = LocalDate.now().plusDays(7);
+    private static final LocalTime TIME = LocalTime.of(9, 0);
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private SlotCapacityIndex slotCapacityIndex;
+
+    private long bookingId;
+
+    @BeforeEach
+    void setUp() {
+        fixtures(fixtures -> {
+            BookingModifier unclaimed = fixtures.modifier("STATUS", "UNCLAIMED");
+            fixtures.modifier("STATUS", "CANCELED");
+            Customer customer = fixtures.customer();
+            bookingId = fixtures.booking(customer, null, fixtures.address(), DATE, TIME, 80.0, unclaimed).getId();
+        });
+        modifierRegistry.refresh();
+        slotCapacityIndex.rebuild();
+    }
+
+    @Test
+    void cancelRecordsOneEventAndReleasesTheSlot() {
+        assertEquals(1, slotCapacityIndex.occupancy(DATE, TIME));
+
+        assertTrue(bookingService.cancelBooking(bookingRepository.findById(bookingId).orElseThrow()));
+
+        assertEquals("CANCELED", jdbcTemplate.queryForObject(
+                "SELECT status FROM bookings WHERE id = " + bookingId, String.class));
+        assertEquals(List.of("UNCLAIMED->CANCELED"), jdbcTemplate.queryForList(
+                "SELECT CONCAT(from_status, '->', to_status) FROM booking_events WHERE booking_id = " + bookingId,
+                String.class));
+        assertEquals(0, slotCapacityIndex.occupancy(DATE, TIME));
+    }
+}
@@ -0,0 +1,87 @@
+package jpja.webapp.application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import jpja.webapp.application.helper.BookingJpaTest;
+import jpja.webapp.model.entities.Booking;
+import jpja.webapp.model.entities.BookingModifier;
+import jpja.webapp.model.entities.Customer;
+import jpja.webapp.model.entities.Vendor;
+import jpja.webapp.repositories.BookingRepository;
+import jpja.webapp.service.BookingService;
+
+public class ClaimBookingConcurrencyTest extends BookingJpaTest {
+    private static final int VENDORS = 16;
+    private static final int ROUNDS = 20;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private List<Vendor> vendors;
+    private List<Long> bookingIds;
+
+    @BeforeEach
+    void setUp() {
+        fixtures(fixtures -> {
+            BookingModifier unclaimed = fixtures.modifier("STATUS", "UNCLAIMED");
+            fixtures.modifier("STATUS", "CLAIMED");
+            Customer customer = fixtures.customer();
+            vendors = new ArrayList<>();
+            for (int i = 0; i < VENDORS; i++) {
+                vendors.add(fixtures.vendor());
+            }
+            bookingIds = new ArrayList<>();
+            for (int i = 0; i < ROUNDS; i++) {
+                Booking booking = fixtures.booking(customer, null, fixtures.address(), LocalDate.of(2030, 1, 1),
+                        LocalTime.of(9, 0), 50.0, unclaimed);
+                bookingIds.add(booking.getId());
+            }
+        });
+        modifierRegistry.refresh();
+    }
+
+    @Test
+    void exactlyOneConcurrentClaimWins() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(VENDORS);
+        try {
+            for (long bookingId : bookingIds) {
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Boolean>> claims = new ArrayList<>();
+                for (Vendor vendor : vendors) {
+                    claims.add(pool.submit(() -> {
+                        start.await();
+                        return bookingService.claimBooking(bookingId, vendor);
+                    }));
+                }
+                start.countDown();
+                int wins = 0;
+                for (Future<Boolean> claim : claims) {
+                    if (claim.get()) {
+                        wins++;
+                    }
+                }
+                assertEquals(1, wins, "booking " + bookingId);
+                Booking booking = bookingRepository.findById(bookingId).orElseThrow();
+                assertEquals("CLAIMED", booking.getStatusName());
+                assertEquals("CLAIMED", booking.getStatus().getName());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package jpja.webapp.application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jpja.webapp.service.DashboardLoader;
+
+/**
+ * Checks that dashboard sections load concurrently, that a page renders
+ * without the sections that fail or miss the deadline, and that a section
+ * holds its background slot exactly as long as its task runs.
+ */
+public class DashboardLoaderTest {
+
+    private static Object slow(long millis, Object value) throws InterruptedException {
+        Thread.sleep(millis);
+        return value;
+    }
+
+    @Test
+    void sectionsLoadConcurrently() {
+        DashboardLoader loader = new DashboardLoader(new SimpleMeterRegistry(), true, 16, 5000);
+        long started = System.nanoTime();
+        DashboardLoader.Load load = loader.start("test")
+                .fork("a", () -> slow(300, 1))
+                .fork("b", () -> slow(300, 2))
+                .fork("c", () -> slow(300, 3));
+
+        assertEquals(Map.of("a", 1, "b", 2, "c", 3), load.join());
+        assertTrue(System.nanoTime() - started < TimeUnit.MILLISECONDS.toNanos(800));
+        assertTrue(load.getUnavailable().isEmpty());
+    }
+
+    @Test
+    void failedAndLateSectionsAreLeftOut() throws InterruptedException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        DashboardLoader loader = new DashboardLoader(registry, true, 16, 200);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        DashboardLoader.Load load = loader.start("test")
+                .fork("fast", () -> "ok")
+                .fork("late", () -> {
+                    try {
+                        return slow(5000, "late");
+                    } catch (InterruptedException e) {
+                        interrupted.countDown();
+                        throw e;
+                    }
+                })
+                .fork("broken", () -> {
+                    throw new IllegalStateException("boom");
+                });
+
+        assertEquals(Map.of("fast", "ok"), load.join());
+        assertEquals(Set.of("late", "broken"), load.getUnavailable());
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+        assertEquals(2, registry.counter("dashboard.sections.unavailable", "page", "test").count());
+        assertEquals(1, registry.timer("dashboard.load", "page", "test").count());
+    }
+
+    @Test
+    void sectionsRunOnTheRequestThreadWhenNoSlotIsFree() {
+        Thread request = Thread.currentThread();
+        DashboardLoader sequential = new DashboardLoader(new SimpleMeterRegistry(), false, 16, 5000);
+        DashboardLoader oneSlot = new DashboardLoader(new SimpleMeterRegistry(), true, 1, 5000);
+
+        Map<String, Object> values = sequential.start("test")
+                .fork("a", () -> Thread.currentThread() == request)
+                .join();
+        assertEquals(Map.of("a", true), values);
+
+        values = oneSlot.start("test")
+                .fork("a", () -> slow(200, Thread.currentThread() == request))
+                .fork("b", () -> Thread.currentThread() == request)
+                .join();
+        assertEquals(Map.of("a", false, "b", true), values);
+    }
+
+    @Test
+    void sectionCancelledBeforeItStartsFreesItsSlot() {
+        ExecutorService oneThread = Executors.newSingleThreadExecutor();
+        CountDownLatch busy = new CountDownLatch(1);
+        oneThread.execute(() -> {
+            try {
+                busy.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        DashboardLoader loader = new DashboardLoader(new SimpleMeterRegistry(), true, 2, 100, oneThread);
+        try {
+            DashboardLoader.Load load = loader.start("test").fork("queued", () -> "never");
+            assertEquals(1, loader.getAvailableSlots());
+
+            assertEquals(Map.of(), load.join());
+            assertEquals(Set.of("queued"), load.getUnavailable());
+            assertEquals(2, loader.getAvailableSlots());
+        } finally {
+            busy.countDown();
+            oneThread.shutdown();
+        }
+    }
+
+    @Test
+    void cancelledSectionKeepsItsSlotUntilItsTaskReturns() throws InterruptedException {
+        DashboardLoader loader = new DashboardLoader(new SimpleMeterRegistry(), true, 2, 100);
+        CountDownLatch query = new CountDownLatch(1);
+        CountDownLatch returned = new CountDownLatch(1);
+        // Like a JDBC call, the section ignores the interrupt and keeps running.
+        DashboardLoader.Load load = loader.start("test").fork("stuck", () -> {
+            try {
+                while (true) {
+                    try {
+                        query.await();
+                        return "late";
+                    } catch (InterruptedException e) {
+                        // keep waiting
+                    }
+                }
+            } finally {
+                returned.countDown();
+            }
+        });
+
+        assertEquals(Map.of(), load.join());
+        assertEquals(Set.of("stuck"), load.getUnavailable());
+        assertEquals(1, loader.getAvailableSlots());
+
+        query.countDown();
+        assertTrue(returned.await(1, TimeUnit.SECONDS));
+        for (int i = 0; i < 100 && loader.getAvailableSlots() < 2; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(2, loader.getAvailableSlots());
+    }
+}
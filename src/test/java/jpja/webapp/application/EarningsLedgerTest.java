@@ -0,0 +1,96 @@
+package jpja.webapp.application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jpja.webapp.application.helper.BookingFixtures;
+import jpja.webapp.application.helper.BookingJpaTest;
+import jpja.webapp.model.entities.Address;
+import jpja.webapp.model.entities.BookingModifier;
+import jpja.webapp.model.entities.Customer;
+import jpja.webapp.model.entities.Vendor;
+import jpja.webapp.service.EarningsLedger;
+
+/**
+ * Checks that reconciliation corrects a drifted ledger without losing a
+ * status change that commits while it runs, and agrees with the ledger on
+ * rounding.
+ */
+public class EarningsLedgerTest extends BookingJpaTest {
+    private static final LocalDate DATE = LocalDate.of(2020, 1, 1);
+
+    @Autowired
+    private EarningsLedger earningsLedger;
+
+    private BookingModifier completed;
+    private Customer customer;
+    private Vendor vendor;
+    private Address address;
+
+    @BeforeEach
+    void setUp() {
+        fixtures(fixtures -> {
+            completed = fixtures.modifier("STATUS", "COMPLETED");
+            customer = fixtures.customer();
+            vendor = fixtures.vendor();
+            address = fixtures.address();
+        });
+    }
+
+    // Commits a COMPLETED booking and its ledger entry, as a status change would.
+    private void complete(double price) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            new BookingFixtures(em).booking(em.merge(customer), em.merge(vendor), em.merge(address), DATE,
+                    LocalTime.of(9, 0), price, em.merge(completed));
+            earningsLedger.recordStatusChange(vendor.getId(), EarningsLedger.toCents(price), null, "COMPLETED");
+        });
+    }
+
+    private long completedCents() {
+        return jdbcTemplate.queryForObject(
+                "SELECT completed_cents FROM vendor_earnings WHERE vendor_id = " + vendor.getId(), Long.class);
+    }
+
+    @Test
+    void ledgerAndReconciliationRoundAlike() {
+        for (double price : new double[] { 0.125, 1.005, 2.675, 10.995, 80.5 }) {
+            complete(price);
+        }
+        assertEquals(0, earningsLedger.reconcile());
+    }
+
+    @Test
+    void correctionWaitsForAStatusChangeInProgress() {
+        complete(100.0);
+        jdbcTemplate.update("UPDATE vendor_earnings SET completed_cents = completed_cents + 500");
+
+        // Hold the row lock with an uncommitted status change while reconciliation starts.
+        CompletableFuture<Integer> corrected = new TransactionTemplate(transactionManager).execute(status -> {
+            new BookingFixtures(em).booking(em.merge(customer), em.merge(vendor), em.merge(address), DATE,
+                    LocalTime.of(10, 0), 20.0, em.merge(completed));
+            earningsLedger.recordStatusChange(vendor.getId(), EarningsLedger.toCents(20.0), null, "COMPLETED");
+            CompletableFuture<Integer> reconciliation = CompletableFuture.supplyAsync(earningsLedger::reconcile);
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            assertFalse(reconciliation.isDone());
+            return reconciliation;
+        });
+
+        assertEquals(1, corrected.orTimeout(10, TimeUnit.SECONDS).join());
+        assertEquals(12000, completedCents());
+        assertEquals(0, earningsLedger.reconcile());
+    }
+}
@@ -0,0 +1,142 @@
+package jpja.webapp.application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServletResponse;
+import jpja.webapp.application.helper.JpaTestConfig;
+import jpja.webapp.filter.IdempotencyFilter;
+import jpja.webapp.repositories.IdempotencyRecordRepository;
+import jpja.webapp.service.IdempotencyStore;
+import jpja.webapp.service.IdempotencyStore.Lease;
+import jpja.webapp.service.IdempotencyStore.StoredResponse;
+
+/**
+ * Checks that requests sharing an idempotency key execute once, whether the
+ * duplicates arrive concurrently, later, or at another node.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(classes = JpaTestConfig.class)
+@ActiveProfiles("jpatest")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class IdempotencyTest {
+
+    @Autowired
+    private IdempotencyRecordRepository recordRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("TRUNCATE TABLE idempotency_keys");
+    }
+
+    // One node; each store has its own memory and shares the database.
+    private IdempotencyStore node(long waitMillis) {
+        return new IdempotencyStore(recordRepository, true, 100, 600, waitMillis, 10);
+    }
+
+    @Test
+    void concurrentDuplicatesWaitForTheFirstRequest() throws Exception {
+        IdempotencyStore store = node(5000);
+        Lease first = store.acquire("k");
+        assertNull(first.getReplay());
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            CountDownLatch started = new CountDownLatch(4);
+            List<Future<Lease>> duplicates = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                duplicates.add(pool.submit(() -> {
+                    started.countDown();
+                    return store.acquire("k");
+                }));
+            }
+            started.await();
+            Thread.sleep(50);
+            first.complete(new StoredResponse(302, "/customer/bookings", null, null));
+            for (Future<Lease> duplicate : duplicates) {
+                StoredResponse replay = duplicate.get(5, TimeUnit.SECONDS).getReplay();
+                assertNotNull(replay);
+                assertEquals("/customer/bookings", replay.getLocation());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(302, store.acquire("k").getReplay().getStatus());
+        assertEquals(1, store.getKeyCount());
+    }
+
+    @Test
+    void otherNodeReplaysFromTheDatabase() {
+        IdempotencyStore a = node(5000);
+        IdempotencyStore b = node(50);
+        Lease first = a.acquire("k");
+
+        assertThrows(IllegalStateException.class, () -> b.acquire("k"));
+
+        first.complete(new StoredResponse(200, null, "text/html", "done".getBytes()));
+        StoredResponse replay = b.acquire("k").getReplay();
+        assertEquals(200, replay.getStatus());
+        assertEquals("done", new String(replay.getBody()));
+    }
+
+    @Test
+    void releasedKeyExecutesAgain() {
+        IdempotencyStore a = node(5000);
+        IdempotencyStore b = node(5000);
+        a.acquire("k").release();
+
+        assertNull(b.acquire("k").getReplay());
+        assertEquals(0, a.getKeyCount());
+    }
+
+    @Test
+    void filterExecutesARepeatedPostOnce() throws Exception {
+        IdempotencyFilter filter = new IdempotencyFilter(node(5000), new SimpleMeterRegistry(), true, 65536);
+        AtomicInteger executions = new AtomicInteger();
+        List<MockHttpServletResponse> responses = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("POST", "/customer/schedule");
+            request.setParameter(IdempotencyFilter.PARAMETER, "abc123");
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(request, response, (req, res) -> {
+                executions.incrementAndGet();
+                ((HttpServletResponse) res).sendRedirect("/customer/bookings");
+            });
+            responses.add(response);
+        }
+
+        assertEquals(1, executions.get());
+        assertEquals(302, responses.get(1).getStatus());
+        assertEquals("/customer/bookings", responses.get(1).getRedirectedUrl());
+        assertEquals("true", responses.get(1).getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertNull(responses.get(0).getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    }
+}
@@ -0,0 +1,95 @@
+package jpja.webapp.application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+import jpja.webapp.application.helper.StubRepositories;
+import jpja.webapp.model.entities.BookingModifier;
+import jpja.webapp.repositories.ModifierRepository;
+import jpja.webapp.service.ModifierRegistry;
+
+/**
+ * Checks the registry's lookups and that a refresh swaps in a new snapshot
+ * without changing what earlier readers were handed.
+ */
+public class ModifierRegistryTest {
+    private final BookingModifier unclaimed = modifier(1, "STATUS", "UNCLAIMED");
+    private final BookingModifier canceled = modifier(2, "STATUS", "CANCELED");
+    private final BookingModifier standard = modifier(3, "TYPE", "STANDARD");
+    private final BookingModifier pendingPayout = modifier(4, "EXTRA", "PENDING_PAYOUT");
+
+    private final List<BookingModifier> table = new ArrayList<>(List.of(unclaimed, canceled, standard, pendingPayout));
+    private final ModifierRegistry registry = new ModifierRegistry(
+            StubRepositories.findAll(ModifierRepository.class, () -> table));
+
+    private static BookingModifier modifier(long id, String type, String name) {
+        BookingModifier modifier = new BookingModifier();
+        modifier.setId(id);
+        modifier.setType(type);
+        modifier.setName(name);
+        return modifier;
+    }
+
+    @Test
+    void findByTypeAndNameOnlyMatchesWithinTheType() {
+        registry.refresh();
+
+        assertEquals(Optional.of(unclaimed), registry.findByTypeAndName("STATUS", "UNCLAIMED"));
+        assertEquals(Optional.empty(), registry.findByTypeAndName("TYPE", "UNCLAIMED"));
+        assertEquals(Optional.empty(), registry.findByTypeAndName("OTHER", "UNCLAIMED"));
+        assertEquals(Optional.of(standard), registry.findById(3L));
+        assertEquals(Optional.empty(), registry.findById(null));
+    }
+
+    @Test
+    void combinedLookupAcceptsNamesAndTypedNames() {
+        registry.refresh();
+
+        assertEquals(Optional.of(unclaimed), registry.find("unclaimed"));
+        assertEquals(Optional.of(unclaimed), registry.find("STATUS_UNCLAIMED"));
+        // PENDING is not a type, so the whole string is looked up as a name.
+        assertEquals(Optional.of(pendingPayout), registry.find("PENDING_PAYOUT"));
+        assertEquals(Optional.empty(), registry.find("MISSING"));
+    }
+
+    @Test
+    void combinedLookupRejectsNamesSharedBySeveralTypes() {
+        BookingModifier extraCanceled = modifier(5, "EXTRA", "CANCELED");
+        table.add(extraCanceled);
+        registry.refresh();
+
+        assertThrows(IllegalArgumentException.class, () -> registry.find("CANCELED"));
+        assertEquals(Optional.of(canceled), registry.find("STATUS_CANCELED"));
+        assertEquals(Optional.of(extraCanceled), registry.find("EXTRA_CANCELED"));
+        assertEquals(List.of(canceled, extraCanceled), registry.findByName("CANCELED"));
+    }
+
+    @Test
+    void refreshSwapsInANewSnapshotAndRunsListeners() {
+        registry.refresh();
+        Collection<BookingModifier> statusesBefore = registry.findByType("STATUS");
+        List<Integer> seen = new ArrayList<>();
+        registry.addRefreshListener(() -> seen.add(registry.findByType("STATUS").size()));
+
+        BookingModifier claimed = modifier(6, "STATUS", "CLAIMED");
+        table.add(claimed);
+        table.remove(unclaimed);
+        registry.refresh();
+
+        assertEquals(List.of(2), seen);
+        assertEquals(Optional.of(claimed), registry.findByTypeAndName("STATUS", "CLAIMED"));
+        assertEquals(Optional.empty(), registry.findById(1L));
+        // A reader holding the old snapshot's view is unaffected by the swap.
+        assertEquals(2, statusesBefore.size());
+        assertTrue(statusesBefore.contains(unclaimed));
+        assertThrows(UnsupportedOperationException.class, () -> registry.findByType("STATUS").clear());
+    }
+}
@@ -0,0 +1,125 @@
+package jpja.webapp.application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import jpja.webapp.application.helper.JpaTestConfig;
+import jpja.webapp.model.entities.BookingEvent;
+import jpja.webapp.repositories.BookingEventRepository;
+import jpja.webapp.repositories.EventConsumerOffsetRepository;
+import jpja.webapp.service.BookingEventConsumer;
+import jpja.webapp.service.OutboxDispatcher;
+
+/**
+ * Checks that durable consumers share a stored offset while the others keep
+ * theirs in memory, starting from the newest event, and that only settled
+ * events the durable consumers have passed are deleted.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(classes = JpaTestConfig.class)
+@ActiveProfiles("jpatest")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class OutboxDispatcherTest {
+
+    @Autowired
+    private BookingEventRepository bookingEventRepository;
+    @Autowired
+    private EventConsumerOffsetRepository offsetRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("TRUNCATE TABLE booking_events RESTART IDENTITY");
+        jdbcTemplate.execute("TRUNCATE TABLE booking_event_offsets");
+    }
+
+    // Records the booking ids it is handed.
+    private static class Recorder implements BookingEventConsumer {
+        private final String name;
+        private final boolean durable;
+        private final List<Long> bookingIds = new ArrayList<>();
+
+        Recorder(String name, boolean durable) {
+            this.name = name;
+            this.durable = durable;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public boolean isDurable() {
+            return durable;
+        }
+
+        @Override
+        public void consume(List<BookingEvent> events) {
+            for (BookingEvent event : events) {
+                bookingIds.add(event.getBookingId());
+            }
+        }
+    }
+
+    private void record(long bookingId, int minutesAgo) {
+        jdbcTemplate.update("INSERT INTO booking_events (booking_id, from_status, to_status, created_at) "
+                + "VALUES (?, NULL, 'UNCLAIMED', DATEADD('MINUTE', ?, CURRENT_TIMESTAMP))", bookingId, -minutesAgo);
+    }
+
+    @Test
+    void localConsumerStartsAtTheNewestEventAndKeepsItsOffsetInMemory() {
+        record(1, 5);
+        record(2, 5);
+        Recorder durable = new Recorder("durable", true);
+        Recorder local = new Recorder("local", false);
+        OutboxDispatcher dispatcher = new OutboxDispatcher(bookingEventRepository, offsetRepository,
+                List.of(durable, local), 100, 60000);
+
+        dispatcher.dispatch();
+        record(3, 0);
+        dispatcher.dispatch();
+
+        assertEquals(List.of(1L, 2L, 3L), durable.bookingIds);
+        assertEquals(List.of(3L), local.bookingIds);
+        assertEquals(List.of("durable"), jdbcTemplate.queryForList(
+                "SELECT consumer FROM booking_event_offsets", String.class));
+    }
+
+    @Test
+    void onlySettledEventsPassedByDurableConsumersAreDeleted() {
+        record(1, 5);
+        record(2, 0);
+        Recorder durable = new Recorder("durable", true);
+        Recorder failing = new Recorder("failing", false) {
+            @Override
+            public void consume(List<BookingEvent> events) {
+                throw new IllegalStateException("down");
+            }
+        };
+        OutboxDispatcher dispatcher = new OutboxDispatcher(bookingEventRepository, offsetRepository,
+                List.of(durable, failing), 100, 60000);
+
+        dispatcher.dispatch();
+        record(3, 5);
+        dispatcher.dispatch();
+
+        assertEquals(List.of(1L, 2L, 3L), durable.bookingIds);
+        assertEquals(List.of(2L), jdbcTemplate.queryForList("SELECT booking_id FROM booking_events", Long.class));
+    }
+}
@@ -0,0 +1,138 @@
+package jpja.webapp.application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.ConcurrentTaskScheduler;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jpja.webapp.application.helper.BookingJpaTest;
+import jpja.webapp.model.entities.Address;
+import jpja.webapp.model.entities.BookingModifier;
+import jpja.webapp.model.entities.Customer;
+import jpja.webapp.model.entities.JobCheckpoint;
+import jpja.webapp.model.entities.Vendor;
+import jpja.webapp.repositories.JobCheckpointRepository;
+import jpja.webapp.service.BookingOutbox;
+import jpja.webapp.service.BulkStatusService;
+import jpja.webapp.service.EarningsLedger;
+import jpja.webapp.service.PastBookingSweeper;
+import jpja.webapp.service.VendorCalendarService;
+
+/**
+ * Checks that an interrupted sweep resumes after its saved keyset position
+ * without reprocessing the chunks before it, and that resuming runs off the
+ * startup thread and survives a rule that fails.
+ */
+public class PastBookingSweeperTest extends BookingJpaTest {
+    private static final LocalDate DAY_ONE = LocalDate.of(2020, 1, 1);
+    private static final LocalDate DAY_TWO = DAY_ONE.plusDays(1);
+    private static final LocalDate DAY_THREE = DAY_ONE.plusDays(2);
+
+    @Autowired
+    private JobCheckpointRepository checkpointRepository;
+    @Autowired
+    private EarningsLedger earningsLedger;
+    @Autowired
+    private BookingOutbox bookingOutbox;
+    @Autowired
+    private VendorCalendarService vendorCalendar;
+
+    private final List<Long> claimed = new ArrayList<>();
+    private long unclaimedId;
+
+    @BeforeEach
+    void setUp() {
+        fixtures(fixtures -> {
+            BookingModifier claimedStatus = fixtures.modifier("STATUS", "CLAIMED");
+            BookingModifier unclaimedStatus = fixtures.modifier("STATUS", "UNCLAIMED");
+            fixtures.modifier("STATUS", "COMPLETED");
+            fixtures.modifier("STATUS", "EXPIRED");
+            Customer customer = fixtures.customer();
+            Vendor vendor = fixtures.vendor();
+            Address address = fixtures.address();
+            // Two bookings on each of the first two days, sharing a date to exercise the id tie-break.
+            for (LocalDate date : List.of(DAY_ONE, DAY_ONE, DAY_TWO, DAY_TWO, DAY_THREE)) {
+                claimed.add(fixtures.booking(customer, vendor, address, date, LocalTime.of(9, claimed.size()), 10.0,
+                        claimedStatus).getId());
+            }
+            unclaimedId = fixtures.booking(customer, null, address, DAY_ONE, LocalTime.of(12, 0), 10.0,
+                    unclaimedStatus).getId();
+        });
+        modifierRegistry.refresh();
+    }
+
+    private PastBookingSweeper sweeper(ScheduledExecutorService scheduler) {
+        BulkStatusService bulkStatusService = new BulkStatusService(jdbcTemplate, transactionManager,
+                modifierRegistry, earningsLedger, bookingOutbox, vendorCalendar, 2);
+        return new PastBookingSweeper(jdbcTemplate, bulkStatusService, checkpointRepository,
+                new SimpleMeterRegistry(), new ConcurrentTaskScheduler(scheduler), 2);
+    }
+
+    // Saves the checkpoint a run leaves behind when it is stopped after the given booking.
+    private void interruptedAfter(String rule, LocalDate lastDate, long lastId, int moved) {
+        JobCheckpoint checkpoint = new JobCheckpoint(rule);
+        checkpoint.start(LocalDate.now());
+        checkpoint.advance(lastDate, lastId, moved);
+        checkpointRepository.save(checkpoint);
+    }
+
+    private String status(long id) {
+        return jdbcTemplate.queryForObject("SELECT status FROM bookings WHERE id = ?", String.class, id);
+    }
+
+    private List<Long> events() {
+        return jdbcTemplate.queryForList("SELECT booking_id FROM booking_events ORDER BY id", Long.class);
+    }
+
+    @Test
+    void interruptedRunResumesAfterItsLastChunk() {
+        // The first chunk's bookings are left CLAIMED: a resume that went back over them would move them.
+        interruptedAfter("sweep-CLAIMED", DAY_ONE, claimed.get(1), 2);
+
+        sweeper(null).resume();
+
+        assertEquals(List.of("CLAIMED", "CLAIMED", "COMPLETED", "COMPLETED", "COMPLETED"),
+                claimed.stream().map(this::status).toList());
+        assertEquals(claimed.subList(2, 5), events());
+        assertEquals("UNCLAIMED", status(unclaimedId));
+        JobCheckpoint checkpoint = checkpointRepository.findById("sweep-CLAIMED").orElseThrow();
+        assertFalse(checkpoint.isRunning());
+        assertEquals(5, checkpoint.getMoved());
+    }
+
+    @Test
+    void resumeRunsOnTheSchedulerAndSurvivesAFailedRule() throws InterruptedException {
+        // COMPLETED is missing, so the CLAIMED rule fails; the UNCLAIMED rule must still resume.
+        jdbcTemplate.update("DELETE FROM booking_modifiers WHERE name = 'COMPLETED'");
+        modifierRegistry.refresh();
+        interruptedAfter("sweep-CLAIMED", DAY_ONE, claimed.get(1), 2);
+        interruptedAfter("sweep-UNCLAIMED", DAY_ONE, 0, 0);
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+        try {
+            sweeper(scheduler).run(null);
+        } finally {
+            scheduler.shutdown();
+        }
+
+        assertTrue(scheduler.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals("EXPIRED", status(unclaimedId));
+        assertEquals(List.of("CLAIMED", "CLAIMED", "CLAIMED", "CLAIMED", "CLAIMED"),
+                claimed.stream().map(this::status).toList());
+        assertTrue(checkpointRepository.findById("sweep-CLAIMED").orElseThrow().isRunning());
+        assertFalse(checkpointRepository.findById("sweep-UNCLAIMED").orElseThrow().isRunning());
+    }
+}
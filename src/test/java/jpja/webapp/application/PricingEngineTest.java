@@ -0,0 +1,137 @@
+package jpja.webapp.application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import jpja.webapp.application.helper.StubRepositories;
+import jpja.webapp.model.entities.AddressType;
+import jpja.webapp.model.entities.BookingModifier;
+import jpja.webapp.model.entities.PricingRule;
+import jpja.webapp.repositories.AddressTypeRepository;
+import jpja.webapp.repositories.ModifierRepository;
+import jpja.webapp.repositories.PricingRuleRepository;
+import jpja.webapp.service.ModifierRegistry;
+import jpja.webapp.service.PricingEngine;
+
+/**
+ * Checks the prices quoted from the compiled rule table, and that the table
+ * follows changes to the rules and to the TYPE modifiers.
+ */
+public class PricingEngineTest {
+    private static final LocalDate MONDAY = LocalDate.of(2030, 1, 7);
+    private static final LocalDate SATURDAY = LocalDate.of(2030, 1, 12);
+    private static final long HOUSE = 10;
+    private static final long OFFICE = 11;
+
+    private final List<BookingModifier> modifiers = new ArrayList<>();
+    private final List<PricingRule> rules = new ArrayList<>();
+    private ModifierRegistry modifierRegistry;
+    private PricingEngine pricingEngine;
+    private BookingModifier standard;
+    private BookingModifier deep;
+
+    private static BookingModifier modifier(long id, String type, String name) {
+        BookingModifier modifier = new BookingModifier();
+        modifier.setId(id);
+        modifier.setType(type);
+        modifier.setName(name);
+        return modifier;
+    }
+
+    private static PricingRule rule(double basePrice, double perSqft, int priority) {
+        PricingRule rule = new PricingRule(basePrice, perSqft, priority);
+        rule.setId((long) priority + 100);
+        return rule;
+    }
+
+    @BeforeEach
+    void setUp() {
+        standard = modifier(1, "TYPE", "STANDARD");
+        deep = modifier(2, "TYPE", "DEEP");
+        modifiers.add(standard);
+        modifiers.add(deep);
+        modifiers.add(modifier(3, "STATUS", "UNCLAIMED"));
+        modifierRegistry = new ModifierRegistry(StubRepositories.findAll(ModifierRepository.class, () -> modifiers));
+        modifierRegistry.refresh();
+        List<AddressType> addressTypes = List.of(new AddressType(HOUSE, "HOUSE", null),
+                new AddressType(OFFICE, "OFFICE", null));
+        pricingEngine = new PricingEngine(StubRepositories.findAll(PricingRuleRepository.class, () -> rules),
+                StubRepositories.findAll(AddressTypeRepository.class, () -> addressTypes), modifierRegistry);
+    }
+
+    private double quote(BookingModifier type, long addressType, long sqft, LocalDate date, int leadDays) {
+        return pricingEngine.quote(type.getId(), addressType, sqft, date, date.minusDays(leadDays));
+    }
+
+    @Test
+    void highestPriorityMatchingRulePricesEachCell() {
+        rules.add(rule(50, 0.01, 0));
+        PricingRule deepClean = rule(100, 0.02, 10);
+        deepClean.setType(deep);
+        rules.add(deepClean);
+        PricingRule weekend = rule(70, 0, 5);
+        weekend.setWeekend(true);
+        rules.add(weekend);
+        PricingRule largeOffice = rule(200, 0.05, 20);
+        largeOffice.setAddressType(new AddressType(OFFICE, "OFFICE", null));
+        largeOffice.setMinSqft(2000L);
+        rules.add(largeOffice);
+        PricingRule rush = rule(150, 0, 30);
+        rush.setMaxLeadDays(2);
+        rules.add(rush);
+        pricingEngine.refresh();
+
+        assertEquals(60.0, quote(standard, HOUSE, 1000, MONDAY, 10));
+        assertEquals(120.0, quote(deep, HOUSE, 1000, MONDAY, 10));
+        assertEquals(70.0, quote(standard, HOUSE, 1000, SATURDAY, 10));
+        assertEquals(120.0, quote(deep, HOUSE, 1000, SATURDAY, 10));
+        assertEquals(65.0, quote(standard, OFFICE, 1500, MONDAY, 10));
+        assertEquals(325.0, quote(standard, OFFICE, 2500, MONDAY, 10));
+        assertEquals(300.0, quote(standard, OFFICE, 2000, MONDAY, 10));
+        assertEquals(150.0, quote(standard, OFFICE, 2500, MONDAY, 2));
+        assertEquals(150.0, quote(standard, HOUSE, 1000, MONDAY, 0));
+        assertEquals(60.0, quote(standard, HOUSE, 1000, MONDAY, 3));
+        assertEquals(50.0, pricingEngine.quote(0, 0, 0, MONDAY, MONDAY.minusDays(10)));
+    }
+
+    @Test
+    void cellsNoRuleMatchesQuoteZero() {
+        PricingRule deepClean = rule(100, 0, 10);
+        deepClean.setType(deep);
+        rules.add(deepClean);
+        pricingEngine.refresh();
+
+        assertEquals(100.0, quote(deep, HOUSE, 1000, MONDAY, 10));
+        assertEquals(0.0, quote(standard, HOUSE, 1000, MONDAY, 10));
+    }
+
+    @Test
+    void quotingWithoutRulesFails() {
+        pricingEngine.refresh();
+
+        assertThrows(IllegalStateException.class, () -> quote(standard, HOUSE, 1000, MONDAY, 10));
+    }
+
+    @Test
+    void registryRefreshRecompilesTheTable() {
+        BookingModifier window = modifier(4, "TYPE", "WINDOWS");
+        rules.add(rule(50, 0, 0));
+        PricingRule windows = rule(30, 0, 10);
+        windows.setType(window);
+        rules.add(windows);
+        pricingEngine.refresh();
+        assertEquals(50.0, quote(window, HOUSE, 1000, MONDAY, 10));
+
+        modifiers.add(window);
+        modifierRegistry.refresh();
+
+        assertEquals(30.0, quote(window, HOUSE, 1000, MONDAY, 10));
+    }
+}
@@ -0,0 +1,99 @@
+package jpja.webapp.application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.annotation.OrderUtils;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jpja.webapp.filter.RateLimitFilter;
+import jpja.webapp.filter.RequestLoggingFilter;
+import jpja.webapp.filter.RouteGroup;
+import jpja.webapp.service.LoggingService;
+
+/**
+ * Checks which requests count against the tight login and registration
+ * budgets, and that rejected requests still reach the request log.
+ */
+public class RateLimitFilterTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // One login and one registration attempt per client, then nothing for a minute.
+    private final RateLimitFilter filter = new RateLimitFilter(meterRegistry, true, 100, 1, 1, 1, 1, 1000, 1000);
+
+    // Answers every request with a 200, standing in for the controllers.
+    private static final HttpServlet OK = new HttpServlet() {
+        @Override
+        protected void service(HttpServletRequest request, HttpServletResponse response) {
+        }
+    };
+
+    private MockHttpServletResponse send(String method, String uri) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setRemoteAddr("203.0.113.7");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    @Test
+    void onlySubmissionsCountAgainstTheLoginAndRegistrationBudgets() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(200, send("GET", "/login").getStatus());
+            assertEquals(200, send("GET", "/register").getStatus());
+        }
+
+        assertEquals(200, send("POST", "/login").getStatus());
+        MockHttpServletResponse rejected = send("POST", "/login");
+        assertEquals(429, rejected.getStatus());
+        assertNotNull(rejected.getHeader("Retry-After"));
+        assertEquals(200, send("POST", "/register").getStatus());
+        assertEquals(429, send("POST", "/resend-verification").getStatus());
+        assertEquals(200, send("GET", "/login").getStatus());
+    }
+
+    @Test
+    void routesAreGroupedByMethodAndPath() {
+        assertEquals(RouteGroup.AUTH, RouteGroup.of("POST", "/login"));
+        assertEquals(RouteGroup.GENERAL, RouteGroup.of("GET", "/login"));
+        assertEquals(RouteGroup.REGISTRATION, RouteGroup.of("POST", "/register"));
+        assertEquals(RouteGroup.GENERAL, RouteGroup.of("GET", "/resend-verification"));
+        assertEquals(RouteGroup.REGISTRATION, RouteGroup.of("GET", "/verify"));
+        assertEquals(RouteGroup.GENERAL, RouteGroup.of("POST", "/customer/schedule"));
+        assertEquals(RouteGroup.GENERAL, RouteGroup.of("GET", null));
+    }
+
+    @Test
+    void rejectedRequestsAreLogged() throws Exception {
+        Integer logging = OrderUtils.getOrder(RequestLoggingFilter.class);
+        Integer limiting = OrderUtils.getOrder(RateLimitFilter.class);
+        assertTrue(logging != null && limiting != null && logging < limiting);
+
+        List<String> logged = new ArrayList<>();
+        LoggingService loggingService = new LoggingService(null, false, 1, 1000) {
+            @Override
+            public void logActivity(String ip, String method, String uri, String query, boolean error) {
+                logged.add(method + " " + uri + " " + error);
+            }
+        };
+        RequestLoggingFilter requestLogging = new RequestLoggingFilter(loggingService);
+        for (int i = 0; i < 2; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("POST", "/login");
+            request.setRemoteAddr("203.0.113.7");
+            new MockFilterChain(OK, requestLogging, filter)
+                    .doFilter(request, new MockHttpServletResponse());
+        }
+
+        assertEquals(List.of("POST /login false", "POST /login true"), logged);
+    }
+}
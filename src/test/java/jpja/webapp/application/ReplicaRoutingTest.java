@@ -0,0 +1,184 @@
+package jpja.webapp.application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jpja.webapp.config.ReplicaLagMonitor;
+import jpja.webapp.config.ReplicaRoutingConfig;
+
+/**
+ * Runs the replica routing configuration against two in-memory H2 databases
+ * standing in for the primary and the replica. Each holds a one-row
+ * {@code marker} table naming it, so a query shows where it was routed.
+ * Replication is simulated by copying the heartbeat by hand.
+ */
+public class ReplicaRoutingTest {
+    private static final String MARKER = "SELECT name FROM marker WHERE name IN ('primary', 'replica')";
+
+    private ApplicationContextRunner runner(long maxLagMillis) {
+        String suffix = UUID.randomUUID().toString();
+        return new ApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(DataSourceAutoConfiguration.class,
+                        DataSourceTransactionManagerAutoConfiguration.class, JdbcTemplateAutoConfiguration.class))
+                .withUserConfiguration(ReplicaRoutingConfig.class)
+                .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+                .withPropertyValues(
+                        "spring.datasource.url=jdbc:h2:mem:primary-" + suffix + ";DB_CLOSE_DELAY=-1",
+                        "spring.datasource.username=sa",
+                        "jpja.datasource.replica.url=jdbc:h2:mem:replica-" + suffix + ";DB_CLOSE_DELAY=-1",
+                        "jpja.datasource.replica.max-lag-ms=" + maxLagMillis);
+    }
+
+    // The same databases behind JPA, whose transaction manager is a JpaTransactionManager.
+    private ApplicationContextRunner jpaRunner() {
+        return runner(5000).withConfiguration(AutoConfigurations.of(HibernateJpaAutoConfiguration.class));
+    }
+
+    private static void seed(DataSource dataSource, String name) {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE IF NOT EXISTS marker (name VARCHAR(16))");
+        jdbc.update("INSERT INTO marker VALUES (?)", name);
+    }
+
+    // Copies the primary's heartbeat to the replica, aged by the given lag.
+    private static void replicate(DataSource primary, DataSource replica, long lagMillis) {
+        long beat = new JdbcTemplate(primary).queryForObject("SELECT beat_at FROM replica_heartbeat", Long.class);
+        JdbcTemplate jdbc = new JdbcTemplate(replica);
+        jdbc.execute("CREATE TABLE IF NOT EXISTS replica_heartbeat (id INT NOT NULL PRIMARY KEY, beat_at BIGINT NOT NULL)");
+        jdbc.update("DELETE FROM replica_heartbeat");
+        jdbc.update("INSERT INTO replica_heartbeat (id, beat_at) VALUES (1, ?)", beat - lagMillis);
+    }
+
+    private static String routedTo(PlatformTransactionManager transactionManager, JdbcTemplate jdbc, boolean readOnly) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(readOnly);
+        return tx.execute(status -> jdbc.queryForObject(MARKER, String.class));
+    }
+
+    private static String routedTo(PlatformTransactionManager transactionManager, EntityManager em, boolean readOnly) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(readOnly);
+        return tx.execute(status -> (String) em.createNativeQuery(MARKER).getSingleResult());
+    }
+
+    @Test
+    void readOnlyTransactionsGoToCurrentReplica() {
+        runner(5000).run(context -> {
+            DataSource primary = context.getBean("primaryDataSource", DataSource.class);
+            DataSource replica = context.getBean("replicaDataSource", DataSource.class);
+            seed(primary, "primary");
+            seed(replica, "replica");
+            ReplicaLagMonitor monitor = context.getBean(ReplicaLagMonitor.class);
+            replicate(primary, replica, 0);
+            monitor.check();
+            assertTrue(monitor.isReplicaUsable());
+
+            PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+            JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+            assertEquals("replica", routedTo(transactionManager, jdbc, true));
+            assertEquals("primary", routedTo(transactionManager, jdbc, false));
+            assertEquals("primary", jdbc.queryForObject(MARKER, String.class));
+
+            MeterRegistry meters = context.getBean(MeterRegistry.class);
+            assertEquals(1.0, meters.get("datasource.routing.connections").tag("target", "replica").counter().count());
+            assertEquals(1.0, meters.get("datasource.replica.usable").gauge().value());
+        });
+    }
+
+    @Test
+    void laggingOrMissingReplicaFallsBackToPrimary() {
+        runner(5000).run(context -> {
+            DataSource primary = context.getBean("primaryDataSource", DataSource.class);
+            DataSource replica = context.getBean("replicaDataSource", DataSource.class);
+            seed(primary, "primary");
+            seed(replica, "replica");
+            ReplicaLagMonitor monitor = context.getBean(ReplicaLagMonitor.class);
+            PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+            JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+
+            // No heartbeat has reached the replica yet.
+            assertFalse(monitor.isReplicaUsable());
+            assertEquals("primary", routedTo(transactionManager, jdbc, true));
+
+            replicate(primary, replica, 60_000);
+            monitor.check();
+            assertFalse(monitor.isReplicaUsable());
+            assertTrue(monitor.getLagMillis() >= 60_000);
+            assertEquals("primary", routedTo(transactionManager, jdbc, true));
+
+            replicate(primary, replica, 0);
+            monitor.check();
+            assertEquals("replica", routedTo(transactionManager, jdbc, true));
+
+            MeterRegistry meters = context.getBean(MeterRegistry.class);
+            assertEquals(2.0, meters.get("datasource.routing.fallbacks").counter().count());
+        });
+    }
+
+    @Test
+    void eachTransactionOfAnOpenEntityManagerIsRoutedOnItsOwn() {
+        jpaRunner().run(context -> {
+            DataSource primary = context.getBean("primaryDataSource", DataSource.class);
+            DataSource replica = context.getBean("replicaDataSource", DataSource.class);
+            seed(primary, "primary");
+            seed(replica, "replica");
+            replicate(primary, replica, 0);
+            context.getBean(ReplicaLagMonitor.class).check();
+            PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+            assertInstanceOf(JpaTransactionManager.class, transactionManager);
+
+            // Bound for the whole "request", as the open-in-view interceptor does.
+            EntityManagerFactory emf = context.getBean(EntityManagerFactory.class);
+            EntityManager em = emf.createEntityManager();
+            TransactionSynchronizationManager.bindResource(emf, new EntityManagerHolder(em));
+            try {
+                assertEquals("replica", routedTo(transactionManager, em, true));
+                new TransactionTemplate(transactionManager).executeWithoutResult(
+                        status -> em.createNativeQuery("INSERT INTO marker VALUES ('written')").executeUpdate());
+                assertEquals("primary", routedTo(transactionManager, em, false));
+                assertEquals("replica", routedTo(transactionManager, em, true));
+            } finally {
+                TransactionSynchronizationManager.unbindResource(emf);
+                em.close();
+            }
+            assertEquals(1, new JdbcTemplate(primary).queryForObject(
+                    "SELECT COUNT(*) FROM marker WHERE name = 'written'", Integer.class));
+        });
+    }
+
+    @Test
+    void withoutReplicaUrlNothingIsRouted() {
+        new ApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(DataSourceAutoConfiguration.class))
+                .withUserConfiguration(ReplicaRoutingConfig.class)
+                .withPropertyValues("spring.datasource.url=jdbc:h2:mem:single-" + UUID.randomUUID())
+                .run(context -> {
+                    assertFalse(context.containsBean("replicaDataSource"));
+                    assertEquals(1, context.getBeansOfType(DataSource.class).size());
+                });
+    }
+}
@@ -0,0 +1,195 @@
+package jpja.webapp.application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jpja.webapp.application.helper.BookingFixtures;
+import jpja.webapp.application.helper.JpaTestConfig;
+import jpja.webapp.config.SecondLevelCacheConfig;
+import jpja.webapp.model.entities.AddressType;
+import jpja.webapp.repositories.AddressTypeRepository;
+
+/**
+ * Checks that cached reference entities are served from the second-level
+ * cache without touching the database, and that changes made through JPA
+ * replace or evict the cached copy instead of leaving it stale. Regions are
+ * capped at two entries so eviction can be checked with a few rows.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(classes = JpaTestConfig.class)
+@Import({ SecondLevelCacheConfig.class, SecondLevelCacheTest.Meters.class })
+@ActiveProfiles("jpatest")
+@TestPropertySource(properties = "jpja.cache.l2.max-entries=2")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class SecondLevelCacheTest {
+    private static final String REGION = AddressType.class.getName();
+
+    @TestConfiguration
+    static class Meters {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private EntityManager em;
+    @Autowired
+    private EntityManagerFactory emf;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private AddressTypeRepository addressTypeRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+    private long homeId;
+
+    @BeforeEach
+    void setUp() {
+        homeId = inTransaction(() -> new BookingFixtures(em).addressType("HOME").getId());
+        emf.getCache().evictAll();
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        jdbcTemplate.execute("TRUNCATE TABLE address_types");
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+        emf.getCache().evictAll();
+    }
+
+    private <T> T inTransaction(Supplier<T> work) {
+        return new TransactionTemplate(transactionManager).execute(status -> work.get());
+    }
+
+    // Loads the address type in a new persistence context, as a new request would.
+    private AddressType load() {
+        return load(homeId);
+    }
+
+    private AddressType load(long id) {
+        return inTransaction(() -> em.find(AddressType.class, id));
+    }
+
+    private double hits() {
+        return meterRegistry.get("hibernate.cache.requests").tag("region", REGION).tag("result", "hit")
+                .functionCounter().count();
+    }
+
+    @Test
+    void secondLoadIsServedFromTheCache() {
+        load();
+        assertEquals(1, statistics.getSecondLevelCacheMissCount());
+        assertTrue(emf.getCache().contains(AddressType.class, homeId));
+
+        statistics.clear();
+        AddressType cached = load();
+
+        assertEquals("HOME", cached.getName());
+        assertEquals(1, statistics.getSecondLevelCacheHitCount());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1.0, hits());
+    }
+
+    @Test
+    void updateReplacesTheCachedEntry() {
+        load();
+        inTransaction(() -> {
+            em.find(AddressType.class, homeId).setDescription("Single family home");
+            return null;
+        });
+
+        statistics.clear();
+        AddressType reloaded = load();
+
+        assertEquals("Single family home", reloaded.getDescription());
+        assertEquals(1, statistics.getSecondLevelCacheHitCount());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void bulkUpdateEvictsTheCachedEntry() {
+        load();
+        inTransaction(() -> em.createQuery("UPDATE AddressType t SET t.description = 'Bulk' WHERE t.id = :id")
+                .setParameter("id", homeId).executeUpdate());
+
+        assertFalse(emf.getCache().contains(AddressType.class, homeId));
+        statistics.clear();
+        AddressType reloaded = load();
+
+        assertEquals("Bulk", reloaded.getDescription());
+        assertEquals(0, statistics.getSecondLevelCacheHitCount());
+        assertEquals(1, statistics.getSecondLevelCacheMissCount());
+    }
+
+    @Test
+    void updateInvalidatesCachedQueryResults() {
+        inTransaction(() -> addressTypeRepository.findAll());
+        statistics.clear();
+        List<AddressType> cached = inTransaction(() -> addressTypeRepository.findAll());
+        assertEquals(1, cached.size());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        inTransaction(() -> new BookingFixtures(em).addressType("OFFICE"));
+        statistics.clear();
+        List<AddressType> reloaded = inTransaction(() -> addressTypeRepository.findAll());
+
+        assertEquals(2, reloaded.size());
+        assertEquals(0, statistics.getQueryCacheHitCount());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void fullRegionEvictsTheLeastRecentlyUsedEntry() {
+        long officeId = inTransaction(() -> new BookingFixtures(em).addressType("OFFICE").getId());
+        long storeId = inTransaction(() -> new BookingFixtures(em).addressType("STORE").getId());
+        emf.getCache().evictAll();
+        load();
+        load(officeId);
+        load();
+
+        load(storeId);
+
+        assertTrue(emf.getCache().contains(AddressType.class, homeId));
+        assertFalse(emf.getCache().contains(AddressType.class, officeId));
+        assertTrue(emf.getCache().contains(AddressType.class, storeId));
+        assertEquals(1.0, meterRegistry.get("hibernate.cache.evictions").tag("region", REGION)
+                .functionCounter().count());
+    }
+}
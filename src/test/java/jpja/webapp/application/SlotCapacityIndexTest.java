@@ -0,0 +1,87 @@
+package jpja.webapp.application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import jpja.webapp.repositories.BookingRepository;
+import jpja.webapp.repositories.BookingRepository.SlotTime;
+import jpja.webapp.service.SlotCapacityIndex;
+
+/**
+ * Checks that reservations taken or released while the index is rebuilt
+ * survive the rebuild.
+ */
+public class SlotCapacityIndexTest {
+    private static final LocalDate DATE = LocalDate.now().plusDays(7);
+    private static final LocalTime NINE = LocalTime.of(9, 0);
+    private static final LocalTime TEN = LocalTime.of(10, 0);
+
+    private final List<SlotTime> stored = new ArrayList<>();
+    private Runnable duringRead = () -> { };
+
+    // A repository holding the stored slot times, running duringRead while the rebuild reads them.
+    private final BookingRepository repository = (BookingRepository) Proxy.newProxyInstance(
+            BookingRepository.class.getClassLoader(), new Class<?>[] { BookingRepository.class },
+            (proxy, method, args) -> {
+                if (!method.getName().equals("findSlotTimes")) {
+                    throw new UnsupportedOperationException(method.getName());
+                }
+                duringRead.run();
+                return new ArrayList<>(stored);
+            });
+
+    private static SlotTime at(LocalDate date, LocalTime time) {
+        return new SlotTime() {
+            @Override
+            public LocalDate getBookingDate() {
+                return date;
+            }
+
+            @Override
+            public LocalTime getBookingTime() {
+                return time;
+            }
+        };
+    }
+
+    @Test
+    void rebuildKeepsReservationsTakenWhileReading() {
+        SlotCapacityIndex index = new SlotCapacityIndex(repository, 60, 2);
+        stored.add(at(DATE, NINE));
+        index.rebuild();
+        assertTrue(index.tryReserve(DATE, TEN));
+
+        duringRead = () -> {
+            assertTrue(index.tryReserve(DATE, NINE));
+            index.release(DATE, TEN);
+        };
+        index.rebuild();
+
+        assertEquals(2, index.occupancy(DATE, NINE));
+        assertFalse(index.tryReserve(DATE, NINE));
+        assertEquals(0, index.occupancy(DATE, TEN));
+    }
+
+    @Test
+    void rebuildDropsReservationsMissingFromTheDatabase() {
+        SlotCapacityIndex index = new SlotCapacityIndex(repository, 60, 2);
+        assertTrue(index.tryReserve(DATE, NINE));
+        assertTrue(index.tryReserve(DATE, TEN));
+
+        index.rebuild();
+
+        assertEquals(0, index.occupancy(DATE, NINE));
+        assertEquals(0, index.occupancy(DATE, TEN));
+        assertTrue(index.tryReserve(DATE, NINE));
+        assertEquals(1, index.occupancy(DATE, NINE));
+    }
+}
@@ -0,0 +1,90 @@
+package jpja.webapp.application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jpja.webapp.application.helper.BookingJpaTest;
+import jpja.webapp.model.dto.NewBookingDTO;
+import jpja.webapp.model.entities.BookingModifier;
+import jpja.webapp.model.entities.Customer;
+import jpja.webapp.model.entities.PricingRule;
+import jpja.webapp.repositories.BookingRepository;
+import jpja.webapp.service.BookingService;
+import jpja.webapp.service.SlotCapacityIndex;
+
+/**
+ * Checks that a slot reserved by a booking change is handed back when the
+ * transaction making the change rolls back, wherever it fails.
+ */
+public class SlotReservationTest extends BookingJpaTest {
+    private static final LocalDate DATE = LocalDate.now().plusDays(14);
+    private static final LocalTime TIME = LocalTime.of(9, 0);
+    private static final LocalTime LATER = LocalTime.of(13, 0);
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private SlotCapacityIndex slotCapacityIndex;
+
+    private Customer customer;
+    private long addressId;
+    private long typeId;
+    private long bookingId;
+
+    @BeforeEach
+    void setUp() {
+        fixtures(fixtures -> {
+            BookingModifier unclaimed = fixtures.modifier("STATUS", "UNCLAIMED");
+            typeId = fixtures.modifier("TYPE", "STANDARD").getId();
+            em.persist(new PricingRule(80.0, 0, 0));
+            customer = fixtures.customer();
+            addressId = fixtures.address().getId();
+            bookingId = fixtures.booking(customer, null, fixtures.address(), DATE, TIME, 80.0, unclaimed).getId();
+        });
+        modifierRegistry.refresh();
+        slotCapacityIndex.rebuild();
+    }
+
+    @Test
+    void createdBookingThatRollsBackReleasesItsSlot() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            bookingService.createBooking(new NewBookingDTO(DATE, LATER, addressId, typeId), em.merge(customer));
+            assertEquals(1, slotCapacityIndex.occupancy(DATE, LATER));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(0, slotCapacityIndex.occupancy(DATE, LATER));
+        assertEquals(1, bookingRepository.count());
+    }
+
+    @Test
+    void modificationThatRollsBackRestoresTheOldSlot() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            assertTrue(bookingService.modifyBooking(bookingRepository.findById(bookingId).orElseThrow(), DATE, LATER));
+            assertEquals(0, slotCapacityIndex.occupancy(DATE, TIME));
+            assertEquals(1, slotCapacityIndex.occupancy(DATE, LATER));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(1, slotCapacityIndex.occupancy(DATE, TIME));
+        assertEquals(0, slotCapacityIndex.occupancy(DATE, LATER));
+    }
+
+    @Test
+    void committedCreationKeepsItsSlot() {
+        bookingService.createBooking(new NewBookingDTO(DATE, LATER, addressId, typeId), customer);
+
+        assertEquals(1, slotCapacityIndex.occupancy(DATE, LATER));
+        assertEquals(2, bookingRepository.count());
+    }
+}
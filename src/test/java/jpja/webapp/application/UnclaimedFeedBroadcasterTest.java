@@ -0,0 +1,226 @@
+package jpja.webapp.application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import jpja.webapp.model.dto.FeedEventDTO;
+import jpja.webapp.service.UnclaimedFeedBroadcaster;
+
+/**
+ * Connects clients to the unclaimed feed through a mock servlet stack and
+ * reads the events written to their responses: replay after a reconnect, a
+ * RESET when the missed events are gone, and disconnecting a client that
+ * stops reading.
+ */
+public class UnclaimedFeedBroadcasterTest {
+    private static final Pattern EVENT = Pattern.compile("id:(\\d+)\nevent:(\\w+)\n");
+
+    private UnclaimedFeedBroadcaster broadcaster;
+    private MockMvc mvc;
+    // Holds every write to a client while closed, as a full socket buffer would.
+    private volatile CountDownLatch gate = new CountDownLatch(0);
+
+    @RestController
+    static final class FeedController {
+        private final UnclaimedFeedBroadcaster broadcaster;
+
+        FeedController(UnclaimedFeedBroadcaster broadcaster) {
+            this.broadcaster = broadcaster;
+        }
+
+        @GetMapping("/feed")
+        SseEmitter feed(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+            return broadcaster.subscribe(lastEventId);
+        }
+    }
+
+    private void start(int historySize, int clientBuffer) {
+        if (broadcaster != null) {
+            broadcaster.shutdown();
+        }
+        broadcaster = new UnclaimedFeedBroadcaster(historySize, clientBuffer, 60_000);
+        Filter gated = (req, res, chain) -> chain.doFilter(req, new GatedResponse((HttpServletResponse) res));
+        mvc = MockMvcBuilders.standaloneSetup(new FeedController(broadcaster)).addFilters(gated).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        gate.countDown();
+        broadcaster.shutdown();
+    }
+
+    private MvcResult connect(Long lastEventId) throws Exception {
+        return mvc.perform(lastEventId == null ? get("/feed") : get("/feed").header("Last-Event-ID", lastEventId))
+                .andExpect(request().asyncStarted()).andReturn();
+    }
+
+    private void publish(int count) {
+        for (int i = 0; i < count; i++) {
+            broadcaster.bookingRemoved(100 + i);
+        }
+    }
+
+    // The "id:type" of every event written so far, waiting until there are at least the expected number.
+    private static List<String> events(MvcResult result, int expected) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (true) {
+            List<String> events = new ArrayList<>();
+            Matcher matcher = EVENT.matcher(result.getResponse().getContentAsString());
+            while (matcher.find()) {
+                events.add(matcher.group(1) + ":" + matcher.group(2));
+            }
+            if (events.size() >= expected || System.nanoTime() > deadline) {
+                return events;
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void reconnectReplaysTheMissedEvents() throws Exception {
+        start(16, 8);
+        publish(3);
+
+        MvcResult result = connect(1L);
+        publish(1);
+
+        assertEquals(List.of("2:" + FeedEventDTO.REMOVED, "3:" + FeedEventDTO.REMOVED, "4:" + FeedEventDTO.REMOVED),
+                events(result, 3));
+    }
+
+    @Test
+    void newClientOnlyReceivesNewEvents() throws Exception {
+        start(16, 8);
+        publish(2);
+
+        MvcResult result = connect(null);
+        publish(1);
+
+        assertEquals(List.of("3:" + FeedEventDTO.REMOVED), events(result, 1));
+    }
+
+    @Test
+    void reconnectPastTheHistoryIsReset() throws Exception {
+        start(3, 8);
+        publish(6);
+
+        MvcResult result = connect(1L);
+        publish(1);
+
+        assertEquals(List.of("6:" + FeedEventDTO.RESET, "7:" + FeedEventDTO.REMOVED), events(result, 2));
+    }
+
+    @Test
+    void reconnectFurtherBehindThanTheBufferIsReset() throws Exception {
+        start(16, 2);
+        publish(5);
+
+        assertEquals(List.of("5:" + FeedEventDTO.RESET), events(connect(1L), 1));
+    }
+
+    @Test
+    void reconnectAfterARestartIsReset() throws Exception {
+        start(16, 8);
+        publish(5);
+        start(16, 8);
+        publish(1);
+
+        assertEquals(List.of("1:" + FeedEventDTO.RESET), events(connect(5L), 1));
+    }
+
+    @Test
+    void clientThatStopsReadingIsClosed() throws Exception {
+        start(16, 2);
+        MvcResult slow = connect(null);
+        gate = new CountDownLatch(1);
+
+        // One event is stuck in the write and two fill the buffer; the fourth does not fit.
+        publish(4);
+
+        assertEquals(0, broadcaster.getSubscriberCount());
+        gate.countDown();
+        slow.getAsyncResult(5_000);
+        MvcResult fresh = connect(4L);
+        publish(1);
+        assertEquals(List.of("5:" + FeedEventDTO.REMOVED), events(fresh, 1));
+        assertEquals(1, broadcaster.getSubscriberCount());
+    }
+
+    // Blocks writes to the response body while the gate is closed.
+    private final class GatedResponse extends HttpServletResponseWrapper {
+        private ServletOutputStream out;
+
+        GatedResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (out == null) {
+                ServletOutputStream body = super.getOutputStream();
+                out = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        await();
+                        body.write(b);
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        await();
+                        body.write(b, off, len);
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        body.flush();
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return body.isReady();
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener listener) {
+                        body.setWriteListener(listener);
+                    }
+                };
+            }
+            return out;
+        }
+
+        private void await() throws IOException {
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package jpja.webapp.application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+
+import jakarta.persistence.EntityManager;
+import jpja.webapp.application.helper.BookingFixtures;
+import jpja.webapp.application.helper.JpaTestConfig;
+import jpja.webapp.model.entities.Address;
+import jpja.webapp.model.entities.Booking;
+import jpja.webapp.model.entities.Customer;
+import jpja.webapp.model.entities.Vendor;
+import jpja.webapp.repositories.BookingRepository;
+import jpja.webapp.repositories.BookingRow;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(classes = JpaTestConfig.class)
+@ActiveProfiles("jpatest")
+public class UpcomingBookingsTest {
+    private static final LocalDate TODAY = LocalDate.of(2025, 6, 15);
+    private static final LocalTime NOW = LocalTime.NOON;
+    private static final Comparator<Booking> ORDER = Comparator.comparing(Booking::getBookingDate)
+            .thenComparing(Booking::getBookingTime).thenComparing(Booking::getId);
+
+    @Autowired
+    private EntityManager em;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private Customer customer;
+    private Vendor vendor;
+    private List<Booking> history;
+
+    @BeforeEach
+    void setUp() {
+        BookingFixtures fixtures = new BookingFixtures(em);
+        customer = fixtures.customer();
+        vendor = fixtures.vendor();
+        Customer otherCustomer = fixtures.customer();
+        Vendor otherVendor = fixtures.vendor();
+        Address address = fixtures.address();
+        // Six years of history, daily, plus a few months ahead.
+        history = fixtures.history(customer, vendor, address, TODAY.minusYears(6), TODAY.plusMonths(3), 1);
+        fixtures.history(otherCustomer, otherVendor, address, TODAY.minusYears(2), TODAY.plusMonths(3), 1);
+    }
+
+    private List<Booking> expectedUpcoming(int limit) {
+        return history.stream()
+                .filter(b -> b.getBookingDate().isAfter(TODAY)
+                        || (b.getBookingDate().isEqual(TODAY) && b.getBookingTime().isAfter(NOW)))
+                .sorted(ORDER)
+                .limit(limit)
+                .toList();
+    }
+
+    private static List<Long> ids(List<Booking> bookings) {
+        return bookings.stream().map(Booking::getId).toList();
+    }
+
+    private static List<Long> rowIds(List<BookingRow> rows) {
+        return rows.stream().map(BookingRow::getId).toList();
+    }
+
+    @Test
+    void customerUpcomingMatchesJavaFilter() {
+        List<BookingRow> upcoming = bookingRepository.findUpcomingRowsByCustomer(customer.getId(), TODAY, NOW,
+                Limit.of(1000));
+        assertTrue(history.size() > 2000);
+        assertEquals(ids(expectedUpcoming(1000)), rowIds(upcoming));
+    }
+
+    @Test
+    void vendorUpcomingMatchesJavaFilter() {
+        List<BookingRow> upcoming = bookingRepository.findUpcomingRowsByVendor(vendor.getId(), TODAY, NOW,
+                Limit.of(1000));
+        assertEquals(ids(expectedUpcoming(1000)), rowIds(upcoming));
+    }
+
+    @Test
+    void limitReturnsSoonestFirst() {
+        List<BookingRow> upcoming = bookingRepository.findUpcomingRowsByCustomer(customer.getId(), TODAY, NOW,
+                Limit.of(5));
+        assertEquals(ids(expectedUpcoming(5)), rowIds(upcoming));
+    }
+
+    @Test
+    void sameDayBoundaryExcludesEarlierSlot() {
+        // TODAY has a single slot; it is upcoming only when it is after NOW.
+        Booking todays = history.stream().filter(b -> b.getBookingDate().isEqual(TODAY)).findFirst().orElseThrow();
+        List<BookingRow> before = bookingRepository.findUpcomingRowsByCustomer(customer.getId(), TODAY,
+                todays.getBookingTime().minusMinutes(1), Limit.of(1));
+        List<BookingRow> after = bookingRepository.findUpcomingRowsByCustomer(customer.getId(), TODAY,
+                todays.getBookingTime(), Limit.of(1));
+        assertEquals(todays.getId(), before.get(0).getId());
+        assertTrue(after.get(0).getBookingDate().isAfter(TODAY));
+    }
+}
@@ -0,0 +1,124 @@
+package jpja.webapp.application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import jpja.webapp.application.helper.BookingJpaTest;
+import jpja.webapp.model.entities.Booking;
+import jpja.webapp.model.entities.BookingModifier;
+import jpja.webapp.model.entities.Customer;
+import jpja.webapp.model.entities.Vendor;
+import jpja.webapp.repositories.BookingRepository;
+import jpja.webapp.service.BookingService;
+import jpja.webapp.service.VendorCalendarService;
+import jpja.webapp.service.VendorCalendarService.Cell;
+import jpja.webapp.service.VendorCalendarService.Day;
+import jpja.webapp.service.VendorCalendarService.Week;
+
+/**
+ * Checks that calendar weeks are served from the cache until a booking in
+ * that week is claimed, modified or changes status, and only then.
+ */
+public class VendorCalendarTest extends BookingJpaTest {
+    // A Monday, more than a day ahead so bookings can be moved to it.
+    private static final LocalDate WEEK = VendorCalendarService.weekStart(LocalDate.now().plusWeeks(2));
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private VendorCalendarService vendorCalendar;
+
+    private Vendor vendor;
+    private long claimedId;
+    private long unclaimedId;
+    private long nextWeekId;
+
+    @BeforeEach
+    void setUp() {
+        fixtures(fixtures -> {
+            BookingModifier unclaimed = fixtures.modifier("STATUS", "UNCLAIMED");
+            BookingModifier claimed = fixtures.modifier("STATUS", "CLAIMED");
+            fixtures.modifier("STATUS", "COMPLETED");
+            fixtures.modifier("STATUS", "CANCELED");
+            Customer customer = fixtures.customer();
+            vendor = fixtures.vendor();
+            claimedId = fixtures.booking(customer, vendor, fixtures.address(), WEEK.plusDays(1), LocalTime.of(9, 0),
+                    80.0, claimed).getId();
+            unclaimedId = fixtures.booking(customer, null, fixtures.address(), WEEK.plusDays(3), LocalTime.of(10, 0),
+                    80.0, unclaimed).getId();
+            nextWeekId = fixtures.booking(customer, vendor, fixtures.address(), WEEK.plusDays(8), LocalTime.of(9, 0),
+                    80.0, claimed).getId();
+        });
+        modifierRegistry.refresh();
+    }
+
+    private static List<Long> ids(Week week) {
+        List<Long> ids = new ArrayList<>();
+        for (Day day : week.getDays()) {
+            for (Cell cell : day.getCells()) {
+                ids.add(cell.getBookingId());
+            }
+        }
+        return ids;
+    }
+
+    private Booking load(long id) {
+        return bookingRepository.findById(id).orElseThrow();
+    }
+
+    @Test
+    void weekIsCachedUntilOneOfItsBookingsChanges() {
+        Week week = vendorCalendar.getWeek(vendor.getId(), WEEK.plusDays(4));
+        assertEquals(WEEK, week.getStart());
+        assertEquals(List.of(claimedId), ids(week));
+        assertEquals(LocalTime.of(9, 0), week.getDays().get(1).getCells().get(0).getTime());
+        assertSame(week, vendorCalendar.getWeek(vendor.getId(), WEEK));
+        Week nextWeek = vendorCalendar.getWeek(vendor.getId(), WEEK.plusWeeks(1));
+
+        assertTrue(bookingService.claimBooking(unclaimedId, vendor));
+        Week claimed = vendorCalendar.getWeek(vendor.getId(), WEEK);
+        assertNotSame(week, claimed);
+        assertEquals(List.of(claimedId, unclaimedId), ids(claimed));
+        assertSame(nextWeek, vendorCalendar.getWeek(vendor.getId(), WEEK.plusWeeks(1)));
+
+        assertTrue(bookingService.setBookingStatus(load(claimedId), "COMPLETED"));
+        Week completed = vendorCalendar.getWeek(vendor.getId(), WEEK);
+        assertNotSame(claimed, completed);
+        assertEquals("COMPLETED", completed.getDays().get(1).getCells().get(0).getStatus());
+    }
+
+    @Test
+    void modifiedBookingLeavesTheVendorsWeek() {
+        Week week = vendorCalendar.getWeek(vendor.getId(), WEEK);
+        Week nextWeek = vendorCalendar.getWeek(vendor.getId(), WEEK.plusWeeks(1));
+
+        assertTrue(bookingService.modifyBooking(load(nextWeekId), WEEK.plusDays(9), LocalTime.of(11, 0)));
+
+        assertSame(week, vendorCalendar.getWeek(vendor.getId(), WEEK));
+        assertEquals(List.of(), ids(vendorCalendar.getWeek(vendor.getId(), WEEK.plusWeeks(1))));
+        assertNotSame(nextWeek, vendorCalendar.getWeek(vendor.getId(), WEEK.plusWeeks(1)));
+    }
+
+    @Test
+    void monthCoversEveryOverlappingWeek() {
+        YearMonth month = YearMonth.from(WEEK);
+        List<Week> weeks = vendorCalendar.getMonth(vendor.getId(), month);
+        assertEquals(VendorCalendarService.weekStart(month.atDay(1)), weeks.get(0).getStart());
+        assertTrue(!weeks.get(weeks.size() - 1).getStart().plusDays(6).isBefore(month.atEndOfMonth()));
+        assertTrue(weeks.contains(vendorCalendar.getWeek(vendor.getId(), WEEK)));
+    }
+}
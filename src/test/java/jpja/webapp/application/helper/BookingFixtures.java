@@ -0,0 +1,108 @@
+package jpja.webapp.application.helper;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import jakarta.persistence.EntityManager;
+import jpja.webapp.model.entities.Address;
+import jpja.webapp.model.entities.AddressType;
+import jpja.webapp.model.entities.Booking;
+import jpja.webapp.model.entities.BookingModifier;
+import jpja.webapp.model.entities.Customer;
+import jpja.webapp.model.entities.Vendor;
+
+/**
+ * Builds synthetic users and booking histories for repository tests.
+ */
+public class BookingFixtures {
+    private final EntityManager em;
+    private int users;
+
+    public BookingFixtures(EntityManager em) {
+        this.em = em;
+    }
+
+    public Customer customer() {
+        users++;
+        Customer customer = new Customer("customer" + users + "@test", "customer" + users, "x", null);
+        customer.setRoles(new HashSet<>());
+        em.persist(customer);
+        return customer;
+    }
+
+    public Vendor vendor() {
+        users++;
+        Vendor vendor = new Vendor("vendor" + users + "@test", "vendor" + users, "x", null);
+        vendor.setRoles(new HashSet<>());
+        em.persist(vendor);
+        return vendor;
+    }
+
+    public BookingModifier modifier(String type, String name) {
+        BookingModifier modifier = new BookingModifier();
+        modifier.setType(type);
+        modifier.setName(name);
+        em.persist(modifier);
+        return modifier;
+    }
+
+    public AddressType addressType(String name) {
+        AddressType type = new AddressType(null, name, null);
+        em.persist(type);
+        return type;
+    }
+
+    public Address address(AddressType type) {
+        Address address = address();
+        address.addType(type);
+        return address;
+    }
+
+    public Address address() {
+        Address address = new Address();
+        address.setStreetNumber("1");
+        address.setStreetName("Main St");
+        address.setCity("Newark");
+        address.setZip("07102");
+        address.setState("NJ");
+        address.setTypes(new HashSet<>());
+        em.persist(address);
+        return address;
+    }
+
+    public Booking booking(Customer customer, Vendor vendor, Address location, LocalDate date, LocalTime time,
+            double price, BookingModifier... modifiers) {
+        Booking booking = new Booking(customer, vendor, location, LocalDateTime.now(), date, time, price,
+                new HashSet<>());
+        for (BookingModifier modifier : modifiers) {
+            booking.addModifier(modifier);
+        }
+        em.persist(booking);
+        return booking;
+    }
+
+    /**
+     * Persists one booking every {@code stepDays} days, alternating morning and
+     * afternoon slots, from {@code from} until {@code to} inclusive.
+     */
+    public List<Booking> history(Customer customer, Vendor vendor, Address location, LocalDate from, LocalDate to,
+            int stepDays) {
+        List<Booking> bookings = new ArrayList<>();
+        int i = 0;
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(stepDays)) {
+            LocalTime time = i++ % 2 == 0 ? LocalTime.of(9, 0) : LocalTime.of(14, 30);
+            bookings.add(booking(customer, vendor, location, date, time, 100.0));
+            if (bookings.size() % 500 == 0) {
+                em.flush();
+                em.clear();
+            }
+        }
+        em.flush();
+        em.clear();
+        return bookings;
+    }
+}
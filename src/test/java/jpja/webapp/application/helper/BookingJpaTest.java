@@ -0,0 +1,80 @@
+package jpja.webapp.application.helper;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.AfterEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManager;
+import jpja.webapp.service.AddressService;
+import jpja.webapp.service.BookingMatcher;
+import jpja.webapp.service.BookingOutbox;
+import jpja.webapp.service.BookingService;
+import jpja.webapp.service.EarningsLedger;
+import jpja.webapp.service.ModifierRegistry;
+import jpja.webapp.service.PricingEngine;
+import jpja.webapp.service.SlotCapacityIndex;
+import jpja.webapp.service.VendorCalendarService;
+import jpja.webapp.service.ZipCentroids;
+
+/**
+ * Base class for tests that run the booking services against the in-memory
+ * database of the {@code jpatest} profile. Every subclass shares one
+ * context holding {@link BookingService} and the services it depends on, so
+ * a new constructor dependency is added here once.
+ *
+ * <p>Tests are not wrapped in a transaction: the services commit their own,
+ * as they do in production, and every table is emptied after each test.</p>
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(classes = JpaTestConfig.class)
+@Import({ BookingService.class, ModifierRegistry.class, EarningsLedger.class, AddressService.class,
+        SlotCapacityIndex.class, BookingMatcher.class, ZipCentroids.class,
+        BookingOutbox.class, PricingEngine.class, VendorCalendarService.class })
+@ActiveProfiles("jpatest")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public abstract class BookingJpaTest {
+
+    @Autowired
+    protected EntityManager em;
+    @Autowired
+    protected PlatformTransactionManager transactionManager;
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+    @Autowired
+    protected ModifierRegistry modifierRegistry;
+
+    /**
+     * Builds fixtures in one committed transaction.
+     */
+    protected void fixtures(Consumer<BookingFixtures> setUp) {
+        inTransaction(fixtures -> {
+            setUp.accept(fixtures);
+            return null;
+        });
+    }
+
+    /**
+     * Runs work in one committed transaction and returns its result.
+     */
+    protected <T> T inTransaction(Function<BookingFixtures, T> work) {
+        return new TransactionTemplate(transactionManager).execute(status -> work.apply(new BookingFixtures(em)));
+    }
+
+    @AfterEach
+    protected void emptyTables() {
+        TestTables.truncateAll(jdbcTemplate);
+    }
+}
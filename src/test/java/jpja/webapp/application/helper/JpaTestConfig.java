@@ -0,0 +1,17 @@
+package jpja.webapp.application.helper;
+
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * Minimal configuration for repository tests. The application class scans
+ * every component, so slice tests point here instead to load only the
+ * entities and repositories against the in-memory database of the
+ * {@code jpatest} profile.
+ */
+@SpringBootConfiguration
+@EntityScan(basePackages = "jpja.webapp.model.entities")
+@EnableJpaRepositories(basePackages = "jpja.webapp.repositories")
+public class JpaTestConfig {
+}
@@ -0,0 +1,26 @@
+package jpja.webapp.application.helper;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Builds repository stubs for unit tests of services that only load whole
+ * tables. Any method other than findAll throws.
+ */
+public final class StubRepositories {
+
+    private StubRepositories() {
+    }
+
+    public static <R> R findAll(Class<R> repository, Supplier<? extends List<?>> rows) {
+        return repository.cast(Proxy.newProxyInstance(repository.getClassLoader(), new Class<?>[] { repository },
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("findAll") || method.getParameterCount() != 0) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    return new ArrayList<>(rows.get());
+                }));
+    }
+}
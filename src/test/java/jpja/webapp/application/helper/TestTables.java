@@ -0,0 +1,31 @@
+package jpja.webapp.application.helper;
+
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Resets the in-memory test database between tests that commit.
+ */
+public final class TestTables {
+
+    private TestTables() {
+    }
+
+    /**
+     * Empties every table of the current schema. Identity columns keep
+     * counting, so ids cached by an earlier test are never reused.
+     */
+    public static void truncateAll(JdbcTemplate jdbcTemplate) {
+        List<String> tables = jdbcTemplate.queryForList("SELECT table_name FROM information_schema.tables "
+                + "WHERE table_schema = CURRENT_SCHEMA AND table_type = 'BASE TABLE'", String.class);
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        try {
+            for (String table : tables) {
+                jdbcTemplate.execute("TRUNCATE TABLE " + table);
+            }
+        } finally {
+            jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+        }
+    }
+}